@@ -0,0 +1,21 @@
+package com.example.project;
+
+import android.os.SystemClock;
+
+/**
+ * Clock backed by the Android system clocks
+ * elapsedRealtime() keeps counting in deep sleep, matching the ELAPSED_REALTIME alarms
+ * used by PhaseAlarmScheduler
+ */
+public class AndroidClock implements Clock {
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long elapsedRealtime() {
+        return SystemClock.elapsedRealtime();
+    }
+}
@@ -1,25 +1,66 @@
 package com.example.project;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.card.MaterialCardView;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
 
 /**
  * RecyclerView adapter for displaying completed study sessions
+ * A new list that shows the same history rows as the shown one (HistoryRows.countAddedSince())
+ * is swapped in without reading anything. Otherwise both are diffed by stable id
+ * (CompletedSession.getStableId()) on a background thread - the ids are read there from a
+ * snapshot of the history - and only the inserted, removed and moved rows are notified.
+ * History entries never change, so a row that is still there is not rebound
+ * When the history only grew (HistoryChange.Type.INSERTED) and the new view is the shown one
+ * plus newer entries, insertRows() notifies them in O(1), without waiting for a diff
+ * Entries are loaded in pages on a background thread (HistoryPages): rows of a page that isn't
+ * loaded yet are bound as placeholders and rebound when it arrives. The main thread never reads
+ * the whole list, so the tab opens and refreshes in the same time for any history length
+ * Completion times are labelled for one clock reading per minute (refreshRelativeTimes()); a
+ * new minute rebinds only the time label of the visible rows (PAYLOAD_RELATIVE_TIME)
+ * The selected row is kept as a stable id, so its border survives scrolling, recycling and list
+ * updates; changing the selection rebinds only the border of the old and new rows (PAYLOAD_SELECTION)
  */
 public class CompletedSessionAdapter extends RecyclerView.Adapter<CompletedSessionAdapter.ViewHolder> {
-    
+
+    // Shared by all adapters - a diff only reads two id arrays
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+    // Shared by all adapters - materializes pages of entries from a history snapshot
+    private static final Executor PAGE_EXECUTOR = Executors.newSingleThreadExecutor();
+    // Partial bind: only the completion time label changed
+    private static final Object PAYLOAD_RELATIVE_TIME = new Object();
+    // Partial bind: only the selection border changed
+    private static final Object PAYLOAD_SELECTION = new Object();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private List<CompletedSession> sessions;
+    private HistoryPages pages; // Loaded entries of sessions
+    private long[] ids; // Stable id of each shown position (null until a diff read them)
+    private int listGeneration = 0; // Incremented by updateList() - results of older diffs are dropped
+    private int shownGeneration = 0; // Generation of the list in sessions/ids
+    private long selectedId = RecyclerView.NO_ID; // Row whose detail sheet is open
+    private int selectedPosition = RecyclerView.NO_POSITION; // Where it was last seen (a hint)
     private OnSessionClickListener listener;
+    private final RelativeTimeLabels timeLabels = new RelativeTimeLabels();
+    private long nowMillis = System.currentTimeMillis(); // Clock reading the labels are for
+    private RecyclerView recyclerView;
 
     /**
      * Interface for handling session item clicks
@@ -28,8 +69,65 @@ public class CompletedSessionAdapter extends RecyclerView.Adapter<CompletedSessi
         void onSessionClick(CompletedSession session);
     }
 
+    /**
+     * @param sessions Read-only newest-first history view (not copied - rows are read when bound)
+     */
     public CompletedSessionAdapter(List<CompletedSession> sessions) {
-        this.sessions = sessions != null ? new ArrayList<>(sessions) : new ArrayList<>();
+        this.sessions = sessions != null ? sessions : Collections.emptyList();
+        this.pages = newPages(this.sessions);
+        setHasStableIds(true);
+    }
+
+    private HistoryPages newPages(List<CompletedSession> list) {
+        return new HistoryPages(list, PAGE_EXECUTOR, mainHandler::post, this::onPageLoaded);
+    }
+
+    /**
+     * Rebinds the placeholders of a page that finished loading
+     */
+    private void onPageLoaded(int fromPosition, int count) {
+        notifyItemRangeChanged(fromPosition, count);
+    }
+
+    /**
+     * Switches to a new list, keeping the loaded entries of rows that are still shown
+     * @param oldToNew Maps a shown position to its position in the new list (negative = removed)
+     */
+    private void show(List<CompletedSession> list, long[] newIds, IntUnaryOperator oldToNew) {
+        HistoryPages next = newPages(list);
+        next.carryOver(pages, oldToNew);
+        sessions = list;
+        ids = newIds;
+        pages = next;
+    }
+
+    /**
+     * Counts the entries a new list shows ahead of the shown one (0 = same entries)
+     * @return -1 if it is not the shown list plus newer entries, or can't be told without reading
+     */
+    private static int countAddedSince(List<CompletedSession> list, List<CompletedSession> shown) {
+        if (list instanceof HistoryRows && shown instanceof HistoryRows) {
+            return ((HistoryRows) list).countAddedSince((HistoryRows) shown);
+        }
+        return list.isEmpty() && shown.isEmpty() ? 0 : -1;
+    }
+
+    /**
+     * Prepares reading the stable ids of a list on the diff thread
+     * A history view is read from a snapshot of its store taken here (O(chunks)); other lists
+     * (not from the history) are read here
+     */
+    private static Supplier<long[]> idReader(List<CompletedSession> list) {
+        if (list instanceof HistoryRows) {
+            HistoryRows rows = (HistoryRows) list;
+            ColumnarHistoryStore.Snapshot snapshot = rows.getStore().snapshot();
+            return () -> rows.copyStableIds(snapshot);
+        }
+        long[] listIds = new long[list.size()];
+        for (int i = 0; i < listIds.length; i++) {
+            listIds[i] = list.get(i).getStableId();
+        }
+        return () -> listIds;
     }
 
     /**
@@ -47,12 +145,66 @@ public class CompletedSessionAdapter extends RecyclerView.Adapter<CompletedSessi
         return new ViewHolder(view);
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        this.recyclerView = null;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || !onlyPartial(payloads)) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        if (payloads.contains(PAYLOAD_SELECTION)) {
+            bindSelection(holder, position);
+        }
+        if (payloads.contains(PAYLOAD_RELATIVE_TIME)) {
+            CompletedSession session = pages.get(position);
+            if (session != null) {
+                holder.tvCompletionTime.setText(timeLabels.get(session.getCompletionTimestamp(), nowMillis));
+            }
+        }
+    }
+
+    private static boolean onlyPartial(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_RELATIVE_TIME && payload != PAYLOAD_SELECTION) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Border only on the selected row (views are reused)
+     */
+    private void bindSelection(ViewHolder holder, int position) {
+        float density = holder.itemView.getContext().getResources().getDisplayMetrics().density;
+        holder.cardView.setStrokeWidth(getItemId(position) == selectedId ? (int) (3 * density) : 0);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        CompletedSession session = sessions.get(position);
+        CompletedSession session = pages.get(position);
+        
+        // Border only on the row whose details are shown
+        bindSelection(holder, position);
         
-        // Reset border to 0 (in case this view was reused)
-        holder.cardView.setStrokeWidth(0);
+        if (session == null) {
+            // Placeholder until the page is loaded (onPageLoaded() rebinds it)
+            holder.tvSubject.setText("");
+            holder.tvTask.setText("");
+            holder.tvTimeSpent.setText("");
+            holder.tvCompletionTime.setText("");
+            holder.itemView.setOnClickListener(null);
+            return;
+        }
         
         // Set subject
         holder.tvSubject.setText(session.getSubject());
@@ -63,15 +215,17 @@ public class CompletedSessionAdapter extends RecyclerView.Adapter<CompletedSessi
         // Set time spent with "Time Spent: " prefix
         holder.tvTimeSpent.setText("Time Spent: " + session.getFormattedTimeSpent());
         
-        // Set completion time (relative)
-        holder.tvCompletionTime.setText(session.getRelativeTime());
+        // Set completion time (relative to the last minute tick, cached per bucket)
+        holder.tvCompletionTime.setText(timeLabels.get(session.getCompletionTimestamp(), nowMillis));
         
         // Set click listener on item view
         holder.itemView.setOnClickListener(v -> {
             // Show border when clicked (similar to technique cards)
-            float density = v.getContext().getResources().getDisplayMetrics().density;
-            int strokeWidthPx = (int) (3 * density);
-            holder.cardView.setStrokeWidth(strokeWidthPx);
+            int clicked = holder.getBindingAdapterPosition();
+            if (clicked == RecyclerView.NO_POSITION) {
+                return; // Row is being removed
+            }
+            setSelection(getItemId(clicked), clicked);
             
             if (listener != null) {
                 listener.onSessionClick(session);
@@ -84,12 +238,186 @@ public class CompletedSessionAdapter extends RecyclerView.Adapter<CompletedSessi
         return sessions.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        if (ids != null) {
+            return ids[position];
+        }
+        return sessions instanceof HistoryRows ? ((HistoryRows) sessions).getStableId(position)
+            : sessions.get(position).getStableId();
+    }
+
     /**
      * Updates the adapter with a new list of sessions
+     * A list with the same rows is swapped in at once and notifies nothing. Otherwise the ids are
+     * read and diffed in the background and the result is applied on the main thread (the old
+     * list stays shown until then)
+     * @param newList Read-only history view in display order (not copied)
      */
     public void updateList(List<CompletedSession> newList) {
-        this.sessions = newList != null ? new ArrayList<>(newList) : new ArrayList<>();
-        notifyDataSetChanged();
+        List<CompletedSession> list = newList != null ? newList : Collections.emptyList();
+        int generation = ++listGeneration;
+        if (countAddedSince(list, sessions) == 0) {
+            show(list, ids, IntUnaryOperator.identity()); // Same rows in the same order
+            shownGeneration = generation;
+            return;
+        }
+        if (sessions.isEmpty() || list.isEmpty()) {
+            int oldCount = sessions.size();
+            show(list, null, position -> -1);
+            shownGeneration = generation;
+            if (oldCount > 0) {
+                notifyItemRangeRemoved(0, oldCount);
+            } else {
+                notifyItemRangeInserted(0, list.size());
+            }
+            return;
+        }
+
+        long[] shownIds = ids;
+        Supplier<long[]> oldIds = shownIds != null ? () -> shownIds : idReader(sessions);
+        Supplier<long[]> newIds = idReader(list);
+        DIFF_EXECUTOR.execute(() -> {
+            long[] newListIds = newIds.get();
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new StableIdDiff(oldIds.get(), newListIds));
+            mainHandler.post(() -> {
+                if (generation != listGeneration) {
+                    return; // A newer list was submitted meanwhile
+                }
+                show(list, newListIds, result::convertOldPositionToNew);
+                shownGeneration = generation;
+                result.dispatchUpdatesTo(this);
+            });
+        });
+    }
+
+    /**
+     * Shows a list that holds the shown rows in the same order plus newer ones ahead of them
+     * (history appends to a newest-first view) - O(1), the new rows are notified as one range.
+     * Falls back to updateList() for any other change, or if a diff is still pending
+     * @param newList Read-only history view in display order (not copied)
+     */
+    public void insertRows(List<CompletedSession> newList) {
+        List<CompletedSession> list = newList != null ? newList : Collections.emptyList();
+        int added = countAddedSince(list, sessions);
+        if (shownGeneration != listGeneration || added < 0) {
+            updateList(list);
+            return;
+        }
+        show(list, null, position -> position + added);
+        shownGeneration = ++listGeneration;
+        if (added > 0) {
+            notifyItemRangeInserted(0, added);
+        }
+    }
+
+    /**
+     * Relabels the completion times of the visible rows for a new clock reading
+     * Call once per minute (labels only change at minute boundaries - see RelativeTimeLabels)
+     */
+    public void refreshRelativeTimes(long nowMillis) {
+        boolean sameMinute = Math.floorDiv(nowMillis, RelativeTimeLabels.MINUTE_MILLIS)
+            == Math.floorDiv(this.nowMillis, RelativeTimeLabels.MINUTE_MILLIS);
+        this.nowMillis = nowMillis;
+        if (sameMinute || getItemCount() == 0) {
+            return;
+        }
+        int first = 0;
+        int last = getItemCount() - 1;
+        if (recyclerView != null && recyclerView.getLayoutManager() instanceof LinearLayoutManager) {
+            LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+            first = layoutManager.findFirstVisibleItemPosition();
+            last = layoutManager.findLastVisibleItemPosition();
+            if (first == RecyclerView.NO_POSITION) {
+                return; // Nothing laid out yet
+            }
+        }
+        notifyItemRangeChanged(first, last - first + 1, PAYLOAD_RELATIVE_TIME);
+    }
+
+    /**
+     * Gets the stable id of the selected row (RecyclerView.NO_ID = none)
+     */
+    public long getSelectedId() {
+        return selectedId;
+    }
+
+    /**
+     * Removes the border of the row whose detail sheet was closed (rebinds only that border)
+     */
+    public void clearSelection() {
+        setSelection(RecyclerView.NO_ID, RecyclerView.NO_POSITION);
+    }
+
+    /**
+     * Moves the selection border: only the old and new rows get a partial bind
+     * @param position Position of the row with that id, if known (NO_POSITION = look it up)
+     */
+    private void setSelection(long id, int position) {
+        if (id == selectedId) {
+            return;
+        }
+        int oldPosition = positionOf(selectedId, selectedPosition);
+        selectedId = id;
+        selectedPosition = id == RecyclerView.NO_ID ? RecyclerView.NO_POSITION
+            : position != RecyclerView.NO_POSITION ? position : positionOf(id, RecyclerView.NO_POSITION);
+        if (oldPosition != RecyclerView.NO_POSITION) {
+            notifyItemChanged(oldPosition, PAYLOAD_SELECTION);
+        }
+        if (selectedPosition != RecyclerView.NO_POSITION) {
+            notifyItemChanged(selectedPosition, PAYLOAD_SELECTION);
+        }
+    }
+
+    /**
+     * Finds the shown position of a stable id, trying the hint first (rows move on list updates)
+     */
+    private int positionOf(long id, int hint) {
+        if (id == RecyclerView.NO_ID) {
+            return RecyclerView.NO_POSITION;
+        }
+        if (hint >= 0 && hint < getItemCount() && getItemId(hint) == id) {
+            return hint;
+        }
+        for (int position = 0; position < getItemCount(); position++) {
+            if (getItemId(position) == id) {
+                return position;
+            }
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * Diff of two id lists - rows with the same id are the same, unchanged history entry
+     */
+    private static final class StableIdDiff extends DiffUtil.Callback {
+        private final long[] oldIds;
+        private final long[] newIds;
+
+        StableIdDiff(long[] oldIds, long[] newIds) {
+            this.oldIds = oldIds;
+            this.newIds = newIds;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldIds.length;
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newIds.length;
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return oldIds[oldPosition] == newIds[newPosition];
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return true; // Entries are append-only
+        }
     }
 
     /**
@@ -0,0 +1,72 @@
+package com.example.project;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+/**
+ * Calendar heatmap of daily focus time for the Insights tab
+ * One column per week (Monday at the top), cell color intensity = InsightsSnapshot heatmap level
+ */
+public class HeatmapView extends View {
+
+    private final Paint cellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF cell = new RectF();
+    private final int emptyColor;
+    private final int focusColor;
+    private final float gapPx;
+    private final float cornerPx;
+
+    private InsightsSnapshot snapshot;
+
+    public HeatmapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        emptyColor = ContextCompat.getColor(context, R.color.card_background);
+        focusColor = ContextCompat.getColor(context, R.color.phase_work);
+        float density = getResources().getDisplayMetrics().density;
+        gapPx = 2 * density;
+        cornerPx = 2 * density;
+    }
+
+    /**
+     * Shows the heatmap of a snapshot (redraws only - no layout pass)
+     */
+    public void setSnapshot(InsightsSnapshot snapshot) {
+        this.snapshot = snapshot;
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // Square cells: the height follows the width
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int cellSize = width / InsightsSnapshot.HEATMAP_WEEKS;
+        setMeasuredDimension(width, cellSize * 7);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float size = (float) getWidth() / InsightsSnapshot.HEATMAP_WEEKS;
+        int todayCell = snapshot != null ? snapshot.getToday() - snapshot.getHeatmapFirstDay() : -1;
+        for (int index = 0; index < InsightsSnapshot.HEATMAP_WEEKS * 7; index++) {
+            if (snapshot != null && index > todayCell) {
+                break; // Days after today stay blank
+            }
+            int level = snapshot != null ? snapshot.getHeatmapLevel(index) : 0;
+            cellPaint.setColor(level == 0 ? emptyColor : focusColor);
+            // Level 1 is faint, the top level is fully opaque
+            cellPaint.setAlpha(level == 0 ? 255 : 64 + (191 * level) / InsightsSnapshot.HEATMAP_LEVELS);
+            float left = (index / 7) * size;
+            float top = (index % 7) * size;
+            cell.set(left + gapPx / 2, top + gapPx / 2, left + size - gapPx / 2, top + size - gapPx / 2);
+            canvas.drawRoundRect(cell, cornerPx, cornerPx, cellPaint);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.project;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.fragment.app.Fragment;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fragment for the Insights tab - streaks, calendar heatmap, subject and technique breakdowns
+ * The main thread only copies the history rollups (O(buckets)); the figures are computed on a
+ * background executor and delivered as an immutable InsightsSnapshot
+ */
+public class InsightsFragment extends Fragment {
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ExecutorService executor;
+
+    // Last snapshot shown (redrawn right away when the view is recreated)
+    private InsightsSnapshot snapshot;
+    // Incremented per refresh so an older computation finishing late is dropped
+    private int refreshGeneration = 0;
+
+    private TextView tvCurrentStreak;
+    private TextView tvLongestStreak;
+    private TextView tvFocusSummary;
+    private TextView tvAllTimeSummary;
+    private HeatmapView heatmapView;
+    private LinearLayout subjectBreakdownContainer;
+    private LinearLayout techniqueBreakdownContainer;
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View view = inflater.inflate(R.layout.fragment_insights, container, false);
+
+        // Get references to views
+        tvCurrentStreak = view.findViewById(R.id.tvCurrentStreak);
+        tvLongestStreak = view.findViewById(R.id.tvLongestStreak);
+        tvFocusSummary = view.findViewById(R.id.tvFocusSummary);
+        tvAllTimeSummary = view.findViewById(R.id.tvAllTimeSummary);
+        heatmapView = view.findViewById(R.id.heatmapView);
+        subjectBreakdownContainer = view.findViewById(R.id.subjectBreakdownContainer);
+        techniqueBreakdownContainer = view.findViewById(R.id.techniqueBreakdownContainer);
+
+        if (snapshot != null) {
+            bindSnapshot(snapshot);
+        }
+        return view;
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        // Recompute when the tab becomes visible (sessions may have completed meanwhile)
+        refreshInsights();
+    }
+
+    @Override
+    public void onDestroy() {
+        executor.shutdownNow();
+        super.onDestroy();
+    }
+
+    /**
+     * Copies the aggregates on the main thread and computes the snapshot in the background
+     */
+    private void refreshInsights() {
+        MainActivity activity = (MainActivity) getActivity();
+        if (activity == null) {
+            return; // Safety check
+        }
+        InsightsSnapshot.Input input = activity.captureInsightsInput();
+        if (input == null) {
+            return; // History unavailable
+        }
+
+        int generation = ++refreshGeneration;
+        executor.execute(() -> {
+            InsightsSnapshot computed = InsightsSnapshot.compute(input);
+            mainHandler.post(() -> {
+                if (generation != refreshGeneration || getView() == null) {
+                    return; // Superseded or the view is gone
+                }
+                snapshot = computed;
+                bindSnapshot(computed);
+            });
+        });
+    }
+
+    /**
+     * Shows a snapshot (main thread)
+     */
+    private void bindSnapshot(InsightsSnapshot insights) {
+        int streak = insights.getCurrentStreakDays();
+        tvCurrentStreak.setText(streak + " day streak");
+        int longest = insights.getLongestStreakDays();
+        tvLongestStreak.setText("Longest streak: " + longest + (longest == 1 ? " day" : " days"));
+        tvFocusSummary.setText("Today: " + InsightsSnapshot.formatFocus(insights.getTodayFocusMillis())
+            + "  ·  This week: " + InsightsSnapshot.formatFocus(insights.getWeekFocusMillis()));
+        RollupSeries.Totals allTime = insights.getAllTime();
+        tvAllTimeSummary.setText("All time: " + InsightsSnapshot.formatFocus(allTime.getFocusMillis())
+            + " in " + allTime.getCycles() + (allTime.getCycles() == 1 ? " cycle" : " cycles"));
+
+        heatmapView.setSnapshot(insights);
+
+        bindBreakdown(subjectBreakdownContainer, insights.getSubjects(), false);
+        bindBreakdown(techniqueBreakdownContainer, insights.getTechniques(), true);
+    }
+
+    /**
+     * Fills a breakdown container with one row per subject or technique
+     * @param showCompletion True to show the actual vs planned ratio instead of the focus time
+     */
+    private void bindBreakdown(LinearLayout container, List<InsightsSnapshot.Breakdown> rows, boolean showCompletion) {
+        container.removeAllViews();
+        if (rows.isEmpty()) {
+            container.addView(createRowText("Complete a session to see it here", R.color.text_secondary));
+            return;
+        }
+        for (InsightsSnapshot.Breakdown row : rows) {
+            RollupSeries.Totals totals = row.getTotals();
+            String value = showCompletion
+                ? String.format(Locale.getDefault(), "%d%%", Math.round(totals.getCompletionRatio() * 100))
+                : InsightsSnapshot.formatFocus(totals.getFocusMillis());
+            value += "  ·  " + totals.getCycles() + (totals.getCycles() == 1 ? " cycle" : " cycles");
+
+            LinearLayout line = new LinearLayout(requireContext());
+            line.setOrientation(LinearLayout.HORIZONTAL);
+            int paddingPx = (int) (6 * getResources().getDisplayMetrics().density);
+            line.setPadding(0, paddingPx, 0, paddingPx);
+
+            TextView name = createRowText(row.getName(), R.color.text_primary);
+            name.setLayoutParams(new LinearLayout.LayoutParams(0, ViewGroup.LayoutParams.WRAP_CONTENT, 1f));
+            line.addView(name);
+            line.addView(createRowText(value, R.color.text_secondary));
+            container.addView(line);
+        }
+    }
+
+    private TextView createRowText(String text, int colorRes) {
+        TextView textView = new TextView(requireContext());
+        textView.setText(text);
+        textView.setTextSize(14);
+        textView.setTextColor(ContextCompat.getColor(requireContext(), colorRes));
+        return textView;
+    }
+}
@@ -1,11 +1,11 @@
 package com.example.project;
 
-import android.animation.Animator;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
+import android.Manifest;
+import android.content.pm.PackageManager;
 import android.media.MediaPlayer;
+import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
-import android.os.CountDownTimer;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Vibrator;
@@ -22,12 +22,18 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.viewpager2.widget.ViewPager2;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.android.material.bottomsheet.BottomSheetDialog;
@@ -42,19 +48,16 @@ import com.google.android.material.textfield.TextInputLayout;
 public class MainActivity extends AppCompatActivity {
 
     // TEST MODE: purpose lang
-    private static final boolean TEST_MODE = true;
-    // Test mode multiplier: 1 = normal, 60 = convert minutes to seconds (60x faster)
-    // Note: In test mode, durations are returned in seconds instead of minutes
-    private static final int TEST_MODE_MULTIPLIER = TEST_MODE ? 60 : 1;
+    // Only selects the shortened technique schedules (durations are in seconds instead of minutes)
+    static final boolean TEST_MODE = true;
 
     // Technique constants
-    private static final String TECHNIQUE_POMODORO = "Pomodoro";
-    private static final String TECHNIQUE_5217 = "52/17";
-    private static final String TECHNIQUE_90MINUTE = "90-Minute";
-    private static final String TECHNIQUE_SPRINT = "Sprint";
-    private static final String TECHNIQUE_DEADLINE = "Deadline";
+    static final String TECHNIQUE_POMODORO = "Pomodoro";
     private static final String TECHNIQUE_CUSTOM = "Custom Goal";
 
+    // Technique schedules (work, break, long break, description), resolved once for the current mode
+    private final TechniqueRegistry techniqueRegistry = TechniqueRegistry.createDefault(TEST_MODE);
+
 
     private static final int BREAK_TIMER_COMPLETES = R.raw.break_timer_completes1;
 
@@ -66,11 +69,8 @@ public class MainActivity extends AppCompatActivity {
     // Transient variable for current session
     private StudySession currentSession = null;
 
-    // Current session state (for quick access, synced with currentSession.getState())
-    private SessionState currentState = SessionState.IDLE;
-
-    // Track previous state before pausing (to know if we were in work or break)
-    private SessionState previousStateBeforePause = null;
+    // Session engine (session-core): current state, state before pausing and the phase countdown
+    private final SessionStateMachine stateMachine = new SessionStateMachine(new AndroidClock());
 
     // Reference to active bottom sheet dialog (for sticky card behavior)
     private BottomSheetDialog activeBottomSheetDialog = null;
@@ -78,15 +78,43 @@ public class MainActivity extends AppCompatActivity {
     // Reference to completion dialog (to prevent duplicate dialogs)
     private android.app.AlertDialog completionDialog = null;
 
-    // Timer instances
-    private CountDownTimer workTimer = null;
-    private CountDownTimer breakTimer = null;
-    
-    // Store current break total duration for extend break functionality
-    private long currentBreakTotalDurationMillis = 0;
+    // Deadline-based timer shared by work and break phases
+    private SessionTimer sessionTimer;
+
+    // Planned work/break phases for the rest of the round (built when the work phase starts)
+    // Only the plan - which phase comes next and how long it is; the deadline of the running
+    // phase (pause, resume, extend, skip) is tracked by sessionTimer alone
+    private SessionTimeline sessionTimeline = null;
+
+    // Delayed work-to-break transition (after the completion dialog)
+    private final Handler phaseTransitionHandler = new Handler(Looper.getMainLooper());
+    private final Runnable startPlannedBreakRunnable = this::startPlannedBreak;
+
+    // Journal of session commands and transitions, replayed in onCreate after process death
+    static final String SESSION_JOURNAL_FILE = "session.journal";
+    private static final long JOURNAL_FLUSH_DELAY_MILLIS = 1000; // Group commit window
+    private SessionJournal sessionJournal;
+    private final Runnable flushJournalRunnable = this::flushSessionJournal;
+
+    // Vsync-aligned tick hub driving all countdown UI (timer text, progress indicators)
+    private TimerTickHub tickHub;
+
+    // Ongoing notification shown while the app is in the background
+    private SessionNotificationController notificationController;
 
-    // Flag to track if app was paused (to distinguish from being killed)
-    private boolean wasPaused = false;
+    // True between onResume and onPause
+    private boolean isActivityVisible = false;
+
+    // Notification permission is requested once per launch (Android 13+)
+    private boolean notificationPermissionRequested = false;
+    private static final int REQUEST_CODE_NOTIFICATIONS = 100;
+
+    // Last values pushed to the progress indicators (skip updates when unchanged)
+    private int lastCircularProgressPermille = -1;
+    private int lastLinearProgressPercent = -1;
+
+    // Reused buffer for the MM:SS timer text
+    private final StringBuilder timerTextBuilder = new StringBuilder();
 
     // References to active session UI views (for timer updates)
     private TextView tvTimerDisplay = null;
@@ -121,8 +149,12 @@ public class MainActivity extends AppCompatActivity {
     private ViewPagerAdapter viewPagerAdapter;
     private PlaygroundFragment playgroundFragment;
 
-    // Step 2.8: List to store completed sessions (transient - lost when app closes)
-    private List<CompletedSession> completedSessions = new ArrayList<>();
+    // Step 2.8: Completed sessions, persisted in an append-only log (null if it could not be opened)
+    // The history is process-wide (SessionHistoryHost), so it outlives a rotation
+    private SessionHistoryHost historyHost;
+    private SessionHistory sessionHistory;
+    // Entries of the last HISTORY_RAW_DAYS days stay individual, older ones are folded into daily summaries
+    private static final int HISTORY_RAW_DAYS = 90;
 
     // Step 2.10: Sidebar Navigation Menu
     private View sidebarMenu;
@@ -130,14 +162,79 @@ public class MainActivity extends AppCompatActivity {
     private boolean isSidebarOpen = false;
     private TextView tvUserName;
     private MaterialButton btnNavHome, btnNavAboutProject, btnNavAboutTeam, btnNavLogout;
+    private MaterialButton btnNavExportHistory, btnNavImportHistory;
     private MaterialButton btnCloseSidebar;
     private String currentUserName; // Store current user's full name
 
+    // History export/import - run by SessionHistoryHost, which reports to the
+    // activity attached at the time (a rotation doesn't interrupt them)
+    private android.app.AlertDialog historyTransferDialog;
+    private final SessionHistoryHost.Listener historyHostListener = new SessionHistoryHost.Listener() {
+        @Override
+        public void onHistoryLoaded() {
+            compactHistoryInBackground();
+        }
+
+        @Override
+        public void onHistoryTransferProgress(String progress) {
+            if (historyTransferDialog != null) {
+                historyTransferDialog.setMessage(progress);
+            }
+        }
+
+        @Override
+        public void onHistoryTransferFinished(String message) {
+            finishHistoryTransfer(message);
+        }
+    };
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+        new ActivityResultContracts.CreateDocument("text/csv"), uri -> exportHistory(uri, HistoryExporter.Format.CSV));
+    private final ActivityResultLauncher<String> exportJsonLauncher = registerForActivityResult(
+        new ActivityResultContracts.CreateDocument("application/json"), uri -> exportHistory(uri, HistoryExporter.Format.JSON));
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+        new ActivityResultContracts.OpenDocument(), this::importHistory);
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        // Single timer engine for all phases (completion is dispatched here)
+        sessionTimer = new SessionTimer(stateMachine.getCountdown(), breakPhase -> {
+            if (breakPhase) {
+                handleBreakTimerComplete();
+            } else {
+                handleWorkTimerComplete();
+            }
+        }, new PhaseAlarmScheduler(this));
+
+        // Ongoing countdown notification shown while the user is outside MainActivity
+        notificationController = new SessionNotificationController(this);
+
+        // Appends only fill an in-memory batch - the first append of a batch schedules one flush
+        sessionJournal = new SessionJournal(new File(getFilesDir(), SESSION_JOURNAL_FILE), stateMachine.getClock());
+        sessionJournal.setListener(() ->
+            phaseTransitionHandler.postDelayed(flushJournalRunnable, JOURNAL_FLUSH_DELAY_MILLIS));
+
+        // Completed session history - opened once per process, the rows are read on the history
+        // thread (lists fill in from the reset published when the load finishes)
+        historyHost = SessionHistoryHost.get(this);
+        sessionHistory = historyHost.getHistory();
+        historyHost.attach(historyHostListener);
+        compactHistoryInBackground(); // Skipped until the history is loaded
+        if (historyHost.isTransferRunning()) {
+            showHistoryTransferDialog(historyHost.getTransferTitle()); // Recreated mid-transfer
+        }
+
+        // Phase-end alarms (work end, break end, long break end) and notification actions are delivered here
+        SessionActionReceiver.setTarget(sessionActionTarget);
+
+        // Countdown UI consumers subscribe once and are driven by the shared tick hub
+        tickHub = new TimerTickHub(sessionTimer);
+        tickHub.subscribe(this::updateTimerDisplay);
+        tickHub.subscribe(this::updateCircularProgress);
+        tickHub.subscribe(this::updateLinearProgress);
+
         // Step 1.6: Initialize TabLayout and ViewPager2
         tabLayout = findViewById(R.id.tabLayout);
         viewPager = findViewById(R.id.viewPager);
@@ -155,6 +252,9 @@ public class MainActivity extends AppCompatActivity {
                 case 1:
                     tab.setText("My Activity");
                     break;
+                case 2:
+                    tab.setText("Insights");
+                    break;
             }
         }).attach();
         
@@ -193,6 +293,9 @@ public class MainActivity extends AppCompatActivity {
 
         // Step 2.10: Initialize Sidebar Navigation Menu
         initializeSidebar();
+
+        // Bring back a session that was running when the process died
+        restoreSessionFromJournal();
     }
     
     /**
@@ -241,20 +344,20 @@ public class MainActivity extends AppCompatActivity {
 
         // Highlight the selected card
         MaterialCardView selectedCard = null;
-        switch (technique) {
-            case TECHNIQUE_POMODORO:
+        switch (techniqueRegistry.getOrCustom(technique).getId()) {
+            case TechniqueRegistry.ID_POMODORO:
                 selectedCard = playgroundFragment.getCardTechnique1();
                 break;
-            case TECHNIQUE_5217:
+            case TechniqueRegistry.ID_5217:
                 selectedCard = playgroundFragment.getCardTechnique2();
                 break;
-            case TECHNIQUE_90MINUTE:
+            case TechniqueRegistry.ID_90MINUTE:
                 selectedCard = playgroundFragment.getCardTechnique3();
                 break;
-            case TECHNIQUE_SPRINT:
+            case TechniqueRegistry.ID_SPRINT:
                 selectedCard = playgroundFragment.getCardTechnique4();
                 break;
-            case TECHNIQUE_DEADLINE:
+            case TechniqueRegistry.ID_DEADLINE:
                 selectedCard = playgroundFragment.getCardTechnique5();
                 break;
         }
@@ -294,39 +397,15 @@ public class MainActivity extends AppCompatActivity {
      * In PRODUCTION: Returns duration in minutes
      */
     private int getTechniqueDuration(String technique) {
-        if (TEST_MODE) {
-            // TEST MODE: Return durations in seconds
-            switch (technique) {
-                case TECHNIQUE_POMODORO:
-                    return 85; // 1 min 25 sec = 85 seconds
-                case TECHNIQUE_5217:
-                    return 120; // 2 min = 120 seconds
-                case TECHNIQUE_90MINUTE:
-                    return 145; // 2 min 25 sec = 145 seconds
-                case TECHNIQUE_SPRINT:
-                    return 60; // 1 min = 60 seconds
-                case TECHNIQUE_DEADLINE:
-                case TECHNIQUE_CUSTOM:
-                default:
-                    return 0; // User input required
-            }
-        } else {
-            // PRODUCTION MODE: Return durations in minutes
-            switch (technique) {
-                case TECHNIQUE_POMODORO:
-                    return 25;
-                case TECHNIQUE_5217:
-                    return 52;
-                case TECHNIQUE_90MINUTE:
-                    return 90;
-                case TECHNIQUE_SPRINT:
-                    return 12;
-                case TECHNIQUE_DEADLINE:
-                case TECHNIQUE_CUSTOM:
-                default:
-                    return 0; // User input required
-            }
-        }
+        // 0 = user input required (Deadline, Custom Goal)
+        return techniqueRegistry.toUnits(techniqueRegistry.getOrCustom(technique).getWorkMillis());
+    }
+
+    /**
+     * Step 4.6: Checks if the current break is the long break at the end of a round (Pomodoro cycle 4)
+     */
+    private boolean isLongBreakCycle() {
+        return sessionTimeline != null && sessionTimeline.isCurrentLongBreak();
     }
 
     private void showBottomSheet() {
@@ -355,7 +434,7 @@ public class MainActivity extends AppCompatActivity {
         });
 
         // Handle duration field based on technique selection
-        if (selectedTechnique != null && !selectedTechnique.equals(TECHNIQUE_DEADLINE)) {
+        if (techniqueRegistry.getOrCustom(selectedTechnique).hasFixedWorkDuration()) {
             // Pre-fill duration for pre-made techniques
             int duration = getTechniqueDuration(selectedTechnique);
             etDuration.setText(String.valueOf(duration));
@@ -480,16 +559,19 @@ public class MainActivity extends AppCompatActivity {
             // - 52/17: 17 min break
             // - 90-Minute: 25 min break
             // - Sprint: 2 min break (1.5 rounded up)
-            // - Deadline/Custom: 0 min break
-            int breakDuration = StudySession.getBreakDurationForTechnique(technique);
+            // - Deadline/Custom: no break
+            long breakDurationMillis = techniqueRegistry.getOrCustom(technique).getBreakMillis();
             
             // Create session with:
             // - Technique name
             // - Subject and task from form
-            // - Work duration from form (pre-filled for techniques, user input for custom/deadline)
-            // - Break duration from technique-specific method
-            // - Start time is automatically stored in StudySession constructor
-            currentSession = new StudySession(technique, subject, task, durationInt, breakDuration);
+            // - Work duration from form in milliseconds (pre-filled for techniques, user input for custom/deadline)
+            // - Break duration from the technique registry
+            // - Start time from the session clock
+            currentSession = new StudySession(technique, subject, task, techniqueRegistry.toMillis(durationInt),
+                breakDurationMillis, stateMachine.getClock().currentTimeMillis());
+            currentSession.setSessionId(newSessionId());
+            sessionJournal.sessionStarted(currentSession);
 
             // Close create bottom sheet
             bottomSheetDialog.dismiss();
@@ -515,13 +597,30 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Shows the active session bottom sheet with session data
+     * Shows the active session bottom sheet with session data and starts the work phase
      */
     private void showActiveBottomSheet() {
         if (currentSession == null) {
             return; // Safety check
         }
 
+        showActiveSessionCard();
+
+        // Expand the technique into every work and break phase left in this round
+        sessionTimeline = SessionPlanner.plan(techniqueRegistry.getOrCustom(currentSession.getTechnique()),
+            currentSession.getWorkDurationMillis(), currentSession.getCurrentCycle());
+        sessionTimeline.start(stateMachine.getClock().elapsedRealtime());
+
+        // Set session state to ACTIVE_WORK and start timer
+        updateSessionState(SessionState.ACTIVE_WORK);
+        startWorkTimer(sessionTimeline.getCurrentDurationMillis());
+    }
+
+    /**
+     * Builds and shows the active session card (does not start a phase)
+     * Shared by new work phases and sessions restored from the journal
+     */
+    private void showActiveSessionCard() {
         BottomSheetDialog bottomSheetDialog = new BottomSheetDialog(this);
         View sheetView = getLayoutInflater().inflate(R.layout.bottom_card_active, null);
         bottomSheetDialog.setContentView(sheetView);
@@ -585,18 +684,19 @@ public class MainActivity extends AppCompatActivity {
             );
             currentProgressColorState = 0; // Track linear progress color state
         }
+        lastCircularProgressPermille = 1000;
+        lastLinearProgressPercent = 100;
 
-        // Set session state to ACTIVE_WORK and start timer
-        updateSessionState(SessionState.ACTIVE_WORK);
-        startWorkTimer(currentSession.getWorkDuration());
+        // Ask once for notification permission (Android 13+) so the countdown stays visible outside the app
+        requestNotificationPermissionIfNeeded();
 
         // Set up button click listeners
         btnPause.setOnClickListener(v -> {
             // Step 4.4: Pause/Resume Functionality
-            if (currentState == SessionState.ACTIVE_WORK || currentState == SessionState.ACTIVE_BREAK) {
+            if (stateMachine.getState().isActive()) {
                 // Pause the timer
                 pauseTimer();
-            } else if (currentState == SessionState.PAUSED) {
+            } else if (stateMachine.getState() == SessionState.PAUSED) {
                 // Resume the timer
                 resumeTimer();
             }
@@ -616,13 +716,7 @@ public class MainActivity extends AppCompatActivity {
         // Step 4.7: Skip Break button - immediately start next work session
         if (btnSkipBreak != null) {
             btnSkipBreak.setOnClickListener(v -> {
-                // Cancel break timer
-                if (breakTimer != null) {
-                    breakTimer.cancel();
-                    breakTimer = null;
-                }
-                // Immediately start next work session (skip the break)
-                startNextWorkSession();
+                skipBreak();
             });
         }
 
@@ -662,6 +756,21 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Requests POST_NOTIFICATIONS on Android 13+ (only once per launch)
+     */
+    private void requestNotificationPermissionIfNeeded() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU || notificationPermissionRequested) {
+            return;
+        }
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            notificationPermissionRequested = true;
+            ActivityCompat.requestPermissions(this,
+                new String[] { Manifest.permission.POST_NOTIFICATIONS }, REQUEST_CODE_NOTIFICATIONS);
+        }
+    }
+
     /**
      * Shows confirmation dialog for canceling session
      */
@@ -684,17 +793,11 @@ public class MainActivity extends AppCompatActivity {
         btnYesCancel.setOnClickListener(v -> {
             confirmDialog.dismiss();
             
-            // Cancel timers if running
-            if (workTimer != null) {
-                workTimer.cancel();
-                workTimer = null;
-            }
-            if (breakTimer != null) {
-                breakTimer.cancel();
-                breakTimer = null;
-            }
+            // Cancel timer if running
+            sessionTimer.cancel();
             
             // Clear session and close active bottom sheet
+            sessionJournal.sessionEnded();
             currentSession = null;
             updateSessionState(SessionState.IDLE);
             activeBottomSheetDialog = null;
@@ -738,15 +841,8 @@ public class MainActivity extends AppCompatActivity {
         btnYesMarkDone.setOnClickListener(v -> {
             confirmDialog.dismiss();
             
-            // Cancel timers if running
-            if (workTimer != null) {
-                workTimer.cancel();
-                workTimer = null;
-            }
-            if (breakTimer != null) {
-                breakTimer.cancel();
-                breakTimer = null;
-            }
+            // Cancel timer if running
+            sessionTimer.cancel();
             
             // Close active bottom sheet
             if (activeBottomSheet != null && activeBottomSheet.isShowing()) {
@@ -765,6 +861,7 @@ public class MainActivity extends AppCompatActivity {
             if (currentSession != null) {
                 addCompletedSession(currentSession);
                 updateSessionState(SessionState.COMPLETED);
+                sessionJournal.sessionEnded();
             }
             
             // Show completion dialog
@@ -854,20 +951,14 @@ public class MainActivity extends AppCompatActivity {
                     completionDialog.dismiss();
                     completionDialog = null;
                 }
-                // Cancel timers if running
-                if (workTimer != null) {
-                    workTimer.cancel();
-                    workTimer = null;
-                }
-                if (breakTimer != null) {
-                    breakTimer.cancel();
-                    breakTimer = null;
-                }
+                // Cancel timer if running
+                sessionTimer.cancel();
                 // Close active bottom sheet if showing
                 if (activeBottomSheetDialog != null && activeBottomSheetDialog.isShowing()) {
                     activeBottomSheetDialog.dismiss();
                 }
                 // Clear session and UI references
+                sessionJournal.sessionEnded();
                 currentSession = null;
                 updateSessionState(SessionState.IDLE);
                 activeBottomSheetDialog = null;
@@ -895,20 +986,14 @@ public class MainActivity extends AppCompatActivity {
                     selectedTechnique = null;
                     clearCardHighlights();
                 }
-                // Cancel timers if running
-                if (workTimer != null) {
-                    workTimer.cancel();
-                    workTimer = null;
-                }
-                if (breakTimer != null) {
-                    breakTimer.cancel();
-                    breakTimer = null;
-                }
+                // Cancel timer if running
+                sessionTimer.cancel();
                 // Close active bottom sheet if showing
                 if (activeBottomSheetDialog != null && activeBottomSheetDialog.isShowing()) {
                     activeBottomSheetDialog.dismiss();
                 }
                 // Clear session and UI references
+                sessionJournal.sessionEnded();
                 currentSession = null;
                 updateSessionState(SessionState.IDLE);
                 activeBottomSheetDialog = null;
@@ -964,239 +1049,312 @@ public class MainActivity extends AppCompatActivity {
     /**
      * Step 3.7 & 5.5: Activity Lifecycle Handling - onPause
      * Called when the activity is paused (e.g., user switches apps, receives a call)
-     * Step 5.5: Handles phone call interruption by automatically pausing the timer
+     * The countdown keeps running: the phase end is handed to an exact AlarmManager alarm,
+     * so work/break completion fires on time with no background ticking in between
      */
     @Override
     protected void onPause() {
         super.onPause();
         
-        // Step 5.5: Handle phone call interruption - automatically pause active sessions
-        // Save timer state (remaining time) when app is paused
-        if (currentSession != null && (workTimer != null || breakTimer != null)) {
-            // The remaining time is already being saved in the session on each tick
-            // But we should ensure it's saved here as well
-            // Note: We can't get remaining time directly from CountDownTimer,
-            // but it's already stored in currentSession.getRemainingTimeMillis()
-            // from the onTick() callback
-            
-            // Mark that we were paused (not killed)
-            wasPaused = true;
-            
-            // Cancel work timer if running
-            if (workTimer != null) {
-                workTimer.cancel();
-                workTimer = null;
-            }
-            
-            // Cancel break timer if running
-            if (breakTimer != null) {
-                breakTimer.cancel();
-                breakTimer = null;
-            }
-            
-            // Step 5.5: Automatically pause session when app is interrupted (phone call, etc.)
-            // Update session state to PAUSED if it was active
-            if (currentState == SessionState.ACTIVE_WORK || currentState == SessionState.ACTIVE_BREAK) {
-                // Store previous state before pausing (for resume)
-                previousStateBeforePause = currentState;
-                updateSessionState(SessionState.PAUSED);
-                
-                // Step 5.5: Stop pulse animation when paused
-                if (tvTimerDisplay != null) {
-                    tvTimerDisplay.clearAnimation();
-                }
-            }
-        } else {
-            // No active session, reset pause flag
-            wasPaused = false;
+        // No UI to update while in the background
+        isActivityVisible = false;
+        tickHub.stop();
+        
+        // Switch phase completion from the main-thread Handler to a Doze-safe alarm
+        sessionTimer.setInBackground(true);
+        if (currentSession != null && sessionTimer.isRunning()) {
+            // Keep a snapshot of the remaining time in the session
+            currentSession.setRemainingTimeMillis(sessionTimer.getRemainingMillis());
         }
+        
+        // Keep the countdown visible outside the app (system-rendered, no per-second work)
+        refreshSessionNotification();
+
+        // Write pending journal records now - the process may be killed in the background
+        flushSessionJournal();
     }
 
     /**
      * Step 3.7 & 5.5: Activity Lifecycle Handling - onResume
      * Called when the activity is resumed (e.g., user returns to the app)
-     * Step 5.5: Note: If app was killed (not just paused), session will be lost (acceptable behavior)
+     * If the app was killed (not just paused), onCreate already restored the session from the journal
      */
     @Override
     protected void onResume() {
         super.onResume();
+        isActivityVisible = true;
         
-        // Step 5.5: Resume timer if session was active and app wasn't killed
-        // If app was killed, currentSession will be null (acceptable - session lost)
-        if (currentSession != null && wasPaused) {
-            // App was paused (not killed), so we can resume
-            SessionState sessionState = currentSession.getState();
-            
-            // Check if session was in an active state before pause
-            if (sessionState == SessionState.PAUSED || 
-                sessionState == SessionState.ACTIVE_WORK || 
-                sessionState == SessionState.ACTIVE_BREAK) {
-                
-                // Get remaining time from session
-                long remainingTimeMillis = currentSession.getRemainingTimeMillis();
-                
-                // Only resume if there's time remaining
-                if (remainingTimeMillis > 0) {
-                    // Determine if it was work or break phase
-                    if (sessionState == SessionState.ACTIVE_WORK || 
-                        (sessionState == SessionState.PAUSED && currentSession.getBreakDuration() == 0)) {
-                        // Resume work timer
-                        resumeWorkTimer(remainingTimeMillis);
-                    } else if (sessionState == SessionState.ACTIVE_BREAK) {
-                        // Resume break timer
-                        resumeBreakTimer(remainingTimeMillis);
-                    } else if (sessionState == SessionState.PAUSED) {
-                        // Was paused, determine which timer to resume based on break duration
-                        // If break duration > 0 and we're paused, likely was in break
-                        // Otherwise, resume work timer
-                        if (currentSession.getBreakDuration() > 0) {
-                            // Check if we should resume break or work
-                            // For now, assume work if we can't determine
-                            resumeWorkTimer(remainingTimeMillis);
-                        } else {
-                            resumeWorkTimer(remainingTimeMillis);
-                        }
-                    }
+        // The active session card takes over from the notification
+        notificationController.cancel();
+        
+        // Back to Handler-based completion - a phase that already ended is reported right away
+        sessionTimer.setInBackground(false);
+        
+        // Refresh the countdown UI immediately (it was not updated while in the background)
+        if (sessionTimer.isRunning()) {
+            tickHub.requestTick();
+        }
+    }
+
+    /**
+     * Handles phase-end alarms (PhaseAlarmScheduler) and notification actions
+     * (SessionNotificationController) delivered to SessionActionReceiver while this activity exists
+     */
+    private final SessionActionReceiver.Target sessionActionTarget = action -> {
+        switch (action) {
+            case PhaseAlarmScheduler.ACTION_PHASE_END:
+                // SessionTimer checks the deadline and dispatches handleWorkTimerComplete/handleBreakTimerComplete
+                sessionTimer.onPhaseAlarm();
+                break;
+            case SessionNotificationController.ACTION_PAUSE:
+                pauseTimer();
+                break;
+            case SessionNotificationController.ACTION_RESUME:
+                resumeTimer();
+                break;
+            case SessionNotificationController.ACTION_EXTEND_BREAK:
+                extendBreakTimer();
+                break;
+            case SessionNotificationController.ACTION_SKIP_BREAK:
+                skipBreak();
+                break;
+        }
+    };
+
+    /**
+     * Requests a countdown UI refresh (only while the activity is visible)
+     */
+    private void requestTimerUiTick() {
+        if (isActivityVisible) {
+            tickHub.requestTick();
+        }
+    }
+
+    /**
+     * Shows, updates or removes the ongoing session notification based on the current state
+     * Only called on state/deadline changes - the countdown itself is rendered by the system
+     */
+    private void refreshSessionNotification() {
+        if (currentSession == null) {
+            notificationController.cancel();
+            return;
+        }
+
+        // A phase that just ended (before the next one starts) is shown as completed
+        SessionState displayState = stateMachine.getState();
+        if (displayState.isActive() && !sessionTimer.isRunning()) {
+            displayState = SessionState.COMPLETED;
+        }
+
+        if (displayState.isActive() || displayState == SessionState.PAUSED || displayState == SessionState.COMPLETED) {
+            String cycleText = TECHNIQUE_POMODORO.equals(currentSession.getTechnique())
+                ? "Cycle " + currentSession.getCurrentCycle() + " of 4"
+                : null;
+            notificationController.show(displayState, currentSession.getSubject(), cycleText,
+                sessionTimer.getRemainingMillis(), sessionTimer.isBreakPhase());
+        } else {
+            notificationController.cancel();
+        }
+    }
+
+    /**
+     * Stops timer callbacks so they don't outlive the activity
+     * A running phase keeps its phase-end alarm and notification (SessionActionReceiver takes
+     * over) unless the activity is only being recreated
+     */
+    @Override
+    protected void onDestroy() {
+        tickHub.stop();
+        SessionActionReceiver.clearTarget(sessionActionTarget);
+        boolean recreating = isChangingConfigurations();
+        if (recreating) {
+            sessionTimer.cancel();
+        } else {
+            sessionTimer.detach();
+        }
+        // Drops every pending callback of this activity (the history itself stays open, and a
+        // running export/import keeps going for the next activity)
+        phaseTransitionHandler.removeCallbacksAndMessages(null);
+        historyHost.detach(historyHostListener);
+        if (historyTransferDialog != null) {
+            historyTransferDialog.dismiss();
+            historyTransferDialog = null;
+        }
+        try {
+            sessionJournal.close();
+        } catch (IOException e) {
+            android.util.Log.w("MainActivity", "Unable to write session journal", e);
+        }
+        if (recreating) {
+            notificationController.cancel();
+        } else {
+            refreshSessionNotification();
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * Writes the batched journal records (group commit)
+     */
+    private void flushSessionJournal() {
+        phaseTransitionHandler.removeCallbacks(flushJournalRunnable);
+        try {
+            sessionJournal.flush();
+        } catch (IOException e) {
+            android.util.Log.w("MainActivity", "Unable to write session journal", e);
+        }
+    }
+
+    /**
+     * Gets an id for a new session (or a new round) - unique across the saved history
+     */
+    private long newSessionId() {
+        if (sessionHistory == null) {
+            return stateMachine.getClock().currentTimeMillis(); // History unavailable - time is unique enough
+        }
+        return sessionHistory.nextSessionId();
+    }
+
+    /**
+     * Rebuilds the session that was running when the process died by replaying the journal
+     * Restores the active card, the timeline position and the countdown - a phase whose
+     * deadline passed in the meantime finishes right away through the normal completion path
+     */
+    private void restoreSessionFromJournal() {
+        SessionJournal.Recovery recovery;
+        try {
+            recovery = SessionJournal.replay(new File(getFilesDir(), SESSION_JOURNAL_FILE),
+                stateMachine.getClock().currentTimeMillis());
+        } catch (IOException e) {
+            android.util.Log.w("MainActivity", "Unable to read session journal", e);
+            return;
+        }
+        if (recovery == null) {
+            return; // No session in progress
+        }
+        currentSession = recovery.getSession();
+        if (currentSession.getSessionId() == 0) {
+            currentSession.setSessionId(newSessionId()); // Journal written before session ids existed
+        }
+
+        // The user was choosing the subject and task of the next cycle
+        if (recovery.isAwaitingNextCycle()) {
+            stateMachine.restore(SessionState.COMPLETED, null);
+            showBottomSheetForNextCycle(recovery.isRoundComplete());
+            return;
+        }
+
+        // Session created but its first work phase was never recorded - start it now
+        if (recovery.getState() == SessionState.READY) {
+            showActiveBottomSheet();
+            return;
+        }
+
+        // Re-plan the round and move the timeline to the recovered phase
+        long totalMillis = recovery.getTotalDurationMillis();
+        long remainingMillis = recovery.getRemainingMillis();
+        sessionTimeline = SessionPlanner.plan(techniqueRegistry.getOrCustom(currentSession.getTechnique()),
+            currentSession.getWorkDurationMillis(), currentSession.getCurrentCycle());
+        sessionTimeline.start(stateMachine.getClock().elapsedRealtime());
+        if (recovery.isBreakPhase()) {
+            sessionTimeline.advance();
+        }
+
+        showActiveSessionCard();
+
+        SessionState phaseState = recovery.getPhaseState();
+        switch (recovery.getState()) {
+            case COMPLETED:
+                // The phase ended before the process died - continue where the user left off
+                stateMachine.restore(phaseState, null);
+                if (recovery.isBreakPhase()) {
+                    showBreakCompleteState(); // "Start Next Session"
+                } else if (sessionTimeline.isNextBreak()) {
+                    startPlannedBreak(); // Died during the work-to-break transition
                 } else {
-                    // Time expired while app was paused
-                    // Determine which timer expired
-                    if (sessionState == SessionState.ACTIVE_BREAK) {
-                        handleBreakTimerComplete();
-                    } else {
-                        handleWorkTimerComplete();
-                    }
+                    updateSessionState(SessionState.COMPLETED);
+                    updateTimerDisplay(0, totalMillis);
+                    updateCircularProgress(0, totalMillis);
+                    updateLinearProgress(0, totalMillis);
+                    showCompletionDialog(false);
                 }
-            }
-            
-            // Reset pause flag
-            wasPaused = false;
-        } else if (currentSession == null) {
-            // App was killed (session lost - acceptable)
-            // Reset pause flag
-            wasPaused = false;
+                return;
+            case PAUSED:
+                stateMachine.restore(SessionState.PAUSED, phaseState);
+                sessionTimer.restore(totalMillis, remainingMillis, recovery.isBreakPhase(), true);
+                updateUIForState(SessionState.PAUSED);
+                if (tvTimerDisplay != null) {
+                    tvTimerDisplay.clearAnimation();
+                }
+                break;
+            default:
+                stateMachine.restore(phaseState, null);
+                updateUIForState(phaseState);
+                if (recovery.isLongBreak() && tvPhaseIndicator != null) {
+                    tvPhaseIndicator.setText("LONG BREAK");
+                }
+                sessionTimer.restore(totalMillis, remainingMillis, recovery.isBreakPhase(), false);
+                break;
         }
-        // If wasPaused is false and currentSession is null, app was killed - that's acceptable
+
+        // Show the recovered remaining time right away (the tick hub only runs while visible)
+        updateTimerDisplay(remainingMillis, totalMillis);
+        updateCircularProgress(remainingMillis, totalMillis);
+        updateLinearProgress(remainingMillis, totalMillis);
     }
 
     /**
      * Starts the work timer countdown
-     * @param durationMinutes The duration in minutes (or seconds in TEST_MODE)
-     */
-    private void startWorkTimer(int durationMinutes) {
-        // Cancel any existing timer
-        if (workTimer != null) {
-            workTimer.cancel();
-            workTimer = null;
-        }
-
-        // Convert to milliseconds
-        // In TEST_MODE: duration is in seconds, so convert directly: seconds * 1000
-        // In PRODUCTION: duration is in minutes, so convert: minutes * 60 * 1000
-        long durationMillis;
-        if (TEST_MODE) {
-            // Test mode: duration is already in seconds
-            durationMillis = durationMinutes * 1000L;
-        } else {
-            // Production mode: duration is in minutes
-            durationMillis = durationMinutes * 60 * 1000L;
-        }
-        
+     * @param durationMillis The planned work phase duration in milliseconds
+     */
+    private void startWorkTimer(long durationMillis) {
         // Store initial duration in session
         if (currentSession != null) {
             currentSession.setRemainingTimeMillis(durationMillis);
             // Fix: Reset cycle start time when starting a new work cycle
             // This ensures each cycle's time spent is calculated independently
             currentSession.setCycleStartTime(System.currentTimeMillis());
+            sessionJournal.workStarted(currentSession, durationMillis);
         }
 
-        // Start timer with full duration
-        startWorkTimerFromRemaining(durationMillis, durationMillis);
+        // Start timer with full duration (replaces any running phase)
+        sessionTimer.start(durationMillis, false);
+        requestTimerUiTick();
+        if (!isActivityVisible) {
+            refreshSessionNotification();
+        }
     }
 
     /**
-     * Resumes the work timer from a specific remaining time
-     * Used when resuming after app pause
-     * @param remainingTimeMillis Remaining time in milliseconds
+     * Resumes the paused work timer
+     * Only moves the timer deadline - the remaining time was frozen when pausing
      */
-    private void resumeWorkTimer(long remainingTimeMillis) {
-        // Cancel any existing timer
-        if (workTimer != null) {
-            workTimer.cancel();
-            workTimer = null;
-        }
-
-        // Get the original work duration to calculate progress
-        // In TEST_MODE: workDuration is stored in seconds
-        // In PRODUCTION: workDuration is stored in minutes
-        int workDurationValue = currentSession != null ? currentSession.getWorkDuration() : (TEST_MODE ? 85 : 25);
-        long totalDurationMillis;
-        if (TEST_MODE) {
-            // Test mode: workDuration is in seconds
-            totalDurationMillis = workDurationValue * 1000L;
-        } else {
-            // Production mode: workDuration is in minutes
-            totalDurationMillis = workDurationValue * 60 * 1000L;
-        }
-
+    private void resumeWorkTimer() {
         // Update session state back to ACTIVE_WORK
         if (currentSession != null) {
             updateSessionState(SessionState.ACTIVE_WORK);
-            // Clear previous state tracking after resuming
-            previousStateBeforePause = null;
         }
 
-        // Start timer from remaining time
-        startWorkTimerFromRemaining(remainingTimeMillis, totalDurationMillis);
+        // Restart countdown from the frozen remaining time
+        sessionTimer.resume();
+        sessionJournal.resumed();
+        requestTimerUiTick();
+        if (!isActivityVisible) {
+            refreshSessionNotification();
+        }
     }
 
     /**
-     * Step 4.1 & 4.6: Resumes the break timer from a specific remaining time
-     * Used when resuming after app pause
-     * @param remainingTimeMillis Remaining time in milliseconds
+     * Step 4.1 & 4.6: Resumes the paused break timer
+     * Only moves the timer deadline - the remaining time was frozen when pausing
      */
-    private void resumeBreakTimer(long remainingTimeMillis) {
-        // Cancel any existing break timer
-        if (breakTimer != null) {
-            breakTimer.cancel();
-            breakTimer = null;
-        }
+    private void resumeBreakTimer() {
+        // Step 4.6: Check if this is a long break for Pomodoro (after 4 cycles)
+        boolean isLongBreak = isLongBreakCycle();
 
-        // Step 4.6: Get the original break duration to calculate progress
-        // Check if this is a long break for Pomodoro (after 4 cycles)
-        int breakDurationMinutes = currentSession != null ? currentSession.getBreakDuration() : 5;
-        boolean isLongBreak = false;
-        
-        if (currentSession != null && 
-            currentSession.getTechnique().equals(TECHNIQUE_POMODORO) && 
-            currentSession.getCurrentCycle() == 4) {
-            // This is a long break - use long break duration
-            breakDurationMinutes = StudySession.getLongBreakDurationForTechnique(TECHNIQUE_POMODORO);
-            isLongBreak = true;
-        }
-        
-        // Convert to milliseconds
-        // In TEST_MODE: duration is in seconds, so convert directly: seconds * 1000
-        // In PRODUCTION: duration is in minutes, so convert: minutes * 60 * 1000
-        long totalDurationMillis;
-        if (TEST_MODE) {
-            // Test mode: duration is already in seconds
-            totalDurationMillis = breakDurationMinutes * 1000L;
-        } else {
-            // Production mode: duration is in minutes
-            totalDurationMillis = breakDurationMinutes * 60 * 1000L;
-        }
-        
-        // Store total break duration for extend break functionality
-        currentBreakTotalDurationMillis = totalDurationMillis;
-
-        // Update session remaining time
-        currentSession.setRemainingTimeMillis(remainingTimeMillis);
-
-        // Update progress bar based on remaining time
-        if (progressBar != null) {
-            float progress = (float) remainingTimeMillis / (float) totalDurationMillis;
-            progressBar.setScaleX(progress);
-            progressBar.setScaleY(progress);
+        // Update session state back to ACTIVE_BREAK
+        if (currentSession != null) {
+            updateSessionState(SessionState.ACTIVE_BREAK);
         }
 
         // Update phase indicator
@@ -1217,34 +1375,12 @@ public class MainActivity extends AppCompatActivity {
             breakButtonRow.setVisibility(View.VISIBLE); // Show break action buttons
         }
 
-        // Create and start break countdown timer
-        breakTimer = new CountDownTimer(remainingTimeMillis, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                // Update session remaining time
-                if (currentSession != null) {
-                    currentSession.setRemainingTimeMillis(millisUntilFinished);
-                }
-                
-                // Update timer display
-                updateTimerDisplay(millisUntilFinished);
-                
-                // Update progress indicator (use total duration for progress)
-                updateProgressIndicator(millisUntilFinished, currentBreakTotalDurationMillis);
-            }
-
-            @Override
-            public void onFinish() {
-                // Break timer completed
-                handleBreakTimerComplete();
-            }
-        }.start();
-        
-        // Update session state back to ACTIVE_BREAK
-        if (currentSession != null) {
-            updateSessionState(SessionState.ACTIVE_BREAK);
-            // Clear previous state tracking after resuming
-            previousStateBeforePause = null;
+        // Restart countdown from the frozen remaining time
+        sessionTimer.resume();
+        sessionJournal.resumed();
+        requestTimerUiTick();
+        if (!isActivityVisible) {
+            refreshSessionNotification();
         }
     }
 
@@ -1257,25 +1393,17 @@ public class MainActivity extends AppCompatActivity {
             return; // Safety check
         }
 
-        // Store the current state before pausing (so we know if it was work or break)
-        previousStateBeforePause = currentState;
-
-        // Cancel the appropriate timer and save remaining time
-        if (workTimer != null && currentState == SessionState.ACTIVE_WORK) {
-            // Pause work timer
-            workTimer.cancel();
-            workTimer = null;
-            // Remaining time is already saved in currentSession.getRemainingTimeMillis() from onTick()
-        } else if (breakTimer != null && currentState == SessionState.ACTIVE_BREAK) {
-            // Pause break timer
-            breakTimer.cancel();
-            breakTimer = null;
-            // Remaining time is already saved in currentSession.getRemainingTimeMillis() from onTick()
-        } else {
-            // No active timer to pause
+        // Only an active countdown can be paused
+        if (!sessionTimer.isRunning() || !stateMachine.getState().isActive()) {
             return;
         }
 
+        // Freeze the deadline and keep a snapshot of the remaining time in the session
+        sessionTimer.pause();
+        tickHub.stop();
+        currentSession.setRemainingTimeMillis(sessionTimer.getRemainingMillis());
+        sessionJournal.paused(sessionTimer.getRemainingMillis());
+
         // Update session state to PAUSED
         currentSession.setPaused(true);
         updateSessionState(SessionState.PAUSED);
@@ -1299,18 +1427,15 @@ public class MainActivity extends AppCompatActivity {
         }
 
         // Check if we're actually paused
-        if (currentState != SessionState.PAUSED) {
+        if (stateMachine.getState() != SessionState.PAUSED) {
             return; // Not paused, can't resume
         }
 
-        // Get remaining time from session
-        long remainingTimeMillis = currentSession.getRemainingTimeMillis();
-
         // Check if there's time remaining
-        if (remainingTimeMillis <= 0) {
+        if (sessionTimer.getRemainingMillis() <= 0) {
             // Time expired while paused
-            // Determine which timer expired based on previous state
-            if (previousStateBeforePause == SessionState.ACTIVE_BREAK) {
+            // Determine which timer expired based on the paused phase
+            if (sessionTimer.isBreakPhase()) {
                 handleBreakTimerComplete();
             } else {
                 handleWorkTimerComplete();
@@ -1318,89 +1443,50 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        // Resume the appropriate timer based on previous state
-        if (previousStateBeforePause == SessionState.ACTIVE_WORK) {
-            // Resume work timer
-            resumeWorkTimer(remainingTimeMillis);
-            
-            // Step 5.4: Resume pulse animation when timer resumes
-            if (tvTimerDisplay != null) {
-                Animation pulseAnim = AnimationUtils.loadAnimation(this, R.anim.pulse);
-                tvTimerDisplay.startAnimation(pulseAnim);
-            }
-        } else if (previousStateBeforePause == SessionState.ACTIVE_BREAK) {
-            // Resume break timer
-            resumeBreakTimer(remainingTimeMillis);
-            
-            // Step 5.4: Resume pulse animation when timer resumes
-            if (tvTimerDisplay != null) {
-                Animation pulseAnim = AnimationUtils.loadAnimation(this, R.anim.pulse);
-                tvTimerDisplay.startAnimation(pulseAnim);
-            }
+        // Resume the appropriate timer based on the paused phase
+        if (sessionTimer.isBreakPhase()) {
+            resumeBreakTimer();
         } else {
-            // Unknown previous state, default to work
-            resumeWorkTimer(remainingTimeMillis);
-            
-            // Step 5.4: Resume pulse animation when timer resumes
-            if (tvTimerDisplay != null) {
-                Animation pulseAnim = AnimationUtils.loadAnimation(this, R.anim.pulse);
-                tvTimerDisplay.startAnimation(pulseAnim);
-            }
+            resumeWorkTimer();
+        }
+
+        // Step 5.4: Resume pulse animation when timer resumes
+        if (tvTimerDisplay != null) {
+            Animation pulseAnim = AnimationUtils.loadAnimation(this, R.anim.pulse);
+            tvTimerDisplay.startAnimation(pulseAnim);
         }
 
         // Clear paused flag
         currentSession.setPaused(false);
-        // previousStateBeforePause will be cleared when we update to the new state
-    }
-
-    /**
-     * Internal method to start work timer from a specific remaining time
-     * @param remainingTimeMillis Remaining time in milliseconds
-     * @param totalDurationMillis Total duration in milliseconds (for progress calculation)
-     */
-    private void startWorkTimerFromRemaining(long remainingTimeMillis, long totalDurationMillis) {
-        // Create and start countdown timer
-        workTimer = new CountDownTimer(remainingTimeMillis, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                // Update session remaining time
-                if (currentSession != null) {
-                    currentSession.setRemainingTimeMillis(millisUntilFinished);
-                }
-                
-                // Update timer display
-                updateTimerDisplay(millisUntilFinished);
-                
-                // Update progress indicator (use total duration for accurate progress)
-                updateProgressIndicator(millisUntilFinished, totalDurationMillis);
-            }
-
-            @Override
-            public void onFinish() {
-                // Timer completed
-                handleWorkTimerComplete();
-            }
-        }.start();
     }
 
     /**
      * Updates the timer display TextView with formatted time
-     * Called every second during countdown to update the display smoothly
+     * Subscribed to the tick hub - only called when the displayed second changes
      * @param millisUntilFinished Remaining time in milliseconds
+     * @param totalDurationMillis Total duration in milliseconds (unused)
      */
-    private void updateTimerDisplay(long millisUntilFinished) {
+    private void updateTimerDisplay(long millisUntilFinished, long totalDurationMillis) {
         if (tvTimerDisplay == null) {
             return; // Safety check
         }
 
-        // Format milliseconds to MM:SS format
+        // Format milliseconds to MM:SS format (reusing one builder instead of String.format)
         long totalSeconds = millisUntilFinished / 1000;
         long minutes = totalSeconds / 60;
         long seconds = totalSeconds % 60;
-        String formattedTime = String.format("%02d:%02d", minutes, seconds);
+        timerTextBuilder.setLength(0);
+        if (minutes < 10) {
+            timerTextBuilder.append('0');
+        }
+        timerTextBuilder.append(minutes).append(':');
+        if (seconds < 10) {
+            timerTextBuilder.append('0');
+        }
+        timerTextBuilder.append(seconds);
         
         // Update timer TextView with formatted time
-        tvTimerDisplay.setText(formattedTime);
+        tvTimerDisplay.setText(timerTextBuilder);
         
         // Update "Time remaining" text with smart format
         if (tvTimeRemaining != null) {
@@ -1460,18 +1546,12 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Updates the progress indicator based on remaining time
-     * Called every second during countdown to update the circular progress smoothly
-     * @param millisUntilFinished Remaining time in milliseconds
-     * @param totalDurationMillis Total duration in milliseconds
+     * Calculates remaining progress (1.0 = full time, 0.0 = no time left), clamped to 0.0 - 1.0
      */
-    private void updateProgressIndicator(long millisUntilFinished, long totalDurationMillis) {
-        if (progressBar == null) {
-            return; // Safety check
+    private float calculateProgress(long millisUntilFinished, long totalDurationMillis) {
+        if (totalDurationMillis <= 0) {
+            return 0.0f;
         }
-
-        // Calculate progress percentage (0.0 to 1.0)
-        // Progress represents remaining time, so 1.0 = full time, 0.0 = no time left
         float progress = (float) millisUntilFinished / (float) totalDurationMillis;
         
         // Clamp progress between 0.0 and 1.0 to prevent invalid values
@@ -1480,32 +1560,53 @@ public class MainActivity extends AppCompatActivity {
         } else if (progress > 1.0f) {
             progress = 1.0f;
         }
+        return progress;
+    }
 
-        // Calculate percentage for display (0-100)
-        int percentage = Math.round(progress * 100);
+    /**
+     * Updates the circular progress indicator based on remaining time
+     * Subscribed to the tick hub - skipped when the visible scale hasn't changed
+     * @param millisUntilFinished Remaining time in milliseconds
+     * @param totalDurationMillis Total duration in milliseconds
+     */
+    private void updateCircularProgress(long millisUntilFinished, long totalDurationMillis) {
+        if (progressBar == null) {
+            return; // Safety check
+        }
 
-        // Update circular progress indicator with smooth animation
-        // Shrinks from 1.0 (full) to 0.0 (empty) as time decreases
-        // Always use teal_200 color for circular progress
-        progressBar.animate()
-            .scaleX(progress)
-            .scaleY(progress)
-            .setDuration(300) // Smooth 300ms animation
-            .setInterpolator(new AccelerateDecelerateInterpolator())
-            .start();
+        // Shrinks from 1.0 (full) to 0.0 (empty) as time decreases (tracked in 1/1000 steps)
+        float progress = calculateProgress(millisUntilFinished, totalDurationMillis);
+        int permille = Math.round(progress * 1000);
+        if (permille == lastCircularProgressPermille) {
+            return;
+        }
+        lastCircularProgressPermille = permille;
 
-        // Keep circular progress color as teal_200 (no color changes)
-        // Circular progress always stays teal_200, no need to change
+        // Always use teal_200 color for circular progress (set when the phase starts)
+        progressBar.setScaleX(progress);
+        progressBar.setScaleY(progress);
+    }
 
-        // Update linear progress bar with smooth animation
-        if (linearProgressBar != null) {
-            ObjectAnimator progressAnimator = ObjectAnimator.ofInt(linearProgressBar, "progress", 
-                linearProgressBar.getProgress(), percentage);
-            progressAnimator.setDuration(300);
-            progressAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-            progressAnimator.start();
+    /**
+     * Updates the linear progress bar and its color based on remaining time
+     * Subscribed to the tick hub - skipped when the percentage hasn't changed
+     * @param millisUntilFinished Remaining time in milliseconds
+     * @param totalDurationMillis Total duration in milliseconds
+     */
+    private void updateLinearProgress(long millisUntilFinished, long totalDurationMillis) {
+        if (linearProgressBar == null) {
+            return; // Safety check
         }
 
+        // Calculate percentage for display (0-100)
+        float progress = calculateProgress(millisUntilFinished, totalDurationMillis);
+        int percentage = Math.round(progress * 100);
+        if (percentage == lastLinearProgressPercent) {
+            return;
+        }
+        lastLinearProgressPercent = percentage;
+        linearProgressBar.setProgress(percentage);
+
         // Determine color state for LINEAR progress bar only
         // Green: >66% remaining, Yellow: 33-66% remaining, Red: <33% remaining
         int newColorState;
@@ -1518,7 +1619,7 @@ public class MainActivity extends AppCompatActivity {
         }
 
         // Update linear progress bar color if state changed
-        if (linearProgressBar != null && newColorState != currentProgressColorState) {
+        if (newColorState != currentProgressColorState) {
             currentProgressColorState = newColorState;
             int colorRes;
             if (newColorState == 0) {
@@ -1537,32 +1638,15 @@ public class MainActivity extends AppCompatActivity {
 
     /**
      * Step 4.1: Starts the break timer countdown
-     * @param durationMinutes The break duration in minutes (or seconds in TEST_MODE)
+     * @param durationMillis The planned break phase duration in milliseconds
      * @param isLongBreak If true, shows "LONG BREAK" indicator (for Pomodoro after 4 cycles)
      */
-    private void startBreakTimer(int durationMinutes, boolean isLongBreak) {
-        // Cancel any existing break timer
-        if (breakTimer != null) {
-            breakTimer.cancel();
-            breakTimer = null;
-        }
-
-        // Convert to milliseconds
-        // In TEST_MODE: duration is in seconds, so convert directly: seconds * 1000
-        // In PRODUCTION: duration is in minutes, so convert: minutes * 60 * 1000
-        long durationMillis;
-        if (TEST_MODE) {
-            // Test mode: duration is already in seconds
-            durationMillis = durationMinutes * 1000L;
-        } else {
-            // Production mode: duration is in minutes
-            durationMillis = durationMinutes * 60 * 1000L;
-        }
-        
+    private void startBreakTimer(long durationMillis, boolean isLongBreak) {
         // Store initial break duration in session
         if (currentSession != null) {
             currentSession.setRemainingTimeMillis(durationMillis);
         }
+        sessionJournal.breakStarted(durationMillis, isLongBreak);
 
         // Update session state to ACTIVE_BREAK
         // This will update phase indicator to "BREAK TIME" and hide Cancel/Pause buttons
@@ -1586,9 +1670,6 @@ public class MainActivity extends AppCompatActivity {
             breakButtonRow.setVisibility(View.VISIBLE); // Show break action buttons
         }
 
-        // Store total break duration for extend break functionality
-        currentBreakTotalDurationMillis = durationMillis;
-
         // Initialize progress bar to full scale (100%)
         if (progressBar != null) {
             progressBar.setScaleX(1.0f);
@@ -1605,131 +1686,86 @@ public class MainActivity extends AppCompatActivity {
             );
             currentProgressColorState = 0; // Track linear progress color state
         }
+        lastCircularProgressPermille = 1000;
+        lastLinearProgressPercent = 100;
 
-        // Create and start break countdown timer
-        breakTimer = new CountDownTimer(durationMillis, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                // Update session remaining time
-                if (currentSession != null) {
-                    currentSession.setRemainingTimeMillis(millisUntilFinished);
-                }
-                
-                // Update timer display
-                updateTimerDisplay(millisUntilFinished);
-                
-                // Update progress indicator (use total break duration for progress)
-                updateProgressIndicator(millisUntilFinished, currentBreakTotalDurationMillis);
-            }
-
-            @Override
-            public void onFinish() {
-                // Break timer completed
-                handleBreakTimerComplete();
-            }
-        }.start();
+        // Start break countdown (replaces the finished work phase)
+        sessionTimer.start(durationMillis, true);
+        requestTimerUiTick();
+        if (!isActivityVisible) {
+            refreshSessionNotification();
+        }
     }
     
     /**
-     * Step 4.7: Extends the current break timer by 5 minutes (or 60 seconds in test mode)
+     * Step 4.2 & 4.6: Moves the timeline to the planned break and starts it
+     * The break (short or long) and its length were decided when the timeline was planned
      */
-    private void extendBreakTimer() {
-        if (breakTimer == null || currentSession == null) {
-            return; // No active break timer
+    private void startPlannedBreak() {
+        // Only start break if session still exists (user didn't cancel)
+        if (currentSession == null || sessionTimeline == null || !sessionTimeline.isNextBreak()) {
+            return;
         }
-        
-        // Get current remaining time
-        long currentRemainingTime = currentSession.getRemainingTimeMillis();
-        
-        // Add extension time
-        // In TEST_MODE: Add 30 seconds
-        // In PRODUCTION: Add 5 minutes
-        long additionalTime;
-        if (TEST_MODE) {
-            additionalTime = 30 * 1000L; // 30 seconds in milliseconds
-        } else {
-            additionalTime = 5 * 60 * 1000L; // 5 minutes in milliseconds
+        sessionTimeline.advance();
+
+        // Start break timer (with long break duration if applicable)
+        // Update state to ACTIVE_BREAK (done in startBreakTimer)
+        startBreakTimer(sessionTimeline.getCurrentDurationMillis(), sessionTimeline.isCurrentLongBreak());
+    }
+
+    /**
+     * Step 4.7: Skips the current break and immediately starts the next work session
+     */
+    private void skipBreak() {
+        if (currentSession == null || !sessionTimer.isBreakPhase()) {
+            return; // Not in a break
         }
-        long newRemainingTime = currentRemainingTime + additionalTime;
-        
-        // Update total break duration for progress calculation
-        currentBreakTotalDurationMillis += additionalTime;
-        
-        // Cancel current timer
-        breakTimer.cancel();
-        breakTimer = null;
-        
-        // Update session remaining time
-        currentSession.setRemainingTimeMillis(newRemainingTime);
-        
-        // Determine if this is a long break (for display purposes)
-        boolean isLongBreak = false;
-        if (currentSession.getTechnique().equals(TECHNIQUE_POMODORO) && 
-            currentSession.getCurrentCycle() == 4) {
-            isLongBreak = true;
+        // Cancel break timer
+        sessionTimer.cancel();
+        // Immediately start next work session (skip the break)
+        startNextWorkSession();
+
+        // The break countdown (with its Extend/Skip actions) must not outlive the break - the
+        // notification now asks to continue; the work phase refreshes it again once it starts
+        if (!isActivityVisible) {
+            refreshSessionNotification();
         }
-        
-        // Restart timer with extended time
-        restartBreakTimerWithNewDuration(newRemainingTime, currentBreakTotalDurationMillis, isLongBreak);
-        
-        // Show toast notification
-        String extensionMessage = TEST_MODE ? "Break extended by 30 seconds" : "Break extended by 5 minutes";
-        Toast.makeText(this, extensionMessage, Toast.LENGTH_SHORT).show();
     }
-    
+
     /**
-     * Step 4.7: Helper method to restart break timer with new duration
+     * Step 4.7: Extends the current break timer by 5 minutes (or 30 seconds in test mode)
+     * Only moves the break deadline - no new timer is created
      */
-    private void restartBreakTimerWithNewDuration(long remainingTimeMillis, long totalDurationMillis, boolean isLongBreak) {
-        // Cancel any existing timer
-        if (breakTimer != null) {
-            breakTimer.cancel();
-            breakTimer = null;
+    private void extendBreakTimer() {
+        if (currentSession == null || !sessionTimer.isBreakPhase() || 
+            (!sessionTimer.isRunning() && !sessionTimer.isPaused())) {
+            return; // No active break timer
         }
         
-        // Update session remaining time
-        if (currentSession != null) {
-            currentSession.setRemainingTimeMillis(remainingTimeMillis);
-        }
+        // Add extension time (5 minutes, 30 seconds with the test schedules)
+        long additionalTime = techniqueRegistry.getBreakExtensionMillis();
         
-        // Update progress bar to reflect new total duration
-        if (progressBar != null) {
-            float progress = (float) remainingTimeMillis / (float) totalDurationMillis;
-            progressBar.setScaleX(progress);
-            progressBar.setScaleY(progress);
+        // Move the deadline (total break duration grows for progress calculation)
+        sessionTimer.extend(additionalTime);
+        sessionJournal.extended(additionalTime);
+        
+        // Refresh timer text and progress indicators against the new total duration
+        requestTimerUiTick();
+        
+        // The deadline moved - update the notification countdown when in the background
+        if (!isActivityVisible) {
+            refreshSessionNotification();
         }
         
-        // Create and start break countdown timer with extended time
-        breakTimer = new CountDownTimer(remainingTimeMillis, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                // Update session remaining time
-                if (currentSession != null) {
-                    currentSession.setRemainingTimeMillis(millisUntilFinished);
-                }
-                
-                // Update timer display
-                updateTimerDisplay(millisUntilFinished);
-                
-                // Update progress indicator (use total duration for progress)
-                updateProgressIndicator(millisUntilFinished, totalDurationMillis);
-            }
-
-            @Override
-            public void onFinish() {
-                // Break timer completed
-                handleBreakTimerComplete();
-            }
-        }.start();
+        // Show toast notification
+        String extensionMessage = "Break extended by " + formatTechniqueDuration(additionalTime);
+        Toast.makeText(this, extensionMessage, Toast.LENGTH_SHORT).show();
     }
 
     /**
      * Step 4.1 & 4.6: Handles break timer completion
      */
     private void handleBreakTimerComplete() {
-        // Cancel timer reference
-        breakTimer = null;
-
         // Step 5.4: Stop pulse animation when timer completes
         if (tvTimerDisplay != null) {
             tvTimerDisplay.clearAnimation();
@@ -1739,17 +1775,31 @@ public class MainActivity extends AppCompatActivity {
         if (currentSession != null) {
             currentSession.setRemainingTimeMillis(0);
         }
+        sessionTimer.cancel();
+        sessionJournal.phaseFinished();
 
         // Step 4.6: Check if this was a long break for Pomodoro (after 4 cycles)
-        boolean wasLongBreak = false;
-        if (currentSession != null && 
-            currentSession.getTechnique().equals(TECHNIQUE_POMODORO) && 
-            currentSession.getCurrentCycle() == 4) {
-            wasLongBreak = true;
-            // Note: Cycle will be reset when user starts next work session (in startNextWorkSession)
-            // This allows us to distinguish between cycle 1 after reset vs cycle 1 for new session
-        }
+        // Note: Cycle will be reset when user starts next work session (in startNextWorkSession)
+        // This allows us to distinguish between cycle 1 after reset vs cycle 1 for new session
+        boolean wasLongBreak = isLongBreakCycle();
+
+        showBreakCompleteState();
 
+        // Step 5.2: Play sound notification and vibrate when break timer completes
+        playNotificationSound(BREAK_TIMER_COMPLETES);
+        vibrate();
+
+        // Show break completion notification
+        String breakMessage = wasLongBreak ? "Long Break Complete! 🎉" : "Break Complete! 🎉";
+        Toast.makeText(this, breakMessage, Toast.LENGTH_LONG).show();
+        
+        // NO completion dialog when break completes - user can directly click "Start Next Session"
+    }
+
+    /**
+     * Shows the finished break on the active card (COMPLETED, "Start Next Session")
+     */
+    private void showBreakCompleteState() {
         // Update UI to show break completion
         if (tvTimerDisplay != null) {
             tvTimerDisplay.setText("00:00");
@@ -1774,18 +1824,12 @@ public class MainActivity extends AppCompatActivity {
             );
             currentProgressColorState = 2;
         }
+        lastCircularProgressPermille = 0;
+        lastLinearProgressPercent = 0;
 
         // Update session state to COMPLETED so "Start Next Session" button becomes visible
         updateSessionState(SessionState.COMPLETED);
 
-        // Step 5.2: Play sound notification and vibrate when break timer completes
-        playNotificationSound(BREAK_TIMER_COMPLETES);
-        vibrate();
-
-        // Show break completion notification
-        String breakMessage = wasLongBreak ? "Long Break Complete! 🎉" : "Break Complete! 🎉";
-        Toast.makeText(this, breakMessage, Toast.LENGTH_LONG).show();
-
         // Update phase indicator to show break complete
         if (tvPhaseIndicator != null) {
             tvPhaseIndicator.setText("Break Complete!");
@@ -1814,9 +1858,6 @@ public class MainActivity extends AppCompatActivity {
         if (btnExtendBreak != null) {
             btnExtendBreak.setVisibility(View.GONE);
         }
-        
-        // Reset break duration tracking
-        currentBreakTotalDurationMillis = 0;
 
         // Step 4.3: Update "Mark as Done" button to "Start Next Session" when break completes
         // This allows user to start next work cycle
@@ -1827,8 +1868,6 @@ public class MainActivity extends AppCompatActivity {
                 startNextWorkSession();
             });
         }
-        
-        // NO completion dialog when break completes - user can directly click "Start Next Session"
     }
 
     /**
@@ -1844,19 +1883,18 @@ public class MainActivity extends AppCompatActivity {
         int currentCycle = currentSession.getCurrentCycle();
         boolean completedAllCycles = false;
         
-        // Step 4.6: If Pomodoro and cycle is 4, we just completed a long break
-        // Reset cycle to 1 for the next cycle
-        if (currentSession.getTechnique().equals(TECHNIQUE_POMODORO) && currentCycle == 4) {
-            currentSession.resetCycle();
-            completedAllCycles = true; // Mark that all cycles are complete
-        } else if (currentSession.getTechnique().equals(TECHNIQUE_SPRINT) && currentCycle == 4) {
-            // Sprint also has 4 cycles - reset after completing all 4
+        // Step 4.6: If the round is over (Pomodoro and Sprint have 4 cycles), reset cycle to 1
+        TechniqueSpec spec = techniqueRegistry.getOrCustom(currentSession.getTechnique());
+        if (spec.isLastCycleOfRound(currentCycle)) {
             currentSession.resetCycle();
+            currentSession.setSessionId(newSessionId()); // New round: its cycles are new history entries
             completedAllCycles = true; // Mark that all cycles are complete
         } else {
             // Otherwise, increment cycle for next work session
             currentSession.incrementCycle();
         }
+        sessionJournal.cycleAdvanced(currentSession.getCurrentCycle(), completedAllCycles,
+            currentSession.getSessionId());
         
         // Save the current technique to pre-select it in the form
         String previousTechnique = currentSession.getTechnique();
@@ -1873,15 +1911,8 @@ public class MainActivity extends AppCompatActivity {
         // Store flag to know if we should clear subject field (all cycles complete)
         // We'll pass this to showBottomSheetForNextCycle
 
-        // Cancel any running timers
-        if (workTimer != null) {
-            workTimer.cancel();
-            workTimer = null;
-        }
-        if (breakTimer != null) {
-            breakTimer.cancel();
-            breakTimer = null;
-        }
+        // Cancel any running timer
+        sessionTimer.cancel();
 
         // Close the active bottom sheet
         if (activeBottomSheetDialog != null && activeBottomSheetDialog.isShowing()) {
@@ -1905,7 +1936,6 @@ public class MainActivity extends AppCompatActivity {
         btnMinimize = null;
         progressContainer = null;
         isMinimized = false;
-        currentBreakTotalDurationMillis = 0;
 
         // Show the create goal form so user can optionally update task/subject
         // The form will be pre-filled with current session data
@@ -1961,14 +1991,14 @@ public class MainActivity extends AppCompatActivity {
         etTask.setText("");
         
         // Handle duration field based on technique
-        if (techniqueName != null && !techniqueName.equals(TECHNIQUE_DEADLINE)) {
+        if (techniqueRegistry.getOrCustom(techniqueName).hasFixedWorkDuration()) {
             int duration = getTechniqueDuration(techniqueName);
             etDuration.setText(String.valueOf(duration));
             etDuration.setEnabled(false);
             tilDuration.setHelperText(duration + " min (" + techniqueName + ")");
         } else {
             // For deadline/custom, allow editing
-            etDuration.setText(String.valueOf(currentSession.getWorkDuration()));
+            etDuration.setText(String.valueOf(techniqueRegistry.toUnits(currentSession.getWorkDurationMillis())));
             etDuration.setEnabled(true);
             tilDuration.setHelperText("Enter duration in minutes");
         }
@@ -2099,8 +2129,9 @@ public class MainActivity extends AppCompatActivity {
      * Implements smooth work-to-break transition
      */
     private void handleWorkTimerComplete() {
-        // Cancel timer reference
-        workTimer = null;
+        // Stop the timer (also covers completion detected on resume)
+        sessionTimer.cancel();
+        sessionJournal.phaseFinished();
 
         // Step 5.4: Stop pulse animation when timer completes
         if (tvTimerDisplay != null) {
@@ -2117,8 +2148,8 @@ public class MainActivity extends AppCompatActivity {
             addCompletedSession(currentSession);
         }
 
-        // Check if technique has break (breakDuration > 0)
-        if (currentSession != null && currentSession.getBreakDuration() > 0) {
+        // Check if the planned timeline continues with a break
+        if (currentSession != null && sessionTimeline != null && sessionTimeline.isNextBreak()) {
             // Show "Work Session Complete!" message
             Toast.makeText(this, "Work Session Complete! 🎉", Toast.LENGTH_SHORT).show();
             
@@ -2135,6 +2166,7 @@ public class MainActivity extends AppCompatActivity {
                 progressBar.setScaleX(0.0f);
                 progressBar.setScaleY(0.0f);
             }
+            lastCircularProgressPermille = 0;
             
             // Update phase indicator to show work complete
             if (tvPhaseIndicator != null) {
@@ -2153,29 +2185,8 @@ public class MainActivity extends AppCompatActivity {
             // In test mode, reduce delay to 0.5 seconds for faster testing
             //long transitionDelay = TEST_MODE ? 500 : 2500; // 0.5s in test mode, 2.5s in production
             long transitionDelay = 2500;
-            Handler handler = new Handler(Looper.getMainLooper());
-            handler.postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    // Only start break if session still exists (user didn't cancel)
-                    if (currentSession != null && currentSession.getBreakDuration() > 0) {
-                        // Step 4.6: Check if this is a long break for Pomodoro (after 4 cycles)
-                        int breakDuration = currentSession.getBreakDuration();
-                        boolean isLongBreak = false;
-                        
-                        if (currentSession.getTechnique().equals(TECHNIQUE_POMODORO) && 
-                            currentSession.getCurrentCycle() == 4) {
-                            // Use long break duration (2 min in test mode, 25 min in production)
-                            breakDuration = StudySession.getLongBreakDurationForTechnique(TECHNIQUE_POMODORO);
-                            isLongBreak = true;
-                        }
-                        
-                        // Start break timer (with long break duration if applicable)
-                        startBreakTimer(breakDuration, isLongBreak);
-                        // Update state to ACTIVE_BREAK (done in startBreakTimer)
-                    }
-                }
-            }, transitionDelay);
+            phaseTransitionHandler.removeCallbacks(startPlannedBreakRunnable);
+            phaseTransitionHandler.postDelayed(startPlannedBreakRunnable, transitionDelay);
         } else {
             // No break (Deadline Simulation or Custom Goal with no break)
             // Show completion screen directly
@@ -2198,6 +2209,7 @@ public class MainActivity extends AppCompatActivity {
                 progressBar.setScaleX(0.0f);
                 progressBar.setScaleY(0.0f);
             }
+            lastCircularProgressPermille = 0;
 
             // Show completion notification
             Toast.makeText(this, "Work Session Complete! 🎉", Toast.LENGTH_LONG).show();
@@ -2213,8 +2225,12 @@ public class MainActivity extends AppCompatActivity {
      * @param newState The new state to transition to
      */
     private void updateSessionState(SessionState newState) {
-        // Update current state variable
-        currentState = newState;
+        // Update current state (checked against the SessionState transition table)
+        SessionState oldState = stateMachine.getState();
+        if (!stateMachine.transitionTo(newState)) {
+            android.util.Log.w("MainActivity", "Ignoring invalid state transition " + oldState + " -> " + newState);
+            return;
+        }
         
         // Update session state if session exists
         if (currentSession != null) {
@@ -2223,6 +2239,13 @@ public class MainActivity extends AppCompatActivity {
         
         // Update UI based on new state
         updateUIForState(newState);
+        
+        // Keep the ongoing notification in sync while the user is outside the app
+        // Active phases refresh it once their timer runs (start/resume) - before that, the
+        // stopped timer would make the notification show the phase as completed
+        if (!isActivityVisible && !newState.isActive()) {
+            refreshSessionNotification();
+        }
     }
 
     /**
@@ -2435,7 +2458,7 @@ public class MainActivity extends AppCompatActivity {
         }
         
         // Restore button visibility based on current state
-        updateUIForState(currentState);
+        updateUIForState(stateMachine.getState());
         
         // Change maximize button icon back to minimize (arrow down)
         if (btnMinimize != null) {
@@ -2471,24 +2494,22 @@ public class MainActivity extends AppCompatActivity {
         MaterialButton btnOk = dialogView.findViewById(R.id.btnOk);
         
         // Get technique data
-        int workDuration = getTechniqueDuration(techniqueName);
-        int breakDuration = getTechniqueBreakDuration(techniqueName);
-        String description = getTechniqueDescription(techniqueName);
+        TechniqueSpec spec = techniqueRegistry.getOrCustom(techniqueName);
         
         // Populate dialog with technique data
         tvTechniqueName.setText(techniqueName + " Technique");
-        tvWorkDuration.setText(workDuration + " minutes");
+        tvWorkDuration.setText(formatTechniqueDuration(spec.getWorkMillis()));
         
         // Handle break duration display (special case for Sprint: 1.5 minutes)
-        if (techniqueName.equals(TECHNIQUE_SPRINT)) {
+        if (spec.getId() == TechniqueRegistry.ID_SPRINT) {
             tvBreakDuration.setText("1.5 minutes");
-        } else if (breakDuration == 0) {
+        } else if (!spec.hasBreak()) {
             tvBreakDuration.setText("No break");
         } else {
-            tvBreakDuration.setText(breakDuration + " minutes");
+            tvBreakDuration.setText(formatTechniqueDuration(spec.getBreakMillis()));
         }
         
-        tvDescription.setText(description);
+        tvDescription.setText(spec.getDescription());
         
         // Configure buttons based on context
         if (fromActiveDialog) {
@@ -2520,54 +2541,17 @@ public class MainActivity extends AppCompatActivity {
     }
     
     /**
-     * Step 1.3: Gets the break duration for a technique
-     * @param techniqueName The name of the technique
-     * @return Break duration in minutes
-     */
-    private int getTechniqueBreakDuration(String techniqueName) {
-        if (techniqueName == null) {
-            return 0;
-        }
-        
-        switch (techniqueName) {
-            case TECHNIQUE_POMODORO:
-                return 5; // Short break (long break is 25, handled separately)
-            case TECHNIQUE_5217:
-                return 17;
-            case TECHNIQUE_90MINUTE:
-                return 25;
-            case TECHNIQUE_SPRINT:
-                return 1; // 1.5 minutes, rounded to 1 for display (actual is 1.5)
-            case TECHNIQUE_DEADLINE:
-                return 0; // No break
-            default:
-                return 0;
-        }
-    }
-    
-    /**
-     * Step 1.3: Gets the description for a technique
-     * @param techniqueName The name of the technique
-     * @return Description text
-     */
-    private String getTechniqueDescription(String techniqueName) {
-        if (techniqueName == null) {
-            return "";
-        }
-        
-        switch (techniqueName) {
-            case TECHNIQUE_POMODORO:
-                return "Work for 25 minutes, then take a 5-minute break. Repeat for 4 cycles, then take a longer 25-minute break. This technique helps maintain focus and prevents burnout.";
-            case TECHNIQUE_5217:
-                return "Work intensively for 52 minutes, then take a 17-minute break. This technique is ideal for deep work sessions that require sustained concentration.";
-            case TECHNIQUE_90MINUTE:
-                return "Work for 90 minutes (one full sleep cycle), then take a 25-minute break. This technique aligns with your natural ultradian rhythm for optimal productivity.";
-            case TECHNIQUE_SPRINT:
-                return "Work for 12 minutes, then take a 1.5-minute break. Perfect for quick tasks and maintaining high energy throughout your work session.";
-            case TECHNIQUE_DEADLINE:
-                return "Set a custom work duration with no scheduled breaks. Ideal for time-sensitive tasks or when you need to power through without interruptions.";
-            default:
-                return "";
+     * Step 1.3: Formats a technique duration for the info dialog
+     * Examples: "25 minutes", "1.5 minutes", "85 seconds" (test mode)
+     */
+    private String formatTechniqueDuration(long millis) {
+        if (millis % 60000 == 0) {
+            long minutes = millis / 60000;
+            return minutes + (minutes == 1 ? " minute" : " minutes");
+        } else if (millis > 60000 && millis % 30000 == 0) {
+            return (millis / 60000) + ".5 minutes";
+        } else {
+            return (millis / 1000) + " seconds";
         }
     }
     
@@ -2670,76 +2654,75 @@ public class MainActivity extends AppCompatActivity {
      * @param session The completed study session
      */
     public void addCompletedSession(StudySession session) {
-        if (session == null) {
+        if (session == null || sessionHistory == null) {
             return; // Safety check
         }
         
-        // Prevent duplicate entries: Check if this session (by start time) is already in the list
-        // We use start time as a unique identifier since each session has a unique start time
-        long sessionStartTime = session.getStartTime();
-        for (CompletedSession existing : completedSessions) {
-            // Check if the existing session has the same start time (within 1 second tolerance)
-            // We can't directly compare StudySession, so we compare by checking if the time spent
-            // calculation would result in a similar timestamp
-            // Actually, simpler: check if there's a session with same subject, task, and technique
-            // that was completed very recently (within last 5 seconds) - likely the same session
-            long timeDiff = Math.abs(System.currentTimeMillis() - existing.getCompletionTimestamp());
-            if (timeDiff < 5000 && // Completed within last 5 seconds
-                existing.getSubject().equals(session.getSubject()) &&
-                existing.getTask().equals(session.getTask()) &&
-                existing.getTechnique().equals(session.getTechnique())) {
-                // This session is already in the list, don't add duplicate
-                return;
-            }
-        }
-        
         // Fix: Calculate actual time spent for THIS CYCLE ONLY (not cumulative)
         // For multi-cycle techniques (Pomodoro, Sprint), each cycle should show its own time
-        // Use cycleStartTime instead of startTime to get time spent for current cycle only
-        long currentTime = System.currentTimeMillis();
-        long cycleStartTime = session.getCycleStartTime();
-        long timeSpentMillis = currentTime - cycleStartTime;
+        // Step 2.9: Set duration (already in milliseconds) and cycle come from the session
+        CompletedSession completedSession = CompletedSession.fromStudySession(session,
+            stateMachine.getClock().currentTimeMillis());
         
-        // Step 2.9: Get set duration and cycle from session
-        // Convert work duration to milliseconds
-        // In TEST_MODE: workDuration is in seconds, so convert: seconds * 1000
-        // In PRODUCTION: workDuration is in minutes, so convert: minutes * 60 * 1000
-        long setDurationMillis;
-        if (TEST_MODE) {
-            // Test mode: workDuration is in seconds
-            setDurationMillis = session.getWorkDuration() * 1000L;
-        } else {
-            // Production mode: workDuration is in minutes
-            setDurationMillis = session.getWorkDuration() * 60 * 1000L;
+        // Append to the persistent history (shown most recent at top)
+        // Prevent duplicate entries: a cycle of a session (same session id and cycle) is recorded once
+        try {
+            if (!sessionHistory.add(completedSession)) {
+                return; // Already recorded (e.g. marked done right as the timer completed)
+            }
+        } catch (IOException e) {
+            android.util.Log.w("MainActivity", "Unable to save completed session", e);
         }
-        // Get cycle number (for Pomodoro technique, default 0 if not applicable)
-        int cycle = session.getCurrentCycle();
-        
-        // Create CompletedSession object
-        CompletedSession completedSession = new CompletedSession(
-            session.getTechnique(),
-            session.getSubject(),
-            session.getTask(),
-            timeSpentMillis,
-            currentTime, // completion timestamp
-            setDurationMillis, // original duration set when goal was created
-            cycle // cycle number
-        );
         
-        // Add to beginning of list (most recent at top)
-        completedSessions.add(0, completedSession);
-        
-        // Notify MyActivityFragment to refresh (if it exists)
-        // Fragment will refresh on onResume() when user switches to "My Activity" tab
+        // The history publishes the new row: a visible MyActivityFragment inserts it right away,
+        // otherwise it refreshes on onResume() when the user switches to the "My Activity" tab
     }
 
     /**
      * Step 2.8: Returns the list of completed sessions
      * Used by MyActivityFragment to display session history
-     * @return List of completed sessions (transient - lost when app closes)
+     * @return Read-only newest-first view of the completed sessions (rows are read on access)
      */
     public List<CompletedSession> getCompletedSessions() {
-        return completedSessions;
+        if (sessionHistory == null) {
+            return Collections.emptyList(); // History unavailable
+        }
+        return sessionHistory.newestFirst();
+    }
+
+    /**
+     * Runs a history query (time range, technique, subject, search words) on the completed sessions
+     * Used by the MyActivityFragment search bar and filter chips
+     * @return Read-only view of the matches in the query's order (rows are read on access)
+     */
+    public List<CompletedSession> queryCompletedSessions(HistoryQuery query) {
+        if (sessionHistory == null) {
+            return Collections.emptyList(); // History unavailable
+        }
+        return sessionHistory.query(query);
+    }
+
+    /**
+     * Gets the techniques that appear in the history (for the technique filter chips)
+     */
+    public List<String> getHistoryTechniques() {
+        if (sessionHistory == null) {
+            return Collections.emptyList(); // History unavailable
+        }
+        return sessionHistory.getTechniqueNames();
+    }
+
+    /**
+     * Copies the history aggregates the Insights tab needs (O(buckets), main thread)
+     * The figures themselves are computed from the copy off the main thread
+     * @return null if the history is unavailable
+     */
+    public InsightsSnapshot.Input captureInsightsInput() {
+        if (sessionHistory == null) {
+            return null; // Safety check
+        }
+        return InsightsSnapshot.capture(sessionHistory.getRollups(), sessionHistory.getStore().getDictionary(),
+            stateMachine.getClock().currentTimeMillis());
     }
 
     /**
@@ -2756,6 +2739,8 @@ public class MainActivity extends AppCompatActivity {
         btnNavAboutProject = findViewById(R.id.btnNavAboutProject);
         btnNavAboutTeam = findViewById(R.id.btnNavAboutTeam);
         btnNavLogout = findViewById(R.id.btnNavLogout);
+        btnNavExportHistory = findViewById(R.id.btnNavExportHistory);
+        btnNavImportHistory = findViewById(R.id.btnNavImportHistory);
 
         // Get user name (from Intent or placeholder)
         currentUserName = getIntent().getStringExtra("fullName");
@@ -2811,12 +2796,132 @@ public class MainActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
+        btnNavExportHistory.setOnClickListener(v -> {
+            closeSidebar();
+            showExportHistoryDialog();
+        });
+
+        btnNavImportHistory.setOnClickListener(v -> {
+            closeSidebar();
+            if (!historyHost.isTransferRunning()) {
+                importLauncher.launch(new String[] {"text/*", "application/json"});
+            }
+        });
+
         btnNavLogout.setOnClickListener(v -> {
             closeSidebar();
             handleLogout();
         });
     }
 
+    /**
+     * Asks for the export format, then lets the user pick the target file
+     */
+    private void showExportHistoryDialog() {
+        if (sessionHistory == null || historyHost.isTransferRunning()) {
+            return; // Safety check
+        }
+        if (!sessionHistory.isLoaded()) {
+            Toast.makeText(this, "History is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        new android.app.AlertDialog.Builder(this)
+            .setTitle("Export History")
+            .setItems(new String[] {"CSV (spreadsheets)", "JSON"}, (dialog, which) -> {
+                if (which == 0) {
+                    exportCsvLauncher.launch("study-history.csv");
+                } else {
+                    exportJsonLauncher.launch("study-history.json");
+                }
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    /**
+     * Writes the history to a file picked by the user (see SessionHistoryHost.export())
+     */
+    private void exportHistory(Uri uri, HistoryExporter.Format format) {
+        if (uri == null) {
+            return; // Safety check (picker cancelled)
+        }
+        if (historyHost.export(uri, format)) {
+            showHistoryTransferDialog(historyHost.getTransferTitle());
+        }
+    }
+
+    /**
+     * Reads a CSV or JSON export picked by the user into the history
+     * Entries already in the history are skipped; lists follow the imported batches
+     */
+    private void importHistory(Uri uri) {
+        if (uri == null) {
+            return; // Safety check (picker cancelled)
+        }
+        if (historyHost.importFrom(uri)) {
+            showHistoryTransferDialog(historyHost.getTransferTitle());
+        }
+    }
+
+    /**
+     * Shows the export/import progress (the Cancel button interrupts the transfer)
+     */
+    private void showHistoryTransferDialog(String title) {
+        String progress = historyHost.getTransferProgress();
+        historyTransferDialog = new android.app.AlertDialog.Builder(this)
+            .setTitle(title)
+            .setMessage(progress != null ? progress : "Starting...")
+            .setCancelable(false)
+            .setNegativeButton("Cancel", (dialog, which) -> historyHost.cancelTransfer())
+            .show();
+    }
+
+    /**
+     * Closes the progress dialog (lists already followed the imported batches)
+     */
+    private void finishHistoryTransfer(String message) {
+        if (historyTransferDialog != null) {
+            historyTransferDialog.dismiss();
+            historyTransferDialog = null;
+        }
+        if (isFinishing() || isDestroyed()) {
+            return; // Safety check
+        }
+        Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+    }
+
+    /**
+     * Subscribes to the changes of the session history, delivered on the main thread
+     * Changes published before a delivery runs are merged into it (see HistoryChangeFeed)
+     * @return Subscription to cancel, or null if the history is unavailable
+     */
+    public HistoryChangeFeed.Subscription subscribeToHistory(HistoryChangeFeed.Listener listener) {
+        if (sessionHistory == null) {
+            return null; // History unavailable
+        }
+        return sessionHistory.getChanges().subscribe(phaseTransitionHandler::post, listener);
+    }
+
+    /**
+     * Folds history entries older than HISTORY_RAW_DAYS into daily summaries
+     * Runs on the history thread (see SessionHistoryHost.compact())
+     * Totals and insights stay the same - only the list of individual entries gets shorter
+     */
+    private void compactHistoryInBackground() {
+        historyHost.compact(stateMachine.getClock().currentTimeMillis(), HISTORY_RAW_DAYS);
+    }
+
+    /**
+     * Sums the entries matching a query, including days folded into summaries
+     * Used by the MyActivityFragment totals line
+     */
+    public RollupSeries.Totals getHistoryTotals(HistoryQuery query) {
+        if (sessionHistory == null) {
+            return RollupSeries.Totals.EMPTY; // History unavailable
+        }
+        return sessionHistory.totals(query);
+    }
+
     /**
      * Step 2.10: Opens the sidebar menu with slide-in animation
      */
@@ -2903,6 +3008,10 @@ public class MainActivity extends AppCompatActivity {
             .setTitle("Logout")
             .setMessage("Are you sure you want to logout?")
             .setPositiveButton("Yes", (dialog, which) -> {
+                // A running session belongs to the user logging out - don't restore it for the next one
+                sessionJournal.sessionEnded();
+                flushSessionJournal();
+
                 // Navigate to LoginActivity
                 android.content.Intent intent = new android.content.Intent(MainActivity.this, com.example.project.LoginActivity.class);
                 intent.setFlags(android.content.Intent.FLAG_ACTIVITY_NEW_TASK | android.content.Intent.FLAG_ACTIVITY_CLEAR_TASK);
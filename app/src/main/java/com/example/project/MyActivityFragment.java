@@ -1,6 +1,10 @@
 package com.example.project;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,18 +19,38 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
+import com.google.android.material.textfield.TextInputEditText;
 
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.List;
 
 /**
  * Fragment for the My Activity tab - displays completed study sessions
  * Shows empty state when no sessions, or RecyclerView with completed sessions
+ * The search bar (subject and task words) and the filter chips (time range, technique) are
+ * combined into one HistoryQuery, so filtering never materializes the full list
+ * While the tab is visible it follows the history change feed: a completed cycle or an import
+ * is inserted into the shown list right away, without reloading it
+ * A minute-aligned tick keeps the "5 minutes ago" labels of the visible rows current
  */
 public class MyActivityFragment extends Fragment {
     
     private RecyclerView recyclerViewCompletedSessions;
     private View emptyStateView;
+    private TextView tvEmptyStateTitle;
+    private TextView tvEmptyStateSubtitle;
+    private TextView tvHistoryTotals;
     private CompletedSessionAdapter adapter;
+    private String searchQuery = "";
+    private ChipGroup chipGroupRange;
+    private ChipGroup chipGroupTechnique;
+    private String selectedTechnique; // null = any technique
+    private List<String> shownTechniques = new ArrayList<>();
+    private HistoryChangeFeed.Subscription historySubscription; // Between onResume and onPause
+    private final Handler minuteHandler = new Handler(Looper.getMainLooper());
+    private final Runnable minuteTick = this::onMinuteTick;
     
     @Nullable
     @Override
@@ -36,6 +60,38 @@ public class MyActivityFragment extends Fragment {
         // Get references to views
         recyclerViewCompletedSessions = view.findViewById(R.id.recyclerViewCompletedSessions);
         emptyStateView = view.findViewById(R.id.emptyStateView);
+        tvEmptyStateTitle = view.findViewById(R.id.tvEmptyStateTitle);
+        tvEmptyStateSubtitle = view.findViewById(R.id.tvEmptyStateSubtitle);
+        tvHistoryTotals = view.findViewById(R.id.tvHistoryTotals);
+        
+        // Search as the user types (each change is an index lookup, not a scan)
+        TextInputEditText etSearch = view.findViewById(R.id.etSearch);
+        if (etSearch != null) {
+            etSearch.addTextChangedListener(new TextWatcher() {
+                @Override
+                public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+                }
+
+                @Override
+                public void onTextChanged(CharSequence s, int start, int before, int count) {
+                }
+
+                @Override
+                public void afterTextChanged(Editable s) {
+                    searchQuery = s.toString();
+                    refreshList();
+                }
+            });
+        }
+        
+        // Time range chips (single selection, one is always checked)
+        chipGroupRange = view.findViewById(R.id.chipGroupRange);
+        if (chipGroupRange != null) {
+            chipGroupRange.setOnCheckedStateChangeListener((group, checkedIds) -> refreshList());
+        }
+        
+        // Technique chips are created in updateTechniqueChips()
+        chipGroupTechnique = view.findViewById(R.id.chipGroupTechnique);
         
         // Set up RecyclerView
         setupRecyclerView();
@@ -53,8 +109,11 @@ public class MyActivityFragment extends Fragment {
             return; // Safety check
         }
         
-        // Get completed sessions list from MainActivity
-        List<CompletedSession> sessions = activity.getCompletedSessions();
+        // Get completed sessions list from MainActivity (matches of the current filters)
+        updateTechniqueChips(activity.getHistoryTechniques());
+        HistoryQuery query = buildQuery();
+        List<CompletedSession> sessions = activity.queryCompletedSessions(query);
+        updateTotals(activity.getHistoryTotals(query));
         
         // Create adapter
         adapter = new CompletedSessionAdapter(sessions);
@@ -74,11 +133,86 @@ public class MyActivityFragment extends Fragment {
         updateUI(sessions);
     }
     
+    /**
+     * Builds the query for the current search text and filter chips
+     */
+    private HistoryQuery buildQuery() {
+        HistoryQuery query = new HistoryQuery()
+            .text(searchQuery)
+            .technique(selectedTechnique);
+        
+        int checkedRange = chipGroupRange != null ? chipGroupRange.getCheckedChipId() : R.id.chipRangeAll;
+        if (checkedRange != R.id.chipRangeAll) {
+            // Start of today, then back to Monday or the 1st for the week and month ranges
+            Calendar start = Calendar.getInstance();
+            start.set(Calendar.HOUR_OF_DAY, 0);
+            start.set(Calendar.MINUTE, 0);
+            start.set(Calendar.SECOND, 0);
+            start.set(Calendar.MILLISECOND, 0);
+            if (checkedRange == R.id.chipRangeWeek) {
+                int daysSinceMonday = (start.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+                start.add(Calendar.DAY_OF_MONTH, -daysSinceMonday);
+            } else if (checkedRange == R.id.chipRangeMonth) {
+                start.set(Calendar.DAY_OF_MONTH, 1);
+            }
+            query.between(start.getTimeInMillis(), Long.MAX_VALUE);
+        }
+        return query;
+    }
+    
+    /**
+     * Shows one chip per technique in the history (rebuilt only when the techniques change)
+     */
+    private void updateTechniqueChips(List<String> techniques) {
+        if (chipGroupTechnique == null || techniques.equals(shownTechniques)) {
+            return;
+        }
+        shownTechniques = new ArrayList<>(techniques);
+        chipGroupTechnique.removeAllViews();
+        for (String technique : techniques) {
+            Chip chip = new Chip(requireContext());
+            chip.setText(technique);
+            chip.setCheckable(true);
+            chip.setChecked(technique.equals(selectedTechnique));
+            chip.setOnCheckedChangeListener((button, isChecked) -> {
+                if (isChecked) {
+                    selectedTechnique = technique;
+                } else if (technique.equals(selectedTechnique)) {
+                    selectedTechnique = null; // Unchecked - any technique
+                }
+                refreshList();
+            });
+            chipGroupTechnique.addView(chip);
+        }
+    }
+    
+    /**
+     * Shows the session count and focus time of the current filters
+     * Days older than the individual entries count too (they are kept as daily summaries)
+     */
+    private void updateTotals(RollupSeries.Totals totals) {
+        if (tvHistoryTotals == null) {
+            return; // Safety check
+        }
+        tvHistoryTotals.setText(totals.getSessions() + (totals.getSessions() == 1 ? " session" : " sessions")
+            + "  ·  " + totals.getCycles() + (totals.getCycles() == 1 ? " cycle" : " cycles")
+            + "  ·  " + InsightsSnapshot.formatFocus(totals.getFocusMillis()) + " focus");
+    }
+
     /**
      * Updates UI to show/hide empty state and RecyclerView
      */
     private void updateUI(List<CompletedSession> sessions) {
         if (sessions == null || sessions.isEmpty()) {
+            // Empty history, or filters without matches
+            boolean searching = !searchQuery.trim().isEmpty() || selectedTechnique != null
+                || (chipGroupRange != null && chipGroupRange.getCheckedChipId() != R.id.chipRangeAll);
+            if (tvEmptyStateTitle != null) {
+                tvEmptyStateTitle.setText(searching ? "No matching activities" : "No completed activities yet");
+            }
+            if (tvEmptyStateSubtitle != null) {
+                tvEmptyStateSubtitle.setText(searching ? "Try other filters" : "Complete a session to see it here");
+            }
             // Show empty state, hide RecyclerView
             if (emptyStateView != null) {
                 emptyStateView.setVisibility(View.VISIBLE);
@@ -99,20 +233,35 @@ public class MyActivityFragment extends Fragment {
     
     /**
      * Refreshes the RecyclerView with updated data
-     * Called when fragment becomes visible (onResume)
+     * Called when fragment becomes visible (onResume) and when the filters change
      */
     private void refreshList() {
+        refreshList(false);
+    }
+
+    /**
+     * @param rowsAppended True if the history only grew since the list was shown - new matches
+     *                     are then inserted in place instead of diffing the whole list
+     */
+    private void refreshList(boolean rowsAppended) {
         MainActivity activity = (MainActivity) getActivity();
         if (activity == null) {
             return; // Safety check
         }
         
-        // Get updated list from MainActivity
-        List<CompletedSession> sessions = activity.getCompletedSessions();
+        // Get updated list from MainActivity (matches of the current filters)
+        updateTechniqueChips(activity.getHistoryTechniques());
+        HistoryQuery query = buildQuery();
+        List<CompletedSession> sessions = activity.queryCompletedSessions(query);
+        updateTotals(activity.getHistoryTotals(query));
         
         // Update adapter with new list
         if (adapter != null) {
-            adapter.updateList(sessions);
+            if (rowsAppended) {
+                adapter.insertRows(sessions);
+            } else {
+                adapter.updateList(sessions);
+            }
             // Reconnect click listener (in case adapter was recreated)
             adapter.setOnSessionClickListener(session -> {
                 showSessionDetailDialog(session);
@@ -132,6 +281,45 @@ public class MyActivityFragment extends Fragment {
         super.onResume();
         // Refresh list when fragment becomes visible
         refreshList();
+        // Then follow changes while visible (conflated into one delivery per main-thread turn)
+        MainActivity activity = (MainActivity) getActivity();
+        if (activity != null && historySubscription == null) {
+            historySubscription = activity.subscribeToHistory(this::onHistoryChanged);
+        }
+        // Relative times may be stale after a pause - relabel now, then on each new minute
+        minuteHandler.removeCallbacks(minuteTick);
+        onMinuteTick();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        minuteHandler.removeCallbacks(minuteTick);
+        if (historySubscription != null) {
+            historySubscription.cancel();
+            historySubscription = null;
+        }
+    }
+
+    /**
+     * Relabels the visible completion times and schedules itself for the next minute boundary
+     */
+    private void onMinuteTick() {
+        long now = System.currentTimeMillis();
+        if (adapter != null) {
+            adapter.refreshRelativeTimes(now);
+        }
+        minuteHandler.postDelayed(minuteTick, RelativeTimeLabels.nextMinuteMillis(now) - now);
+    }
+
+    /**
+     * Applies a change published by the session history (completed cycle, import, compaction)
+     */
+    private void onHistoryChanged(HistoryChange change) {
+        if (!isAdded() || adapter == null) {
+            return; // Safety check
+        }
+        refreshList(change.getType() == HistoryChange.Type.INSERTED);
     }
 
     /**
@@ -184,10 +372,9 @@ public class MyActivityFragment extends Fragment {
 
         // Clear border when dialog is dismissed
         bottomSheetDialog.setOnDismissListener(dialog -> {
-            // Clear border from all items by refreshing the adapter
-            // This will reset all stroke widths to 0
+            // Clear the border of the clicked item (only that row's border is rebound)
             if (adapter != null) {
-                adapter.notifyDataSetChanged();
+                adapter.clearSelection();
             }
         });
 
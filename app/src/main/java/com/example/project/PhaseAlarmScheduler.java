@@ -0,0 +1,72 @@
+package com.example.project;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+/**
+ * Schedules the end of the current session phase as an exact, allow-while-idle alarm
+ * Used while the app is in the background so a phase finishes on time without any
+ * wakeups between phase boundaries (the alarm is delivered even in Doze)
+ */
+public class PhaseAlarmScheduler {
+
+    // Broadcast action delivered when a phase deadline is reached
+    public static final String ACTION_PHASE_END = "com.example.project.action.PHASE_END";
+
+    // Intent extra: true if the phase that ended was a break
+    public static final String EXTRA_BREAK_PHASE = "breakPhase";
+
+    private static final int REQUEST_CODE_PHASE_END = 1001;
+
+    private final Context context;
+    private final AlarmManager alarmManager;
+
+    public PhaseAlarmScheduler(Context context) {
+        this.context = context.getApplicationContext();
+        this.alarmManager = (AlarmManager) this.context.getSystemService(Context.ALARM_SERVICE);
+    }
+
+    /**
+     * Schedules (or replaces) the phase-end alarm
+     * @param deadlineElapsedMillis Deadline in SystemClock.elapsedRealtime() time base
+     * @param breakPhase True if the phase being timed is a break
+     */
+    public void schedule(long deadlineElapsedMillis, boolean breakPhase) {
+        if (alarmManager == null) {
+            return;
+        }
+
+        PendingIntent pendingIntent = createPendingIntent(breakPhase);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                deadlineElapsedMillis, pendingIntent);
+        } else {
+            // Exact alarm permission revoked by the user - fall back to an inexact idle alarm
+            alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                deadlineElapsedMillis, pendingIntent);
+        }
+    }
+
+    /**
+     * Cancels the pending phase-end alarm (if any)
+     */
+    public void cancel() {
+        if (alarmManager == null) {
+            return;
+        }
+        alarmManager.cancel(createPendingIntent(false));
+    }
+
+    private PendingIntent createPendingIntent(boolean breakPhase) {
+        // Explicit intent to the manifest receiver - delivered even if no activity is alive
+        Intent intent = new Intent(context, SessionActionReceiver.class);
+        intent.setAction(ACTION_PHASE_END);
+        intent.putExtra(EXTRA_BREAK_PHASE, breakPhase);
+        // Same request code for both phases so a new schedule always replaces the old one
+        return PendingIntent.getBroadcast(context, REQUEST_CODE_PHASE_END, intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+}
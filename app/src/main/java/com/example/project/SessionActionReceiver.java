@@ -0,0 +1,140 @@
+package com.example.project;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Receives phase-end alarms (PhaseAlarmScheduler) and notification actions
+ * (SessionNotificationController) - declared in the manifest, so they are delivered even when
+ * MainActivity is gone or the process was killed
+ * While MainActivity exists it handles them itself (see setTarget()). Otherwise the session
+ * is advanced in the session journal, which MainActivity replays in onCreate: a phase that
+ * ended is only reported in the notification, and finishes (history entry, next phase) through
+ * the normal completion path once the user is back
+ */
+public class SessionActionReceiver extends BroadcastReceiver {
+
+    /**
+     * Handles the session actions while the activity exists (called on the main thread)
+     */
+    public interface Target {
+        void onSessionAction(String action);
+    }
+
+    private static Target target;
+
+    /**
+     * Sends the actions to an activity (replaces the previous one)
+     */
+    public static void setTarget(Target newTarget) {
+        target = newTarget;
+    }
+
+    public static void clearTarget(Target oldTarget) {
+        if (target == oldTarget) {
+            target = null;
+        }
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (action == null) {
+            return; // Safety check
+        }
+        if (target != null) {
+            target.onSessionAction(action);
+            return;
+        }
+
+        // No activity - the journal is the session (a few small records, read and written inline)
+        AndroidClock clock = new AndroidClock();
+        File file = new File(context.getFilesDir(), MainActivity.SESSION_JOURNAL_FILE);
+        SessionJournal.Recovery recovery;
+        try {
+            recovery = SessionJournal.replay(file, clock.currentTimeMillis());
+        } catch (IOException e) {
+            android.util.Log.w("SessionActionReceiver", "Unable to read session journal", e);
+            return;
+        }
+        if (recovery == null || recovery.getState() == SessionState.READY
+            || recovery.getState() == SessionState.COMPLETED) {
+            return; // No phase running
+        }
+
+        SessionJournal journal = new SessionJournal(file, clock);
+        PhaseAlarmScheduler alarmScheduler = new PhaseAlarmScheduler(context);
+        SessionState state = recovery.getState();
+        long remainingMillis = recovery.getRemainingMillis();
+        switch (action) {
+            case PhaseAlarmScheduler.ACTION_PHASE_END:
+                if (!state.isActive()) {
+                    return; // Paused after the alarm was set
+                }
+                if (remainingMillis > 0) {
+                    // Woken up early (or the phase was extended) - wait for the real deadline
+                    alarmScheduler.schedule(SystemClock.elapsedRealtime() + remainingMillis, recovery.isBreakPhase());
+                    return;
+                }
+                state = SessionState.COMPLETED;
+                break;
+            case SessionNotificationController.ACTION_PAUSE:
+                if (!state.isActive()) {
+                    return;
+                }
+                journal.paused(remainingMillis);
+                alarmScheduler.cancel();
+                state = SessionState.PAUSED;
+                break;
+            case SessionNotificationController.ACTION_RESUME:
+                if (state != SessionState.PAUSED) {
+                    return;
+                }
+                journal.resumed();
+                alarmScheduler.schedule(SystemClock.elapsedRealtime() + remainingMillis, recovery.isBreakPhase());
+                state = recovery.getPhaseState();
+                break;
+            case SessionNotificationController.ACTION_EXTEND_BREAK:
+                if (!recovery.isBreakPhase()) {
+                    return;
+                }
+                long additionalMillis = TechniqueRegistry.createDefault(MainActivity.TEST_MODE)
+                    .getBreakExtensionMillis();
+                journal.extended(additionalMillis);
+                remainingMillis += additionalMillis;
+                if (state.isActive()) {
+                    alarmScheduler.schedule(SystemClock.elapsedRealtime() + remainingMillis, true);
+                }
+                break;
+            case SessionNotificationController.ACTION_SKIP_BREAK:
+                if (!recovery.isBreakPhase()) {
+                    return;
+                }
+                // Restored as a finished break ("Start Next Session")
+                journal.phaseFinished();
+                alarmScheduler.cancel();
+                state = SessionState.COMPLETED;
+                remainingMillis = 0;
+                break;
+            default:
+                return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            android.util.Log.w("SessionActionReceiver", "Unable to write session journal", e);
+        }
+
+        StudySession session = recovery.getSession();
+        String cycleText = MainActivity.TECHNIQUE_POMODORO.equals(session.getTechnique())
+            ? "Cycle " + session.getCurrentCycle() + " of 4"
+            : null;
+        new SessionNotificationController(context).show(state, session.getSubject(), cycleText,
+            remainingMillis, recovery.isBreakPhase());
+    }
+}
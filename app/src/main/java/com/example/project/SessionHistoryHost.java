@@ -0,0 +1,325 @@
+package com.example.project;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide owner of the session history and of the single thread its background work runs
+ * on (load, compaction, export and import - so they never overlap)
+ * MainActivity attaches in onCreate and detaches in onDestroy. The history stays open for the
+ * life of the process, so a rotation neither reloads it nor cancels a running export/import;
+ * progress and results go to whichever activity is attached at the time
+ * Call everything on the main thread
+ */
+public final class SessionHistoryHost {
+
+    /**
+     * Receives history events on the main thread while attached
+     */
+    public interface Listener {
+        void onHistoryLoaded();
+
+        void onHistoryTransferProgress(String progress);
+
+        void onHistoryTransferFinished(String message);
+    }
+
+    private static final String HISTORY_DIRECTORY = "history";
+
+    private static SessionHistoryHost instance;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ContentResolver contentResolver;
+    private SessionHistory history; // null if it could not be opened
+    private Future<?> transfer; // Running export/import (null = none)
+    private String transferTitle;
+    private String transferProgress;
+    private Listener listener;
+
+    /**
+     * Gets the host, opening the history on first use (its rows load on the history thread)
+     */
+    public static SessionHistoryHost get(Context context) {
+        if (instance == null) {
+            instance = new SessionHistoryHost(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SessionHistoryHost(Context context) {
+        contentResolver = context.getContentResolver();
+        try {
+            history = SessionHistory.openUnloaded(new File(context.getFilesDir(), HISTORY_DIRECTORY),
+                TimeZone.getDefault());
+        } catch (IOException e) {
+            android.util.Log.w("SessionHistoryHost", "Unable to open session history", e);
+            return;
+        }
+        // Lists fill in from the reset published when the load finishes
+        HistoryLoad load = history.getPendingLoad();
+        executor.execute(() -> {
+            load.run();
+            mainHandler.post(() -> finishLoad(load));
+        });
+    }
+
+    private void finishLoad(HistoryLoad load) {
+        try {
+            history.finishLoad(load); // No-op if a write already finished it
+        } catch (IOException e) {
+            android.util.Log.w("SessionHistoryHost", "Unable to load session history", e);
+            return;
+        }
+        if (listener != null) {
+            listener.onHistoryLoaded();
+        }
+    }
+
+    /**
+     * Sends the history events to an activity (replaces the previous one)
+     */
+    public void attach(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void detach(Listener listener) {
+        if (this.listener == listener) {
+            this.listener = null;
+        }
+    }
+
+    /**
+     * Gets the history (empty until loaded), or null if it could not be opened
+     */
+    public SessionHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Folds the entries older than rawDays full days into daily summaries
+     * The fold, the new log file and the new rows are built on the history thread; the main
+     * thread only renames the file and swaps the rows in
+     */
+    public void compact(long nowMillis, int rawDays) {
+        if (history == null || !history.isLoaded()) {
+            return; // Runs again once loaded (see Listener.onHistoryLoaded())
+        }
+        HistoryCompaction compaction = history.prepareCompaction(history.getCompactionCutoff(nowMillis, rawDays));
+        if (compaction == null) {
+            return; // Nothing that old
+        }
+        executor.execute(() -> {
+            compaction.run();
+            mainHandler.post(() -> {
+                try {
+                    history.finishCompaction(compaction); // Lists follow the published reset
+                } catch (IOException e) {
+                    android.util.Log.w("SessionHistoryHost", "Unable to compact session history", e);
+                }
+                sort(); // Rows added meanwhile may be out of order
+            });
+        });
+    }
+
+    /**
+     * Rebuilds the completion order after rows arrived out of order (e.g. an import of older
+     * entries) - sorted on the history thread, merged on the main thread
+     */
+    public void sort() {
+        if (history == null || !history.isLoaded()) {
+            return; // The load sorts the rows itself
+        }
+        HistorySort sort = history.prepareSort();
+        if (sort == null) {
+            return; // Already in order
+        }
+        executor.execute(() -> {
+            sort.run();
+            mainHandler.post(() -> history.finishSort(sort)); // Lists follow the published reset
+        });
+    }
+
+    public boolean isTransferRunning() {
+        return transfer != null;
+    }
+
+    /**
+     * Gets the title of the running export/import (null = none)
+     */
+    public String getTransferTitle() {
+        return transferTitle;
+    }
+
+    /**
+     * Gets the last progress of the running export/import (null before the first batch)
+     */
+    public String getTransferProgress() {
+        return transferProgress;
+    }
+
+    /**
+     * Writes the history to a file: the raw entries, then the daily totals of the compacted
+     * period (days older than the raw entries, without task text)
+     * The rows are captured here (O(chunks)); formatting and writing happen in the background,
+     * so the history can keep growing while the file is written
+     * @return false if the history is unavailable or another transfer is running
+     */
+    public boolean export(Uri uri, HistoryExporter.Format format) {
+        if (history == null || !history.isLoaded() || transfer != null) {
+            return false; // Safety check
+        }
+        ColumnarHistoryStore.Snapshot snapshot = history.getStore().snapshot();
+        List<HistoryDailyTotal> dailyTotals = history.copyDailyTotals();
+        transferTitle = "Exporting History";
+        transfer = executor.submit(() -> {
+            String message;
+            try (OutputStream stream = contentResolver.openOutputStream(uri, "wt")) {
+                if (stream == null) {
+                    throw new IOException("Unable to open " + uri);
+                }
+                Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+                int count = HistoryExporter.write(snapshot, null, dailyTotals, format, writer,
+                    this::postTransferProgress);
+                message = dailyTotals.isEmpty()
+                    ? "Exported " + count + " sessions"
+                    : "Exported " + count + " sessions and " + dailyTotals.size()
+                        + " daily totals of older days (kept without task details)";
+            } catch (InterruptedIOException e) {
+                message = "Export cancelled";
+            } catch (IOException e) {
+                android.util.Log.w("SessionHistoryHost", "Unable to export session history", e);
+                message = "Export failed";
+            }
+            String result = message;
+            mainHandler.post(() -> finishTransfer(result));
+        });
+        return true;
+    }
+
+    /**
+     * Reads a CSV or JSON export into the history
+     * The file is parsed in the background; each batch is added on the main thread with one log
+     * write, and the reader waits for it (so at most one batch is in memory). Entries already in
+     * the history are skipped; daily totals of older days are added to the summaries at the end
+     * @return false if the history is unavailable or another transfer is running
+     */
+    public boolean importFrom(Uri uri) {
+        if (history == null || transfer != null) {
+            return false; // Safety check
+        }
+        transferTitle = "Importing History";
+        transfer = executor.submit(() -> {
+            AtomicInteger added = new AtomicInteger();
+            AtomicInteger addedTotals = new AtomicInteger();
+            String message;
+            try (InputStream stream = contentResolver.openInputStream(uri)) {
+                if (stream == null) {
+                    throw new IOException("Unable to open " + uri);
+                }
+                Reader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+                long read = HistoryImporter.read(reader, new HistoryImporter.BatchSink() {
+                    @Override
+                    public void accept(List<CompletedSession> batch) throws IOException {
+                        added.addAndGet(callOnMainThread(() -> history.addAll(batch)));
+                    }
+
+                    @Override
+                    public void acceptTotals(List<HistoryDailyTotal> totals) throws IOException {
+                        addedTotals.addAndGet(callOnMainThread(() -> history.addDailyTotals(totals)));
+                    }
+                }, this::postTransferProgress);
+                message = "Imported " + added.get() + " of " + read + " sessions"
+                    + (addedTotals.get() > 0 ? " and " + addedTotals.get() + " daily totals" : "");
+            } catch (InterruptedIOException e) {
+                message = "Import cancelled (" + added.get() + " sessions added)";
+            } catch (IOException e) {
+                android.util.Log.w("SessionHistoryHost", "Unable to import session history", e);
+                message = "Import stopped: " + e.getMessage() + " (" + added.get() + " sessions added)";
+            }
+            String result = message;
+            mainHandler.post(() -> finishTransfer(result));
+        });
+        return true;
+    }
+
+    /**
+     * Adds imported data on the main thread and waits for it (called on the import thread)
+     * @return Number of entries added (duplicates are skipped)
+     */
+    private int callOnMainThread(Callable<Integer> add) throws IOException {
+        FutureTask<Integer> task = new FutureTask<>(add);
+        mainHandler.post(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            mainHandler.removeCallbacks(task);
+            throw new InterruptedIOException("Import cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Interrupts the running export/import (it reports how far it got)
+     */
+    public void cancelTransfer() {
+        if (transfer != null) {
+            transfer.cancel(true);
+        }
+    }
+
+    /**
+     * Posts progress to the attached activity (called on the transfer thread after each batch)
+     */
+    private void postTransferProgress(long done, long total) {
+        String text = total >= 0 ? done + " of " + total + " sessions" : done + " sessions read";
+        mainHandler.post(() -> {
+            if (transfer == null) {
+                return; // Already finished
+            }
+            transferProgress = text;
+            if (listener != null) {
+                listener.onHistoryTransferProgress(text);
+            }
+        });
+    }
+
+    private void finishTransfer(String message) {
+        sort(); // An import may have added older entries
+        transfer = null;
+        transferTitle = null;
+        transferProgress = null;
+        if (listener != null) {
+            listener.onHistoryTransferFinished(message);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.project;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+/**
+ * Ongoing notification that shows the active session while the user is outside MainActivity
+ * The countdown is a system-rendered Chronometer in count-down mode, so the app does no
+ * per-second work - the notification is only re-posted when the phase or state changes
+ */
+public class SessionNotificationController {
+
+    // Broadcast actions sent by the notification buttons (handled by SessionActionReceiver)
+    public static final String ACTION_PAUSE = "com.example.project.action.PAUSE";
+    public static final String ACTION_RESUME = "com.example.project.action.RESUME";
+    public static final String ACTION_EXTEND_BREAK = "com.example.project.action.EXTEND_BREAK";
+    public static final String ACTION_SKIP_BREAK = "com.example.project.action.SKIP_BREAK";
+
+    private static final String CHANNEL_ID = "session_timer";
+    private static final int NOTIFICATION_ID = 2001;
+
+    private final Context context;
+    private final NotificationManagerCompat notificationManager;
+
+    public SessionNotificationController(Context context) {
+        this.context = context.getApplicationContext();
+        this.notificationManager = NotificationManagerCompat.from(this.context);
+        createChannel();
+    }
+
+    /**
+     * Shows (or updates) the session notification
+     * @param state Current session state (ACTIVE_WORK, ACTIVE_BREAK, PAUSED or COMPLETED)
+     * @param subject Session subject
+     * @param cycleText Cycle text (e.g. "Cycle 2 of 4"), or null if not applicable
+     * @param remainingMillis Remaining time of the current phase in milliseconds
+     * @param breakPhase True if the current (or paused) phase is a break
+     */
+    public void show(SessionState state, String subject, String cycleText, long remainingMillis, boolean breakPhase) {
+        if (!notificationManager.areNotificationsEnabled()) {
+            return; // POST_NOTIFICATIONS not granted (Android 13+) or notifications disabled
+        }
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+            .setSmallIcon(R.drawable.ic_notification_timer)
+            .setContentTitle(state.getDisplayName())
+            .setContentIntent(createContentIntent())
+            .setCategory(NotificationCompat.CATEGORY_STOPWATCH)
+            .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+            .setOnlyAlertOnce(true)
+            .setSilent(true);
+
+        if (cycleText != null) {
+            builder.setSubText(cycleText);
+        }
+
+        if (state.isActive()) {
+            // System-rendered countdown to the phase deadline
+            builder.setContentText(subject)
+                .setOngoing(true)
+                .setShowWhen(true)
+                .setUsesChronometer(true)
+                .setChronometerCountDown(true)
+                .setWhen(System.currentTimeMillis() + remainingMillis);
+
+            if (state.isWorkPhase()) {
+                builder.addAction(0, "Pause", createActionIntent(ACTION_PAUSE));
+            } else {
+                builder.addAction(0, "Extend Break", createActionIntent(ACTION_EXTEND_BREAK));
+                builder.addAction(0, "Skip Break", createActionIntent(ACTION_SKIP_BREAK));
+            }
+        } else if (state == SessionState.PAUSED) {
+            // Frozen countdown - static text, no chronometer
+            builder.setContentText(subject + " - " + formatRemaining(remainingMillis) + " left")
+                .setOngoing(true)
+                .setShowWhen(false)
+                .addAction(0, "Resume", createActionIntent(ACTION_RESUME));
+            if (breakPhase) {
+                builder.addAction(0, "Skip Break", createActionIntent(ACTION_SKIP_BREAK));
+            }
+        } else {
+            // Phase finished - tap to return to the app
+            builder.setContentText(subject + " - tap to continue")
+                .setOngoing(false)
+                .setAutoCancel(true)
+                .setShowWhen(false);
+        }
+
+        try {
+            notificationManager.notify(NOTIFICATION_ID, builder.build());
+        } catch (SecurityException e) {
+            // Notification permission revoked while running
+            android.util.Log.w("SessionNotification", "Unable to post session notification", e);
+        }
+    }
+
+    /**
+     * Removes the session notification
+     */
+    public void cancel() {
+        notificationManager.cancel(NOTIFICATION_ID);
+    }
+
+    private void createChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+                "Study session timer", NotificationManager.IMPORTANCE_LOW);
+            channel.setDescription("Shows the active study session countdown");
+            channel.setShowBadge(false);
+            NotificationManager manager = context.getSystemService(NotificationManager.class);
+            if (manager != null) {
+                manager.createNotificationChannel(channel);
+            }
+        }
+    }
+
+    private PendingIntent createContentIntent() {
+        // Bring the existing MainActivity back instead of creating a new one
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        return PendingIntent.getActivity(context, 0, intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private PendingIntent createActionIntent(String action) {
+        Intent intent = new Intent(context, SessionActionReceiver.class);
+        intent.setAction(action);
+        return PendingIntent.getBroadcast(context, 0, intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    /**
+     * Formats remaining time as MM:SS
+     */
+    private static String formatRemaining(long remainingMillis) {
+        long totalSeconds = remainingMillis / 1000;
+        return String.format("%02d:%02d", totalSeconds / 60, totalSeconds % 60);
+    }
+}
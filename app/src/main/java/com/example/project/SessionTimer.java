@@ -0,0 +1,209 @@
+package com.example.project;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Deadline-based countdown timer shared by the work and break phases
+ * The deadline arithmetic lives in PhaseCountdown (session-core) - this class only makes
+ * sure somebody wakes up at the deadline to report the phase as finished
+ * Display updates are pulled by TimerTickHub, so the timer itself only wakes up at the deadline
+ * While the app is in the background the deadline is handed to PhaseAlarmScheduler instead
+ * of a Handler callback, so the phase still ends on time in Doze
+ */
+public class SessionTimer implements TimerTickHub.TickSource {
+
+    /**
+     * Interface for receiving phase completion
+     */
+    public interface Listener {
+        void onFinish(boolean breakPhase);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final PhaseCountdown countdown;
+    private final Listener listener;
+    private final PhaseAlarmScheduler alarmScheduler;
+
+    // True while the app is in the background (deadline is tracked by an alarm)
+    private boolean inBackground = false;
+
+    // True while a phase-end alarm is pending
+    private boolean alarmScheduled = false;
+
+    // Single reusable completion callback (no per-phase timer objects)
+    private final Runnable finishRunnable = this::checkFinished;
+
+    /**
+     * @param countdown Phase countdown (its Clock must use the SystemClock.elapsedRealtime() time base)
+     * @param listener Receives phase completion
+     * @param alarmScheduler Phase-end alarms while in the background
+     */
+    public SessionTimer(PhaseCountdown countdown, Listener listener, PhaseAlarmScheduler alarmScheduler) {
+        this.countdown = countdown;
+        this.listener = listener;
+        this.alarmScheduler = alarmScheduler;
+    }
+
+    /**
+     * Starts a new phase countdown
+     * @param durationMillis Phase duration in milliseconds
+     * @param breakPhase True for a break phase, false for a work phase
+     */
+    public void start(long durationMillis, boolean breakPhase) {
+        countdown.start(durationMillis, breakPhase);
+        scheduleFinish();
+    }
+
+    /**
+     * Restores a phase recovered from the session journal
+     * A running phase whose deadline already passed is reported as finished right away
+     * @param totalDurationMillis Total duration of the phase in milliseconds
+     * @param remainingMillis Time left in the phase in milliseconds
+     * @param breakPhase True for a break phase, false for a work phase
+     * @param paused True to restore the phase as paused
+     */
+    public void restore(long totalDurationMillis, long remainingMillis, boolean breakPhase, boolean paused) {
+        countdown.restore(totalDurationMillis, remainingMillis, breakPhase, paused);
+        alarmScheduled = alarmScheduler != null; // An earlier activity may have left its alarm pending
+        scheduleFinish();
+    }
+
+    /**
+     * Pauses the countdown - freezes the remaining time until resume()
+     */
+    public void pause() {
+        if (countdown.pause()) {
+            removeFinishCallbacks();
+        }
+    }
+
+    /**
+     * Resumes a paused countdown by moving the deadline forward
+     */
+    public void resume() {
+        if (countdown.resume()) {
+            scheduleFinish();
+        }
+    }
+
+    /**
+     * Extends the current phase (used for Extend Break)
+     * @param additionalMillis Time to add in milliseconds
+     */
+    public void extend(long additionalMillis) {
+        if (countdown.extend(additionalMillis)) {
+            scheduleFinish();
+        }
+    }
+
+    /**
+     * Stops the countdown without notifying the listener
+     */
+    public void cancel() {
+        removeFinishCallbacks();
+        countdown.cancel();
+    }
+
+    /**
+     * Stops the Handler callbacks but leaves the phase to the phase-end alarm
+     * Used when the activity goes away while a phase runs - SessionActionReceiver then reports
+     * the end of the phase from the session journal
+     */
+    public void detach() {
+        inBackground = true;
+        scheduleFinish();
+    }
+
+    /**
+     * Computes the remaining time of the current phase
+     */
+    @Override
+    public long getRemainingMillis() {
+        return countdown.getRemainingMillis();
+    }
+
+    @Override
+    public long getTotalDurationMillis() {
+        return countdown.getTotalDurationMillis();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return countdown.isRunning();
+    }
+
+    public boolean isPaused() {
+        return countdown.isPaused();
+    }
+
+    public boolean isBreakPhase() {
+        return countdown.isBreakPhase();
+    }
+
+    /**
+     * Gets the phase deadline in SystemClock.elapsedRealtime() time base (valid while running)
+     */
+    public long getDeadlineMillis() {
+        return countdown.getDeadlineMillis();
+    }
+
+    /**
+     * Switches between Handler-based (foreground) and alarm-based (background) completion
+     * Coming back to the foreground immediately reports a phase that ended in the meantime
+     * @param inBackground True when the app is no longer visible
+     */
+    public void setInBackground(boolean inBackground) {
+        if (this.inBackground == inBackground) {
+            return;
+        }
+        this.inBackground = inBackground;
+        scheduleFinish();
+    }
+
+    /**
+     * Called when the phase-end alarm fires
+     */
+    public void onPhaseAlarm() {
+        checkFinished();
+    }
+
+    /**
+     * Posts the completion check at the current deadline
+     */
+    private void scheduleFinish() {
+        removeFinishCallbacks();
+        if (!countdown.isRunning()) {
+            return;
+        }
+        if (inBackground && alarmScheduler != null) {
+            alarmScheduler.schedule(countdown.getDeadlineMillis(), countdown.isBreakPhase());
+            alarmScheduled = true;
+        } else {
+            handler.postDelayed(finishRunnable, countdown.getRemainingMillis());
+        }
+    }
+
+    private void removeFinishCallbacks() {
+        handler.removeCallbacks(finishRunnable);
+        if (alarmScheduled) {
+            alarmScheduler.cancel();
+            alarmScheduled = false;
+        }
+    }
+
+    /**
+     * Notifies the listener once the deadline has passed (re-posts if woken up early)
+     */
+    private void checkFinished() {
+        if (!countdown.isRunning()) {
+            return;
+        }
+        if (!countdown.finishIfExpired()) {
+            scheduleFinish();
+            return;
+        }
+        removeFinishCallbacks();
+        listener.onFinish(countdown.isBreakPhase());
+    }
+}
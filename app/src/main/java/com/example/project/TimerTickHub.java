@@ -0,0 +1,107 @@
+package com.example.project;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared vsync-aligned tick source for all countdown UI consumers
+ * Wakes up on the first frame after the displayed second changes and dispatches the
+ * remaining time to every subscriber once - nothing runs between second boundaries
+ */
+public class TimerTickHub implements Choreographer.FrameCallback {
+
+    /**
+     * Interface for the countdown being displayed (implemented by SessionTimer)
+     */
+    public interface TickSource {
+        long getRemainingMillis();
+        long getTotalDurationMillis();
+        boolean isRunning();
+    }
+
+    /**
+     * Interface for UI consumers (timer text, progress indicators, ...)
+     */
+    public interface Subscriber {
+        void onTimerTick(long remainingMillis, long totalDurationMillis);
+    }
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final TickSource source;
+
+    // Last whole second dispatched to subscribers (-1 = nothing dispatched yet)
+    private long lastDispatchedSecond = -1;
+
+    // True when the next frame must dispatch even if the second is unchanged
+    private boolean forceDispatch = false;
+
+    // True while a frame callback is pending
+    private boolean scheduled = false;
+
+    public TimerTickHub(TickSource source) {
+        this.source = source;
+    }
+
+    public void subscribe(Subscriber subscriber) {
+        if (!subscribers.contains(subscriber)) {
+            subscribers.add(subscriber);
+        }
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Requests a dispatch on the next frame and keeps ticking while the source is running
+     * Call after the source starts, resumes or moves its deadline
+     */
+    public void requestTick() {
+        forceDispatch = true;
+        if (scheduled) {
+            choreographer.removeFrameCallback(this);
+        }
+        scheduled = true;
+        choreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Stops ticking (e.g. when paused or when the activity is no longer visible)
+     */
+    public void stop() {
+        if (scheduled) {
+            choreographer.removeFrameCallback(this);
+            scheduled = false;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        if (!source.isRunning()) {
+            return; // Nothing to display - the source restarts us via requestTick()
+        }
+
+        long remainingMillis = source.getRemainingMillis();
+        long displayedSecond = remainingMillis / 1000;
+
+        // Coalesce: only dispatch when the displayed value actually changed
+        if (forceDispatch || displayedSecond != lastDispatchedSecond) {
+            forceDispatch = false;
+            lastDispatchedSecond = displayedSecond;
+            long totalDurationMillis = source.getTotalDurationMillis();
+            for (int i = 0; i < subscribers.size(); i++) {
+                subscribers.get(i).onTimerTick(remainingMillis, totalDurationMillis);
+            }
+        }
+
+        // Sleep until the frame right after the next whole-second boundary
+        if (remainingMillis > 0) {
+            scheduled = true;
+            choreographer.postFrameCallbackDelayed(this, (remainingMillis % 1000) + 1);
+        }
+    }
+}
@@ -6,7 +6,7 @@ import androidx.fragment.app.FragmentActivity;
 import androidx.viewpager2.adapter.FragmentStateAdapter;
 
 /**
- * Adapter for ViewPager2 to manage Playground and My Activity fragments
+ * Adapter for ViewPager2 to manage Playground, My Activity and Insights fragments
  */
 public class ViewPagerAdapter extends FragmentStateAdapter {
     
@@ -22,6 +22,8 @@ public class ViewPagerAdapter extends FragmentStateAdapter {
                 return new PlaygroundFragment();
             case 1:
                 return new MyActivityFragment();
+            case 2:
+                return new InsightsFragment();
             default:
                 return new PlaygroundFragment();
         }
@@ -29,7 +31,7 @@ public class ViewPagerAdapter extends FragmentStateAdapter {
     
     @Override
     public int getItemCount() {
-        return 2; // Two tabs: PlayGround and My Activity
+        return 3; // Three tabs: PlayGround, My Activity and Insights
     }
 }
 
@@ -0,0 +1,34 @@
+package com.example.project;
+
+/**
+ * Time source for the session engine
+ * The app injects an Android implementation (SystemClock based); tests and benchmarks
+ * inject a fake clock so sessions can be driven without waiting in real time
+ */
+public interface Clock {
+
+    /**
+     * Wall-clock time in milliseconds (used for timestamps shown to the user)
+     */
+    long currentTimeMillis();
+
+    /**
+     * Monotonic time in milliseconds (used for phase deadlines, never jumps)
+     */
+    long elapsedRealtime();
+
+    /**
+     * Plain JVM clock (System.currentTimeMillis / System.nanoTime)
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long elapsedRealtime() {
+            return System.nanoTime() / 1_000_000L;
+        }
+    };
+}
@@ -0,0 +1,280 @@
+package com.example.project;
+
+import java.util.Arrays;
+
+/**
+ * In-memory completed session history stored as parallel primitive columns
+ * One row costs 48 bytes (4 longs + 4 ints) with no per-row objects; technique, subject
+ * and task are ids into a shared StringDictionary. Columns grow in fixed-size chunks, so
+ * adding a row never copies existing rows. CompletedSession objects are only created by
+ * materialize() for the rows that are actually displayed
+ * Not thread-safe - add and read from one thread
+ */
+public class ColumnarHistoryStore {
+
+    // Rows per chunk (power of two so the row -> chunk split is a shift and a mask)
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final StringDictionary dictionary;
+
+    private long[][] sessionIds = new long[4][];
+    private long[][] completionTimestamps = new long[4][];
+    private long[][] timeSpent = new long[4][];
+    private long[][] setDurations = new long[4][];
+    private int[][] cycles = new int[4][];
+    private int[][] techniqueIds = new int[4][];
+    private int[][] subjectIds = new int[4][];
+    private int[][] taskIds = new int[4][];
+
+    private int size = 0;
+    // CompletedSession objects created so far (views should only create the rows they show)
+    private long materializedCount = 0;
+
+    /**
+     * @param dictionary Dictionary that resolves the technique, subject and task ids
+     */
+    public ColumnarHistoryStore(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Appends a row
+     * @return Row index (0 = oldest)
+     */
+    public int add(long sessionId, long completionTimestamp, long timeSpentMillis, long setDurationMillis,
+                   int cycle, int techniqueId, int subjectId, int taskId) {
+        int row = size;
+        int chunk = row >>> CHUNK_SHIFT;
+        int offset = row & CHUNK_MASK;
+        if (offset == 0) {
+            addChunk(chunk);
+        }
+        sessionIds[chunk][offset] = sessionId;
+        completionTimestamps[chunk][offset] = completionTimestamp;
+        timeSpent[chunk][offset] = timeSpentMillis;
+        setDurations[chunk][offset] = setDurationMillis;
+        cycles[chunk][offset] = cycle;
+        techniqueIds[chunk][offset] = techniqueId;
+        subjectIds[chunk][offset] = subjectId;
+        taskIds[chunk][offset] = taskId;
+        size++;
+        return row;
+    }
+
+    /**
+     * Allocates the next chunk of every column (the chunk tables double when full)
+     */
+    private void addChunk(int chunk) {
+        if (chunk == completionTimestamps.length) {
+            int capacity = chunk * 2;
+            sessionIds = Arrays.copyOf(sessionIds, capacity);
+            completionTimestamps = Arrays.copyOf(completionTimestamps, capacity);
+            timeSpent = Arrays.copyOf(timeSpent, capacity);
+            setDurations = Arrays.copyOf(setDurations, capacity);
+            cycles = Arrays.copyOf(cycles, capacity);
+            techniqueIds = Arrays.copyOf(techniqueIds, capacity);
+            subjectIds = Arrays.copyOf(subjectIds, capacity);
+            taskIds = Arrays.copyOf(taskIds, capacity);
+        }
+        sessionIds[chunk] = new long[CHUNK_SIZE];
+        completionTimestamps[chunk] = new long[CHUNK_SIZE];
+        timeSpent[chunk] = new long[CHUNK_SIZE];
+        setDurations[chunk] = new long[CHUNK_SIZE];
+        cycles[chunk] = new int[CHUNK_SIZE];
+        techniqueIds[chunk] = new int[CHUNK_SIZE];
+        subjectIds[chunk] = new int[CHUNK_SIZE];
+        taskIds[chunk] = new int[CHUNK_SIZE];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getSessionId(int row) {
+        return sessionIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public long getCompletionTimestamp(int row) {
+        return completionTimestamps[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public long getTimeSpentMillis(int row) {
+        return timeSpent[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public long getSetDurationMillis(int row) {
+        return setDurations[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public int getCycle(int row) {
+        return cycles[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public int getTechniqueId(int row) {
+        return techniqueIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public int getSubjectId(int row) {
+        return subjectIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public int getTaskId(int row) {
+        return taskIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Gets the number of rows materialize() has decoded so far
+     */
+    long getMaterializedCount() {
+        return materializedCount;
+    }
+
+    /**
+     * Creates the CompletedSession view of one row
+     * @param row Row index (0 = oldest)
+     */
+    public CompletedSession materialize(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        int chunk = row >>> CHUNK_SHIFT;
+        int offset = row & CHUNK_MASK;
+        materializedCount++;
+        return new CompletedSession(
+            sessionIds[chunk][offset],
+            dictionary.get(techniqueIds[chunk][offset]),
+            dictionary.get(subjectIds[chunk][offset]),
+            dictionary.get(taskIds[chunk][offset]),
+            timeSpent[chunk][offset],
+            completionTimestamps[chunk][offset],
+            setDurations[chunk][offset],
+            cycles[chunk][offset]
+        );
+    }
+
+    /**
+     * Captures the rows added so far for reading on another thread (e.g. export)
+     * Only the chunk tables and dictionary are copied (O(chunks + strings)): existing rows are
+     * never modified, so the snapshot can share the chunks with the store while it keeps growing
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Estimates the memory held by the columns (excluding the dictionary strings)
+     */
+    public long estimateColumnBytes() {
+        int chunks = (size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        return (long) chunks * CHUNK_SIZE * (4 * 8 + 4 * 4);
+    }
+
+    /**
+     * Immutable view of the rows a store had when snapshot() was called
+     */
+    public static final class Snapshot {
+        private final int size;
+        private final String[] strings;
+        private final long[][] sessionIds;
+        private final long[][] completionTimestamps;
+        private final long[][] timeSpent;
+        private final long[][] setDurations;
+        private final int[][] cycles;
+        private final int[][] techniqueIds;
+        private final int[][] subjectIds;
+        private final int[][] taskIds;
+
+        private Snapshot(ColumnarHistoryStore store) {
+            size = store.size;
+            strings = store.dictionary.copyValues();
+            sessionIds = store.sessionIds.clone();
+            completionTimestamps = store.completionTimestamps.clone();
+            timeSpent = store.timeSpent.clone();
+            setDurations = store.setDurations.clone();
+            cycles = store.cycles.clone();
+            techniqueIds = store.techniqueIds.clone();
+            subjectIds = store.subjectIds.clone();
+            taskIds = store.taskIds.clone();
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long getSessionId(int row) {
+            return sessionIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public long getCompletionTimestamp(int row) {
+            return completionTimestamps[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public long getTimeSpentMillis(int row) {
+            return timeSpent[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public long getSetDurationMillis(int row) {
+            return setDurations[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public int getCycle(int row) {
+            return cycles[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public int getTechniqueId(int row) {
+            return techniqueIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public int getSubjectId(int row) {
+            return subjectIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public int getTaskId(int row) {
+            return taskIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        public String getTechnique(int row) {
+            return string(techniqueIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK]);
+        }
+
+        public String getSubject(int row) {
+            return string(subjectIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK]);
+        }
+
+        public String getTask(int row) {
+            return string(taskIds[row >>> CHUNK_SHIFT][row & CHUNK_MASK]);
+        }
+
+        /**
+         * Creates the CompletedSession view of one row (any thread)
+         */
+        public CompletedSession materialize(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+            }
+            return new CompletedSession(getSessionId(row), getTechnique(row), getSubject(row), getTask(row),
+                getTimeSpentMillis(row), getCompletionTimestamp(row), getSetDurationMillis(row), getCycle(row));
+        }
+
+        /**
+         * Gets the number of dictionary strings captured (ids 0 to getStringCount() - 1)
+         */
+        public int getStringCount() {
+            return strings.length;
+        }
+
+        public String getString(int id) {
+            return string(id);
+        }
+
+        private String string(int id) {
+            return id >= 0 && id < strings.length ? strings[id] : "";
+        }
+    }
+}
@@ -3,9 +3,10 @@ package com.example.project;
 /**
  * Data class to represent a completed study session
  * Used for displaying session history in "My Activity" tab
- * All data is transient - lost when app closes
+ * Persisted by HistoryLog (through SessionHistory) - instances are materialized per displayed row
  */
 public class CompletedSession {
+    private long sessionId; // Id of the StudySession this cycle belongs to (with cycle: unique per row)
     private String technique;
     private String subject;
     private String task;
@@ -14,7 +15,8 @@ public class CompletedSession {
     private long setDurationMillis; // Original duration set when goal was created (in milliseconds)
     private int cycle; // Cycle number (for Pomodoro technique, default 0 if not applicable)
 
-    public CompletedSession(String technique, String subject, String task, long timeSpentMillis, long completionTimestamp, long setDurationMillis, int cycle) {
+    public CompletedSession(long sessionId, String technique, String subject, String task, long timeSpentMillis, long completionTimestamp, long setDurationMillis, int cycle) {
+        this.sessionId = sessionId;
         this.technique = technique;
         this.subject = subject;
         this.task = task;
@@ -24,7 +26,53 @@ public class CompletedSession {
         this.cycle = cycle;
     }
 
+    /**
+     * Creates the record for the current cycle of a session
+     * Time spent is measured from the cycle start (each cycle of a multi-cycle technique is its own record)
+     * @param session The study session
+     * @param completionTimestamp Completion time (wall clock, from the injected Clock)
+     */
+    public static CompletedSession fromStudySession(StudySession session, long completionTimestamp) {
+        return new CompletedSession(
+            session.getSessionId(),
+            session.getTechnique(),
+            session.getSubject(),
+            session.getTask(),
+            completionTimestamp - session.getCycleStartTime(),
+            completionTimestamp,
+            session.getWorkDurationMillis(), // original duration set when goal was created
+            session.getCurrentCycle()
+        );
+    }
+
+    /**
+     * Id of a history entry that stays the same across queries and reloads (list diffing)
+     * Session id and cycle; entries recorded before session ids existed use their completion time
+     */
+    public static long stableId(long sessionId, int cycle, long completionTimestamp) {
+        if (sessionId == 0) {
+            return ~completionTimestamp; // Negative for any real time, so it can't clash with an id
+        }
+        return cycleKey(sessionId, cycle);
+    }
+
+    /**
+     * Key of one cycle of a session: session id in the high bits, cycle in the low 16
+     * Also the duplicate check key of SessionHistory, so list ids and recorded keys always agree
+     */
+    static long cycleKey(long sessionId, int cycle) {
+        return (sessionId << 16) | (cycle & 0xFFFF);
+    }
+
+    public long getStableId() {
+        return stableId(sessionId, cycle, completionTimestamp);
+    }
+
     // Getters
+    public long getSessionId() {
+        return sessionId;
+    }
+
     public String getTechnique() {
         return technique;
     }
@@ -109,28 +157,14 @@ public class CompletedSession {
     /**
      * Formats completion timestamp as relative time
      * Examples:
-     * - "Just now" (< 1 minute ago)
+     * - "Just now" (same clock minute)
      * - "5 minutes ago"
      * - "2 hours ago"
      * - "3 days ago"
+     * Lists should use a RelativeTimeLabels cache and one clock reading per minute instead
      */
     public String getRelativeTime() {
-        long currentTime = System.currentTimeMillis();
-        long timeDifference = currentTime - completionTimestamp;
-        
-        long minutesAgo = timeDifference / (60 * 1000);
-        long hoursAgo = timeDifference / (60 * 60 * 1000);
-        long daysAgo = timeDifference / (24 * 60 * 60 * 1000);
-        
-        if (minutesAgo < 1) {
-            return "Just now";
-        } else if (minutesAgo < 60) {
-            return minutesAgo + (minutesAgo == 1 ? " minute ago" : " minutes ago");
-        } else if (hoursAgo < 24) {
-            return hoursAgo + (hoursAgo == 1 ? " hour ago" : " hours ago");
-        } else {
-            return daysAgo + (daysAgo == 1 ? " day ago" : " days ago");
-        }
+        return RelativeTimeLabels.format(completionTimestamp, System.currentTimeMillis());
     }
 
     /**
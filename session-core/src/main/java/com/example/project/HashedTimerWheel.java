@@ -0,0 +1,184 @@
+package com.example.project;
+
+/**
+ * Hashed timing wheel: O(1) schedule and cancel, expiry cost proportional to the
+ * number of timeouts in the visited buckets
+ * Time is divided into ticks; a timeout lands in bucket (tick % wheelSize) and waits
+ * for the right number of wheel rotations. Not thread-safe - drive it from one thread
+ */
+public class HashedTimerWheel<T> {
+
+    /**
+     * Interface for receiving expired timeouts
+     */
+    public interface ExpiryHandler<T> {
+        void onExpired(Timeout<T> timeout);
+    }
+
+    /**
+     * A scheduled timeout (node of the bucket's doubly linked list)
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private long deadlineMillis;
+        private long remainingRounds;
+        private int bucket = -1; // -1 = not scheduled
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload) {
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public boolean isScheduled() {
+            return bucket >= 0;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Timeout<T>[] buckets;
+
+    // Next tick to be processed by advance()
+    private long currentTick = 0;
+
+    private int size = 0;
+
+    /**
+     * @param startMillis Time of tick 0
+     * @param tickMillis Length of one tick (expiry resolution)
+     * @param wheelSize Number of buckets (rounded up to a power of two)
+     */
+    public HashedTimerWheel(long startMillis, long tickMillis, int wheelSize) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        int normalized = Integer.highestOneBit(wheelSize);
+        if (normalized < wheelSize) {
+            normalized <<= 1;
+        }
+        this.startMillis = startMillis;
+        this.tickMillis = tickMillis;
+        this.mask = normalized - 1;
+        @SuppressWarnings("unchecked")
+        Timeout<T>[] buckets = (Timeout<T>[]) new Timeout<?>[normalized];
+        this.buckets = buckets;
+    }
+
+    /**
+     * Schedules a new timeout
+     * @param payload Object handed back on expiry
+     * @param deadlineMillis Expiry time (a deadline in the past expires on the next advance)
+     */
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(payload);
+        reschedule(timeout, deadlineMillis);
+        return timeout;
+    }
+
+    /**
+     * Moves an existing timeout to a new deadline (reuses the node, no allocation)
+     */
+    public void reschedule(Timeout<T> timeout, long deadlineMillis) {
+        cancel(timeout);
+        long elapsed = deadlineMillis - startMillis;
+        long expiryTick = elapsed <= 0 ? 0 : (elapsed + tickMillis - 1) / tickMillis;
+        expiryTick = Math.max(expiryTick, currentTick);
+        timeout.deadlineMillis = deadlineMillis;
+        timeout.remainingRounds = (expiryTick - currentTick) / buckets.length;
+        link(timeout, (int) (expiryTick & mask));
+        size++;
+    }
+
+    /**
+     * Cancels a timeout (no-op if it already expired or was cancelled)
+     */
+    public void cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.bucket < 0) {
+            return;
+        }
+        unlink(timeout);
+        size--;
+    }
+
+    /**
+     * Processes every tick up to the given time and reports expired timeouts
+     * Timeouts scheduled from the handler are never reported in the same tick's pass
+     * @param nowMillis Current time
+     * @param handler Receives expired timeouts (already removed from the wheel)
+     * @return Number of expired timeouts
+     */
+    public int advance(long nowMillis, ExpiryHandler<T> handler) {
+        long targetTick = nowMillis < startMillis ? -1 : (nowMillis - startMillis) / tickMillis;
+        int expired = 0;
+        while (currentTick <= targetTick) {
+            int index = (int) (currentTick & mask);
+            currentTick++;
+            if (buckets[index] == null) {
+                continue;
+            }
+
+            // Detach the bucket so timeouts added by the handler land in a fresh list
+            Timeout<T> node = buckets[index];
+            buckets[index] = null;
+            while (node != null) {
+                Timeout<T> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.bucket = -1;
+                if (node.remainingRounds <= 0) {
+                    size--;
+                    expired++;
+                    handler.onExpired(node);
+                } else {
+                    node.remainingRounds--;
+                    link(node, index);
+                }
+                node = next;
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void link(Timeout<T> timeout, int index) {
+        Timeout<T> head = buckets[index];
+        timeout.bucket = index;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.project;
+
+/**
+ * A change to the rows of a SessionHistory, as published by its HistoryChangeFeed
+ * INSERTED: rows [fromRow, toRow) of the store were appended
+ * RESET: rows were removed or renumbered (e.g. by a compaction) - row indices held by a
+ * subscriber are no longer valid and its views must be rebuilt
+ */
+public final class HistoryChange {
+
+    public enum Type {
+        INSERTED,
+        RESET
+    }
+
+    private final Type type;
+    private final int fromRow;
+    private final int toRow;
+
+    private HistoryChange(Type type, int fromRow, int toRow) {
+        this.type = type;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    public static HistoryChange inserted(int fromRow, int toRow) {
+        return new HistoryChange(Type.INSERTED, fromRow, toRow);
+    }
+
+    /**
+     * @param size Number of rows after the change
+     */
+    public static HistoryChange reset(int size) {
+        return new HistoryChange(Type.RESET, 0, size);
+    }
+
+    /**
+     * Combines this change with one that happened after it (conflation)
+     * Inserted ranges are joined; anything combined with a reset is a reset
+     */
+    public HistoryChange then(HistoryChange next) {
+        if (type == Type.RESET || next.type == Type.RESET) {
+            return reset(next.toRow);
+        }
+        return inserted(Math.min(fromRow, next.fromRow), Math.max(toRow, next.toRow));
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    public int getFromRow() {
+        return fromRow;
+    }
+
+    /**
+     * Gets the end of the inserted range (exclusive), or the new size for a reset
+     */
+    public int getToRow() {
+        return toRow;
+    }
+
+    public int getRowCount() {
+        return toRow - fromRow;
+    }
+
+    @Override
+    public String toString() {
+        return type + " [" + fromRow + ", " + toRow + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.project;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Push notifications of history changes (lists update when a cycle completes instead of
+ * waiting for onResume)
+ * Each subscriber gets its changes through its own executor (e.g. a main-thread Handler's post).
+ * Changes that arrive while a delivery is still pending are merged into it with
+ * HistoryChange.then(), so a slow subscriber receives one conflated change instead of a backlog
+ */
+public class HistoryChangeFeed {
+
+    public interface Listener {
+        void onHistoryChanged(HistoryChange change);
+    }
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts delivering changes to a listener
+     * @param executor Runs the deliveries (the listener is only called from it)
+     * @return Subscription to cancel when the listener goes away
+     */
+    public Subscription subscribe(Executor executor, Listener listener) {
+        Subscription subscription = new Subscription(executor, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Publishes a change to every subscriber (called by SessionHistory)
+     */
+    void publish(HistoryChange change) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    /**
+     * Gets the number of active subscriptions
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * One listener's place in the feed
+     */
+    public final class Subscription {
+        private final Executor executor;
+        private final Listener listener;
+        private HistoryChange pending; // Conflated change waiting for delivery (null = none)
+        private volatile boolean cancelled;
+
+        private Subscription(Executor executor, Listener listener) {
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        private void offer(HistoryChange change) {
+            boolean schedule;
+            synchronized (this) {
+                schedule = pending == null;
+                pending = schedule ? change : pending.then(change);
+            }
+            if (schedule) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            HistoryChange change;
+            synchronized (this) {
+                change = pending;
+                pending = null;
+            }
+            if (change != null && !cancelled) {
+                listener.onHistoryChanged(change);
+            }
+        }
+
+        /**
+         * Stops deliveries (a pending change is dropped)
+         */
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TimeZone;
+
+/**
+ * Folds history entries completed before a cutoff into daily summaries (tiered compaction)
+ * Three steps so the expensive work stays off the main thread:
+ * 1. SessionHistory.prepareCompaction() captures a snapshot of the rows (main thread)
+ * 2. run() folds the old rows of the snapshot into a copy of the summaries, writes the new
+ *    record file and the summaries, and builds the remaining rows in memory (background thread)
+ * 3. SessionHistory.finishCompaction() renames the new record file over the log and swaps in
+ *    the new rows (main thread, O(entries added while run() worked))
+ */
+public final class HistoryCompaction {
+
+    private final File directory;
+    private final ColumnarHistoryStore.Snapshot snapshot;
+    private final HistorySummaries summaries;
+    private final long cutoffMillis;
+    private final TimeZone timeZone;
+    private final int logGeneration;
+    private final long maxSessionId;
+    private volatile boolean folded;
+    private int foldedRows;
+    private HistoryIndex rows;
+    private IOException failure;
+
+    HistoryCompaction(File directory, ColumnarHistoryStore.Snapshot snapshot, HistorySummaries summaries,
+                      long cutoffMillis, TimeZone timeZone, int logGeneration, long maxSessionId) {
+        this.directory = directory;
+        this.snapshot = snapshot;
+        this.summaries = summaries;
+        this.cutoffMillis = cutoffMillis;
+        this.timeZone = timeZone;
+        this.logGeneration = logGeneration;
+        this.maxSessionId = maxSessionId;
+    }
+
+    /**
+     * Folds every snapshot row completed before the cutoff into the summaries, then writes the
+     * kept rows to a new record file and the summaries to theirs (O(rows))
+     * Touches nothing but the snapshot, its own summaries and the new files - safe on a
+     * background thread. Writing the summaries commits the compaction: if the process dies
+     * before finishCompaction(), the next open drops the folded rows from the old log
+     */
+    public void run() {
+        if (folded) {
+            return; // Safety check
+        }
+        int[] keep = new int[snapshot.size()];
+        int kept = 0;
+        for (int row = 0; row < snapshot.size(); row++) {
+            long completion = snapshot.getCompletionTimestamp(row);
+            if (completion < cutoffMillis) {
+                fold(summaries, timeZone, completion, snapshot.getTechniqueId(row), snapshot.getSubjectId(row),
+                    snapshot.getTimeSpentMillis(row), snapshot.getSetDurationMillis(row), snapshot.getCycle(row));
+                foldedRows++;
+            } else {
+                keep[kept++] = row;
+            }
+        }
+        if (foldedRows > 0) {
+            try {
+                summaries.setCompaction(logGeneration + 1, cutoffMillis, maxSessionId);
+                HistoryLog.writeCompacted(directory, logGeneration + 1, snapshot, keep, kept);
+                summaries.write(directory);
+                rows = keptRows(keep, kept);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        folded = true;
+    }
+
+    /**
+     * Builds the in-memory rows of the compacted log (row i = kept row i)
+     */
+    private HistoryIndex keptRows(int[] keep, int count) {
+        // Same ids as the snapshot's dictionary: the string pool is never compacted
+        StringDictionary dictionary = new StringDictionary();
+        for (int id = 0; id < snapshot.getStringCount(); id++) {
+            dictionary.add(snapshot.getString(id));
+        }
+        HistoryIndex index = new HistoryIndex(dictionary, timeZone, summaries, count);
+        for (int i = 0; i < count; i++) {
+            int row = keep[i];
+            index.add(snapshot.getSessionId(row), snapshot.getCompletionTimestamp(row),
+                snapshot.getTimeSpentMillis(row), snapshot.getSetDurationMillis(row), snapshot.getCycle(row),
+                snapshot.getTechniqueId(row), snapshot.getSubjectId(row), snapshot.getTaskId(row));
+        }
+        index.sortRows(); // Only if the kept rows are out of completion order
+        return index;
+    }
+
+    /**
+     * Adds one entry to the summary of its day, technique and subject
+     */
+    static void fold(HistorySummaries summaries, TimeZone timeZone, long completionTimestamp, int techniqueId,
+                     int subjectId, long timeSpentMillis, long setDurationMillis, int cycle) {
+        summaries.add(HistoryRollups.epochDay(timeZone, completionTimestamp), techniqueId, subjectId,
+            timeSpentMillis, setDurationMillis, 1, cycle <= 1 ? 1 : 0);
+    }
+
+    /**
+     * Gets the number of rows folded by run()
+     */
+    public int getFoldedRows() {
+        return foldedRows;
+    }
+
+    public long getCutoffMillis() {
+        return cutoffMillis;
+    }
+
+    boolean isFolded() {
+        return folded;
+    }
+
+    int getSnapshotSize() {
+        return snapshot.size();
+    }
+
+    HistorySummaries getSummaries() {
+        return summaries;
+    }
+
+    int getLogGeneration() {
+        return logGeneration;
+    }
+
+    /**
+     * Gets the rows kept by run() (null if nothing was folded or writing failed)
+     */
+    HistoryIndex getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the error that stopped run() from writing the compacted files (null if none)
+     */
+    IOException getFailure() {
+        return failure;
+    }
+}
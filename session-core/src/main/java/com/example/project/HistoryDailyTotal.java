@@ -0,0 +1,65 @@
+package com.example.project;
+
+/**
+ * Totals of one day, technique and subject from the compacted tier of a history
+ * (HistorySummaries) - how an export carries the entries that are no longer raw rows
+ * The day is given as noon of that day, so it stays the same day in a nearby time zone
+ */
+public final class HistoryDailyTotal {
+
+    private final long dayMillis;
+    private final String technique;
+    private final String subject;
+    private final long focusMillis;
+    private final long plannedMillis;
+    private final int cycles;
+    private final int sessions;
+
+    public HistoryDailyTotal(long dayMillis, String technique, String subject, long focusMillis,
+                             long plannedMillis, int cycles, int sessions) {
+        this.dayMillis = dayMillis;
+        this.technique = technique;
+        this.subject = subject;
+        this.focusMillis = focusMillis;
+        this.plannedMillis = plannedMillis;
+        this.cycles = cycles;
+        this.sessions = sessions;
+    }
+
+    /**
+     * Gets noon of the day (wall clock)
+     */
+    public long getDayMillis() {
+        return dayMillis;
+    }
+
+    public String getTechnique() {
+        return technique;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getFocusMillis() {
+        return focusMillis;
+    }
+
+    public long getPlannedMillis() {
+        return plannedMillis;
+    }
+
+    /**
+     * Gets the number of entries (cycles) counted in the totals
+     */
+    public int getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Gets the number of sessions started (entries of a first cycle) counted in the totals
+     */
+    public int getSessions() {
+        return sessions;
+    }
+}
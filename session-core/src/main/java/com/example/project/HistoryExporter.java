@@ -0,0 +1,253 @@
+package com.example.project;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streams the session history to CSV or JSON (export from the sidebar)
+ * Rows are read from a ColumnarHistoryStore.Snapshot and written in batches of BATCH_SIZE
+ * through one reused StringBuilder, so memory use is the same for 100 or 1M rows
+ * Meant for a background thread: the snapshot is taken on the main thread, writing never
+ * touches the live history
+ * Entries folded into daily summaries by a compaction are written after the raw rows as daily
+ * totals (HistoryDailyTotal): the two extra columns are set only on those, a raw entry leaves
+ * them empty
+ */
+public final class HistoryExporter {
+
+    /**
+     * File format (HistoryImporter reads both)
+     */
+    public enum Format {
+        CSV, // Header row + one row per entry
+        JSON // Array of flat objects
+    }
+
+    /**
+     * Receives progress after each batch (on the exporting/importing thread)
+     */
+    public interface ProgressListener {
+        /**
+         * @param done Rows written or read so far
+         * @param total Rows to write, or -1 when unknown (imports)
+         */
+        void onProgress(long done, long total);
+    }
+
+    // Rows formatted before each write to the Writer
+    public static final int BATCH_SIZE = 1024;
+
+    // CSV header and JSON keys, in column order
+    static final String SESSION_ID = "session_id";
+    static final String COMPLETED_AT = "completed_at";
+    static final String TECHNIQUE = "technique";
+    static final String SUBJECT = "subject";
+    static final String TASK = "task";
+    static final String TIME_SPENT = "time_spent_ms";
+    static final String SET_DURATION = "set_duration_ms";
+    static final String CYCLE = "cycle";
+    static final String[] COLUMNS = {
+        SESSION_ID, COMPLETED_AT, TECHNIQUE, SUBJECT, TASK, TIME_SPENT, SET_DURATION, CYCLE
+    };
+    // Daily totals only: entries and sessions counted (completed_at is noon of the day)
+    static final String TOTAL_CYCLES = "total_cycles";
+    static final String TOTAL_SESSIONS = "total_sessions";
+    static final String[] DAILY_TOTAL_COLUMNS = {TOTAL_CYCLES, TOTAL_SESSIONS};
+
+    private HistoryExporter() {
+    }
+
+    /**
+     * Writes rows of a snapshot in the given format
+     * The writer is flushed but not closed. Checks for thread interruption between batches
+     * @param rows Rows to write in this order (e.g. SessionHistory.select()), or null for every row
+     *             oldest first
+     * @param progress Optional listener (null = no progress)
+     * @return Number of rows written
+     */
+    public static int write(ColumnarHistoryStore.Snapshot snapshot, int[] rows, Format format, Writer out,
+                            ProgressListener progress) throws IOException {
+        return write(snapshot, rows, null, format, out, progress);
+    }
+
+    /**
+     * Writes rows of a snapshot, then the daily totals of the compacted period
+     * @param totals Daily totals (SessionHistory.copyDailyTotals()), or null for none
+     * @return Number of rows written (daily totals not included)
+     */
+    public static int write(ColumnarHistoryStore.Snapshot snapshot, int[] rows, List<HistoryDailyTotal> totals,
+                            Format format, Writer out, ProgressListener progress) throws IOException {
+        int total = rows != null ? rows.length : snapshot.size();
+        boolean withTotals = totals != null && !totals.isEmpty();
+        StringBuilder batch = new StringBuilder(BATCH_SIZE * 96);
+
+        if (format == Format.CSV) {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                batch.append(c > 0 ? "," : "").append(COLUMNS[c]);
+            }
+            if (withTotals) {
+                batch.append(',').append(TOTAL_CYCLES).append(',').append(TOTAL_SESSIONS);
+            }
+            batch.append('\n');
+        } else {
+            batch.append('[');
+        }
+
+        for (int i = 0; i < total; i++) {
+            int row = rows != null ? rows[i] : i;
+            if (format == Format.CSV) {
+                appendCsvRow(batch, snapshot, row, withTotals);
+            } else {
+                appendJsonRow(batch, snapshot, row, i == 0);
+            }
+            if ((i + 1) % BATCH_SIZE == 0) {
+                flushBatch(batch, out);
+                if (progress != null) {
+                    progress.onProgress(i + 1, total);
+                }
+            }
+        }
+        if (withTotals) {
+            for (int i = 0; i < totals.size(); i++) {
+                if (format == Format.CSV) {
+                    appendCsvTotal(batch, totals.get(i));
+                } else {
+                    appendJsonTotal(batch, totals.get(i), total == 0 && i == 0);
+                }
+            }
+        }
+
+        if (format == Format.JSON) {
+            batch.append(total > 0 || withTotals ? "\n]\n" : "]\n");
+        }
+        flushBatch(batch, out);
+        out.flush();
+        if (progress != null) {
+            progress.onProgress(total, total);
+        }
+        return total;
+    }
+
+    private static void flushBatch(StringBuilder batch, Writer out) throws IOException {
+        out.append(batch);
+        batch.setLength(0);
+        if (Thread.interrupted()) {
+            throw new InterruptedIOException("Export cancelled");
+        }
+    }
+
+    private static void appendCsvRow(StringBuilder out, ColumnarHistoryStore.Snapshot snapshot, int row,
+                                     boolean withTotals) {
+        out.append(snapshot.getSessionId(row)).append(',')
+            .append(snapshot.getCompletionTimestamp(row)).append(',');
+        appendCsvField(out, snapshot.getTechnique(row));
+        out.append(',');
+        appendCsvField(out, snapshot.getSubject(row));
+        out.append(',');
+        appendCsvField(out, snapshot.getTask(row));
+        out.append(',').append(snapshot.getTimeSpentMillis(row))
+            .append(',').append(snapshot.getSetDurationMillis(row))
+            .append(',').append(snapshot.getCycle(row))
+            .append(withTotals ? ",,\n" : "\n");
+    }
+
+    private static void appendCsvTotal(StringBuilder out, HistoryDailyTotal total) {
+        out.append("0,").append(total.getDayMillis()).append(',');
+        appendCsvField(out, total.getTechnique());
+        out.append(',');
+        appendCsvField(out, total.getSubject());
+        out.append(",,").append(total.getFocusMillis())
+            .append(',').append(total.getPlannedMillis())
+            .append(",,").append(total.getCycles())
+            .append(',').append(total.getSessions())
+            .append('\n');
+    }
+
+    /**
+     * Quotes a field if it contains a separator, quote or line break (quotes are doubled)
+     */
+    static void appendCsvField(StringBuilder out, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void appendJsonRow(StringBuilder out, ColumnarHistoryStore.Snapshot snapshot, int row,
+                                      boolean first) {
+        out.append(first ? "\n{" : ",\n{");
+        out.append('"').append(SESSION_ID).append("\":").append(snapshot.getSessionId(row));
+        out.append(",\"").append(COMPLETED_AT).append("\":").append(snapshot.getCompletionTimestamp(row));
+        out.append(",\"").append(TECHNIQUE).append("\":");
+        appendJsonString(out, snapshot.getTechnique(row));
+        out.append(",\"").append(SUBJECT).append("\":");
+        appendJsonString(out, snapshot.getSubject(row));
+        out.append(",\"").append(TASK).append("\":");
+        appendJsonString(out, snapshot.getTask(row));
+        out.append(",\"").append(TIME_SPENT).append("\":").append(snapshot.getTimeSpentMillis(row));
+        out.append(",\"").append(SET_DURATION).append("\":").append(snapshot.getSetDurationMillis(row));
+        out.append(",\"").append(CYCLE).append("\":").append(snapshot.getCycle(row));
+        out.append('}');
+    }
+
+    private static void appendJsonTotal(StringBuilder out, HistoryDailyTotal total, boolean first) {
+        out.append(first ? "\n{" : ",\n{");
+        out.append('"').append(COMPLETED_AT).append("\":").append(total.getDayMillis());
+        out.append(",\"").append(TECHNIQUE).append("\":");
+        appendJsonString(out, total.getTechnique());
+        out.append(",\"").append(SUBJECT).append("\":");
+        appendJsonString(out, total.getSubject());
+        out.append(",\"").append(TIME_SPENT).append("\":").append(total.getFocusMillis());
+        out.append(",\"").append(SET_DURATION).append("\":").append(total.getPlannedMillis());
+        out.append(",\"").append(TOTAL_CYCLES).append("\":").append(total.getCycles());
+        out.append(",\"").append(TOTAL_SESSIONS).append("\":").append(total.getSessions());
+        out.append('}');
+    }
+
+    static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
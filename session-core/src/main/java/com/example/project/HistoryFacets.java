@@ -0,0 +1,84 @@
+package com.example.project;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Row bitmaps per technique and per subject (facet filters for HistoryQuery)
+ * Bit i of a technique's bitmap is set if row i used that technique, so a filter on technique
+ * and subject is an AND of two bitmaps instead of a pass over the rows
+ * Ids are StringDictionary ids. Not thread-safe - add and read from one thread
+ */
+public class HistoryFacets {
+
+    private BitSet[] rowsByTechnique = new BitSet[16];
+    private BitSet[] rowsBySubject = new BitSet[16];
+
+    /**
+     * Records the technique and subject of a row
+     */
+    public void add(int row, int techniqueId, int subjectId) {
+        rowsByTechnique = bitmapFor(rowsByTechnique, techniqueId);
+        rowsByTechnique[techniqueId].set(row);
+        rowsBySubject = bitmapFor(rowsBySubject, subjectId);
+        rowsBySubject[subjectId].set(row);
+    }
+
+    /**
+     * Makes sure the bitmap of an id exists (growing the table if needed)
+     */
+    private static BitSet[] bitmapFor(BitSet[] bitmaps, int id) {
+        if (id >= bitmaps.length) {
+            bitmaps = Arrays.copyOf(bitmaps, Math.max(id + 1, bitmaps.length * 2));
+        }
+        if (bitmaps[id] == null) {
+            bitmaps[id] = new BitSet();
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Rows that used a technique (read-only - copy before modifying)
+     * @return Empty bitmap if the technique has no rows
+     */
+    public BitSet getTechniqueRows(int techniqueId) {
+        return rowsOf(rowsByTechnique, techniqueId);
+    }
+
+    /**
+     * Rows that studied a subject (read-only - copy before modifying)
+     * @return Empty bitmap if the subject has no rows
+     */
+    public BitSet getSubjectRows(int subjectId) {
+        return rowsOf(rowsBySubject, subjectId);
+    }
+
+    private static BitSet rowsOf(BitSet[] bitmaps, int id) {
+        return id >= 0 && id < bitmaps.length && bitmaps[id] != null ? bitmaps[id] : new BitSet();
+    }
+
+    /**
+     * Ids of the techniques that have at least one row, in id (first use) order
+     */
+    public int[] getTechniqueIds() {
+        return usedIds(rowsByTechnique);
+    }
+
+    /**
+     * Ids of the subjects that have at least one row, in id (first use) order
+     */
+    public int[] getSubjectIds() {
+        return usedIds(rowsBySubject);
+    }
+
+    private static int[] usedIds(BitSet[] bitmaps) {
+        int[] ids = new int[bitmaps.length];
+        int count = 0;
+        for (int id = 0; id < bitmaps.length; id++) {
+            if (bitmaps[id] != null && !bitmaps[id].isEmpty()) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+}
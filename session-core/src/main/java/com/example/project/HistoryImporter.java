@@ -0,0 +1,464 @@
+package com.example.project;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams CSV or JSON written by HistoryExporter back into completed sessions (import)
+ * The format is detected from the first character ('[' = JSON). Input is parsed in one pass
+ * through a fixed char buffer and handed over in batches of HistoryExporter.BATCH_SIZE, so memory
+ * use doesn't depend on the file size. Meant for a background thread - the sink decides how
+ * batches reach the history (e.g. SessionHistory.addAll() on the main thread)
+ * Columns may come in any order; session_id, set_duration_ms and cycle are optional
+ * Entries with total_cycles set are daily totals of a compacted period; they are kept apart and
+ * handed over once at the end (BatchSink.acceptTotals())
+ */
+public final class HistoryImporter {
+
+    /**
+     * Receives parsed sessions; may block to slow the reader down
+     */
+    public interface BatchSink {
+        void accept(List<CompletedSession> batch) throws IOException;
+
+        /**
+         * Receives the daily totals of the input, after the last batch (only if there are any)
+         */
+        default void acceptTotals(List<HistoryDailyTotal> totals) throws IOException {
+            // Ignored unless the sink keeps summaries
+        }
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private final StringBuilder text = new StringBuilder(64);
+
+    private HistoryImporter(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads every session of a CSV or JSON export
+     * Stops with an IOException at the first malformed entry (batches before it were delivered)
+     * @param progress Optional listener, called after each batch with a total of -1
+     * @return Number of sessions read (daily totals not included)
+     */
+    public static long read(Reader in, BatchSink sink, HistoryExporter.ProgressListener progress) throws IOException {
+        HistoryImporter importer = new HistoryImporter(in);
+        if (importer.peek() == '\uFEFF') {
+            importer.next(); // Byte order mark
+        }
+        importer.skipWhitespace();
+        Batcher batcher = new Batcher(sink, progress);
+        if (importer.peek() == '[') {
+            importer.readJson(batcher);
+        } else if (importer.peek() >= 0) {
+            importer.readCsv(batcher);
+        }
+        batcher.finish();
+        return batcher.count;
+    }
+
+    /**
+     * Collects sessions into batches
+     */
+    private static final class Batcher {
+        private final BatchSink sink;
+        private final HistoryExporter.ProgressListener progress;
+        private List<CompletedSession> batch = new ArrayList<>(HistoryExporter.BATCH_SIZE);
+        private final List<HistoryDailyTotal> totals = new ArrayList<>();
+        private long count;
+
+        Batcher(BatchSink sink, HistoryExporter.ProgressListener progress) {
+            this.sink = sink;
+            this.progress = progress;
+        }
+
+        void add(Entry entry, int line) throws IOException {
+            if (entry.isDailyTotal()) {
+                totals.add(entry.toDailyTotal(line));
+            } else {
+                add(entry.toSession(line));
+            }
+        }
+
+        private void add(CompletedSession session) throws IOException {
+            batch.add(session);
+            count++;
+            if (batch.size() == HistoryExporter.BATCH_SIZE) {
+                deliver();
+            }
+        }
+
+        private void deliver() throws IOException {
+            // A new list per batch: the sink may hand it to another thread
+            List<CompletedSession> full = batch;
+            batch = new ArrayList<>(HistoryExporter.BATCH_SIZE);
+            sink.accept(full);
+            if (progress != null) {
+                progress.onProgress(count, -1);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedIOException("Import cancelled");
+            }
+        }
+
+        void finish() throws IOException {
+            if (!batch.isEmpty()) {
+                deliver();
+            }
+            if (!totals.isEmpty()) {
+                sink.acceptTotals(totals);
+            }
+        }
+    }
+
+    /**
+     * Field values of one entry, by column
+     */
+    private static final class Entry {
+        final String[] values =
+            new String[HistoryExporter.COLUMNS.length + HistoryExporter.DAILY_TOTAL_COLUMNS.length];
+
+        void clear() {
+            Arrays.fill(values, null);
+        }
+
+        void set(String column, String value) {
+            int c = columnIndex(column);
+            if (c >= 0) {
+                values[c] = value; // Unknown columns are ignored
+            }
+        }
+
+        CompletedSession toSession(int line) throws IOException {
+            long completion = number(HistoryExporter.COMPLETED_AT, null, line);
+            long timeSpent = number(HistoryExporter.TIME_SPENT, null, line);
+            return new CompletedSession(
+                number(HistoryExporter.SESSION_ID, 0L, line),
+                text(HistoryExporter.TECHNIQUE),
+                text(HistoryExporter.SUBJECT),
+                text(HistoryExporter.TASK),
+                timeSpent,
+                completion,
+                number(HistoryExporter.SET_DURATION, timeSpent, line),
+                (int) number(HistoryExporter.CYCLE, 1L, line));
+        }
+
+        boolean isDailyTotal() {
+            String cycles = value(HistoryExporter.TOTAL_CYCLES);
+            return cycles != null && !cycles.isEmpty();
+        }
+
+        HistoryDailyTotal toDailyTotal(int line) throws IOException {
+            long focus = number(HistoryExporter.TIME_SPENT, null, line);
+            return new HistoryDailyTotal(
+                number(HistoryExporter.COMPLETED_AT, null, line),
+                text(HistoryExporter.TECHNIQUE),
+                text(HistoryExporter.SUBJECT),
+                focus,
+                number(HistoryExporter.SET_DURATION, focus, line),
+                (int) number(HistoryExporter.TOTAL_CYCLES, null, line),
+                (int) number(HistoryExporter.TOTAL_SESSIONS, 0L, line));
+        }
+
+        private String value(String column) {
+            return values[columnIndex(column)];
+        }
+
+        private static int columnIndex(String column) {
+            for (int c = 0; c < HistoryExporter.COLUMNS.length; c++) {
+                if (HistoryExporter.COLUMNS[c].equals(column)) {
+                    return c;
+                }
+            }
+            for (int c = 0; c < HistoryExporter.DAILY_TOTAL_COLUMNS.length; c++) {
+                if (HistoryExporter.DAILY_TOTAL_COLUMNS[c].equals(column)) {
+                    return HistoryExporter.COLUMNS.length + c;
+                }
+            }
+            return -1;
+        }
+
+        private String text(String column) {
+            String value = value(column);
+            return value != null ? value : "";
+        }
+
+        private long number(String column, Long fallback, int line) throws IOException {
+            String value = value(column);
+            if (value == null || value.isEmpty()) {
+                if (fallback == null) {
+                    throw new IOException("Line " + line + ": missing " + column);
+                }
+                return fallback;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + line + ": " + column + " is not a number: " + value);
+            }
+        }
+    }
+
+    // ---- CSV ----
+
+    private void readCsv(Batcher batcher) throws IOException {
+        List<String> fields = new ArrayList<>();
+        if (!readCsvRecord(fields)) {
+            return;
+        }
+        String[] header = fields.toArray(new String[0]);
+        for (int c = 0; c < header.length; c++) {
+            header[c] = header[c].trim();
+        }
+
+        Entry entry = new Entry();
+        int recordLine = line;
+        while (readCsvRecord(fields)) {
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                recordLine = line;
+                continue; // Blank line
+            }
+            entry.clear();
+            for (int c = 0; c < header.length && c < fields.size(); c++) {
+                entry.set(header[c], fields.get(c));
+            }
+            batcher.add(entry, recordLine);
+            recordLine = line;
+        }
+    }
+
+    /**
+     * Reads one CSV record (quoted fields may contain separators, "" and line breaks)
+     * @return false at the end of the input
+     */
+    private boolean readCsvRecord(List<String> fields) throws IOException {
+        fields.clear();
+        if (peek() < 0) {
+            return false;
+        }
+        text.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            int c = next();
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Line " + line + ": unterminated quoted field");
+                } else if (c == '"') {
+                    if (peek() == '"') {
+                        text.append((char) next());
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    text.append((char) c);
+                }
+            } else if (c == '"' && text.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(text.toString());
+                text.setLength(0);
+            } else if (c == '\r' || c == '\n' || c < 0) {
+                if (c == '\r' && peek() == '\n') {
+                    next();
+                }
+                fields.add(text.toString());
+                return true;
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    // ---- JSON ----
+
+    private void readJson(Batcher batcher) throws IOException {
+        expect('[');
+        skipWhitespace();
+        if (peek() == ']') {
+            next();
+            return;
+        }
+        Entry entry = new Entry();
+        while (true) {
+            skipWhitespace();
+            int objectLine = line;
+            readJsonObject(entry);
+            batcher.add(entry, objectLine);
+            skipWhitespace();
+            int c = next();
+            if (c == ']') {
+                return;
+            } else if (c != ',') {
+                throw unexpected(c, "',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Reads a flat object of string, number, boolean or null members
+     */
+    private void readJsonObject(Entry entry) throws IOException {
+        entry.clear();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            next();
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            String key = readJsonString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            entry.set(key, readJsonValue());
+            skipWhitespace();
+            int c = next();
+            if (c == '}') {
+                return;
+            } else if (c != ',') {
+                throw unexpected(c, "',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * @return The value as text (null for JSON null)
+     */
+    private String readJsonValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            next();
+            return readJsonString();
+        }
+        if (c == '{' || c == '[') {
+            throw new IOException("Line " + line + ": nested values are not supported");
+        }
+        text.setLength(0);
+        while (peek() >= 0 && "-+.eE0123456789truefalsn".indexOf(peek()) >= 0) {
+            text.append((char) next());
+        }
+        if (text.length() == 0) {
+            throw unexpected(peek(), "a value");
+        }
+        String literal = text.toString();
+        return literal.equals("null") ? null : literal;
+    }
+
+    /**
+     * Reads a string after its opening quote
+     */
+    private String readJsonString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = next();
+            if (c < 0) {
+                throw new IOException("Line " + line + ": unterminated string");
+            } else if (c == '"') {
+                return text.toString();
+            } else if (c == '\\') {
+                int escaped = next();
+                switch (escaped) {
+                    case 'n':
+                        text.append('\n');
+                        break;
+                    case 'r':
+                        text.append('\r');
+                        break;
+                    case 't':
+                        text.append('\t');
+                        break;
+                    case 'b':
+                        text.append('\b');
+                        break;
+                    case 'f':
+                        text.append('\f');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(next(), 16);
+                            if (digit < 0) {
+                                throw new IOException("Line " + line + ": bad \\u escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        text.append((char) code);
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        text.append((char) escaped);
+                        break;
+                    default:
+                        throw unexpected(escaped, "an escape character");
+                }
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = next();
+        if (c != expected) {
+            throw unexpected(c, "'" + expected + "'");
+        }
+    }
+
+    private IOException unexpected(int c, String expected) {
+        String found = c < 0 ? "end of file" : "'" + (char) c + "'";
+        return new IOException("Line " + line + ": expected " + expected + " but found " + found);
+    }
+
+    // ---- Character buffer ----
+
+    private void skipWhitespace() throws IOException {
+        while (peek() >= 0 && Character.isWhitespace(peek())) {
+            next();
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.project;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.TimeZone;
+
+/**
+ * In-memory rows of a SessionHistory and everything derived from them: columns, rollups,
+ * search index, facets, the recorded (session id, cycle) keys and the (completion time, cycle)
+ * keys that recognize an entry coming back from an export
+ * Built in one pass on the history thread (HistoryLoad from the log, HistoryCompaction from the
+ * kept rows), then handed to the main thread, which only appends to it from then on
+ * Not thread-safe - owned by one thread at a time
+ */
+final class HistoryIndex {
+
+    final StringDictionary dictionary;
+    final ColumnarHistoryStore store;
+    final HistoryRollups rollups;
+    final HistorySearchIndex searchIndex;
+    final HistoryFacets facets;
+    final LongHashSet recordedKeys;
+    final LongHashSet entryKeys;
+    // True while rows are in completion order (lets query() binary search the time range)
+    boolean timestampsSorted = true;
+    // Otherwise: every row in completion order (null until sortRows() or SessionHistory.finishSort()
+    // rebuilds it - range queries then check every row). Rows completed after the last one are
+    // appended, so views created earlier keep a valid prefix
+    int[] completionOrder;
+    // Changes whenever the order is replaced or dropped (views compare it to find appended rows)
+    int orderVersion;
+    long oldestCompletion = Long.MAX_VALUE; // Of the raw rows
+    long maxSessionId; // Of the rows and the summaries
+
+    /**
+     * Creates an index with no rows yet, counting the summaries in the rollups
+     * @param expectedRows Initial capacity of the recorded keys
+     */
+    HistoryIndex(StringDictionary dictionary, TimeZone timeZone, HistorySummaries summaries, int expectedRows) {
+        this.dictionary = dictionary;
+        store = new ColumnarHistoryStore(dictionary);
+        rollups = new HistoryRollups(timeZone);
+        searchIndex = new HistorySearchIndex(dictionary);
+        facets = new HistoryFacets();
+        recordedKeys = new LongHashSet(expectedRows);
+        entryKeys = new LongHashSet(expectedRows);
+        maxSessionId = summaries.getMaxSessionId();
+        for (int i = 0; i < summaries.size(); i++) {
+            rollups.addSummary(summaries.getDay(i), summaries.getTechniqueId(i), summaries.getSubjectId(i),
+                summaries.getFocusMillis(i), summaries.getPlannedMillis(i), summaries.getCycles(i),
+                summaries.getSessions(i));
+        }
+    }
+
+    /**
+     * Appends a row to the columns, rollups and indexes
+     * @return Row index
+     */
+    int add(long sessionId, long completionTimestamp, long timeSpentMillis, long setDurationMillis, int cycle,
+            int techniqueId, int subjectId, int taskId) {
+        int row = store.add(sessionId, completionTimestamp, timeSpentMillis, setDurationMillis, cycle,
+            techniqueId, subjectId, taskId);
+        rollups.add(completionTimestamp, timeSpentMillis, setDurationMillis, cycle, techniqueId, subjectId);
+        searchIndex.add(row, subjectId, taskId);
+        facets.add(row, techniqueId, subjectId);
+        if (timestampsSorted) {
+            if (row > 0 && completionTimestamp < store.getCompletionTimestamp(row - 1)) {
+                timestampsSorted = false; // e.g. an import or the device clock set back - needs sortRows()
+                orderVersion++;
+            }
+        } else if (completionOrder != null) {
+            if (completionTimestamp >= store.getCompletionTimestamp(completionOrder[row - 1])) {
+                if (row == completionOrder.length) {
+                    completionOrder = Arrays.copyOf(completionOrder, row + (row >> 1) + 16);
+                }
+                completionOrder[row] = row;
+            } else {
+                completionOrder = null;
+                orderVersion++;
+            }
+        }
+        oldestCompletion = Math.min(oldestCompletion, completionTimestamp);
+        entryKeys.add(CompletedSession.cycleKey(completionTimestamp, cycle));
+        if (sessionId != 0) { // Rows written before session ids existed can't be matched
+            recordedKeys.add(CompletedSession.cycleKey(sessionId, cycle));
+            maxSessionId = Math.max(maxSessionId, sessionId);
+        }
+        return row;
+    }
+
+    /**
+     * Checks whether every row can be visited in completion order
+     */
+    boolean isOrdered() {
+        return timestampsSorted || completionOrder != null;
+    }
+
+    /**
+     * Rebuilds the completion order from the rows (O(rows log rows) - history thread only)
+     */
+    void sortRows() {
+        if (!isOrdered()) {
+            useOrder(sortByCompletion(store.snapshot()));
+        }
+    }
+
+    /**
+     * Takes a completion order covering every row
+     */
+    void useOrder(int[] order) {
+        boolean identity = true;
+        for (int i = 0; i < order.length && identity; i++) {
+            identity = order[i] == i;
+        }
+        timestampsSorted = identity;
+        completionOrder = identity ? null : order;
+        orderVersion++;
+    }
+
+    /**
+     * Orders the rows of a snapshot by completion time (ties keep row order)
+     */
+    static int[] sortByCompletion(ColumnarHistoryStore.Snapshot snapshot) {
+        Integer[] boxed = new Integer[snapshot.size()];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = i;
+        }
+        // Stable, and close to linear on the sorted runs an import leaves
+        Arrays.sort(boxed, Comparator.comparingLong(snapshot::getCompletionTimestamp));
+        int[] order = new int[boxed.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    /**
+     * Checks whether a cycle of a session is already a row
+     */
+    boolean contains(long sessionId, int cycle) {
+        return sessionId != 0 && recordedKeys.contains(CompletedSession.cycleKey(sessionId, cycle));
+    }
+
+    /**
+     * Checks whether a row completed at this exact time with this cycle exists (the same entry,
+     * whatever session id it had on the device that exported it)
+     */
+    boolean containsEntry(long completionTimestamp, int cycle) {
+        return entryKeys.contains(CompletedSession.cycleKey(completionTimestamp, cycle));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TimeZone;
+
+/**
+ * Reads the rows of a history log into memory - the O(rows) part of opening a SessionHistory
+ * Three steps, like a HistoryCompaction, so the main thread never waits for it:
+ * 1. SessionHistory.openUnloaded() opens the files (main thread, nothing is decoded)
+ * 2. run() decodes the strings and builds the columns and indexes (background thread)
+ * 3. SessionHistory.finishLoad() swaps them in (main thread)
+ * While run() works the log belongs to it; SessionHistory keeps its own hands off until the
+ * load is finished (a write before that runs or waits for the load first)
+ */
+public final class HistoryLoad {
+
+    private final File directory;
+    private final HistoryLog log;
+    private final TimeZone timeZone;
+    private boolean done;
+    private HistorySummaries summaries;
+    private HistoryIndex index;
+    private IOException failure;
+
+    HistoryLoad(File directory, HistoryLog log, TimeZone timeZone) {
+        this.directory = directory;
+        this.log = log;
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * Reads the summaries and every log record (O(rows), any thread)
+     * Runs once: a second call waits for the first one to finish
+     */
+    public synchronized void run() {
+        if (done) {
+            return; // Safety check
+        }
+        try {
+            summaries = HistorySummaries.read(directory);
+            if (log.getGeneration() < summaries.getLogGeneration()) {
+                finishInterruptedCompaction();
+            }
+            // Dictionary ids are the pool ids: strings are added in pool order
+            StringDictionary dictionary = new StringDictionary();
+            for (int id = 0; id < log.getStringCount(); id++) {
+                dictionary.add(log.getString(id));
+            }
+            index = readRows(log, dictionary, timeZone, summaries);
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException("Unable to read the history", e); // e.g. files closed meanwhile
+        }
+        done = true;
+    }
+
+    /**
+     * Builds the in-memory rows from the summaries and the log records
+     * @param dictionary Dictionary holding the pooled strings (ids = pool ids)
+     */
+    static HistoryIndex readRows(HistoryLog log, StringDictionary dictionary, TimeZone timeZone,
+                                 HistorySummaries summaries) {
+        HistoryIndex rows = new HistoryIndex(dictionary, timeZone, summaries, log.size());
+        for (int i = 0; i < log.size(); i++) {
+            rows.add(log.getSessionId(i), log.getCompletionTimestamp(i), log.getTimeSpentMillis(i),
+                log.getSetDurationMillis(i), log.getCycle(i), log.getTechniqueId(i), log.getSubjectId(i),
+                log.getTaskId(i));
+        }
+        rows.sortRows(); // Only if an import left the log out of completion order
+        return rows;
+    }
+
+    /**
+     * The process died after a compaction wrote the summaries but before it replaced the log:
+     * drops the rows that are already counted in the summaries
+     */
+    private void finishInterruptedCompaction() throws IOException {
+        int[] keep = new int[log.size()];
+        int count = 0;
+        for (int i = 0; i < log.size(); i++) {
+            if (log.getCompletionTimestamp(i) >= summaries.getCompactedBeforeMillis()) {
+                keep[count++] = i;
+            }
+        }
+        log.replaceRecords(keep, count, summaries.getLogGeneration());
+    }
+
+    synchronized boolean isDone() {
+        return done;
+    }
+
+    synchronized HistorySummaries getSummaries() {
+        return summaries;
+    }
+
+    synchronized HistoryIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the error that stopped run() (null if it succeeded)
+     */
+    public synchronized IOException getFailure() {
+        return failure;
+    }
+}
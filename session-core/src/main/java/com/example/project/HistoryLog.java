@@ -0,0 +1,511 @@
+package com.example.project;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only on-disk log of completed sessions
+ * Records are fixed-size and refer to strings (technique, subject, task) by id, so record i
+ * lives at HEADER_SIZE + i * RECORD_SIZE and is read straight from a MappedByteBuffer -
+ * opening the log only checks the file lengths and nothing is decoded until it is asked for
+ * Strings are written once to a separate append-only pool file and decoded lazily
+ * Interning is left to the caller (SessionHistory keeps the dictionary in memory)
+ * Compaction replaces the record file with one holding only the kept records and a higher
+ * generation (header bytes 8-11); the string pool is never compacted, so string ids stay valid
+ * Not thread-safe - use from one thread at a time (the main thread in the app, once the
+ * HistoryLoad that reads it on the history thread has finished)
+ */
+public class HistoryLog {
+
+    private static final int MAGIC = 0x46464C47; // "FFLG"
+    private static final int POOL_MAGIC = 0x46465350; // "FFSP"
+    static final int VERSION = 2; // 2: records start with the session id
+
+    static final int HEADER_SIZE = 16;
+    private static final int POOL_HEADER_SIZE = 8;
+
+    // Record layout: session id, completion timestamp, time spent, set duration, cycle,
+    // technique/subject/task ids (version 1 records had no session id)
+    static final int RECORD_SIZE = 8 + 8 + 8 + 8 + 4 + 4 + 4 + 4;
+    private static final int RECORD_SIZE_V1 = RECORD_SIZE - 8;
+    private static final int OFFSET_SESSION_ID = 0;
+    private static final int OFFSET_COMPLETION = 8;
+    private static final int OFFSET_TIME_SPENT = 16;
+    private static final int OFFSET_SET_DURATION = 24;
+    private static final int OFFSET_CYCLE = 32;
+    private static final int OFFSET_TECHNIQUE = 36;
+    private static final int OFFSET_SUBJECT = 40;
+    private static final int OFFSET_TASK = 44;
+
+    private static final String FILE_NAME = "history.log";
+    private static final String COMPACTED_FILE_NAME = "history.log.compact";
+
+    // Longest string kept in the pool (fits the unsigned short length prefix)
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final File logFile;
+    private RandomAccessFile recordFile;
+    private FileChannel recordChannel;
+    private int generation;
+    private final RandomAccessFile poolFile;
+    private final FileChannel poolChannel;
+
+    private int size;
+
+    // Read-only mapping of the first mappedCount records (remapped when reads go past it)
+    private MappedByteBuffer mapped;
+    private int mappedCount = -1;
+
+    // String pool: byte offset of every string in the pool file, decoded values on demand
+    private MappedByteBuffer poolMapped;
+    private long poolMappedLength = -1;
+    private int[] stringOffsets = new int[64];
+    private String[] strings = new String[64];
+    private int stringCount = 0;
+    private long poolLength;
+
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(RECORD_SIZE);
+    // Records appended since beginBatch() (null = each record is written when appended)
+    private ByteBuffer batchBuffer;
+    private int batchStart;
+
+    /**
+     * Opens (or creates) the log in a directory
+     * A record or string cut short by process death is dropped
+     * @param directory Directory holding the record and string pool files
+     */
+    public HistoryLog(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        logFile = new File(directory, FILE_NAME);
+        upgradeVersion1(logFile);
+        recordFile = new RandomAccessFile(logFile, "rw");
+        recordChannel = recordFile.getChannel();
+        poolFile = new RandomAccessFile(new File(directory, "history.strings"), "rw");
+        poolChannel = poolFile.getChannel();
+
+        try {
+            long recordLength = openHeader(recordChannel, MAGIC, HEADER_SIZE);
+            size = (int) ((recordLength - HEADER_SIZE) / RECORD_SIZE);
+            long validLength = HEADER_SIZE + (long) size * RECORD_SIZE;
+            if (validLength != recordLength) {
+                recordChannel.truncate(validLength); // Torn record
+            }
+            generation = readGeneration(recordChannel);
+
+            poolLength = openHeader(poolChannel, POOL_MAGIC, POOL_HEADER_SIZE);
+            indexStringPool();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rewrites a version 1 log in the current layout (old rows get session id 0)
+     * The new file replaces the old one with a rename, so a crash leaves one of the two intact
+     */
+    private static void upgradeVersion1(File logFile) throws IOException {
+        if (logFile.length() < HEADER_SIZE) {
+            return;
+        }
+        byte[] data;
+        try (RandomAccessFile in = new RandomAccessFile(logFile, "r")) {
+            if (in.readInt() != MAGIC || in.readInt() != 1) {
+                return; // Current version (or not a log - checked when opening)
+            }
+            data = new byte[(int) in.length()];
+            in.seek(0);
+            in.readFully(data);
+        }
+
+        int count = (data.length - HEADER_SIZE) / RECORD_SIZE_V1;
+        ByteBuffer upgraded = ByteBuffer.allocate(HEADER_SIZE + count * RECORD_SIZE);
+        upgraded.putInt(MAGIC).putInt(VERSION);
+        upgraded.position(HEADER_SIZE);
+        for (int i = 0; i < count; i++) {
+            upgraded.putLong(0L);
+            upgraded.put(data, HEADER_SIZE + i * RECORD_SIZE_V1, RECORD_SIZE_V1);
+        }
+
+        File upgradedFile = new File(logFile.getPath() + ".upgrade");
+        try (FileOutputStream out = new FileOutputStream(upgradedFile)) {
+            out.write(upgraded.array());
+            out.getFD().sync();
+        }
+        if (!upgradedFile.renameTo(logFile)) {
+            throw new IOException("Unable to upgrade " + logFile);
+        }
+    }
+
+    /**
+     * Writes the header of a new file or checks the header of an existing one
+     * @return Current file length
+     */
+    private static long openHeader(FileChannel channel, int magic, int headerSize) throws IOException {
+        long length = channel.size();
+        if (length < headerSize) {
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            header.putInt(magic).putInt(VERSION); // Rest of the header is reserved
+            header.clear();
+            channel.truncate(0);
+            channel.write(header, 0);
+            return headerSize;
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        channel.read(header, 0);
+        if (header.getInt(0) != magic || header.getInt(4) > VERSION) {
+            throw new IOException("Unsupported history file");
+        }
+        return length;
+    }
+
+    private static int readGeneration(FileChannel channel) throws IOException {
+        ByteBuffer field = ByteBuffer.allocate(4);
+        channel.read(field, 8);
+        return field.getInt(0);
+    }
+
+    /**
+     * Gets the compaction generation of the record file (0 until the first compaction)
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Replaces the record file with one holding only some of the records (compaction)
+     * Kept records are copied byte for byte in the given order. The new file is synced, then
+     * renamed over the old one, so a crash leaves either the old or the new file
+     * @param keep Indices of the records to keep
+     * @param count Number of indices used in keep
+     * @param newGeneration Generation written to the new header
+     */
+    public void replaceRecords(int[] keep, int count, int newGeneration) throws IOException {
+        if (batchBuffer != null) {
+            throw new IllegalStateException("Batch in progress");
+        }
+        writeRecordFile(new File(logFile.getParentFile(), COMPACTED_FILE_NAME), newGeneration, count, (buffer, i) -> {
+            MappedByteBuffer records = records(keep[i]);
+            int offset = recordOffset(keep[i]);
+            for (int b = 0; b < RECORD_SIZE; b += 8) {
+                buffer.putLong(records.getLong(offset + b));
+            }
+        });
+        switchToCompacted();
+    }
+
+    /**
+     * Writes the record file of a compaction from rows of a snapshot, leaving the log as it is
+     * (safe on a background thread - the log switches to the file with switchToCompacted())
+     * @param rows Snapshot rows to write, in order
+     * @param count Number of rows used in rows
+     */
+    static void writeCompacted(File directory, int newGeneration, ColumnarHistoryStore.Snapshot snapshot, int[] rows,
+                               int count) throws IOException {
+        writeRecordFile(new File(directory, COMPACTED_FILE_NAME), newGeneration, count, (buffer, i) -> {
+            int row = rows[i];
+            buffer.putLong(snapshot.getSessionId(row));
+            buffer.putLong(snapshot.getCompletionTimestamp(row));
+            buffer.putLong(snapshot.getTimeSpentMillis(row));
+            buffer.putLong(snapshot.getSetDurationMillis(row));
+            buffer.putInt(snapshot.getCycle(row));
+            buffer.putInt(snapshot.getTechniqueId(row));
+            buffer.putInt(snapshot.getSubjectId(row));
+            buffer.putInt(snapshot.getTaskId(row));
+        });
+    }
+
+    /**
+     * Puts record i of a new record file into the buffer
+     */
+    private interface RecordSource {
+        void put(ByteBuffer buffer, int index);
+    }
+
+    private static void writeRecordFile(File file, int newGeneration, int count, RecordSource records)
+        throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            FileChannel channel = out.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(1024 * RECORD_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(newGeneration);
+            buffer.position(HEADER_SIZE);
+            long position = 0;
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    buffer.flip();
+                    int length = buffer.remaining();
+                    writeFully(channel, buffer, position);
+                    position += length;
+                    buffer.clear();
+                }
+                records.put(buffer, i);
+            }
+            buffer.flip();
+            writeFully(channel, buffer, position);
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Replaces the record file with the one written by writeCompacted() (a rename, so a crash
+     * leaves either the old or the new file) and takes over its records and generation
+     */
+    public void switchToCompacted() throws IOException {
+        if (batchBuffer != null) {
+            throw new IllegalStateException("Batch in progress");
+        }
+        File compactedFile = new File(logFile.getParentFile(), COMPACTED_FILE_NAME);
+        recordFile.close();
+        boolean replaced = compactedFile.renameTo(logFile);
+        recordFile = new RandomAccessFile(logFile, "rw");
+        recordChannel = recordFile.getChannel();
+        if (!replaced) {
+            throw new IOException("Unable to replace " + logFile); // Old file stays open
+        }
+        size = (int) ((recordChannel.size() - HEADER_SIZE) / RECORD_SIZE);
+        generation = readGeneration(recordChannel);
+        mapped = null;
+        mappedCount = -1;
+    }
+
+    /**
+     * Finds the offset of every pooled string (lengths only - nothing is decoded)
+     */
+    private void indexStringPool() throws IOException {
+        remapPool();
+        long position = POOL_HEADER_SIZE;
+        while (position + 2 <= poolLength) {
+            int length = poolMapped.getShort((int) position) & 0xFFFF;
+            if (position + 2 + length > poolLength) {
+                break; // Torn string
+            }
+            addStringOffset((int) position);
+            position += 2 + length;
+        }
+        if (position != poolLength) {
+            poolChannel.truncate(position);
+            poolLength = position;
+            remapPool();
+        }
+    }
+
+    private void addStringOffset(int offset) {
+        if (stringCount == stringOffsets.length) {
+            int[] offsets = new int[stringOffsets.length * 2];
+            System.arraycopy(stringOffsets, 0, offsets, 0, stringCount);
+            stringOffsets = offsets;
+            String[] values = new String[offsets.length];
+            System.arraycopy(strings, 0, values, 0, stringCount);
+            strings = values;
+        }
+        stringOffsets[stringCount++] = offset;
+    }
+
+    private void remapPool() throws IOException {
+        poolMapped = poolChannel.map(FileChannel.MapMode.READ_ONLY, 0, poolLength);
+        poolMappedLength = poolLength;
+    }
+
+    /**
+     * Appends a string to the pool
+     * @return The string id (strings are numbered in the order they were appended)
+     */
+    public int appendString(String value) throws IOException {
+        if (value == null) {
+            value = "";
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        ByteBuffer entry = ByteBuffer.allocate(2 + length);
+        entry.putShort((short) length).put(bytes, 0, length).flip();
+        writeFully(poolChannel, entry, poolLength);
+
+        int id = stringCount;
+        addStringOffset((int) poolLength);
+        strings[id] = value;
+        poolLength += 2 + length;
+        return id;
+    }
+
+    /**
+     * Appends a completed session record (its strings must already be in the pool)
+     */
+    public void appendRecord(long sessionId, long completionTimestamp, long timeSpentMillis, long setDurationMillis,
+                             int cycle, int techniqueId, int subjectId, int taskId) throws IOException {
+        recordBuffer.clear();
+        recordBuffer.putLong(sessionId);
+        recordBuffer.putLong(completionTimestamp);
+        recordBuffer.putLong(timeSpentMillis);
+        recordBuffer.putLong(setDurationMillis);
+        recordBuffer.putInt(cycle);
+        recordBuffer.putInt(techniqueId);
+        recordBuffer.putInt(subjectId);
+        recordBuffer.putInt(taskId);
+        recordBuffer.flip();
+        if (batchBuffer != null) {
+            if (batchBuffer.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(batchBuffer.capacity() * 2);
+                batchBuffer.flip();
+                batchBuffer = grown.put(batchBuffer);
+            }
+            batchBuffer.put(recordBuffer);
+        } else {
+            writeFully(recordChannel, recordBuffer, HEADER_SIZE + (long) size * RECORD_SIZE);
+        }
+        size++;
+    }
+
+    /**
+     * Collects the following appendRecord() calls in memory until endBatch() writes them at once
+     * (bulk imports). Records of an open batch can't be read yet
+     * @param expectedRecords Initial capacity of the batch
+     */
+    public void beginBatch(int expectedRecords) {
+        if (batchBuffer != null) {
+            return; // Safety check
+        }
+        batchBuffer = ByteBuffer.allocate(Math.max(1, expectedRecords) * RECORD_SIZE);
+        batchStart = size;
+    }
+
+    /**
+     * Writes the records collected since beginBatch() with a single write
+     * If the write fails the batch is dropped (size() goes back to where the batch started)
+     */
+    public void endBatch() throws IOException {
+        if (batchBuffer == null) {
+            return; // Safety check
+        }
+        ByteBuffer batch = batchBuffer;
+        batchBuffer = null;
+        batch.flip();
+        try {
+            writeFully(recordChannel, batch, HEADER_SIZE + (long) batchStart * RECORD_SIZE);
+        } catch (IOException e) {
+            size = batchStart;
+            throw e;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Gets the number of records
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getSessionId(int index) {
+        return records(index).getLong(recordOffset(index) + OFFSET_SESSION_ID);
+    }
+
+    public long getCompletionTimestamp(int index) {
+        return records(index).getLong(recordOffset(index) + OFFSET_COMPLETION);
+    }
+
+    public long getTimeSpentMillis(int index) {
+        return records(index).getLong(recordOffset(index) + OFFSET_TIME_SPENT);
+    }
+
+    public long getSetDurationMillis(int index) {
+        return records(index).getLong(recordOffset(index) + OFFSET_SET_DURATION);
+    }
+
+    public int getCycle(int index) {
+        return records(index).getInt(recordOffset(index) + OFFSET_CYCLE);
+    }
+
+    public int getTechniqueId(int index) {
+        return records(index).getInt(recordOffset(index) + OFFSET_TECHNIQUE);
+    }
+
+    public int getSubjectId(int index) {
+        return records(index).getInt(recordOffset(index) + OFFSET_SUBJECT);
+    }
+
+    public int getTaskId(int index) {
+        return records(index).getInt(recordOffset(index) + OFFSET_TASK);
+    }
+
+    /**
+     * Gets the number of pooled strings
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Gets a pooled string (decoded on first use, then cached)
+     */
+    public String getString(int id) {
+        if (id < 0 || id >= stringCount) {
+            return ""; // Safety check
+        }
+        String value = strings[id];
+        if (value == null) {
+            try {
+                if (poolMappedLength < poolLength) {
+                    remapPool();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to map history strings", e);
+            }
+            int offset = stringOffsets[id];
+            int length = poolMapped.getShort(offset) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            ByteBuffer view = poolMapped.duplicate();
+            view.position(offset + 2);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private static int recordOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    /**
+     * Gets a mapping that covers the record (records appended since the last read are mapped now)
+     */
+    private MappedByteBuffer records(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+        }
+        if (index >= mappedCount) {
+            try {
+                mapped = recordChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    HEADER_SIZE + (long) size * RECORD_SIZE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to map history log", e);
+            }
+            mappedCount = size;
+        }
+        return mapped;
+    }
+
+    /**
+     * Releases the files (mappings stay valid until garbage collected)
+     */
+    public void close() throws IOException {
+        try {
+            recordFile.close();
+        } finally {
+            poolFile.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.project;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Loads a history view in fixed-size pages on a background thread (paged My Activity list)
+ * get() returns null for a position whose page isn't loaded yet (shown as a placeholder) and
+ * requests the pages within PREFETCH_DISTANCE of it, so scrolling rarely reaches a placeholder.
+ * Pages are materialized from a snapshot of the view's store, taken on the first request - the
+ * store itself is never read off its own thread
+ * Call get(), size() and carryOver() on the thread the listener executor runs on
+ */
+public class HistoryPages {
+
+    public static final int PAGE_SIZE = 50;
+    public static final int PREFETCH_DISTANCE = 30; // Positions ahead and behind
+
+    /**
+     * Notified on the deliver executor when entries of a page became available
+     */
+    public interface Listener {
+        void onPageLoaded(int fromPosition, int count);
+    }
+
+    private final List<CompletedSession> view;
+    private final Executor loader;
+    private final Executor deliver;
+    private final Listener listener;
+    private final CompletedSession[][] pages; // null = nothing of the page loaded or carried over
+    private final boolean[] requested;
+    private ColumnarHistoryStore.Snapshot snapshot; // Taken by the first request
+    private boolean closed;
+
+    /**
+     * @param view History view in display order (entries are read in the background only if it
+     *             is a HistoryRows view - other lists are read on the calling thread)
+     * @param loader Runs page loads (background)
+     * @param deliver Runs listener calls (e.g. a main-thread Handler's post)
+     */
+    public HistoryPages(List<CompletedSession> view, Executor loader, Executor deliver, Listener listener) {
+        this.view = view;
+        this.loader = loader;
+        this.deliver = deliver;
+        this.listener = listener;
+        int pageCount = (view.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        this.pages = new CompletedSession[pageCount][];
+        this.requested = new boolean[pageCount];
+    }
+
+    public int size() {
+        return view.size();
+    }
+
+    /**
+     * Gets the entry at a position, requesting its page and the ones around it
+     * @return null while the entry isn't loaded (the listener is called once it is)
+     */
+    public CompletedSession get(int position) {
+        int first = Math.max(0, position - PREFETCH_DISTANCE) / PAGE_SIZE;
+        int last = Math.min(view.size() - 1, position + PREFETCH_DISTANCE) / PAGE_SIZE;
+        int page = position / PAGE_SIZE;
+        request(page); // Own page first
+        for (int p = first; p <= last; p++) {
+            request(p);
+        }
+        CompletedSession[] entries = pages[page];
+        return entries != null ? entries[position % PAGE_SIZE] : null;
+    }
+
+    /**
+     * Checks whether the entry at a position is loaded (requests nothing)
+     */
+    public boolean isLoaded(int position) {
+        CompletedSession[] entries = pages[position / PAGE_SIZE];
+        return entries != null && entries[position % PAGE_SIZE] != null;
+    }
+
+    private void request(int page) {
+        if (requested[page] || closed) {
+            return;
+        }
+        requested[page] = true;
+        int from = page * PAGE_SIZE;
+        int count = Math.min(PAGE_SIZE, view.size() - from);
+        if (pages[page] != null && !hasGap(pages[page], count)) {
+            return; // Fully carried over
+        }
+        if (!(view instanceof HistoryRows)) {
+            CompletedSession[] loaded = new CompletedSession[PAGE_SIZE];
+            for (int i = 0; i < count; i++) {
+                loaded[i] = view.get(from + i);
+            }
+            deliver.execute(() -> apply(page, loaded, count));
+            return;
+        }
+
+        HistoryRows rows = (HistoryRows) view;
+        if (snapshot == null) {
+            snapshot = rows.getStore().snapshot();
+        }
+        ColumnarHistoryStore.Snapshot source = snapshot;
+        int[] rowIndices = new int[count];
+        for (int i = 0; i < count; i++) {
+            rowIndices[i] = rows.getRow(from + i);
+        }
+        loader.execute(() -> {
+            CompletedSession[] loaded = new CompletedSession[PAGE_SIZE];
+            for (int i = 0; i < count; i++) {
+                loaded[i] = source.materialize(rowIndices[i]);
+            }
+            deliver.execute(() -> apply(page, loaded, count));
+        });
+    }
+
+    private static boolean hasGap(CompletedSession[] entries, int count) {
+        for (int i = 0; i < count; i++) {
+            if (entries[i] == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void apply(int page, CompletedSession[] loaded, int count) {
+        if (closed) {
+            return; // Replaced by another list meanwhile
+        }
+        CompletedSession[] entries = pages[page];
+        if (entries == null) {
+            pages[page] = loaded;
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (entries[i] == null) {
+                    entries[i] = loaded[i]; // Keep entries carried over from the previous list
+                }
+            }
+        }
+        listener.onPageLoaded(page * PAGE_SIZE, count);
+    }
+
+    /**
+     * Takes over the loaded entries of the list this one replaces, so rows that are still shown
+     * don't turn into placeholders (the previous pages stop delivering)
+     * @param oldToNew Maps a position of the previous list to this one (negative = removed)
+     */
+    public void carryOver(HistoryPages previous, IntUnaryOperator oldToNew) {
+        previous.closed = true;
+        for (int page = 0; page < previous.pages.length; page++) {
+            CompletedSession[] entries = previous.pages[page];
+            if (entries == null) {
+                continue;
+            }
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (entries[i] == null) {
+                    continue;
+                }
+                int position = oldToNew.applyAsInt(page * PAGE_SIZE + i);
+                if (position < 0 || position >= view.size()) {
+                    continue;
+                }
+                CompletedSession[] target = pages[position / PAGE_SIZE];
+                if (target == null) {
+                    target = pages[position / PAGE_SIZE] = new CompletedSession[PAGE_SIZE];
+                }
+                target[position % PAGE_SIZE] = entries[i];
+            }
+        }
+    }
+
+    /**
+     * Stops deliveries (the adapter switched to another list)
+     */
+    public void close() {
+        closed = true;
+    }
+}
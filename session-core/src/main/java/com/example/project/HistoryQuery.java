@@ -0,0 +1,90 @@
+package com.example.project;
+
+/**
+ * Filter and sort order for SessionHistory.query()
+ * Every filter is optional - a new query matches the whole history, newest first
+ * Example: new HistoryQuery().between(t1, t2).technique("Pomodoro").subject("Math")
+ *              .sortBy(HistoryQuery.Sort.LONGEST_FIRST)
+ */
+public class HistoryQuery {
+
+    /**
+     * Result order
+     */
+    public enum Sort {
+        NEWEST_FIRST,
+        OLDEST_FIRST,
+        LONGEST_FIRST, // Most time spent first
+        SHORTEST_FIRST
+    }
+
+    private long fromMillis = Long.MIN_VALUE;
+    private long toMillis = Long.MAX_VALUE;
+    private String technique;
+    private String subject;
+    private String text;
+    private Sort sort = Sort.NEWEST_FIRST;
+
+    /**
+     * Keeps entries completed in [fromMillis, toMillis)
+     */
+    public HistoryQuery between(long fromMillis, long toMillis) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        return this;
+    }
+
+    /**
+     * Keeps entries of one technique (null = any)
+     */
+    public HistoryQuery technique(String technique) {
+        this.technique = technique;
+        return this;
+    }
+
+    /**
+     * Keeps entries of one subject (null = any)
+     */
+    public HistoryQuery subject(String subject) {
+        this.subject = subject;
+        return this;
+    }
+
+    /**
+     * Keeps entries whose subject or task contain every word of the text (null or blank = any)
+     */
+    public HistoryQuery text(String text) {
+        this.text = text;
+        return this;
+    }
+
+    public HistoryQuery sortBy(Sort sort) {
+        this.sort = sort != null ? sort : Sort.NEWEST_FIRST;
+        return this;
+    }
+
+    // Getters
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    public long getToMillis() {
+        return toMillis;
+    }
+
+    public String getTechnique() {
+        return technique;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.project;
+
+import java.util.TimeZone;
+
+/**
+ * Incrementally maintained history totals by day, ISO week, month, subject and technique
+ * Every added entry updates five RollupSeries buckets, so dashboard queries cost O(buckets)
+ * instead of a scan over the whole history
+ * Calendar keys are computed with integer math in the given time zone (java.time needs API 26):
+ * - day: days since 1970-01-01 (local date of the completion time)
+ * - week: ISO weeks (Monday to Sunday) since the week of 1970-01-01
+ * - month: year * 12 + (month - 1)
+ * Not thread-safe - update and read from one thread
+ */
+public class HistoryRollups {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final TimeZone timeZone;
+    private final RollupSeries days = new RollupSeries();
+    private final RollupSeries weeks = new RollupSeries();
+    private final RollupSeries months = new RollupSeries();
+    private final RollupSeries subjects = new RollupSeries();
+    private final RollupSeries techniques = new RollupSeries();
+
+    /**
+     * @param timeZone Time zone that decides which day an entry belongs to
+     */
+    public HistoryRollups(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * Adds one completed cycle (one history entry)
+     * @param subjectId Dictionary id of the subject
+     * @param techniqueId Dictionary id of the technique
+     */
+    public void add(long completionTimestamp, long timeSpentMillis, long setDurationMillis, int cycle,
+                    int techniqueId, int subjectId) {
+        boolean sessionStart = cycle <= 1;
+        int day = epochDay(completionTimestamp);
+        days.add(day, timeSpentMillis, setDurationMillis, sessionStart);
+        weeks.add(weekOfEpochDay(day), timeSpentMillis, setDurationMillis, sessionStart);
+        months.add(monthOfEpochDay(day), timeSpentMillis, setDurationMillis, sessionStart);
+        subjects.add(subjectId, timeSpentMillis, setDurationMillis, sessionStart);
+        techniques.add(techniqueId, timeSpentMillis, setDurationMillis, sessionStart);
+    }
+
+    /**
+     * Adds a daily summary (entries of one day, technique and subject folded together)
+     */
+    public void addSummary(int epochDay, int techniqueId, int subjectId, long focusMillis, long plannedMillis,
+                           int cycles, int sessions) {
+        days.add(epochDay, focusMillis, plannedMillis, cycles, sessions);
+        weeks.add(weekOfEpochDay(epochDay), focusMillis, plannedMillis, cycles, sessions);
+        months.add(monthOfEpochDay(epochDay), focusMillis, plannedMillis, cycles, sessions);
+        subjects.add(subjectId, focusMillis, plannedMillis, cycles, sessions);
+        techniques.add(techniqueId, focusMillis, plannedMillis, cycles, sessions);
+    }
+
+    public RollupSeries getDays() {
+        return days;
+    }
+
+    public RollupSeries getWeeks() {
+        return weeks;
+    }
+
+    public RollupSeries getMonths() {
+        return months;
+    }
+
+    /**
+     * Totals keyed by subject dictionary id
+     */
+    public RollupSeries getSubjects() {
+        return subjects;
+    }
+
+    /**
+     * Totals keyed by technique dictionary id
+     */
+    public RollupSeries getTechniques() {
+        return techniques;
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * Gets the local day (days since 1970-01-01) of a timestamp
+     */
+    public int epochDay(long timestampMillis) {
+        return epochDay(timeZone, timestampMillis);
+    }
+
+    /**
+     * Gets the local day (days since 1970-01-01) of a timestamp in a time zone
+     */
+    public static int epochDay(TimeZone timeZone, long timestampMillis) {
+        long local = timestampMillis + timeZone.getOffset(timestampMillis);
+        return (int) Math.floorDiv(local, DAY_MILLIS);
+    }
+
+    /**
+     * Gets the time at which a local day starts (midnight in the rollups' time zone)
+     */
+    public long startOfDay(int epochDay) {
+        long local = epochDay * DAY_MILLIS;
+        // Offset at the guessed instant, then corrected once for days where the offset changes
+        long start = local - timeZone.getOffset(local);
+        return local - timeZone.getOffset(start);
+    }
+
+    /**
+     * Gets the ISO week key of a day (1970-01-01 was a Thursday, so weeks start 3 days earlier)
+     */
+    public static int weekOfEpochDay(int epochDay) {
+        return Math.floorDiv(epochDay + 3, 7);
+    }
+
+    /**
+     * Gets the first day (Monday) of an ISO week key
+     */
+    public static int firstDayOfWeek(int week) {
+        return week * 7 - 3;
+    }
+
+    /**
+     * Gets the day of the week of a day (1 = Monday ... 7 = Sunday)
+     */
+    public static int dayOfWeek(int epochDay) {
+        return Math.floorMod(epochDay + 3, 7) + 1;
+    }
+
+    /**
+     * Gets the month key (year * 12 + month - 1) of a day
+     */
+    public static int monthOfEpochDay(int epochDay) {
+        // Same steps as civilDate() without the array (runs once per added entry)
+        int days = epochDay + 719_468;
+        int era = Math.floorDiv(days, 146_097);
+        int dayOfEra = days - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153; // 0 = March
+        int marchYear = yearOfEra + era * 400;
+        // March-based month index 0..11 is months 2..13 counted from January of marchYear
+        return marchYear * 12 + monthIndex + 2;
+    }
+
+    /**
+     * Gets the first day of a month key
+     */
+    public static int firstDayOfMonth(int month) {
+        return epochDayOf(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1, 1);
+    }
+
+    /**
+     * Converts a day to {year, month (1-12), day of month} (proleptic Gregorian calendar)
+     */
+    public static int[] civilDate(int epochDay) {
+        // Days from 0000-03-01, so the leap day is the last day of the (March-based) year
+        int days = epochDay + 719_468;
+        int era = Math.floorDiv(days, 146_097);
+        int dayOfEra = days - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153; // 0 = March
+        int dayOfMonth = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new int[] {year, month, dayOfMonth};
+    }
+
+    /**
+     * Converts a date to days since 1970-01-01 (inverse of civilDate)
+     */
+    public static int epochDayOf(int year, int month, int dayOfMonth) {
+        int marchYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(marchYear, 400);
+        int yearOfEra = marchYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.project;
+
+/**
+ * List of history entries that reports the stable id of each position without materializing
+ * the entry (CompletedSession.stableId()), so two lists can be diffed from the columns only
+ * Implemented by the views returned by SessionHistory
+ */
+public interface HistoryRows {
+
+    /**
+     * Gets the store row shown at a position
+     */
+    int getRow(int position);
+
+    /**
+     * Gets the store the rows belong to (a HistoryPages loader reads them from its snapshot())
+     */
+    ColumnarHistoryStore getStore();
+
+    /**
+     * Gets the stable id of the entry at a position
+     */
+    long getStableId(int position);
+
+    /**
+     * Copies the stable ids of every position from a snapshot of getStore() taken after the view
+     * was created (any thread - a view's rows never change)
+     */
+    long[] copyStableIds(ColumnarHistoryStore.Snapshot snapshot);
+
+    /**
+     * Counts the entries this view shows ahead of an earlier view whose entries it shows next,
+     * in the same order (e.g. the same query after the history grew) - without reading them
+     * @return 0 for the same entries, -1 if this view is not the earlier one plus newer entries
+     */
+    int countAddedSince(HistoryRows earlier);
+}
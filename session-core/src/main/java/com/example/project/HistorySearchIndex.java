@@ -0,0 +1,245 @@
+package com.example.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over the words of each history row's subject and task
+ * Every word maps to a posting list: the sorted row indices that contain it. Rows are added in
+ * increasing order, so a posting list stays sorted by simply appending to it
+ * A query matches rows containing every query word; the last word also matches as a prefix
+ * (so results update while typing). Posting lists are intersected smallest first
+ * Words are tokenized once per dictionary string, not per row
+ * Not thread-safe - add and search from one thread
+ */
+public class HistorySearchIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+    private static final Postings NO_POSTINGS = new Postings();
+
+    private final StringDictionary dictionary;
+    // Word -> posting list (sorted by word so prefixes are a sub-map)
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    // Dictionary string id -> its words' posting lists (filled on first use)
+    private Postings[][] postingsByStringId = new Postings[64][];
+    // Posting entries compared by intersections so far - the cost of searches, without a clock
+    private long postingsVisited = 0;
+
+    /**
+     * @param dictionary Dictionary that resolves the subject and task ids of added rows
+     */
+    public HistorySearchIndex(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Indexes a row (rows must be added in increasing order)
+     */
+    public void add(int row, int subjectId, int taskId) {
+        for (Postings list : postingsOf(subjectId)) {
+            list.append(row);
+        }
+        for (Postings list : postingsOf(taskId)) {
+            list.append(row); // Ignored if the subject already had the word
+        }
+    }
+
+    /**
+     * Gets the posting lists of a dictionary string's words, tokenizing it on first use
+     */
+    private Postings[] postingsOf(int stringId) {
+        if (stringId >= postingsByStringId.length) {
+            postingsByStringId = Arrays.copyOf(postingsByStringId, Math.max(stringId + 1, postingsByStringId.length * 2));
+        }
+        Postings[] lists = postingsByStringId[stringId];
+        if (lists == null) {
+            List<String> words = tokenize(dictionary.get(stringId));
+            lists = new Postings[words.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.computeIfAbsent(words.get(i), word -> new Postings());
+            }
+            postingsByStringId[stringId] = lists;
+        }
+        return lists;
+    }
+
+    /**
+     * Finds the rows matching every word of a query
+     * @return Matching row indices in increasing order (empty for a blank query)
+     */
+    public int[] search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return NO_ROWS;
+        }
+
+        // Posting lists are read in place - only the intersection result is allocated
+        List<Postings> lists = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            boolean last = i == words.size() - 1;
+            Postings rows = last ? prefixRows(words.get(i)) : exactRows(words.get(i));
+            if (rows.size == 0) {
+                return NO_ROWS; // A word nothing contains - no need to look at the others
+            }
+            lists.add(rows);
+        }
+
+        // Intersect smallest first so every step works on the shortest candidate list
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        if (lists.size() == 1) {
+            return lists.get(0).toArray();
+        }
+        Postings smallest = lists.get(0);
+        int[] result = intersect(smallest.rows, smallest.size, lists.get(1));
+        for (int i = 2; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, result.length, lists.get(i));
+        }
+        return result;
+    }
+
+    private Postings exactRows(String word) {
+        Postings list = postings.get(word);
+        return list != null ? list : NO_POSTINGS;
+    }
+
+    /**
+     * Rows containing a word that starts with the prefix (union of the matching posting lists)
+     */
+    private Postings prefixRows(String prefix) {
+        SortedMap<String, Postings> matches = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (matches.isEmpty()) {
+            return NO_POSTINGS;
+        }
+        if (matches.size() == 1) {
+            return matches.values().iterator().next();
+        }
+        // Many words share the prefix (e.g. "t") - mark their rows in a bitmap instead of
+        // merging list by list, then read the bitmap back in row order
+        int maxRow = 0;
+        int total = 0;
+        for (Postings list : matches.values()) {
+            maxRow = Math.max(maxRow, list.rows[list.size - 1]);
+            total += list.size;
+        }
+        long[] bitmap = new long[(maxRow >>> 6) + 1];
+        for (Postings list : matches.values()) {
+            for (int i = 0; i < list.size; i++) {
+                int row = list.rows[i];
+                bitmap[row >>> 6] |= 1L << row;
+            }
+        }
+        Postings union = new Postings(total);
+        for (int word = 0; word < bitmap.length; word++) {
+            long bits = bitmap[word];
+            while (bits != 0) {
+                union.rows[union.size++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Intersects sorted rows with a longer posting list - walks the shorter one and gallops
+     * through the longer one (doubling steps from the last position, then a binary search),
+     * so each lookup costs the log of the gap instead of the log of the whole list
+     */
+    private int[] intersect(int[] shorter, int shorterSize, Postings longer) {
+        int[] result = new int[shorterSize];
+        int count = 0;
+        int from = 0;
+        for (int i = 0; i < shorterSize && from < longer.size; i++) {
+            int row = shorter[i];
+            int step = 1;
+            int low = from;
+            while (from + step < longer.size && longer.rows[from + step] < row) {
+                low = from + step;
+                step <<= 1;
+                postingsVisited++;
+            }
+            int high = Math.min(from + step + 1, longer.size);
+            postingsVisited += 33 - Integer.numberOfLeadingZeros(high - low); // Binary search
+            int index = Arrays.binarySearch(longer.rows, low, high, row);
+            if (index >= 0) {
+                result[count++] = row;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Splits text into lower-case words (runs of letters and digits)
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Number of distinct words indexed
+     */
+    public int wordCount() {
+        return postings.size();
+    }
+
+    /**
+     * Number of posting entries compared by the intersections of all searches so far
+     */
+    long getPostingsVisited() {
+        return postingsVisited;
+    }
+
+    /**
+     * Growable sorted int array of row indices
+     */
+    private static final class Postings {
+        private int[] rows;
+        private int size = 0;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            rows = new int[Math.max(capacity, 1)];
+        }
+
+        void append(int row) {
+            if (size > 0 && rows[size - 1] == row) {
+                return; // Word appears in both the subject and the task of this row
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+
+    }
+}
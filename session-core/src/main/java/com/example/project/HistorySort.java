@@ -0,0 +1,48 @@
+package com.example.project;
+
+/**
+ * Rebuilds the completion order of a history whose rows arrived out of order (an import of
+ * older entries, or the device clock set back), so views and range queries stay binary
+ * searches instead of scanning every row
+ * Three steps, like a HistoryCompaction:
+ * 1. SessionHistory.prepareSort() captures a snapshot of the rows (main thread)
+ * 2. run() sorts the snapshot rows by completion time (background thread)
+ * 3. SessionHistory.finishSort() merges the rows added meanwhile and swaps the order in
+ *    (main thread, O(rows) without any comparison sort)
+ */
+public final class HistorySort {
+
+    private final ColumnarHistoryStore store;
+    private final ColumnarHistoryStore.Snapshot snapshot;
+    private volatile int[] order;
+
+    HistorySort(ColumnarHistoryStore store, ColumnarHistoryStore.Snapshot snapshot) {
+        this.store = store;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Sorts the snapshot rows (O(rows log rows), touches nothing but the snapshot)
+     */
+    public void run() {
+        if (order != null) {
+            return; // Safety check
+        }
+        order = HistoryIndex.sortByCompletion(snapshot);
+    }
+
+    boolean isSorted() {
+        return order != null;
+    }
+
+    ColumnarHistoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the snapshot rows in completion order (null before run())
+     */
+    int[] getOrder() {
+        return order;
+    }
+}
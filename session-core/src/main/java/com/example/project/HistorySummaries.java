@@ -0,0 +1,254 @@
+package com.example.project;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Compacted tier of the history: one record per (day, technique, subject) holding the totals of
+ * the entries folded into it by a HistoryCompaction
+ * The file is small (days x subjects x techniques), read whole on open and replaced whole on
+ * compaction (temp file + rename). Its header records which log generation it goes with, so an
+ * interrupted compaction can be finished on the next open (see SessionHistory)
+ * Not thread-safe - a compaction works on its own copy()
+ */
+public class HistorySummaries {
+
+    static final String FILE_NAME = "history.summary";
+    private static final int MAGIC = 0x46465355; // "FFSU"
+    private static final int VERSION = 1;
+
+    // Header: magic, version, log generation, reserved, compacted-before time, max session id
+    static final int HEADER_SIZE = 32;
+    // Record: day, technique id, subject id, cycles, sessions, reserved, focus time, planned time
+    static final int RECORD_SIZE = 40;
+
+    private int logGeneration = 0;
+    private long compactedBeforeMillis = Long.MIN_VALUE;
+    private long maxSessionId = 0;
+
+    private int size = 0;
+    private int[] days = new int[64];
+    private int[] techniqueIds = new int[64];
+    private int[] subjectIds = new int[64];
+    private int[] cycles = new int[64];
+    private int[] sessions = new int[64];
+    private long[] focusMillis = new long[64];
+    private long[] plannedMillis = new long[64];
+
+    // Record index by (day, technique, subject); probe is reused for lookups
+    private final HashMap<Key, Integer> indexByKey = new HashMap<>();
+    private final Key probe = new Key();
+
+    /**
+     * Reads the summaries stored in a directory
+     * @return Empty summaries if nothing was compacted yet
+     */
+    public static HistorySummaries read(File directory) throws IOException {
+        HistorySummaries summaries = new HistorySummaries();
+        File file = new File(directory, FILE_NAME);
+        if (!file.exists()) {
+            return summaries;
+        }
+        byte[] data;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            data = new byte[(int) in.length()];
+            in.readFully(data);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) > VERSION) {
+            throw new IOException("Unsupported history summary file");
+        }
+        summaries.logGeneration = buffer.getInt(8);
+        summaries.compactedBeforeMillis = buffer.getLong(16);
+        summaries.maxSessionId = buffer.getLong(24);
+        // Written with a rename, so a partial record means a corrupt file rather than a torn append
+        if ((data.length - HEADER_SIZE) % RECORD_SIZE != 0) {
+            throw new IOException("Truncated history summary file");
+        }
+        for (int offset = HEADER_SIZE; offset < data.length; offset += RECORD_SIZE) {
+            summaries.add(buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getInt(offset + 8),
+                buffer.getLong(offset + 24), buffer.getLong(offset + 32), buffer.getInt(offset + 12),
+                buffer.getInt(offset + 16));
+        }
+        return summaries;
+    }
+
+    /**
+     * Replaces the summaries stored in a directory (a crash leaves the old or the new file)
+     */
+    public void write(File directory) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * RECORD_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(logGeneration).putInt(0)
+            .putLong(compactedBeforeMillis).putLong(maxSessionId);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(days[i]).putInt(techniqueIds[i]).putInt(subjectIds[i])
+                .putInt(cycles[i]).putInt(sessions[i]).putInt(0)
+                .putLong(focusMillis[i]).putLong(plannedMillis[i]);
+        }
+
+        File file = new File(directory, FILE_NAME);
+        File temp = new File(directory, FILE_NAME + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(buffer.array());
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Unable to replace " + file);
+        }
+    }
+
+    /**
+     * Copies the summaries (a compaction folds into the copy while the history keeps the original)
+     */
+    public HistorySummaries copy() {
+        HistorySummaries copy = new HistorySummaries();
+        copy.logGeneration = logGeneration;
+        copy.compactedBeforeMillis = compactedBeforeMillis;
+        copy.maxSessionId = maxSessionId;
+        for (int i = 0; i < size; i++) {
+            copy.add(days[i], techniqueIds[i], subjectIds[i], focusMillis[i], plannedMillis[i], cycles[i],
+                sessions[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Adds totals to the record of a day, technique and subject (created on first use)
+     */
+    public void add(int epochDay, int techniqueId, int subjectId, long focusMillis, long plannedMillis,
+                    int cycles, int sessions) {
+        probe.set(epochDay, techniqueId, subjectId);
+        Integer index = indexByKey.get(probe);
+        int i;
+        if (index != null) {
+            i = index;
+        } else {
+            i = size++;
+            ensureCapacity(size);
+            days[i] = epochDay;
+            techniqueIds[i] = techniqueId;
+            subjectIds[i] = subjectId;
+            Key key = new Key();
+            key.set(epochDay, techniqueId, subjectId);
+            indexByKey.put(key, i);
+        }
+        this.focusMillis[i] += focusMillis;
+        this.plannedMillis[i] += plannedMillis;
+        this.cycles[i] += cycles;
+        this.sessions[i] += sessions;
+    }
+
+    /**
+     * Gets the index of the record of a day, technique and subject
+     * @return -1 if there is none
+     */
+    public int indexOf(int epochDay, int techniqueId, int subjectId) {
+        probe.set(epochDay, techniqueId, subjectId);
+        Integer index = indexByKey.get(probe);
+        return index != null ? index : -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= days.length) {
+            return;
+        }
+        int length = Math.max(capacity, days.length * 2);
+        days = Arrays.copyOf(days, length);
+        techniqueIds = Arrays.copyOf(techniqueIds, length);
+        subjectIds = Arrays.copyOf(subjectIds, length);
+        cycles = Arrays.copyOf(cycles, length);
+        sessions = Arrays.copyOf(sessions, length);
+        focusMillis = Arrays.copyOf(focusMillis, length);
+        plannedMillis = Arrays.copyOf(plannedMillis, length);
+    }
+
+    /**
+     * Sets the header written with the next write()
+     * @param logGeneration Generation of the log that holds the remaining (raw) entries
+     * @param compactedBeforeMillis Entries completed before this time were folded into the summaries
+     * @param maxSessionId Highest session id seen so far (ids of folded entries are not reused)
+     */
+    public void setCompaction(int logGeneration, long compactedBeforeMillis, long maxSessionId) {
+        this.logGeneration = logGeneration;
+        this.compactedBeforeMillis = compactedBeforeMillis;
+        this.maxSessionId = maxSessionId;
+    }
+
+    public int getLogGeneration() {
+        return logGeneration;
+    }
+
+    public long getCompactedBeforeMillis() {
+        return compactedBeforeMillis;
+    }
+
+    public long getMaxSessionId() {
+        return maxSessionId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getDay(int index) {
+        return days[index];
+    }
+
+    public int getTechniqueId(int index) {
+        return techniqueIds[index];
+    }
+
+    public int getSubjectId(int index) {
+        return subjectIds[index];
+    }
+
+    public long getFocusMillis(int index) {
+        return focusMillis[index];
+    }
+
+    public long getPlannedMillis(int index) {
+        return plannedMillis[index];
+    }
+
+    public int getCycles(int index) {
+        return cycles[index];
+    }
+
+    public int getSessions(int index) {
+        return sessions[index];
+    }
+
+    /**
+     * Identity of a record
+     */
+    private static final class Key {
+        private int day;
+        private int techniqueId;
+        private int subjectId;
+
+        void set(int day, int techniqueId, int subjectId) {
+            this.day = day;
+            this.techniqueId = techniqueId;
+            this.subjectId = subjectId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return day == key.day && techniqueId == key.techniqueId && subjectId == key.subjectId;
+        }
+
+        @Override
+        public int hashCode() {
+            return (day * 31 + techniqueId) * 31 + subjectId;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable figures shown by the Insights tab (streaks, heatmap, subject and technique breakdowns)
+ * Built in two steps so the main thread never does more than copy aggregates:
+ * 1. capture() copies the HistoryRollups buckets it needs (main thread, O(buckets))
+ * 2. compute() derives everything from that copy (any thread)
+ */
+public final class InsightsSnapshot {
+
+    // Heatmap columns (weeks, Monday to Sunday) ending with the current week
+    public static final int HEATMAP_WEEKS = 26;
+    // Highest heatmap intensity level (0 = no focus that day)
+    public static final int HEATMAP_LEVELS = 4;
+    // Rows kept per breakdown (the rest is not shown)
+    public static final int MAX_BREAKDOWN_ROWS = 8;
+
+    private final int today;
+    private final int currentStreakDays;
+    private final int longestStreakDays;
+    private final long todayFocusMillis;
+    private final long weekFocusMillis;
+    private final RollupSeries.Totals allTime;
+    private final int heatmapFirstDay;
+    private final int[] heatmapLevels;
+    private final List<Breakdown> subjects;
+    private final List<Breakdown> techniques;
+
+    private InsightsSnapshot(int today, int currentStreakDays, int longestStreakDays, long todayFocusMillis,
+                             long weekFocusMillis, RollupSeries.Totals allTime, int heatmapFirstDay,
+                             int[] heatmapLevels, List<Breakdown> subjects, List<Breakdown> techniques) {
+        this.today = today;
+        this.currentStreakDays = currentStreakDays;
+        this.longestStreakDays = longestStreakDays;
+        this.todayFocusMillis = todayFocusMillis;
+        this.weekFocusMillis = weekFocusMillis;
+        this.allTime = allTime;
+        this.heatmapFirstDay = heatmapFirstDay;
+        this.heatmapLevels = heatmapLevels;
+        this.subjects = Collections.unmodifiableList(subjects);
+        this.techniques = Collections.unmodifiableList(techniques);
+    }
+
+    /**
+     * Copies what compute() needs from the rollups - call on the thread that updates them
+     * @param dictionary Dictionary of the subject and technique ids
+     * @param nowMillis Current time (decides "today")
+     */
+    public static Input capture(HistoryRollups rollups, StringDictionary dictionary, long nowMillis) {
+        int today = rollups.epochDay(nowMillis);
+        RollupSeries days = rollups.getDays();
+        int firstDay = days.isEmpty() ? today : Math.min(days.getFirstKey(), today);
+        // The heatmap always covers its full grid, even for a short history
+        firstDay = Math.min(firstDay, heatmapStart(today));
+        return new Input(today, firstDay, days.copyFocusMillis(firstDay, today), days.copyCycles(firstDay, today),
+            rollups.getDays().total(), breakdowns(rollups.getSubjects(), dictionary),
+            breakdowns(rollups.getTechniques(), dictionary));
+    }
+
+    private static List<Breakdown> breakdowns(RollupSeries series, StringDictionary dictionary) {
+        List<Breakdown> rows = new ArrayList<>();
+        if (series.isEmpty()) {
+            return rows;
+        }
+        for (int id = series.getFirstKey(); id <= series.getLastKey(); id++) {
+            if (series.getCycles(id) > 0) {
+                rows.add(new Breakdown(dictionary.get(id), series.get(id)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * First day (a Monday) of the heatmap grid that ends with today's week
+     */
+    private static int heatmapStart(int today) {
+        int currentWeek = HistoryRollups.weekOfEpochDay(today);
+        return HistoryRollups.firstDayOfWeek(currentWeek - HEATMAP_WEEKS + 1);
+    }
+
+    /**
+     * Derives the snapshot from captured aggregates (safe on a background thread)
+     */
+    public static InsightsSnapshot compute(Input input) {
+        // Streaks: runs of days with at least one completed cycle
+        int longest = 0;
+        int run = 0;
+        for (int cycles : input.dailyCycles) {
+            run = cycles > 0 ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        // The current streak is still alive if today has no cycle yet but yesterday had one
+        int index = input.dailyCycles.length - 1;
+        if (index >= 0 && input.dailyCycles[index] == 0) {
+            index--;
+        }
+        int current = 0;
+        while (index >= 0 && input.dailyCycles[index] > 0) {
+            current++;
+            index--;
+        }
+
+        long todayFocus = input.focusOn(input.today);
+        long weekFocus = 0;
+        for (int day = HistoryRollups.firstDayOfWeek(HistoryRollups.weekOfEpochDay(input.today));
+             day <= input.today; day++) {
+            weekFocus += input.focusOn(day);
+        }
+
+        // Heatmap: intensity relative to the busiest day in the grid
+        int heatmapFirstDay = heatmapStart(input.today);
+        int[] levels = new int[HEATMAP_WEEKS * 7];
+        long maxFocus = 0;
+        for (int day = heatmapFirstDay; day <= input.today; day++) {
+            maxFocus = Math.max(maxFocus, input.focusOn(day));
+        }
+        for (int day = heatmapFirstDay; day <= input.today; day++) {
+            long focus = input.focusOn(day);
+            if (focus > 0) {
+                levels[day - heatmapFirstDay] = (int) Math.max(1, (focus * HEATMAP_LEVELS + maxFocus - 1) / maxFocus);
+            }
+        }
+
+        // Subjects by focus time, techniques by how much of the planned time was completed
+        List<Breakdown> subjects = new ArrayList<>(input.subjects);
+        subjects.sort((a, b) -> Long.compare(b.totals.getFocusMillis(), a.totals.getFocusMillis()));
+        List<Breakdown> techniques = new ArrayList<>(input.techniques);
+        techniques.sort((a, b) -> Double.compare(b.totals.getCompletionRatio(), a.totals.getCompletionRatio()));
+
+        return new InsightsSnapshot(input.today, current, longest, todayFocus, weekFocus, input.allTime,
+            heatmapFirstDay, levels, top(subjects), top(techniques));
+    }
+
+    private static List<Breakdown> top(List<Breakdown> rows) {
+        return rows.size() > MAX_BREAKDOWN_ROWS ? new ArrayList<>(rows.subList(0, MAX_BREAKDOWN_ROWS)) : rows;
+    }
+
+    /**
+     * Formats a focus time as "2h 15m" or "15m"
+     */
+    public static String formatFocus(long millis) {
+        long minutes = millis / 60_000L;
+        if (minutes >= 60) {
+            return (minutes / 60) + "h " + (minutes % 60) + "m";
+        }
+        return minutes + "m";
+    }
+
+    // Getters
+    public int getToday() {
+        return today;
+    }
+
+    /**
+     * Consecutive days with a completed cycle, ending today (or yesterday if today has none yet)
+     */
+    public int getCurrentStreakDays() {
+        return currentStreakDays;
+    }
+
+    public int getLongestStreakDays() {
+        return longestStreakDays;
+    }
+
+    public long getTodayFocusMillis() {
+        return todayFocusMillis;
+    }
+
+    /**
+     * Focus time since Monday of the current week
+     */
+    public long getWeekFocusMillis() {
+        return weekFocusMillis;
+    }
+
+    public RollupSeries.Totals getAllTime() {
+        return allTime;
+    }
+
+    /**
+     * Day of the top-left heatmap cell (a Monday); cell i is that day + i, column = i / 7
+     */
+    public int getHeatmapFirstDay() {
+        return heatmapFirstDay;
+    }
+
+    /**
+     * Gets the intensity of a heatmap cell (0 to HEATMAP_LEVELS)
+     * @param cell Cell index (0 to HEATMAP_WEEKS * 7 - 1)
+     */
+    public int getHeatmapLevel(int cell) {
+        return cell >= 0 && cell < heatmapLevels.length ? heatmapLevels[cell] : 0;
+    }
+
+    /**
+     * Subjects with the most focus time first
+     */
+    public List<Breakdown> getSubjects() {
+        return subjects;
+    }
+
+    /**
+     * Techniques with the best completion ratio (actual versus planned time) first
+     */
+    public List<Breakdown> getTechniques() {
+        return techniques;
+    }
+
+    /**
+     * Aggregates copied from the rollups (immutable - handed to the background thread)
+     */
+    public static final class Input {
+        private final int today;
+        private final int firstDay;
+        private final long[] dailyFocusMillis;
+        private final int[] dailyCycles;
+        private final RollupSeries.Totals allTime;
+        private final List<Breakdown> subjects;
+        private final List<Breakdown> techniques;
+
+        Input(int today, int firstDay, long[] dailyFocusMillis, int[] dailyCycles, RollupSeries.Totals allTime,
+              List<Breakdown> subjects, List<Breakdown> techniques) {
+            this.today = today;
+            this.firstDay = firstDay;
+            this.dailyFocusMillis = dailyFocusMillis;
+            this.dailyCycles = dailyCycles;
+            this.allTime = allTime;
+            this.subjects = subjects;
+            this.techniques = techniques;
+        }
+
+        /**
+         * Number of days copied - one bucket per day, however many entries it holds
+         */
+        int getDayCount() {
+            return dailyFocusMillis.length;
+        }
+
+        private long focusOn(int day) {
+            int index = day - firstDay;
+            return index >= 0 && index < dailyFocusMillis.length ? dailyFocusMillis[index] : 0;
+        }
+    }
+
+    /**
+     * Totals of one subject or technique
+     */
+    public static final class Breakdown {
+        private final String name;
+        private final RollupSeries.Totals totals;
+
+        public Breakdown(String name, RollupSeries.Totals totals) {
+            this.name = name;
+            this.totals = totals;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public RollupSeries.Totals getTotals() {
+            return totals;
+        }
+    }
+}
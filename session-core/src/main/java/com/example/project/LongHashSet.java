@@ -0,0 +1,96 @@
+package com.example.project;
+
+/**
+ * Open-addressing hash set of primitive longs (linear probing, no boxing)
+ * Used for duplicate detection over the whole history - one long[] slot per key
+ */
+public class LongHashSet {
+
+    // Marks an empty slot (the key 0 is tracked separately)
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private int mask;
+    private int size = 0;
+    private boolean containsZero = false;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Number of keys expected (avoids rehashing while loading)
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds a key
+     * @return true if the key was not in the set
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = indexOf(key, slots, mask);
+        if (slots[slot] == key) {
+            return false;
+        }
+        slots[slot] = key;
+        size++;
+        if (size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsZero;
+        }
+        return slots[indexOf(key, slots, mask)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot holding the key, or the empty slot where it would go
+     */
+    private static int indexOf(long key, long[] table, int tableMask) {
+        int slot = mix(key) & tableMask;
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & tableMask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void grow() {
+        long[] grown = new long[slots.length * 2];
+        int grownMask = grown.length - 1;
+        for (long key : slots) {
+            if (key != EMPTY) {
+                grown[indexOf(key, grown, grownMask)] = key;
+            }
+        }
+        slots = grown;
+        mask = grownMask;
+    }
+}
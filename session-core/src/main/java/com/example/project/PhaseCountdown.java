@@ -0,0 +1,165 @@
+package com.example.project;
+
+/**
+ * Deadline arithmetic for a single work or break phase
+ * Stores one deadline in the Clock's elapsedRealtime() time base and computes the
+ * remaining time when asked - pause, resume and extend only move the deadline
+ * Has no threads or callbacks: the caller decides when to check isExpired()
+ */
+public class PhaseCountdown {
+
+    private final Clock clock;
+
+    // Phase being timed (false = work, true = break)
+    private boolean breakPhase = false;
+
+    // Total duration of the phase (grows when a break is extended)
+    private long totalDurationMillis = 0;
+
+    // Deadline in elapsedRealtime() time base, valid while running
+    private long deadlineMillis = 0;
+
+    // Remaining time frozen at the moment of pausing, valid while paused
+    private long pausedRemainingMillis = 0;
+
+    private boolean running = false;
+    private boolean paused = false;
+
+    public PhaseCountdown(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a new phase countdown (replaces any running phase)
+     * @param durationMillis Phase duration in milliseconds
+     * @param breakPhase True for a break phase, false for a work phase
+     */
+    public void start(long durationMillis, boolean breakPhase) {
+        this.breakPhase = breakPhase;
+        this.totalDurationMillis = durationMillis;
+        this.deadlineMillis = clock.elapsedRealtime() + durationMillis;
+        this.pausedRemainingMillis = 0;
+        this.running = true;
+        this.paused = false;
+    }
+
+    /**
+     * Restores a phase recovered from the session journal (e.g. after process death)
+     * @param totalDurationMillis Total duration of the phase, including extensions
+     * @param remainingMillis Time left in the phase (0 = the deadline has already passed)
+     * @param breakPhase True for a break phase, false for a work phase
+     * @param paused True to restore the phase as paused (remaining time frozen)
+     */
+    public void restore(long totalDurationMillis, long remainingMillis, boolean breakPhase, boolean paused) {
+        this.breakPhase = breakPhase;
+        this.totalDurationMillis = totalDurationMillis;
+        this.deadlineMillis = clock.elapsedRealtime() + remainingMillis;
+        this.pausedRemainingMillis = paused ? remainingMillis : 0;
+        this.running = !paused;
+        this.paused = paused;
+    }
+
+    /**
+     * Freezes the remaining time until resume()
+     * @return true if the countdown was running
+     */
+    public boolean pause() {
+        if (!running) {
+            return false;
+        }
+        pausedRemainingMillis = Math.max(0, deadlineMillis - clock.elapsedRealtime());
+        running = false;
+        paused = true;
+        return true;
+    }
+
+    /**
+     * Resumes a paused countdown by moving the deadline forward
+     * @return true if the countdown was paused
+     */
+    public boolean resume() {
+        if (!paused) {
+            return false;
+        }
+        deadlineMillis = clock.elapsedRealtime() + pausedRemainingMillis;
+        running = true;
+        paused = false;
+        return true;
+    }
+
+    /**
+     * Extends the current phase (used for Extend Break)
+     * @param additionalMillis Time to add in milliseconds
+     * @return true if the deadline of a running phase moved
+     */
+    public boolean extend(long additionalMillis) {
+        if (!running && !paused) {
+            return false;
+        }
+        totalDurationMillis += additionalMillis;
+        if (paused) {
+            pausedRemainingMillis += additionalMillis;
+            return false;
+        }
+        deadlineMillis += additionalMillis;
+        return true;
+    }
+
+    /**
+     * Stops the countdown
+     */
+    public void cancel() {
+        running = false;
+        paused = false;
+        pausedRemainingMillis = 0;
+    }
+
+    /**
+     * Marks a running phase as finished once its deadline has passed
+     * @return true if the phase just finished (false if still running or not running)
+     */
+    public boolean finishIfExpired() {
+        if (!running || deadlineMillis - clock.elapsedRealtime() > 0) {
+            return false;
+        }
+        running = false;
+        return true;
+    }
+
+    /**
+     * Computes the remaining time of the current phase
+     */
+    public long getRemainingMillis() {
+        if (running) {
+            return Math.max(0, deadlineMillis - clock.elapsedRealtime());
+        }
+        return paused ? pausedRemainingMillis : 0;
+    }
+
+    public long getTotalDurationMillis() {
+        return totalDurationMillis;
+    }
+
+    /**
+     * Gets the phase deadline in elapsedRealtime() time base (valid while running)
+     */
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isBreakPhase() {
+        return breakPhase;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.project;
+
+/**
+ * "5 minutes ago" style labels of completion times (My Activity rows)
+ * Elapsed time is counted in whole clock minutes (minute of now - minute of completion), so every
+ * label changes exactly at a minute boundary and one minute-aligned tick keeps all of them right
+ * Compared with elapsed time (now - completion), a label can move on up to 59 s early: an entry
+ * completed at 12:00:59 reads "Just now" until 12:00:59.999 and "1 minute ago" from 12:01:00, and
+ * one completed at 10:00:59 reads "1 hour ago" from 11:00:00
+ * Labels fall into buckets (minutes < 60, hours < 24, days) and get() builds each bucket's
+ * string once. Not thread-safe - use one instance per UI thread
+ */
+public class RelativeTimeLabels {
+
+    public static final long MINUTE_MILLIS = 60_000L;
+    private static final int CACHED_DAYS = 366; // Older labels are built on each call
+
+    private final String[] minuteLabels = new String[60];
+    private final String[] hourLabels = new String[24];
+    private final String[] dayLabels = new String[CACHED_DAYS];
+
+    /**
+     * Gets the label of a completion time, from the cache
+     */
+    public String get(long completionTimestamp, long nowMillis) {
+        long minutesAgo = minutesAgo(completionTimestamp, nowMillis);
+        if (minutesAgo < 1) {
+            return format(minutesAgo);
+        }
+        String[] bucket;
+        int index;
+        if (minutesAgo < 60) {
+            bucket = minuteLabels;
+            index = (int) minutesAgo;
+        } else if (minutesAgo < 24 * 60) {
+            bucket = hourLabels;
+            index = (int) (minutesAgo / 60);
+        } else if (minutesAgo < CACHED_DAYS * 24 * 60L) {
+            bucket = dayLabels;
+            index = (int) (minutesAgo / (24 * 60));
+        } else {
+            return format(minutesAgo);
+        }
+        String label = bucket[index];
+        if (label == null) {
+            label = bucket[index] = format(minutesAgo);
+        }
+        return label;
+    }
+
+    /**
+     * Builds the label of a completion time (no cache)
+     */
+    public static String format(long completionTimestamp, long nowMillis) {
+        return format(minutesAgo(completionTimestamp, nowMillis));
+    }
+
+    /**
+     * Gets the time of the next minute boundary, when labels may change
+     */
+    public static long nextMinuteMillis(long nowMillis) {
+        return (Math.floorDiv(nowMillis, MINUTE_MILLIS) + 1) * MINUTE_MILLIS;
+    }
+
+    private static long minutesAgo(long completionTimestamp, long nowMillis) {
+        return Math.floorDiv(nowMillis, MINUTE_MILLIS) - Math.floorDiv(completionTimestamp, MINUTE_MILLIS);
+    }
+
+    private static String format(long minutesAgo) {
+        long hoursAgo = minutesAgo / 60;
+        long daysAgo = minutesAgo / (24 * 60);
+        if (minutesAgo < 1) {
+            return "Just now";
+        } else if (minutesAgo < 60) {
+            return minutesAgo + (minutesAgo == 1 ? " minute ago" : " minutes ago");
+        } else if (hoursAgo < 24) {
+            return hoursAgo + (hoursAgo == 1 ? " hour ago" : " hours ago");
+        } else {
+            return daysAgo + (daysAgo == 1 ? " day ago" : " days ago");
+        }
+    }
+}
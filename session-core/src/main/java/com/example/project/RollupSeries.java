@@ -0,0 +1,248 @@
+package com.example.project;
+
+/**
+ * Running history totals per integer key (a day, week or month number, or a dictionary id)
+ * Keys are stored as offsets from the smallest key seen, so updating or reading a bucket is
+ * an array index; the arrays grow at either end when an older or newer key shows up
+ * Not thread-safe - update and read from one thread
+ */
+public class RollupSeries {
+
+    private int firstKey = 0;
+    private int count = 0; // Buckets between the first and last key (including empty ones)
+
+    private long[] focusMillis = new long[16];
+    private long[] plannedMillis = new long[16];
+    private int[] cycles = new int[16];
+    private int[] sessions = new int[16];
+
+    /**
+     * Adds one completed cycle to a bucket
+     * @param key Bucket key
+     * @param timeSpentMillis Actual focus time of the cycle
+     * @param setDurationMillis Planned duration of the cycle
+     * @param sessionStart True for the first cycle of a session (counted as a session)
+     */
+    public void add(int key, long timeSpentMillis, long setDurationMillis, boolean sessionStart) {
+        int index = indexFor(key);
+        focusMillis[index] += timeSpentMillis;
+        plannedMillis[index] += setDurationMillis;
+        cycles[index]++;
+        if (sessionStart) {
+            sessions[index]++;
+        }
+    }
+
+    /**
+     * Adds the totals of several cycles to a bucket (e.g. a daily summary)
+     */
+    public void add(int key, long focusMillis, long plannedMillis, int cycles, int sessions) {
+        int index = indexFor(key);
+        this.focusMillis[index] += focusMillis;
+        this.plannedMillis[index] += plannedMillis;
+        this.cycles[index] += cycles;
+        this.sessions[index] += sessions;
+    }
+
+    /**
+     * Gets the array index of a key, growing the arrays if the key is outside the range
+     */
+    private int indexFor(int key) {
+        if (count == 0) {
+            firstKey = key;
+            count = 1;
+            return 0;
+        }
+        if (key < firstKey) {
+            int shift = firstKey - key;
+            ensureCapacity(count + shift, shift);
+            firstKey = key;
+            count += shift;
+            return 0;
+        }
+        int index = key - firstKey;
+        if (index >= count) {
+            ensureCapacity(index + 1, 0);
+            count = index + 1;
+        }
+        return index;
+    }
+
+    /**
+     * Makes room for the given number of buckets, moving existing ones up by shift
+     */
+    private void ensureCapacity(int capacity, int shift) {
+        if (capacity <= focusMillis.length && shift == 0) {
+            return;
+        }
+        int length = focusMillis.length;
+        while (length < capacity) {
+            length *= 2;
+        }
+        focusMillis = moved(focusMillis, length, shift);
+        plannedMillis = moved(plannedMillis, length, shift);
+        cycles = moved(cycles, length, shift);
+        sessions = moved(sessions, length, shift);
+    }
+
+    private long[] moved(long[] values, int length, int shift) {
+        long[] result = new long[length];
+        System.arraycopy(values, 0, result, shift, count);
+        return result;
+    }
+
+    private int[] moved(int[] values, int length, int shift) {
+        int[] result = new int[length];
+        System.arraycopy(values, 0, result, shift, count);
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Smallest key with data (only meaningful if not empty)
+     */
+    public int getFirstKey() {
+        return firstKey;
+    }
+
+    /**
+     * Largest key with data (only meaningful if not empty)
+     */
+    public int getLastKey() {
+        return firstKey + count - 1;
+    }
+
+    public long getFocusMillis(int key) {
+        int index = key - firstKey;
+        return index >= 0 && index < count ? focusMillis[index] : 0;
+    }
+
+    public long getPlannedMillis(int key) {
+        int index = key - firstKey;
+        return index >= 0 && index < count ? plannedMillis[index] : 0;
+    }
+
+    public int getCycles(int key) {
+        int index = key - firstKey;
+        return index >= 0 && index < count ? cycles[index] : 0;
+    }
+
+    public int getSessions(int key) {
+        int index = key - firstKey;
+        return index >= 0 && index < count ? sessions[index] : 0;
+    }
+
+    /**
+     * Gets the totals of one bucket
+     */
+    public Totals get(int key) {
+        return sum(key, key);
+    }
+
+    /**
+     * Sums the buckets from fromKey to toKey (both included) - O(buckets in range)
+     */
+    public Totals sum(int fromKey, int toKey) {
+        int from = Math.max(fromKey - firstKey, 0);
+        int to = Math.min(toKey - firstKey, count - 1);
+        long focus = 0;
+        long planned = 0;
+        int cycleCount = 0;
+        int sessionCount = 0;
+        for (int index = from; index <= to; index++) {
+            focus += focusMillis[index];
+            planned += plannedMillis[index];
+            cycleCount += cycles[index];
+            sessionCount += sessions[index];
+        }
+        return new Totals(focus, planned, cycleCount, sessionCount);
+    }
+
+    /**
+     * Copies the focus time of the buckets from fromKey to toKey (both included, 0 where empty)
+     * Used to hand a range of buckets to another thread
+     */
+    public long[] copyFocusMillis(int fromKey, int toKey) {
+        long[] copy = new long[Math.max(toKey - fromKey + 1, 0)];
+        for (int key = Math.max(fromKey, firstKey); key <= Math.min(toKey, getLastKey()); key++) {
+            copy[key - fromKey] = focusMillis[key - firstKey];
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the cycle counts of the buckets from fromKey to toKey (both included, 0 where empty)
+     */
+    public int[] copyCycles(int fromKey, int toKey) {
+        int[] copy = new int[Math.max(toKey - fromKey + 1, 0)];
+        for (int key = Math.max(fromKey, firstKey); key <= Math.min(toKey, getLastKey()); key++) {
+            copy[key - fromKey] = cycles[key - firstKey];
+        }
+        return copy;
+    }
+
+    /**
+     * Sums every bucket
+     */
+    public Totals total() {
+        return isEmpty() ? Totals.EMPTY : sum(firstKey, getLastKey());
+    }
+
+    /**
+     * Immutable totals of one or more buckets
+     */
+    public static final class Totals {
+        public static final Totals EMPTY = new Totals(0, 0, 0, 0);
+
+        private final long focusMillis;
+        private final long plannedMillis;
+        private final int cycles;
+        private final int sessions;
+
+        public Totals(long focusMillis, long plannedMillis, int cycles, int sessions) {
+            this.focusMillis = focusMillis;
+            this.plannedMillis = plannedMillis;
+            this.cycles = cycles;
+            this.sessions = sessions;
+        }
+
+        /**
+         * Actual focus time (sum of time spent)
+         */
+        public long getFocusMillis() {
+            return focusMillis;
+        }
+
+        /**
+         * Planned focus time (sum of set durations)
+         */
+        public long getPlannedMillis() {
+            return plannedMillis;
+        }
+
+        /**
+         * Completed cycles (one per history entry)
+         */
+        public int getCycles() {
+            return cycles;
+        }
+
+        /**
+         * Sessions started (entries that are the first cycle of their session)
+         */
+        public int getSessions() {
+            return sessions;
+        }
+
+        /**
+         * Actual versus planned focus time (1.0 = every cycle ran its full duration)
+         * @return 0 if nothing was planned
+         */
+        public double getCompletionRatio() {
+            return plannedMillis > 0 ? (double) focusMillis / plannedMillis : 0.0;
+        }
+    }
+}
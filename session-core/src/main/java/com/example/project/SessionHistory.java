@@ -0,0 +1,1037 @@
+package com.example.project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TimeZone;
+
+/**
+ * History of completed sessions as seen by the app (My Activity tab)
+ * Rows live in a ColumnarHistoryStore (primitive columns + string dictionary) and are
+ * persisted in a HistoryLog - CompletedSession objects are only created for rows a view asks for
+ * Each row is identified by (session id, cycle), so recording the same cycle twice is a hash lookup
+ * Imported entries are matched by (completion time, cycle) instead: session ids are only unique
+ * per install, so an import whose ids are taken here gets new ones
+ * HistoryRollups, a HistorySearchIndex and HistoryFacets are kept up to date with every row, so
+ * statistics, search and filters (query()) never rescan the history
+ * Two tiers: recent entries are raw rows; entries older than a cutoff can be folded into
+ * HistorySummaries (one record per day, technique and subject) by a HistoryCompaction, which
+ * keeps the log and load time bounded. Rollups and totals() count both tiers; lists show raw rows
+ * An export carries both tiers (copyDailyTotals()); an import adds the daily totals it brings
+ * (addDailyTotals()) and its entries, except those of a day, technique and subject that already
+ * have a summary here - they are counted in it
+ * Row i of the store is always record i of the log
+ * Opening is two steps: openUnloaded() only checks the files, a HistoryLoad then reads the rows
+ * on the history thread (open() does both on the calling thread)
+ * Rows are appended in arrival order; when that is not completion order (an import of older
+ * entries), a HistorySort rebuilds a completion order on the history thread and views and range
+ * queries use it - until then they check every row
+ * Every change is published on getChanges(), so open lists can update without reloading
+ */
+public class SessionHistory {
+
+    private final File directory;
+    private final HistoryLog log;
+    private final TimeZone timeZone;
+    // Rows in memory (empty until the log is loaded, replaced by a compaction); the fields
+    // below are the index's own parts, kept for short access
+    private HistoryIndex index;
+    private StringDictionary dictionary;
+    private ColumnarHistoryStore store;
+    private HistoryRollups rollups;
+    private HistorySearchIndex searchIndex;
+    private HistoryFacets facets;
+    private HistorySummaries summaries = new HistorySummaries();
+    private HistoryLoad pendingLoad; // Owns the log until finishLoad()
+    private IOException loadFailure;
+    private boolean closed;
+    private long lastSessionId = 0;
+    // New ids of imported sessions whose id was taken (exported id -> id here), so the later
+    // cycles of such a session, e.g. in the next import batch, get the same one
+    private final Map<Long, Long> importedSessionIds = new HashMap<>();
+    private HistoryCompaction pendingCompaction;
+    // Daily totals imported while the compaction runs, added again to the summaries it built
+    private HistorySummaries pendingImportedTotals;
+    private HistorySort pendingSort;
+    // Rows select() has looked at so far (binary search probes included) - its cost, without a clock
+    private long rowsVisited = 0;
+    private final HistoryChangeFeed changes = new HistoryChangeFeed();
+
+    private SessionHistory(File directory, HistoryLog log, TimeZone timeZone) {
+        this.directory = directory;
+        this.log = log;
+        this.timeZone = timeZone;
+        use(new HistoryIndex(new StringDictionary(), timeZone, summaries, 0));
+    }
+
+    /**
+     * Opens the history stored in a directory (created on first use) and loads it on the
+     * calling thread, with rollups in the device time zone
+     */
+    public static SessionHistory open(File directory) throws IOException {
+        return open(directory, TimeZone.getDefault());
+    }
+
+    /**
+     * Opens the history stored in a directory (created on first use) and loads it on the
+     * calling thread - O(rows), see openUnloaded() for the main thread
+     * @param timeZone Time zone of the day/week/month rollups
+     */
+    public static SessionHistory open(File directory, TimeZone timeZone) throws IOException {
+        SessionHistory history = openUnloaded(directory, timeZone);
+        HistoryLoad load = history.getPendingLoad();
+        load.run();
+        try {
+            history.finishLoad(load);
+        } catch (IOException e) {
+            history.close();
+            throw e;
+        }
+        return history;
+    }
+
+    /**
+     * Opens the history stored in a directory (created on first use) without reading its rows:
+     * only the file headers are checked, nothing is decoded
+     * The history is empty until its getPendingLoad() has run (any thread) and finishLoad() has
+     * been called on this thread
+     * @param timeZone Time zone of the day/week/month rollups
+     */
+    public static SessionHistory openUnloaded(File directory, TimeZone timeZone) throws IOException {
+        HistoryLog log = new HistoryLog(directory);
+        SessionHistory history = new SessionHistory(directory, log, timeZone);
+        history.pendingLoad = new HistoryLoad(directory, log, timeZone);
+        return history;
+    }
+
+    /**
+     * Gets the load that reads the rows (null once finishLoad() was called)
+     */
+    public HistoryLoad getPendingLoad() {
+        return pendingLoad;
+    }
+
+    public boolean isLoaded() {
+        return pendingLoad == null && loadFailure == null;
+    }
+
+    /**
+     * Swaps in the rows read by a load (O(1)) and publishes a reset
+     * A no-op for a load that is not pending anymore (e.g. a write already finished it)
+     * @throws IOException if the load failed (the history stays empty and refuses writes)
+     */
+    public void finishLoad(HistoryLoad load) throws IOException {
+        if (load == null || load != pendingLoad || !load.isDone()) {
+            return; // Safety check
+        }
+        pendingLoad = null;
+        if (load.getFailure() != null) {
+            loadFailure = load.getFailure();
+            throw loadFailure;
+        }
+        summaries = load.getSummaries();
+        use(load.getIndex());
+        changes.publish(HistoryChange.reset(store.size()));
+    }
+
+    /**
+     * Finishes a pending load before the log is touched: runs it on this thread, or waits for
+     * the thread running it
+     * @return false if the rows could not be loaded (or the history is closed)
+     */
+    private boolean ensureLoaded() {
+        if (closed) {
+            return false;
+        }
+        HistoryLoad load = pendingLoad;
+        if (load != null) {
+            load.run();
+            try {
+                finishLoad(load);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return loadFailure == null;
+    }
+
+    /**
+     * Refuses writes to a closed or unloadable history (e.g. a batch queued before close())
+     */
+    private void checkWritable() throws IOException {
+        if (closed) {
+            throw new IOException("History is closed");
+        }
+        if (!ensureLoaded()) {
+            throw new IOException("History could not be loaded", loadFailure);
+        }
+    }
+
+    private void use(HistoryIndex next) {
+        index = next;
+        dictionary = next.dictionary;
+        store = next.store;
+        rollups = next.rollups;
+        searchIndex = next.searchIndex;
+        facets = next.facets;
+    }
+
+    /**
+     * Checks whether a cycle of a session is already recorded
+     */
+    public boolean contains(long sessionId, int cycle) {
+        return ensureLoaded() && index.contains(sessionId, cycle);
+    }
+
+    /**
+     * Hands out a session id that is not used by any recorded row (ids start at 1)
+     */
+    public long nextSessionId() {
+        ensureLoaded();
+        lastSessionId = Math.max(lastSessionId, index.maxSessionId) + 1;
+        return lastSessionId;
+    }
+
+    /**
+     * Appends a completed session (becomes the newest entry)
+     * The row is written to the log before it becomes visible in the store
+     * @return false if this cycle of the session was already recorded (nothing is written)
+     */
+    public boolean add(CompletedSession session) throws IOException {
+        checkWritable();
+        if (contains(session.getSessionId(), session.getCycle())) {
+            return false;
+        }
+        int techniqueId = intern(session.getTechnique());
+        int subjectId = intern(session.getSubject());
+        int taskId = intern(session.getTask());
+        log.appendRecord(session.getSessionId(), session.getCompletionTimestamp(), session.getTimeSpentMillis(),
+            session.getSetDurationMillis(), session.getCycle(), techniqueId, subjectId, taskId);
+        addRow(session.getSessionId(), session, techniqueId, subjectId, taskId);
+        changes.publish(HistoryChange.inserted(store.size() - 1, store.size()));
+        return true;
+    }
+
+    /**
+     * Appends a batch of completed sessions (bulk import)
+     * Records go to the log with one write, then become visible in the store. Entries already
+     * in the history (same completion time and cycle) or repeated within the batch are skipped,
+     * and so are entries whose day, technique and subject have a summary (already counted in it,
+     * e.g. compacted here or imported as a daily total). A session id that belongs to another
+     * session here (ids are per install) is replaced by a new one. Old entries with no summary
+     * are kept as raw rows, and folded by the next compaction.
+     * Entries may be older than the current ones - see prepareSort()
+     * @return Number of sessions added
+     */
+    public int addAll(List<CompletedSession> sessions) throws IOException {
+        checkWritable();
+        int[] stringIds = new int[sessions.size() * 3];
+        long[] sessionIds = new long[sessions.size()];
+        boolean[] accepted = new boolean[sessions.size()];
+        LongHashSet batchKeys = new LongHashSet(sessions.size());
+        LongHashSet batchEntries = new LongHashSet(sessions.size());
+        // New ids start above every id of the batch, so they can't take one of its later rows
+        for (CompletedSession session : sessions) {
+            lastSessionId = Math.max(lastSessionId, session.getSessionId());
+        }
+        int count = 0;
+        IOException failure = null;
+        log.beginBatch(sessions.size());
+        try {
+            for (int i = 0; i < sessions.size(); i++) {
+                CompletedSession session = sessions.get(i);
+                long completion = session.getCompletionTimestamp();
+                int cycle = session.getCycle();
+                if (index.containsEntry(completion, cycle) || isSummarized(session)
+                    || !batchEntries.add(CompletedSession.cycleKey(completion, cycle))) {
+                    continue;
+                }
+                long sessionId = session.getSessionId();
+                if (sessionId != 0) {
+                    Long mapped = importedSessionIds.get(sessionId);
+                    long id = mapped != null ? mapped : sessionId;
+                    if (index.contains(id, cycle) || batchKeys.contains(CompletedSession.cycleKey(id, cycle))) {
+                        id = nextSessionId(); // Another session has this id here
+                        importedSessionIds.put(sessionId, id);
+                    }
+                    batchKeys.add(CompletedSession.cycleKey(id, cycle));
+                    sessionId = id;
+                }
+                int techniqueId = stringIds[i * 3] = intern(session.getTechnique());
+                int subjectId = stringIds[i * 3 + 1] = intern(session.getSubject());
+                int taskId = stringIds[i * 3 + 2] = intern(session.getTask());
+                log.appendRecord(sessionId, completion, session.getTimeSpentMillis(),
+                    session.getSetDurationMillis(), cycle, techniqueId, subjectId, taskId);
+                sessionIds[i] = sessionId;
+                accepted[i] = true;
+                count++;
+            }
+        } catch (IOException e) {
+            failure = e; // Keep the sessions interned so far
+        }
+        log.endBatch();
+
+        int firstRow = store.size();
+        for (int i = 0; i < sessions.size(); i++) {
+            if (accepted[i]) {
+                addRow(sessionIds[i], sessions.get(i), stringIds[i * 3], stringIds[i * 3 + 1], stringIds[i * 3 + 2]);
+            }
+        }
+        if (store.size() > firstRow) {
+            changes.publish(HistoryChange.inserted(firstRow, store.size()));
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the day, technique and subject of a session have a summary record
+     */
+    private boolean isSummarized(CompletedSession session) {
+        if (summaries.size() == 0) {
+            return false;
+        }
+        int techniqueId = dictionary.find(session.getTechnique());
+        int subjectId = dictionary.find(session.getSubject());
+        return techniqueId >= 0 && subjectId >= 0
+            && summaries.indexOf(rollups.epochDay(session.getCompletionTimestamp()), techniqueId, subjectId) >= 0;
+    }
+
+    /**
+     * Copies the summaries as daily totals, oldest first (for an export, main thread)
+     */
+    public List<HistoryDailyTotal> copyDailyTotals() {
+        ensureLoaded();
+        List<HistoryDailyTotal> totals = new ArrayList<>(summaries.size());
+        for (int i = 0; i < summaries.size(); i++) {
+            totals.add(new HistoryDailyTotal(rollups.startOfDay(summaries.getDay(i)) + 12L * 60 * 60 * 1000,
+                dictionary.get(summaries.getTechniqueId(i)), dictionary.get(summaries.getSubjectId(i)),
+                summaries.getFocusMillis(i), summaries.getPlannedMillis(i), summaries.getCycles(i),
+                summaries.getSessions(i)));
+        }
+        totals.sort(Comparator.comparingLong(HistoryDailyTotal::getDayMillis));
+        return totals;
+    }
+
+    /**
+     * Adds imported daily totals to the summaries (and rollups)
+     * A day, technique and subject that already has a summary is skipped - it was compacted here
+     * or imported before, so importing the same export twice counts it once
+     * @return Number of daily totals added
+     */
+    public int addDailyTotals(List<HistoryDailyTotal> totals) throws IOException {
+        checkWritable();
+        int existing = summaries.size();
+        int count = 0;
+        for (HistoryDailyTotal total : totals) {
+            int day = rollups.epochDay(total.getDayMillis());
+            int techniqueId = intern(total.getTechnique());
+            int subjectId = intern(total.getSubject());
+            int record = summaries.indexOf(day, techniqueId, subjectId);
+            if (record >= 0 && record < existing) {
+                continue; // Only records of this call can take more (repeated in the input)
+            }
+            summaries.add(day, techniqueId, subjectId, total.getFocusMillis(), total.getPlannedMillis(),
+                total.getCycles(), total.getSessions());
+            rollups.addSummary(day, techniqueId, subjectId, total.getFocusMillis(), total.getPlannedMillis(),
+                total.getCycles(), total.getSessions());
+            if (pendingImportedTotals != null) {
+                pendingImportedTotals.add(day, techniqueId, subjectId, total.getFocusMillis(),
+                    total.getPlannedMillis(), total.getCycles(), total.getSessions());
+            }
+            count++;
+        }
+        if (count > 0 && pendingCompaction == null) {
+            summaries.write(directory); // Otherwise written by finishCompaction()
+        }
+        return count;
+    }
+
+    /**
+     * Makes a logged session visible in the store, rollups and indexes
+     * @param sessionId Id the session was logged with
+     */
+    private void addRow(long sessionId, CompletedSession session, int techniqueId, int subjectId, int taskId) {
+        index.add(sessionId, session.getCompletionTimestamp(), session.getTimeSpentMillis(),
+            session.getSetDurationMillis(), session.getCycle(), techniqueId, subjectId, taskId);
+    }
+
+    /**
+     * Gets the dictionary id of a string, persisting it first if it is new
+     */
+    private int intern(String value) throws IOException {
+        int id = dictionary.find(value);
+        if (id >= 0) {
+            return id;
+        }
+        log.appendString(value);
+        return dictionary.add(value);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Gets an entry by newest-first position (0 = most recent)
+     */
+    public CompletedSession getNewest(int position) {
+        return store.materialize(newestRow(position));
+    }
+
+    /**
+     * Gets the completion time of an entry by newest-first position without materializing it
+     */
+    public long getNewestCompletionTimestamp(int position) {
+        return store.getCompletionTimestamp(newestRow(position));
+    }
+
+    private int newestRow(int position) {
+        int[] order = index.completionOrder;
+        return order != null ? order[store.size() - 1 - position] : store.size() - 1 - position;
+    }
+
+    /**
+     * Gets the column store (for aggregate queries that must not materialize rows)
+     */
+    public ColumnarHistoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the feed of inserted rows and resets (subscribe to keep a list up to date)
+     */
+    public HistoryChangeFeed getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gets the running totals by day, week, month, subject and technique
+     * Subject and technique keys are ids in getStore().getDictionary()
+     */
+    public HistoryRollups getRollups() {
+        return rollups;
+    }
+
+    /**
+     * Creates a read-only newest-first view of the entries recorded so far
+     * The view keeps its size - entries added later only show up in a new view
+     */
+    public List<CompletedSession> newestFirst() {
+        return newestFirstView(0, store.size());
+    }
+
+    /**
+     * Newest-first view over completion-order positions [from, to) (row order while the
+     * completion order is being rebuilt)
+     */
+    private NewestFirstView newestFirstView(int from, int to) {
+        return new NewestFirstView(store, index.completionOrder, index.orderVersion, from, to);
+    }
+
+    /**
+     * Finds the entries whose subject or task contain every word of a query (the last word may
+     * be incomplete, e.g. "IT 306 la" matches "Lab 4")
+     * @return Read-only newest-first view of the matches (all entries for a blank query)
+     */
+    public List<CompletedSession> search(String query) {
+        if (HistorySearchIndex.tokenize(query).isEmpty()) {
+            return newestFirst();
+        }
+        return query(new HistoryQuery().text(query));
+    }
+
+    /**
+     * Runs a query (time range, technique, subject, text) in its sort order
+     * A newest-first query with only a time range is a contiguous run of rows: its view is two
+     * binary searches, so opening the list doesn't depend on the history length
+     * @return Read-only view of the matches (rows are materialized only when read)
+     */
+    public List<CompletedSession> query(HistoryQuery query) {
+        if (index.isOrdered() && query.getSort() == HistoryQuery.Sort.NEWEST_FIRST && query.getTechnique() == null
+            && query.getSubject() == null && HistorySearchIndex.tokenize(query.getText()).isEmpty()) {
+            int from = firstPositionAtOrAfter(query.getFromMillis());
+            int to = firstPositionAtOrAfter(query.getToMillis());
+            return newestFirstView(from, Math.max(from, to));
+        }
+        return new RowsView(store, select(query));
+    }
+
+    /**
+     * Finds the rows matching a query without materializing them
+     * The time range is a binary search on the completion column (or on the completion order
+     * once rows arrived out of order); technique, subject and text filters are bitmaps ANDed
+     * over that range, so only matching rows are ever visited
+     * @return Row indices (see getStore()) in the query's sort order
+     */
+    public int[] select(HistoryQuery query) {
+        int from = 0;
+        int to = store.size();
+        if (index.isOrdered()) {
+            from = firstPositionAtOrAfter(query.getFromMillis());
+            to = firstPositionAtOrAfter(query.getToMillis());
+        }
+        if (from >= to) {
+            return new int[0];
+        }
+        int[] order = index.completionOrder;
+        if (order != null) {
+            // The range is a run of the completion order - filter it against bitmaps of every row
+            BitSet candidates = filterRows(query, 0, store.size());
+            int[] rows = new int[to - from];
+            int count = 0;
+            rowsVisited += to - from;
+            for (int position = from; position < to; position++) {
+                if (candidates == null || candidates.get(order[position])) {
+                    rows[count++] = order[position];
+                }
+            }
+            return sort(Arrays.copyOf(rows, count), query.getSort(), true);
+        }
+
+        BitSet candidates = filterRows(query, from, to);
+        int[] rows = new int[candidates != null ? candidates.cardinality() : to - from];
+        int count = 0;
+        if (candidates == null) {
+            for (int row = from; row < to; row++) {
+                rows[count++] = row;
+            }
+        } else {
+            for (int bit = candidates.nextSetBit(0); bit >= 0; bit = candidates.nextSetBit(bit + 1)) {
+                rows[count++] = from + bit;
+            }
+        }
+        rowsVisited += count;
+        if (!index.timestampsSorted) {
+            count = keepInRange(rows, count, query.getFromMillis(), query.getToMillis());
+        }
+        return sort(Arrays.copyOf(rows, count), query.getSort(), index.timestampsSorted);
+    }
+
+    /**
+     * Gets the number of rows select() has looked at so far (its cost, for tests)
+     */
+    long getRowsVisited() {
+        return rowsVisited;
+    }
+
+    /**
+     * ANDs the technique, subject and text filters of a query over the rows [from, to)
+     * @return Bitmap relative to from (null = no filter, every row matches)
+     */
+    private BitSet filterRows(HistoryQuery query, int from, int to) {
+        BitSet candidates = null;
+        if (query.getTechnique() != null) {
+            candidates = and(candidates, facets.getTechniqueRows(dictionary.find(query.getTechnique())).get(from, to));
+        }
+        if (query.getSubject() != null) {
+            candidates = and(candidates, facets.getSubjectRows(dictionary.find(query.getSubject())).get(from, to));
+        }
+        if (!HistorySearchIndex.tokenize(query.getText()).isEmpty()) {
+            BitSet textRows = new BitSet(to - from);
+            for (int row : searchIndex.search(query.getText())) {
+                if (row >= from && row < to) {
+                    textRows.set(row - from);
+                }
+            }
+            candidates = and(candidates, textRows);
+        }
+        return candidates;
+    }
+
+    private static BitSet and(BitSet candidates, BitSet filter) {
+        if (candidates == null) {
+            return filter;
+        }
+        candidates.and(filter);
+        return candidates;
+    }
+
+    /**
+     * Binary searches the completion order for the first position completed at or after a time
+     * (a row index while the rows themselves are in completion order)
+     */
+    private int firstPositionAtOrAfter(long millis) {
+        int[] order = index.completionOrder;
+        int low = 0;
+        int high = store.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            rowsVisited++;
+            if (store.getCompletionTimestamp(order != null ? order[middle] : middle) < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compacts rows to those completed in [fromMillis, toMillis) (rows out of completion order)
+     */
+    private int keepInRange(int[] rows, int count, long fromMillis, long toMillis) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            long completion = store.getCompletionTimestamp(rows[i]);
+            if (completion >= fromMillis && completion < toMillis) {
+                rows[kept++] = rows[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Orders rows for display
+     * @param inCompletionOrder True if the rows are already in completion order
+     */
+    private int[] sort(int[] rows, HistoryQuery.Sort order, boolean inCompletionOrder) {
+        if (order == HistoryQuery.Sort.OLDEST_FIRST || order == HistoryQuery.Sort.NEWEST_FIRST) {
+            if (!inCompletionOrder) {
+                rows = sortBy(rows, Comparator.comparingLong(store::getCompletionTimestamp));
+            }
+            if (order == HistoryQuery.Sort.NEWEST_FIRST) {
+                reverse(rows);
+            }
+            return rows;
+        }
+        Comparator<Integer> byTimeSpent = Comparator.<Integer>comparingLong(store::getTimeSpentMillis);
+        if (order == HistoryQuery.Sort.LONGEST_FIRST) {
+            byTimeSpent = byTimeSpent.reversed();
+        }
+        // Ties: newest first
+        return sortBy(rows, byTimeSpent.thenComparing(Comparator.<Integer>comparingLong(store::getCompletionTimestamp).reversed()));
+    }
+
+    private static int[] sortBy(int[] rows, Comparator<Integer> comparator) {
+        Integer[] boxed = new Integer[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            boxed[i] = rows[i];
+        }
+        Arrays.sort(boxed, comparator);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = boxed[i];
+        }
+        return rows;
+    }
+
+    private static void reverse(int[] rows) {
+        for (int i = 0, j = rows.length - 1; i < j; i++, j--) {
+            int swap = rows[i];
+            rows[i] = rows[j];
+            rows[j] = swap;
+        }
+    }
+
+    /**
+     * Names of the techniques used in the history, in first-use order (for filter chips)
+     */
+    public List<String> getTechniqueNames() {
+        List<String> names = new ArrayList<>();
+        for (int id : facets.getTechniqueIds()) {
+            names.add(dictionary.get(id));
+        }
+        return names;
+    }
+
+    /**
+     * Names of the subjects studied in the history, in first-use order
+     */
+    public List<String> getSubjectNames() {
+        List<String> names = new ArrayList<>();
+        for (int id : facets.getSubjectIds()) {
+            names.add(dictionary.get(id));
+        }
+        return names;
+    }
+
+    /**
+     * Sums the entries matching a query over both tiers (raw rows and daily summaries)
+     * A summary counts when its day starts inside the time range, so day-aligned ranges are
+     * exact. Summaries keep no task text - with a text filter only raw rows are counted
+     */
+    public RollupSeries.Totals totals(HistoryQuery query) {
+        if (query.getFromMillis() == Long.MIN_VALUE && query.getToMillis() == Long.MAX_VALUE
+            && query.getTechnique() == null && query.getSubject() == null
+            && HistorySearchIndex.tokenize(query.getText()).isEmpty()) {
+            return rollups.getDays().total(); // Everything - already summed by the rollups
+        }
+        long focus = 0;
+        long planned = 0;
+        int cycles = 0;
+        int sessions = 0;
+        for (int row : select(query)) {
+            focus += store.getTimeSpentMillis(row);
+            planned += store.getSetDurationMillis(row);
+            cycles++;
+            if (store.getCycle(row) <= 1) {
+                sessions++;
+            }
+        }
+
+        if (HistorySearchIndex.tokenize(query.getText()).isEmpty()) {
+            int techniqueId = query.getTechnique() != null ? dictionary.find(query.getTechnique()) : -1;
+            int subjectId = query.getSubject() != null ? dictionary.find(query.getSubject()) : -1;
+            boolean unknownFilter = (query.getTechnique() != null && techniqueId < 0)
+                || (query.getSubject() != null && subjectId < 0);
+            for (int i = 0; i < summaries.size() && !unknownFilter; i++) {
+                long dayStart = rollups.startOfDay(summaries.getDay(i));
+                if (dayStart < query.getFromMillis() || dayStart >= query.getToMillis()
+                    || (techniqueId >= 0 && summaries.getTechniqueId(i) != techniqueId)
+                    || (subjectId >= 0 && summaries.getSubjectId(i) != subjectId)) {
+                    continue;
+                }
+                focus += summaries.getFocusMillis(i);
+                planned += summaries.getPlannedMillis(i);
+                cycles += summaries.getCycles(i);
+                sessions += summaries.getSessions(i);
+            }
+        }
+        return new RollupSeries.Totals(focus, planned, cycles, sessions);
+    }
+
+    /**
+     * Gets the cutoff that keeps rawDays full local days (plus today) as raw rows
+     */
+    public long getCompactionCutoff(long nowMillis, int rawDays) {
+        return rollups.startOfDay(rollups.epochDay(nowMillis) - rawDays);
+    }
+
+    /**
+     * Gets the time before which entries were folded into summaries (Long.MIN_VALUE = never)
+     */
+    public long getCompactedBeforeMillis() {
+        return summaries.getCompactedBeforeMillis();
+    }
+
+    /**
+     * Starts folding the entries completed before a cutoff into daily summaries
+     * Call run() on the result (any thread), then finishCompaction() on this thread
+     * @return null if no raw entry is that old, or a compaction is already pending
+     */
+    public HistoryCompaction prepareCompaction(long cutoffMillis) {
+        if (!ensureLoaded() || pendingCompaction != null || index.oldestCompletion >= cutoffMillis) {
+            return null;
+        }
+        pendingCompaction = new HistoryCompaction(directory, store.snapshot(), summaries.copy(), cutoffMillis,
+            timeZone, log.getGeneration(), Math.max(lastSessionId, index.maxSessionId));
+        pendingImportedTotals = new HistorySummaries();
+        return pendingCompaction;
+    }
+
+    /**
+     * Applies a compaction that has run: renames its record file over the log and swaps in the
+     * rows it built (O(entries added while it ran) - the rest was done by run())
+     * Entries added while the compaction ran are appended to the new log, or folded here if they
+     * are also older than the cutoff, and daily totals imported meanwhile join its summaries.
+     * Views created earlier keep showing the rows they had
+     * @return Number of entries folded (0 if the compaction was stale or not run)
+     * @throws IOException if run() could not write the compacted files (nothing changed)
+     */
+    public int finishCompaction(HistoryCompaction compaction) throws IOException {
+        if (compaction == null || compaction != pendingCompaction || !compaction.isFolded()) {
+            return 0; // Safety check
+        }
+        pendingCompaction = null;
+        HistorySummaries importedTotals = pendingImportedTotals;
+        pendingImportedTotals = null;
+        if (closed || compaction.getLogGeneration() != log.getGeneration()) {
+            if (!closed && importedTotals.size() > 0) {
+                summaries.write(directory);
+            }
+            return 0; // Log was replaced in the meantime
+        }
+        HistoryIndex next = compaction.getRows();
+        if (compaction.getFailure() != null || next == null) {
+            // Nothing was committed - the summaries stay ours (with the totals imported meanwhile)
+            if (importedTotals.size() > 0) {
+                summaries.write(directory);
+            }
+            if (compaction.getFailure() != null) {
+                throw compaction.getFailure();
+            }
+            return 0; // Nothing was old enough
+        }
+
+        // Strings interned while the compaction ran (same ids - the string pool is shared)
+        for (int id = next.dictionary.size(); id < dictionary.size(); id++) {
+            next.dictionary.add(dictionary.get(id));
+        }
+        // Old entries added while it ran (e.g. an import) join the summaries it committed
+        HistorySummaries nextSummaries = compaction.getSummaries();
+        long cutoff = compaction.getCutoffMillis();
+        int folded = compaction.getFoldedRows();
+        int lateRows = 0;
+        for (int row = compaction.getSnapshotSize(); row < store.size(); row++) {
+            long completion = store.getCompletionTimestamp(row);
+            if (completion < cutoff) {
+                HistoryCompaction.fold(nextSummaries, timeZone, completion, store.getTechniqueId(row),
+                    store.getSubjectId(row), store.getTimeSpentMillis(row), store.getSetDurationMillis(row),
+                    store.getCycle(row));
+                next.rollups.add(completion, store.getTimeSpentMillis(row), store.getSetDurationMillis(row),
+                    store.getCycle(row), store.getTechniqueId(row), store.getSubjectId(row));
+                folded++;
+            } else {
+                lateRows++;
+            }
+        }
+        for (int i = 0; i < importedTotals.size(); i++) {
+            nextSummaries.add(importedTotals.getDay(i), importedTotals.getTechniqueId(i),
+                importedTotals.getSubjectId(i), importedTotals.getFocusMillis(i), importedTotals.getPlannedMillis(i),
+                importedTotals.getCycles(i), importedTotals.getSessions(i));
+            next.rollups.addSummary(importedTotals.getDay(i), importedTotals.getTechniqueId(i),
+                importedTotals.getSubjectId(i), importedTotals.getFocusMillis(i), importedTotals.getPlannedMillis(i),
+                importedTotals.getCycles(i), importedTotals.getSessions(i));
+        }
+        if (folded > compaction.getFoldedRows() || importedTotals.size() > 0) {
+            nextSummaries.write(directory);
+        }
+
+        // Newer ones are appended to the compacted log with one write (dropped if it fails)
+        log.switchToCompacted();
+        IOException failure = null;
+        log.beginBatch(lateRows);
+        try {
+            for (int row = compaction.getSnapshotSize(); row < store.size(); row++) {
+                if (store.getCompletionTimestamp(row) >= cutoff) {
+                    log.appendRecord(store.getSessionId(row), store.getCompletionTimestamp(row),
+                        store.getTimeSpentMillis(row), store.getSetDurationMillis(row), store.getCycle(row),
+                        store.getTechniqueId(row), store.getSubjectId(row), store.getTaskId(row));
+                }
+            }
+            log.endBatch();
+            for (int row = compaction.getSnapshotSize(); row < store.size(); row++) {
+                if (store.getCompletionTimestamp(row) >= cutoff) {
+                    next.add(store.getSessionId(row), store.getCompletionTimestamp(row),
+                        store.getTimeSpentMillis(row), store.getSetDurationMillis(row), store.getCycle(row),
+                        store.getTechniqueId(row), store.getSubjectId(row), store.getTaskId(row));
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        summaries = nextSummaries;
+        use(next);
+        changes.publish(HistoryChange.reset(store.size())); // Rows were renumbered
+        if (failure != null) {
+            throw failure;
+        }
+        return folded;
+    }
+
+    /**
+     * Starts rebuilding the completion order after rows arrived out of order (e.g. an import)
+     * Call run() on the result (any thread), then finishSort() on this thread
+     * @return null if the rows are in order, or a sort is already pending
+     */
+    public HistorySort prepareSort() {
+        if (!ensureLoaded() || index.isOrdered() || pendingSort != null) {
+            return null;
+        }
+        pendingSort = new HistorySort(store, store.snapshot());
+        return pendingSort;
+    }
+
+    /**
+     * Applies a sort that has run and publishes a reset (O(rows) - rows added while it ran are
+     * merged in, the comparison sort was done by run())
+     * @return false if the sort was stale (e.g. a compaction renumbered the rows) or not run
+     */
+    public boolean finishSort(HistorySort sort) {
+        if (sort == null || sort != pendingSort || !sort.isSorted()) {
+            return false; // Safety check
+        }
+        pendingSort = null;
+        if (closed || sort.getStore() != store || index.isOrdered()) {
+            return false;
+        }
+        index.useOrder(mergeLateRows(sort.getOrder()));
+        changes.publish(HistoryChange.reset(store.size()));
+        return true;
+    }
+
+    /**
+     * Merges the rows after a sorted prefix of the store into its completion order
+     */
+    private int[] mergeLateRows(int[] sorted) {
+        int lateCount = store.size() - sorted.length;
+        if (lateCount == 0) {
+            return sorted;
+        }
+        int[] late = new int[lateCount];
+        for (int i = 0; i < lateCount; i++) {
+            late[i] = sorted.length + i;
+        }
+        late = sortBy(late, Comparator.comparingLong(store::getCompletionTimestamp));
+        int[] merged = new int[store.size()];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            // Ties: the earlier row first, like the sort
+            if (j >= late.length || (i < sorted.length
+                && store.getCompletionTimestamp(sorted[i]) <= store.getCompletionTimestamp(late[j]))) {
+                merged[k] = sorted[i++];
+            } else {
+                merged[k] = late[j++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Releases the underlying files (later writes fail with an IOException)
+     */
+    public void close() throws IOException {
+        closed = true;
+        log.close();
+    }
+
+    private static long stableId(ColumnarHistoryStore store, int row) {
+        return CompletedSession.stableId(store.getSessionId(row), store.getCycle(row), store.getCompletionTimestamp(row));
+    }
+
+    private static long stableId(ColumnarHistoryStore.Snapshot snapshot, int row) {
+        return CompletedSession.stableId(snapshot.getSessionId(row), snapshot.getCycle(row),
+            snapshot.getCompletionTimestamp(row));
+    }
+
+    /**
+     * Newest-first list over the completion-order positions [from, to) (each get() materializes
+     * one row)
+     * Keeps the store and order it was created on, so it stays valid across a compaction or sort
+     */
+    private static final class NewestFirstView extends AbstractList<CompletedSession>
+        implements RandomAccess, HistoryRows {
+        private final ColumnarHistoryStore store;
+        private final int[] order; // null = position is the row
+        private final int orderVersion;
+        private final int from;
+        private final int to;
+
+        NewestFirstView(ColumnarHistoryStore store, int[] order, int orderVersion, int from, int to) {
+            this.store = store;
+            this.order = order;
+            this.orderVersion = orderVersion;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public CompletedSession get(int position) {
+            if (position < 0 || position >= to - from) {
+                throw new IndexOutOfBoundsException("Position " + position + " of " + (to - from));
+            }
+            return store.materialize(getRow(position));
+        }
+
+        @Override
+        public int getRow(int position) {
+            return order != null ? order[to - 1 - position] : to - 1 - position;
+        }
+
+        @Override
+        public ColumnarHistoryStore getStore() {
+            return store;
+        }
+
+        @Override
+        public long getStableId(int position) {
+            return stableId(store, getRow(position));
+        }
+
+        @Override
+        public long[] copyStableIds(ColumnarHistoryStore.Snapshot snapshot) {
+            long[] ids = new long[to - from];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = stableId(snapshot, getRow(i));
+            }
+            return ids;
+        }
+
+        @Override
+        public int countAddedSince(HistoryRows earlier) {
+            if (!(earlier instanceof NewestFirstView)) {
+                return -1;
+            }
+            NewestFirstView view = (NewestFirstView) earlier;
+            // Same store, order and start: the positions [view.to, to) are the new ones, shown first
+            return view.store == store && view.orderVersion == orderVersion && view.from == from
+                && view.to <= to ? to - view.to : -1;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * List over a set of rows in display order (e.g. query results)
+     */
+    private static final class RowsView extends AbstractList<CompletedSession> implements RandomAccess, HistoryRows {
+        private final ColumnarHistoryStore store;
+        private final int[] rows;
+
+        RowsView(ColumnarHistoryStore store, int[] rows) {
+            this.store = store;
+            this.rows = rows;
+        }
+
+        @Override
+        public CompletedSession get(int position) {
+            if (position < 0 || position >= rows.length) {
+                throw new IndexOutOfBoundsException("Position " + position + " of " + rows.length);
+            }
+            return store.materialize(rows[position]);
+        }
+
+        @Override
+        public int getRow(int position) {
+            return rows[position];
+        }
+
+        @Override
+        public ColumnarHistoryStore getStore() {
+            return store;
+        }
+
+        @Override
+        public long getStableId(int position) {
+            return stableId(store, rows[position]);
+        }
+
+        @Override
+        public long[] copyStableIds(ColumnarHistoryStore.Snapshot snapshot) {
+            long[] ids = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                ids[i] = stableId(snapshot, rows[i]);
+            }
+            return ids;
+        }
+
+        @Override
+        public int countAddedSince(HistoryRows earlier) {
+            if (!(earlier instanceof RowsView)) {
+                return -1;
+            }
+            RowsView view = (RowsView) earlier;
+            // Only recognizes the same result (O(matches), like running the query)
+            return view.store == store && Arrays.equals(view.rows, rows) ? 0 : -1;
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+}
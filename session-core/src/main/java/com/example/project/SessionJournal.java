@@ -0,0 +1,529 @@
+package com.example.project;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of session commands and phase transitions, used to rebuild the
+ * active session after process death
+ * Appends only encode a small record into an in-memory batch; flush() writes the whole
+ * batch with one positional write (group commit). Starting or ending a session discards
+ * the old records, so the file never holds more than the current session
+ * Record layout: [short payload length][payload: byte type + fields][int CRC32 of payload]
+ * Not thread-safe - the app appends and flushes from the main thread
+ */
+public class SessionJournal {
+
+    /**
+     * Interface for being told that a batch has pending records
+     * Called once per batch (on the first append after a flush), so the owner can
+     * schedule a single delayed flush for everything appended in the meantime
+     */
+    public interface Listener {
+        void onFlushNeeded();
+    }
+
+    // Record types
+    static final byte SESSION_STARTED = 1;
+    static final byte WORK_STARTED = 2;
+    static final byte BREAK_STARTED = 3;
+    static final byte PAUSED = 4;
+    static final byte RESUMED = 5;
+    static final byte EXTENDED = 6;
+    static final byte PHASE_FINISHED = 7;
+    static final byte CYCLE_ADVANCED = 8;
+    static final byte SESSION_ENDED = 9;
+
+    // Length prefix + CRC around each payload
+    private static final int FRAME_OVERHEAD = 2 + 4;
+
+    // Longest subject/task kept (three strings still fit the short length prefix)
+    private static final int MAX_STRING_BYTES = 8 * 1024;
+
+    private final File file;
+    private final Clock clock;
+    private final CRC32 crc = new CRC32();
+    private Listener listener;
+
+    // Records appended since the last flush
+    private ByteBuffer batch = ByteBuffer.allocate(1024);
+
+    // True when the file must be emptied before the batch is written (new or ended session)
+    private boolean truncatePending = false;
+
+    // Start of the record being encoded
+    private int recordStart = 0;
+
+    // Opened lazily on the first flush
+    private RandomAccessFile raf;
+    private FileChannel channel;
+
+    /**
+     * @param file Journal file (created on the first flush)
+     * @param clock Wall-clock timestamps for phase deadlines (they must survive a reboot)
+     */
+    public SessionJournal(File file, Clock clock) {
+        this.file = file;
+        this.clock = clock;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Records a new session - everything journaled before it is discarded
+     */
+    public void sessionStarted(StudySession session) {
+        markPending();
+        batch.clear();
+        truncatePending = true;
+        beginRecord(SESSION_STARTED);
+        putString(session.getTechnique());
+        putString(session.getSubject());
+        putString(session.getTask());
+        batch.putLong(session.getWorkDurationMillis());
+        batch.putLong(session.getBreakDurationMillis());
+        batch.putLong(session.getStartTime());
+        batch.putLong(session.getSessionId()); // Appended last - older journals end before it
+        endRecord();
+    }
+
+    /**
+     * Records the start of a work phase (cycle, subject and task may change between cycles)
+     * The session's cycle start time is the phase start
+     */
+    public void workStarted(StudySession session, long durationMillis) {
+        markPending();
+        beginRecord(WORK_STARTED);
+        batch.putInt(session.getCurrentCycle());
+        putString(session.getSubject());
+        putString(session.getTask());
+        batch.putLong(durationMillis);
+        batch.putLong(session.getCycleStartTime());
+        endRecord();
+    }
+
+    /**
+     * Records the start of a break phase
+     */
+    public void breakStarted(long durationMillis, boolean longBreak) {
+        markPending();
+        beginRecord(BREAK_STARTED);
+        batch.put(longBreak ? (byte) 1 : (byte) 0);
+        batch.putLong(durationMillis);
+        batch.putLong(clock.currentTimeMillis());
+        endRecord();
+    }
+
+    /**
+     * Records a pause with the remaining time frozen at that moment
+     */
+    public void paused(long remainingMillis) {
+        markPending();
+        beginRecord(PAUSED);
+        batch.putLong(remainingMillis);
+        endRecord();
+    }
+
+    /**
+     * Records a resume (the deadline is now + the remaining time frozen by the last pause)
+     */
+    public void resumed() {
+        markPending();
+        beginRecord(RESUMED);
+        batch.putLong(clock.currentTimeMillis());
+        endRecord();
+    }
+
+    /**
+     * Records an extension of the current phase (Extend Break)
+     */
+    public void extended(long additionalMillis) {
+        markPending();
+        beginRecord(EXTENDED);
+        batch.putLong(additionalMillis);
+        endRecord();
+    }
+
+    /**
+     * Records that the current phase reached its end
+     */
+    public void phaseFinished() {
+        markPending();
+        beginRecord(PHASE_FINISHED);
+        endRecord();
+    }
+
+    /**
+     * Records the move to the next cycle (the user is choosing its subject and task)
+     * @param cycle The new current cycle
+     * @param roundComplete True if the cycle counter was reset after a full round
+     * @param sessionId The session id for the next cycle (a new round gets a new id)
+     */
+    public void cycleAdvanced(int cycle, boolean roundComplete, long sessionId) {
+        markPending();
+        beginRecord(CYCLE_ADVANCED);
+        batch.putInt(cycle);
+        batch.put(roundComplete ? (byte) 1 : (byte) 0);
+        batch.putLong(sessionId);
+        endRecord();
+    }
+
+    /**
+     * Records the end of the session - nothing is left to recover
+     */
+    public void sessionEnded() {
+        markPending();
+        batch.clear();
+        truncatePending = true;
+        beginRecord(SESSION_ENDED);
+        endRecord();
+    }
+
+    /**
+     * Checks if records are waiting for flush()
+     */
+    public boolean hasPendingRecords() {
+        return batch.position() > 0 || truncatePending;
+    }
+
+    /**
+     * Writes the pending batch to the end of the file
+     * No fsync: records only have to survive the process being killed, and the kernel
+     * page cache outlives the process
+     */
+    public void flush() throws IOException {
+        if (!hasPendingRecords()) {
+            return;
+        }
+        if (channel == null) {
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        }
+        if (truncatePending) {
+            channel.truncate(0);
+            truncatePending = false;
+        }
+        batch.flip();
+        long position = channel.size();
+        while (batch.hasRemaining()) {
+            position += channel.write(batch, position);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Flushes pending records and releases the file
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (raf != null) {
+                raf.close();
+                raf = null;
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the session described by a journal file
+     * Reading stops at the first torn or corrupt record (a write cut short by process death)
+     * @param file Journal file
+     * @param nowMillis Current wall-clock time (used to compute the time left in a running phase)
+     * @return The recovered session, or null if there is no session in progress
+     */
+    public static Recovery replay(File file, long nowMillis) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        byte[] data = new byte[(int) file.length()];
+        int read = 0;
+        try (FileInputStream in = new FileInputStream(file)) {
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, read);
+        CRC32 check = new CRC32();
+        Recovery recovery = null;
+        while (buffer.remaining() >= FRAME_OVERHEAD + 1) {
+            int payloadLength = buffer.getShort(buffer.position()) & 0xFFFF;
+            int payloadStart = buffer.position() + 2;
+            if (payloadLength == 0 || payloadStart + payloadLength + 4 > buffer.limit()) {
+                break; // Torn write
+            }
+            check.reset();
+            check.update(data, payloadStart, payloadLength);
+            if ((int) check.getValue() != buffer.getInt(payloadStart + payloadLength)) {
+                break; // Corrupt record
+            }
+            ByteBuffer payload = ByteBuffer.wrap(data, payloadStart, payloadLength);
+            recovery = apply(recovery, payload);
+            buffer.position(payloadStart + payloadLength + 4);
+        }
+
+        if (recovery != null) {
+            recovery.finish(nowMillis);
+        }
+        return recovery;
+    }
+
+    /**
+     * Applies one record to the recovered state
+     */
+    private static Recovery apply(Recovery recovery, ByteBuffer payload) {
+        byte type = payload.get();
+        if (type == SESSION_STARTED) {
+            String technique = getString(payload);
+            String subject = getString(payload);
+            String task = getString(payload);
+            long workMillis = payload.getLong();
+            long breakMillis = payload.getLong();
+            long startTime = payload.getLong();
+            StudySession session = new StudySession(technique, subject, task, workMillis, breakMillis, startTime);
+            if (payload.remaining() >= 8) {
+                session.setSessionId(payload.getLong());
+            }
+            return new Recovery(session);
+        }
+        if (type == SESSION_ENDED || recovery == null) {
+            return null; // Session over (or records without a session start)
+        }
+
+        switch (type) {
+            case WORK_STARTED:
+                recovery.session.setCurrentCycle(payload.getInt());
+                recovery.session.setSubject(getString(payload));
+                recovery.session.setTask(getString(payload));
+                recovery.startPhase(false, false, payload.getLong(), payload.getLong());
+                recovery.session.setCycleStartTime(recovery.phaseStartMillis);
+                break;
+            case BREAK_STARTED:
+                boolean longBreak = payload.get() != 0;
+                recovery.startPhase(true, longBreak, payload.getLong(), payload.getLong());
+                break;
+            case PAUSED:
+                recovery.paused = true;
+                recovery.pausedRemainingMillis = payload.getLong();
+                break;
+            case RESUMED:
+                if (recovery.paused) {
+                    recovery.paused = false;
+                    recovery.deadlineMillis = payload.getLong() + recovery.pausedRemainingMillis;
+                }
+                break;
+            case EXTENDED:
+                long additionalMillis = payload.getLong();
+                recovery.totalDurationMillis += additionalMillis;
+                if (recovery.paused) {
+                    recovery.pausedRemainingMillis += additionalMillis;
+                } else {
+                    recovery.deadlineMillis += additionalMillis;
+                }
+                break;
+            case PHASE_FINISHED:
+                recovery.phaseFinished = true;
+                recovery.paused = false;
+                break;
+            case CYCLE_ADVANCED:
+                recovery.session.setCurrentCycle(payload.getInt());
+                recovery.roundComplete = payload.get() != 0;
+                if (payload.remaining() >= 8) {
+                    recovery.session.setSessionId(payload.getLong());
+                }
+                recovery.awaitingNextCycle = true;
+                recovery.phaseStarted = false;
+                break;
+            default:
+                break; // Unknown record type (newer app version) - skip it
+        }
+        return recovery;
+    }
+
+    private static String getString(ByteBuffer payload) {
+        int length = payload.getShort() & 0xFFFF;
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length,
+            StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    /**
+     * Session state rebuilt by replay()
+     */
+    public static final class Recovery {
+        private final StudySession session;
+
+        // Current (or last) phase
+        private boolean phaseStarted = false;
+        private boolean breakPhase = false;
+        private boolean longBreak = false;
+        private long phaseStartMillis = 0;
+        private long totalDurationMillis = 0;
+        private long deadlineMillis = 0; // Wall-clock deadline, valid while not paused
+        private boolean paused = false;
+        private long pausedRemainingMillis = 0;
+        private boolean phaseFinished = false;
+
+        // Between cycles (the user was choosing the next subject and task)
+        private boolean awaitingNextCycle = false;
+        private boolean roundComplete = false;
+
+        private SessionState state = SessionState.READY;
+        private long remainingMillis = 0;
+
+        private Recovery(StudySession session) {
+            this.session = session;
+        }
+
+        private void startPhase(boolean breakPhase, boolean longBreak, long durationMillis, long startMillis) {
+            this.phaseStarted = true;
+            this.breakPhase = breakPhase;
+            this.longBreak = longBreak;
+            this.phaseStartMillis = startMillis;
+            this.totalDurationMillis = durationMillis;
+            this.deadlineMillis = startMillis + durationMillis;
+            this.paused = false;
+            this.pausedRemainingMillis = 0;
+            this.phaseFinished = false;
+            this.awaitingNextCycle = false;
+        }
+
+        /**
+         * Derives the state and the time left once all records are applied
+         */
+        private void finish(long nowMillis) {
+            SessionState phaseState = breakPhase ? SessionState.ACTIVE_BREAK : SessionState.ACTIVE_WORK;
+            if (!phaseStarted || awaitingNextCycle) {
+                state = SessionState.READY;
+                remainingMillis = 0;
+            } else if (phaseFinished) {
+                state = SessionState.COMPLETED;
+                remainingMillis = 0;
+            } else if (paused) {
+                state = SessionState.PAUSED;
+                remainingMillis = pausedRemainingMillis;
+            } else {
+                // A deadline that passed while the process was dead leaves 0 (finishes right away)
+                state = phaseState;
+                remainingMillis = Math.max(0, deadlineMillis - nowMillis);
+            }
+            session.setState(state);
+            session.setPaused(state == SessionState.PAUSED);
+            session.setRemainingTimeMillis(remainingMillis);
+        }
+
+        public StudySession getSession() {
+            return session;
+        }
+
+        /**
+         * Gets the recovered state: ACTIVE_WORK, ACTIVE_BREAK, PAUSED, COMPLETED (the phase
+         * ended before the process died) or READY (no phase running)
+         */
+        public SessionState getState() {
+            return state;
+        }
+
+        /**
+         * Gets the phase that was running when paused (ACTIVE_WORK or ACTIVE_BREAK)
+         */
+        public SessionState getPhaseState() {
+            return breakPhase ? SessionState.ACTIVE_BREAK : SessionState.ACTIVE_WORK;
+        }
+
+        public boolean isBreakPhase() {
+            return breakPhase;
+        }
+
+        public boolean isLongBreak() {
+            return longBreak;
+        }
+
+        /**
+         * Gets the total duration of the current phase, including extensions
+         */
+        public long getTotalDurationMillis() {
+            return totalDurationMillis;
+        }
+
+        public long getRemainingMillis() {
+            return remainingMillis;
+        }
+
+        /**
+         * Checks if the session was between cycles (next subject and task not confirmed yet)
+         */
+        public boolean isAwaitingNextCycle() {
+            return awaitingNextCycle;
+        }
+
+        /**
+         * Checks if the cycle counter was reset after a full round (valid while awaiting the next cycle)
+         */
+        public boolean isRoundComplete() {
+            return roundComplete;
+        }
+    }
+
+    /**
+     * Tells the listener about the first record of a new batch
+     */
+    private void markPending() {
+        if (!hasPendingRecords() && listener != null) {
+            listener.onFlushNeeded();
+        }
+    }
+
+    private void beginRecord(byte type) {
+        ensureCapacity(FRAME_OVERHEAD + 1);
+        recordStart = batch.position();
+        batch.putShort((short) 0); // Length placeholder, patched in endRecord()
+        batch.put(type);
+    }
+
+    private void endRecord() {
+        int payloadStart = recordStart + 2;
+        int payloadLength = batch.position() - payloadStart;
+        batch.putShort(recordStart, (short) payloadLength);
+        crc.reset();
+        crc.update(batch.array(), payloadStart, payloadLength);
+        ensureCapacity(4);
+        batch.putInt((int) crc.getValue());
+    }
+
+    private void putString(String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        ensureCapacity(2 + length);
+        batch.putShort((short) length);
+        batch.put(bytes, 0, length);
+    }
+
+    /**
+     * Grows the batch buffer when a record does not fit (long subjects or tasks)
+     */
+    private void ensureCapacity(int bytes) {
+        if (batch.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + bytes));
+        batch.flip();
+        larger.put(batch);
+        batch = larger;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.project;
+
+/**
+ * Expands a technique into the timeline of phases for the rest of its round
+ * Pomodoro from cycle 1: work, break, work, break, work, break, work, long break
+ * Single-cycle techniques: work, break (or just work when there is no break)
+ */
+public final class SessionPlanner {
+
+    private SessionPlanner() {
+    }
+
+    /**
+     * Plans the remaining phases of the round
+     * @param spec Technique schedule
+     * @param workMillis Work length (the technique's own or the one entered by the user)
+     * @param firstCycle Cycle the timeline starts at (1-based)
+     * @return Timeline that has not been started yet
+     */
+    public static SessionTimeline plan(TechniqueSpec spec, long workMillis, int firstCycle) {
+        firstCycle = Math.max(1, firstCycle);
+        int interval = spec.getLongBreakInterval();
+        int lastCycle = interval > 0 ? roundEnd(firstCycle, interval) : firstCycle;
+        int cycleCount = lastCycle - firstCycle + 1;
+        int phasesPerCycle = spec.hasBreak() ? 2 : 1;
+
+        int size = cycleCount * phasesPerCycle;
+        int[] phaseTypes = new int[size];
+        int[] cycles = new int[size];
+        long[] durations = new long[size];
+
+        int i = 0;
+        for (int cycle = firstCycle; cycle <= lastCycle; cycle++) {
+            phaseTypes[i] = SessionTimeline.PHASE_WORK;
+            cycles[i] = cycle;
+            durations[i] = workMillis;
+            i++;
+            if (spec.hasBreak()) {
+                boolean longBreak = spec.hasLongBreak() && spec.isLastCycleOfRound(cycle);
+                phaseTypes[i] = longBreak ? SessionTimeline.PHASE_LONG_BREAK : SessionTimeline.PHASE_BREAK;
+                cycles[i] = cycle;
+                durations[i] = spec.getBreakMillisAfterCycle(cycle);
+                i++;
+            }
+        }
+        return new SessionTimeline(phaseTypes, cycles, durations);
+    }
+
+    /**
+     * Gets the last cycle of the round containing the given cycle
+     */
+    private static int roundEnd(int cycle, int interval) {
+        return ((cycle - 1) / interval + 1) * interval;
+    }
+}
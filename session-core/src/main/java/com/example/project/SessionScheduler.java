@@ -0,0 +1,240 @@
+package com.example.project;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs many study sessions at once from a single thread
+ * Each session has its own planned timeline and state machine; the phase deadlines of all
+ * sessions share one HashedTimerWheel, so adding a session or moving a deadline is O(1)
+ * and poll() only touches sessions whose phase actually ended
+ * Not thread-safe - call every method from the thread that drives poll()
+ */
+public class SessionScheduler {
+
+    /**
+     * Interface for receiving phase changes of scheduled sessions
+     */
+    public interface Listener {
+        void onPhaseStarted(ScheduledSession session);
+        void onSessionFinished(ScheduledSession session);
+    }
+
+    /**
+     * A session driven by the scheduler
+     */
+    public static final class ScheduledSession {
+        private final int id;
+        private final StudySession session;
+        private final SessionTimeline timeline;
+        private final SessionStateMachine stateMachine;
+        private HashedTimerWheel.Timeout<ScheduledSession> timeout;
+
+        private ScheduledSession(int id, StudySession session, SessionTimeline timeline, Clock clock) {
+            this.id = id;
+            this.session = session;
+            this.timeline = timeline;
+            this.stateMachine = new SessionStateMachine(clock);
+            this.stateMachine.setSession(session);
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public StudySession getSession() {
+            return session;
+        }
+
+        public SessionTimeline getTimeline() {
+            return timeline;
+        }
+
+        public SessionState getState() {
+            return stateMachine.getState();
+        }
+
+        public long getRemainingMillis() {
+            return stateMachine.getCountdown().getRemainingMillis();
+        }
+    }
+
+    // Default wheel: 100 ms resolution, 4096 buckets (~7 minutes per rotation)
+    private static final long DEFAULT_TICK_MILLIS = 100;
+    private static final int DEFAULT_WHEEL_SIZE = 4096;
+
+    private final Clock clock;
+    private final HashedTimerWheel<ScheduledSession> wheel;
+    private final Map<Integer, ScheduledSession> sessions = new HashMap<>();
+    private final HashedTimerWheel.ExpiryHandler<ScheduledSession> expiryHandler = this::onPhaseExpired;
+    private Listener listener;
+    private int nextId = 1;
+
+    public SessionScheduler(Clock clock) {
+        this(clock, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public SessionScheduler(Clock clock, long tickMillis, int wheelSize) {
+        this.clock = clock;
+        this.wheel = new HashedTimerWheel<>(clock.elapsedRealtime(), tickMillis, wheelSize);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Plans and starts a session (its first work phase begins now)
+     * @param session Session data (technique, subject, task, current cycle)
+     * @param spec Technique schedule
+     * @param workMillis Work length of each cycle
+     * @return The scheduled session
+     */
+    public ScheduledSession add(StudySession session, TechniqueSpec spec, long workMillis) {
+        SessionTimeline timeline = SessionPlanner.plan(spec, workMillis, session.getCurrentCycle());
+        ScheduledSession scheduled = new ScheduledSession(nextId++, session, timeline, clock);
+        sessions.put(scheduled.id, scheduled);
+
+        timeline.start(clock.elapsedRealtime());
+        startCurrentPhase(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Reports every phase that ended since the last poll and starts the next planned phase
+     * @return Number of phases that ended
+     */
+    public int poll() {
+        return wheel.advance(clock.elapsedRealtime(), expiryHandler);
+    }
+
+    /**
+     * Pauses a running session
+     */
+    public boolean pause(int id) {
+        ScheduledSession scheduled = sessions.get(id);
+        if (scheduled == null || !scheduled.stateMachine.pause()) {
+            return false;
+        }
+        scheduled.timeline.pause(clock.elapsedRealtime());
+        wheel.cancel(scheduled.timeout);
+        return true;
+    }
+
+    /**
+     * Resumes a paused session (its remaining phases move by the paused time)
+     */
+    public boolean resume(int id) {
+        ScheduledSession scheduled = sessions.get(id);
+        if (scheduled == null || !scheduled.stateMachine.resume()) {
+            return false;
+        }
+        scheduled.timeline.resume(clock.elapsedRealtime());
+        scheduleDeadline(scheduled);
+        return true;
+    }
+
+    /**
+     * Extends the current phase of a session
+     */
+    public boolean extend(int id, long additionalMillis) {
+        ScheduledSession scheduled = sessions.get(id);
+        if (scheduled == null || scheduled.getState() == SessionState.COMPLETED) {
+            return false;
+        }
+        scheduled.stateMachine.getCountdown().extend(additionalMillis);
+        scheduled.timeline.extendCurrent(additionalMillis);
+        if (scheduled.getState().isActive()) {
+            scheduleDeadline(scheduled);
+        }
+        return true;
+    }
+
+    /**
+     * Ends the current break of a session now and starts the next phase
+     */
+    public boolean skipBreak(int id) {
+        ScheduledSession scheduled = sessions.get(id);
+        if (scheduled == null || !scheduled.timeline.isCurrentBreak()
+                || scheduled.getState() == SessionState.COMPLETED) {
+            return false;
+        }
+        wheel.cancel(scheduled.timeout);
+        if (scheduled.timeline.skipCurrent(clock.elapsedRealtime())) {
+            startCurrentPhase(scheduled);
+        } else {
+            finish(scheduled);
+        }
+        return true;
+    }
+
+    /**
+     * Stops and forgets a session
+     */
+    public boolean remove(int id) {
+        ScheduledSession scheduled = sessions.remove(id);
+        if (scheduled == null) {
+            return false;
+        }
+        wheel.cancel(scheduled.timeout);
+        scheduled.stateMachine.reset();
+        return true;
+    }
+
+    public ScheduledSession get(int id) {
+        return sessions.get(id);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of pending phase deadlines
+     */
+    public int getPendingCount() {
+        return wheel.size();
+    }
+
+    private void onPhaseExpired(HashedTimerWheel.Timeout<ScheduledSession> timeout) {
+        ScheduledSession scheduled = timeout.getPayload();
+        if (scheduled.timeline.advance()) {
+            // The next phase was planned to start at the previous deadline
+            startCurrentPhase(scheduled);
+        } else {
+            finish(scheduled);
+        }
+    }
+
+    private void startCurrentPhase(ScheduledSession scheduled) {
+        SessionTimeline timeline = scheduled.timeline;
+        long duration = Math.max(0, timeline.getCurrentDeadlineMillis() - clock.elapsedRealtime());
+        if (timeline.isCurrentBreak()) {
+            scheduled.stateMachine.startBreak(duration);
+        } else {
+            scheduled.session.setCurrentCycle(timeline.getCycle(timeline.getIndex()));
+            scheduled.stateMachine.startWork(duration);
+        }
+        scheduleDeadline(scheduled);
+        if (listener != null) {
+            listener.onPhaseStarted(scheduled);
+        }
+    }
+
+    private void scheduleDeadline(ScheduledSession scheduled) {
+        long deadline = scheduled.timeline.getCurrentDeadlineMillis();
+        if (scheduled.timeout == null) {
+            scheduled.timeout = wheel.schedule(scheduled, deadline);
+        } else {
+            wheel.reschedule(scheduled.timeout, deadline);
+        }
+    }
+
+    private void finish(ScheduledSession scheduled) {
+        scheduled.stateMachine.getCountdown().cancel();
+        scheduled.stateMachine.transitionTo(SessionState.COMPLETED);
+        if (listener != null) {
+            listener.onSessionFinished(scheduled);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.project;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
 /**
  * Enum representing the different states of a study session
+ * Allowed transitions are listed in an explicit table (see canTransitionTo)
  */
 public enum SessionState {
     IDLE,           // No active session
@@ -12,6 +17,26 @@ public enum SessionState {
     PAUSED,         // Session is paused
     COMPLETED;      // Session is completed
 
+    // Transition table: state -> states it may move to (staying in the same state is always allowed)
+    private static final Map<SessionState, EnumSet<SessionState>> TRANSITIONS = new EnumMap<>(SessionState.class);
+
+    static {
+        TRANSITIONS.put(IDLE, EnumSet.of(SELECTING, READY, ACTIVE_WORK));
+        TRANSITIONS.put(SELECTING, EnumSet.of(IDLE, READY, ACTIVE_WORK));
+        TRANSITIONS.put(READY, EnumSet.of(IDLE, ACTIVE_WORK));
+        TRANSITIONS.put(ACTIVE_WORK, EnumSet.of(IDLE, ACTIVE_BREAK, PAUSED, COMPLETED));
+        TRANSITIONS.put(ACTIVE_BREAK, EnumSet.of(IDLE, ACTIVE_WORK, PAUSED, COMPLETED));
+        TRANSITIONS.put(PAUSED, EnumSet.of(IDLE, ACTIVE_WORK, ACTIVE_BREAK, COMPLETED));
+        TRANSITIONS.put(COMPLETED, EnumSet.of(IDLE, ACTIVE_WORK, ACTIVE_BREAK));
+    }
+
+    /**
+     * Checks if a session in this state may move to the given state
+     */
+    public boolean canTransitionTo(SessionState target) {
+        return target == this || TRANSITIONS.get(this).contains(target);
+    }
+
     /**
      * Checks if the session is currently active (work or break)
      */
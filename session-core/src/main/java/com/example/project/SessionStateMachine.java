@@ -0,0 +1,195 @@
+package com.example.project;
+
+/**
+ * Headless session engine: current state, the state before pausing and the phase countdown
+ * Transitions are checked against the SessionState table, time comes from the injected Clock
+ * Has no Android dependencies, so it can be driven from unit tests and benchmarks
+ */
+public class SessionStateMachine {
+
+    /**
+     * Interface for receiving state changes
+     */
+    public interface Listener {
+        void onStateChanged(SessionState from, SessionState to);
+    }
+
+    private final Clock clock;
+    private final PhaseCountdown countdown;
+    private Listener listener;
+
+    private SessionState state = SessionState.IDLE;
+
+    // State before pausing (ACTIVE_WORK or ACTIVE_BREAK), null when not paused
+    private SessionState stateBeforePause = null;
+
+    // Session driven by this machine (null when idle)
+    private StudySession session = null;
+
+    public SessionStateMachine(Clock clock) {
+        this.clock = clock;
+        this.countdown = new PhaseCountdown(clock);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Moves to a new state if the transition table allows it
+     * @param target The new state
+     * @return true if the state changed (or was already the target), false if rejected
+     */
+    public boolean transitionTo(SessionState target) {
+        if (!state.canTransitionTo(target)) {
+            return false;
+        }
+        SessionState from = state;
+
+        // Remember which phase was paused, forget it once the session moves on
+        if (target == SessionState.PAUSED) {
+            if (from != SessionState.PAUSED) {
+                stateBeforePause = from;
+            }
+        } else {
+            stateBeforePause = null;
+        }
+
+        state = target;
+        if (session != null) {
+            session.setState(target);
+            session.setPaused(target == SessionState.PAUSED);
+        }
+        if (listener != null && from != target) {
+            listener.onStateChanged(from, target);
+        }
+        return true;
+    }
+
+    /**
+     * Puts the machine back into a state recovered from the session journal
+     * Bypasses the transition table (the journal already recorded a valid path) and does
+     * not notify the listener - the caller restores the countdown separately
+     * @param state Recovered state
+     * @param stateBeforePause Phase that was paused (only used when state is PAUSED)
+     */
+    public void restore(SessionState state, SessionState stateBeforePause) {
+        this.state = state;
+        this.stateBeforePause = state == SessionState.PAUSED ? stateBeforePause : null;
+        if (session != null) {
+            session.setState(state);
+            session.setPaused(state == SessionState.PAUSED);
+        }
+    }
+
+    /**
+     * Starts a work phase (ACTIVE_WORK)
+     * @return false if the current state cannot start work
+     */
+    public boolean startWork(long durationMillis) {
+        return startPhase(SessionState.ACTIVE_WORK, durationMillis);
+    }
+
+    /**
+     * Starts a break phase (ACTIVE_BREAK)
+     * @return false if the current state cannot start a break
+     */
+    public boolean startBreak(long durationMillis) {
+        return startPhase(SessionState.ACTIVE_BREAK, durationMillis);
+    }
+
+    /**
+     * Pauses the running phase (PAUSED)
+     * @return false if nothing is running
+     */
+    public boolean pause() {
+        if (!state.isActive() || !countdown.pause()) {
+            return false;
+        }
+        if (session != null) {
+            session.setRemainingTimeMillis(countdown.getRemainingMillis());
+        }
+        return transitionTo(SessionState.PAUSED);
+    }
+
+    /**
+     * Resumes the paused phase (back to ACTIVE_WORK or ACTIVE_BREAK)
+     * @return false if not paused
+     */
+    public boolean resume() {
+        if (state != SessionState.PAUSED || stateBeforePause == null) {
+            return false;
+        }
+        SessionState target = stateBeforePause;
+        countdown.resume();
+        return transitionTo(target);
+    }
+
+    /**
+     * Checks the phase deadline and completes the session phase once it has passed
+     * @return true if the phase just finished (the state is COMPLETED afterwards)
+     */
+    public boolean poll() {
+        if (!countdown.finishIfExpired()) {
+            return false;
+        }
+        if (session != null) {
+            session.setRemainingTimeMillis(0);
+        }
+        return transitionTo(SessionState.COMPLETED);
+    }
+
+    /**
+     * Stops the countdown and returns to IDLE (session is detached)
+     */
+    public void reset() {
+        countdown.cancel();
+        transitionTo(SessionState.IDLE);
+        session = null;
+    }
+
+    private boolean startPhase(SessionState phaseState, long durationMillis) {
+        if (!state.canTransitionTo(phaseState)) {
+            return false;
+        }
+        countdown.start(durationMillis, phaseState == SessionState.ACTIVE_BREAK);
+        if (session != null) {
+            session.setRemainingTimeMillis(durationMillis);
+            if (phaseState == SessionState.ACTIVE_WORK) {
+                // Each cycle's time spent is measured from its own start
+                session.setCycleStartTime(clock.currentTimeMillis());
+            }
+        }
+        return transitionTo(phaseState);
+    }
+
+    public SessionState getState() {
+        return state;
+    }
+
+    public SessionState getStateBeforePause() {
+        return stateBeforePause;
+    }
+
+    public StudySession getSession() {
+        return session;
+    }
+
+    /**
+     * Attaches the session whose state and remaining time are kept in sync
+     */
+    public void setSession(StudySession session) {
+        this.session = session;
+        if (session != null) {
+            session.setState(state);
+        }
+    }
+
+    public PhaseCountdown getCountdown() {
+        return countdown;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.project;
+
+/**
+ * Ordered list of the work and break phases of a session, planned up front by SessionPlanner
+ * Phase ends are stored as offsets from a single anchor, so moving to the next phase is an
+ * index bump with a precomputed deadline; pause, extend and skip rebase the remaining
+ * phases in one pass instead of re-deciding what comes next
+ * SessionScheduler runs its sessions on these deadlines. MainActivity reads only the plan (which
+ * phase is next and how long it is): its SessionTimer and SessionJournal own the running phase,
+ * so the phase survives process death without an anchor to restore
+ */
+public final class SessionTimeline {
+
+    // Phase types
+    public static final int PHASE_WORK = 0;
+    public static final int PHASE_BREAK = 1;
+    public static final int PHASE_LONG_BREAK = 2;
+
+    private final int[] phaseTypes;
+    private final int[] cycles;
+    private final long[] durations;
+    private final long[] endOffsets; // End of each phase relative to the anchor
+
+    // Time base of the offsets (Clock.elapsedRealtime() when the timeline was started)
+    private long anchorMillis = 0;
+
+    // Current phase (-1 = not started)
+    private int index = -1;
+
+    // Time the timeline was paused at (-1 = not paused)
+    private long pausedAtMillis = -1;
+
+    SessionTimeline(int[] phaseTypes, int[] cycles, long[] durations) {
+        this.phaseTypes = phaseTypes;
+        this.cycles = cycles;
+        this.durations = durations;
+        this.endOffsets = new long[durations.length];
+        long offset = 0;
+        for (int i = 0; i < durations.length; i++) {
+            offset += durations[i];
+            endOffsets[i] = offset;
+        }
+    }
+
+    /**
+     * Starts the first phase at the given time
+     * @param nowMillis Current time (Clock.elapsedRealtime())
+     */
+    public void start(long nowMillis) {
+        anchorMillis = nowMillis;
+        index = 0;
+        pausedAtMillis = -1;
+    }
+
+    /**
+     * Moves to the next phase
+     * @return false if the current phase was the last one
+     */
+    public boolean advance() {
+        if (index + 1 >= phaseTypes.length) {
+            return false;
+        }
+        index++;
+        return true;
+    }
+
+    /**
+     * Shifts the current and all later phases so the current phase starts at the given time
+     * Used when the next phase starts later than planned (e.g. after the completion dialog)
+     */
+    public void rebaseCurrentStart(long nowMillis) {
+        if (index < 0) {
+            return;
+        }
+        shiftRemaining(index, nowMillis - getStartMillis(index));
+    }
+
+    /**
+     * Freezes the timeline until resume()
+     */
+    public void pause(long nowMillis) {
+        if (index >= 0 && pausedAtMillis < 0) {
+            pausedAtMillis = nowMillis;
+        }
+    }
+
+    /**
+     * Resumes the timeline - the current and later phases move by the paused time
+     */
+    public void resume(long nowMillis) {
+        if (pausedAtMillis < 0) {
+            return;
+        }
+        shiftRemaining(index, nowMillis - pausedAtMillis);
+        pausedAtMillis = -1;
+    }
+
+    /**
+     * Makes the current phase longer (Extend Break); later phases move by the same amount
+     */
+    public void extendCurrent(long additionalMillis) {
+        if (index < 0) {
+            return;
+        }
+        durations[index] += additionalMillis;
+        shiftRemaining(index, additionalMillis);
+    }
+
+    /**
+     * Ends the current phase now (Skip Break) and moves to the next one, which starts now
+     * @return false if the skipped phase was the last one
+     */
+    public boolean skipCurrent(long nowMillis) {
+        if (index < 0) {
+            return false;
+        }
+        long delta = Math.min(0, nowMillis - getDeadlineMillis(index));
+        durations[index] = Math.max(0, durations[index] + delta);
+        shiftRemaining(index, delta);
+        pausedAtMillis = -1;
+        return advance();
+    }
+
+    private void shiftRemaining(int from, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        for (int i = from; i < endOffsets.length; i++) {
+            endOffsets[i] += delta;
+        }
+    }
+
+    public int size() {
+        return phaseTypes.length;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getPhaseType(int i) {
+        return phaseTypes[i];
+    }
+
+    public int getCycle(int i) {
+        return cycles[i];
+    }
+
+    public long getDurationMillis(int i) {
+        return durations[i];
+    }
+
+    /**
+     * Gets the planned start of a phase (Clock.elapsedRealtime() time base)
+     */
+    public long getStartMillis(int i) {
+        return anchorMillis + endOffsets[i] - durations[i];
+    }
+
+    /**
+     * Gets the planned end of a phase (Clock.elapsedRealtime() time base)
+     */
+    public long getDeadlineMillis(int i) {
+        return anchorMillis + endOffsets[i];
+    }
+
+    /**
+     * Gets the planned end of the whole timeline
+     */
+    public long getEndMillis() {
+        return endOffsets.length == 0 ? anchorMillis : getDeadlineMillis(endOffsets.length - 1);
+    }
+
+    public int getCurrentPhaseType() {
+        return index >= 0 ? phaseTypes[index] : PHASE_WORK;
+    }
+
+    public long getCurrentDurationMillis() {
+        return index >= 0 ? durations[index] : 0;
+    }
+
+    public long getCurrentDeadlineMillis() {
+        return index >= 0 ? getDeadlineMillis(index) : 0;
+    }
+
+    public boolean isCurrentBreak() {
+        return index >= 0 && phaseTypes[index] != PHASE_WORK;
+    }
+
+    public boolean isCurrentLongBreak() {
+        return index >= 0 && phaseTypes[index] == PHASE_LONG_BREAK;
+    }
+
+    /**
+     * Checks if the phase after the current one is a break
+     */
+    public boolean isNextBreak() {
+        return index + 1 < phaseTypes.length && phaseTypes[index + 1] != PHASE_WORK;
+    }
+
+    public boolean isPaused() {
+        return pausedAtMillis >= 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.project;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense string dictionary: every distinct string gets the next int id
+ * Lets the history store keep int ids per row instead of repeating String references
+ */
+public class StringDictionary {
+
+    private String[] values = new String[64];
+    private final Map<String, Integer> ids = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * Gets the id of a string, or -1 if it is not in the dictionary
+     */
+    public int find(String value) {
+        Integer id = ids.get(value != null ? value : "");
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Adds a string that is not in the dictionary yet (check with find() first)
+     * A repeated string still gets a new id so ids stay aligned with a loaded pool,
+     * but find() keeps returning the first one
+     * @return The new id (equal to the previous size())
+     */
+    public int add(String value) {
+        if (value == null) {
+            value = "";
+        }
+        if (size == values.length) {
+            String[] grown = new String[values.length * 2];
+            System.arraycopy(values, 0, grown, 0, size);
+            values = grown;
+        }
+        values[size] = value;
+        ids.putIfAbsent(value, size);
+        return size++;
+    }
+
+    /**
+     * Gets the string with the given id
+     */
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            return ""; // Safety check
+        }
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the strings added so far (index = id) - safe to hand to another thread
+     */
+    public String[] copyValues() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -2,15 +2,16 @@ package com.example.project;
 
 /**
  * Transient data structure to hold study session information
- * No persistence - all data is in-memory only
+ * Held in memory - the active session is rebuilt from SessionJournal after process death
  */
 public class StudySession {
     // Session information
+    private long sessionId; // Stable id (a new one per Pomodoro round), 0 until assigned
     private String technique;
     private String subject;
     private String task;
-    private int workDuration; // in minutes
-    private int breakDuration; // in minutes
+    private long workDurationMillis; // in milliseconds
+    private long breakDurationMillis; // in milliseconds
     
     // Session state
     private SessionState state;
@@ -23,22 +24,35 @@ public class StudySession {
     private long elapsedTime; // milliseconds elapsed
     private long remainingTimeMillis; // for pause/resume
 
-    public StudySession(String technique, String subject, String task, int workDuration, int breakDuration) {
+    public StudySession(String technique, String subject, String task, long workDurationMillis,
+                        long breakDurationMillis) {
+        this(technique, subject, task, workDurationMillis, breakDurationMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a session that started at the given wall-clock time (e.g. from an injected Clock)
+     */
+    public StudySession(String technique, String subject, String task, long workDurationMillis,
+                        long breakDurationMillis, long startTimeMillis) {
         this.technique = technique;
         this.subject = subject;
         this.task = task;
-        this.workDuration = workDuration;
-        this.breakDuration = breakDuration;
+        this.workDurationMillis = workDurationMillis;
+        this.breakDurationMillis = breakDurationMillis;
         this.state = SessionState.READY;
-        this.startTime = System.currentTimeMillis();
-        this.cycleStartTime = System.currentTimeMillis(); // Initialize cycle start time to session start
+        this.startTime = startTimeMillis;
+        this.cycleStartTime = startTimeMillis; // Initialize cycle start time to session start
         this.elapsedTime = 0;
         this.isPaused = false;
         this.currentCycle = 1;
-        this.remainingTimeMillis = workDuration * 60 * 1000; // convert minutes to milliseconds
+        this.remainingTimeMillis = workDurationMillis;
     }
 
     // Getters
+    public long getSessionId() {
+        return sessionId;
+    }
+
     public String getTechnique() {
         return technique;
     }
@@ -51,14 +65,6 @@ public class StudySession {
         return task;
     }
 
-    public int getWorkDuration() {
-        return workDuration;
-    }
-
-    public int getBreakDuration() {
-        return breakDuration;
-    }
-
     public SessionState getState() {
         return state;
     }
@@ -88,6 +94,10 @@ public class StudySession {
     }
 
     // Setters
+    public void setSessionId(long sessionId) {
+        this.sessionId = sessionId;
+    }
+
     public void setSubject(String subject) {
         this.subject = subject;
     }
@@ -182,14 +192,14 @@ public class StudySession {
      * Gets the total duration in milliseconds for work session
      */
     public long getWorkDurationMillis() {
-        return workDuration * 60 * 1000;
+        return workDurationMillis;
     }
 
     /**
      * Gets the total duration in milliseconds for break session
      */
     public long getBreakDurationMillis() {
-        return breakDuration * 60 * 1000;
+        return breakDurationMillis;
     }
 
     /**
@@ -205,93 +215,4 @@ public class StudySession {
     public void resetCycle() {
         this.currentCycle = 1;
     }
-
-    /**
-     * Gets the break duration based on technique
-     * In TEST_MODE: Returns duration in seconds
-     * In PRODUCTION: Returns duration in minutes
-     * Note: For Pomodoro long break (cycle 4), use getLongBreakDurationForTechnique()
-     */
-    public static int getBreakDurationForTechnique(String technique) {
-        // Check if we're in test mode (we'll pass a flag or check MainActivity's TEST_MODE)
-        // For now, we'll add a parameter or check MainActivity's static field
-        // Actually, let's check MainActivity's TEST_MODE via reflection or add a parameter
-        // Simpler: Add a static method in MainActivity to check test mode, or pass it as parameter
-        // For now, let's use a simpler approach - check if MainActivity.TEST_MODE exists
-        boolean testMode = false;
-        try {
-            java.lang.reflect.Field field = Class.forName("com.example.project.MainActivity")
-                .getDeclaredField("TEST_MODE");
-            field.setAccessible(true);
-            testMode = field.getBoolean(null);
-        } catch (Exception e) {
-            // Default to production mode if can't access
-        }
-        
-        if (testMode) {
-            // TEST MODE: Return durations in seconds
-            switch (technique) {
-                case "Pomodoro":
-                    return 30; // 30 seconds (for cycles 1, 2, 3)
-                case "52/17":
-                    return 30; // 30 seconds
-                case "90-Minute":
-                    return 30; // 30 seconds
-                case "Sprint":
-                    return 30; // 30 seconds
-                case "Deadline":
-                case "Custom Goal":
-                default:
-                    return 0; // No break for deadline/custom
-            }
-        } else {
-            // PRODUCTION MODE: Return durations in minutes
-            switch (technique) {
-                case "Pomodoro":
-                    return 5; // 5 minutes break
-                case "52/17":
-                    return 17; // 17 minutes break
-                case "90-Minute":
-                    return 25; // 25 minutes break
-                case "Sprint":
-                    return 2; // 1.5 minutes, rounded up to 2 minutes (using integer minutes)
-                case "Deadline":
-                case "Custom Goal":
-                default:
-                    return 0; // No break for deadline/custom
-            }
-        }
-    }
-    
-    /**
-     * Gets the long break duration for Pomodoro (cycle 4)
-     * In TEST_MODE: Returns duration in seconds
-     * In PRODUCTION: Returns duration in minutes
-     */
-    public static int getLongBreakDurationForTechnique(String technique) {
-        boolean testMode = false;
-        try {
-            java.lang.reflect.Field field = Class.forName("com.example.project.MainActivity")
-                .getDeclaredField("TEST_MODE");
-            field.setAccessible(true);
-            testMode = field.getBoolean(null);
-        } catch (Exception e) {
-            // Default to production mode if can't access
-        }
-        
-        if (testMode) {
-            // TEST MODE: Return duration in seconds
-            if ("Pomodoro".equals(technique)) {
-                return 120; // 2 min = 120 seconds (for cycle 4)
-            }
-        } else {
-            // PRODUCTION MODE: Return duration in minutes
-            if ("Pomodoro".equals(technique)) {
-                return 25; // 25 minutes (for cycle 4)
-            }
-        }
-        // For other techniques, return regular break duration
-        return getBreakDurationForTechnique(technique);
-    }
 }
-
@@ -0,0 +1,147 @@
+package com.example.project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of technique schedules, resolved once at startup
+ * Specs are stored by compact id (array index) with a name index on top, so lookups are
+ * O(1) and user-defined techniques are added with register() instead of new switch arms
+ */
+public class TechniqueRegistry {
+
+    // Built-in technique ids (registration order of createDefault)
+    public static final int ID_POMODORO = 0;
+    public static final int ID_5217 = 1;
+    public static final int ID_90MINUTE = 2;
+    public static final int ID_SPRINT = 3;
+    public static final int ID_DEADLINE = 4;
+    public static final int ID_CUSTOM = 5;
+
+    private static final long SECOND_MILLIS = 1000L;
+    private static final long MINUTE_MILLIS = 60 * SECOND_MILLIS;
+
+    // Descriptions shown in the technique info dialog
+    private static final String DESC_POMODORO =
+        "Work for 25 minutes, then take a 5-minute break. Repeat for 4 cycles, then take a longer 25-minute break. This technique helps maintain focus and prevents burnout.";
+    private static final String DESC_5217 =
+        "Work intensively for 52 minutes, then take a 17-minute break. This technique is ideal for deep work sessions that require sustained concentration.";
+    private static final String DESC_90MINUTE =
+        "Work for 90 minutes (one full sleep cycle), then take a 25-minute break. This technique aligns with your natural ultradian rhythm for optimal productivity.";
+    private static final String DESC_SPRINT =
+        "Work for 12 minutes, then take a 1.5-minute break. Perfect for quick tasks and maintaining high energy throughout your work session.";
+    private static final String DESC_DEADLINE =
+        "Set a custom work duration with no scheduled breaks. Ideal for time-sensitive tasks or when you need to power through without interruptions.";
+
+    private final List<TechniqueSpec> specsById = new ArrayList<>();
+    private final Map<String, TechniqueSpec> specsByName = new HashMap<>();
+
+    // Length of one duration unit typed in the create form (1 second in test mode, 1 minute otherwise)
+    private final long unitMillis;
+
+    // Time added by Extend Break
+    private final long breakExtensionMillis;
+
+    public TechniqueRegistry(long unitMillis, long breakExtensionMillis) {
+        this.unitMillis = unitMillis;
+        this.breakExtensionMillis = breakExtensionMillis;
+    }
+
+    /**
+     * Creates the registry with the built-in techniques
+     * @param testMode True for shortened durations (seconds instead of minutes)
+     */
+    public static TechniqueRegistry createDefault(boolean testMode) {
+        TechniqueRegistry registry = testMode
+            ? new TechniqueRegistry(SECOND_MILLIS, 30 * SECOND_MILLIS)
+            : new TechniqueRegistry(MINUTE_MILLIS, 5 * MINUTE_MILLIS);
+        if (testMode) {
+            registry.register("Pomodoro", 85 * SECOND_MILLIS, 30 * SECOND_MILLIS, 120 * SECOND_MILLIS, 4, DESC_POMODORO);
+            registry.register("52/17", 120 * SECOND_MILLIS, 30 * SECOND_MILLIS, 30 * SECOND_MILLIS, 0, DESC_5217);
+            registry.register("90-Minute", 145 * SECOND_MILLIS, 30 * SECOND_MILLIS, 30 * SECOND_MILLIS, 0, DESC_90MINUTE);
+            registry.register("Sprint", 60 * SECOND_MILLIS, 30 * SECOND_MILLIS, 30 * SECOND_MILLIS, 4, DESC_SPRINT);
+        } else {
+            registry.register("Pomodoro", 25 * MINUTE_MILLIS, 5 * MINUTE_MILLIS, 25 * MINUTE_MILLIS, 4, DESC_POMODORO);
+            registry.register("52/17", 52 * MINUTE_MILLIS, 17 * MINUTE_MILLIS, 17 * MINUTE_MILLIS, 0, DESC_5217);
+            registry.register("90-Minute", 90 * MINUTE_MILLIS, 25 * MINUTE_MILLIS, 25 * MINUTE_MILLIS, 0, DESC_90MINUTE);
+            // Described as a 1.5 minute break, rounded up to 2 minutes for the timer
+            registry.register("Sprint", 12 * MINUTE_MILLIS, 2 * MINUTE_MILLIS, 2 * MINUTE_MILLIS, 4, DESC_SPRINT);
+        }
+        registry.register("Deadline", 0, 0, 0, 0, DESC_DEADLINE);
+        registry.register("Custom Goal", 0, 0, 0, 0, "");
+        return registry;
+    }
+
+    /**
+     * Registers a technique and assigns it the next id
+     * @param name Display name (must be unique)
+     * @param workMillis Work length (0 = entered by the user)
+     * @param breakMillis Break length (0 = no break)
+     * @param longBreakMillis Break length after the last cycle of a round
+     * @param longBreakInterval Cycles per round (0 = no rounds)
+     * @param description Text shown in the technique info dialog
+     * @return The registered spec
+     */
+    public TechniqueSpec register(String name, long workMillis, long breakMillis, long longBreakMillis,
+                                  int longBreakInterval, String description) {
+        if (name == null || specsByName.containsKey(name)) {
+            throw new IllegalArgumentException("Technique already registered: " + name);
+        }
+        TechniqueSpec spec = new TechniqueSpec(specsById.size(), name, workMillis, breakMillis,
+            longBreakMillis, longBreakInterval, description);
+        specsById.add(spec);
+        specsByName.put(name, spec);
+        return spec;
+    }
+
+    /**
+     * Gets a technique by id (null if unknown)
+     */
+    public TechniqueSpec get(int id) {
+        return id >= 0 && id < specsById.size() ? specsById.get(id) : null;
+    }
+
+    /**
+     * Gets a technique by name (null if unknown)
+     */
+    public TechniqueSpec get(String name) {
+        return name != null ? specsByName.get(name) : null;
+    }
+
+    /**
+     * Gets a technique by name, falling back to Custom Goal for unknown names
+     */
+    public TechniqueSpec getOrCustom(String name) {
+        TechniqueSpec spec = get(name);
+        return spec != null ? spec : specsById.get(ID_CUSTOM);
+    }
+
+    public List<TechniqueSpec> getAll() {
+        return Collections.unmodifiableList(specsById);
+    }
+
+    public long getUnitMillis() {
+        return unitMillis;
+    }
+
+    public long getBreakExtensionMillis() {
+        return breakExtensionMillis;
+    }
+
+    /**
+     * Converts a duration to form units (seconds in test mode, minutes otherwise), rounded up
+     */
+    public int toUnits(long millis) {
+        return (int) ((millis + unitMillis - 1) / unitMillis);
+    }
+
+    /**
+     * Converts form units back to milliseconds
+     */
+    public long toMillis(int units) {
+        return units * unitMillis;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.project;
+
+/**
+ * Immutable schedule of a study technique (work, break and long-break lengths)
+ * Created once by TechniqueRegistry and looked up by its compact id or name
+ */
+public final class TechniqueSpec {
+
+    private final int id;
+    private final String name;
+    private final long workMillis; // 0 = duration entered by the user
+    private final long breakMillis; // 0 = no break
+    private final long longBreakMillis; // Break after every longBreakInterval-th cycle
+    private final int longBreakInterval; // Cycles per round (0 = single cycle, no rounds)
+    private final String description;
+
+    TechniqueSpec(int id, String name, long workMillis, long breakMillis, long longBreakMillis,
+                  int longBreakInterval, String description) {
+        this.id = id;
+        this.name = name;
+        this.workMillis = workMillis;
+        this.breakMillis = breakMillis;
+        this.longBreakMillis = longBreakMillis;
+        this.longBreakInterval = longBreakInterval;
+        this.description = description;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getWorkMillis() {
+        return workMillis;
+    }
+
+    public long getBreakMillis() {
+        return breakMillis;
+    }
+
+    public long getLongBreakMillis() {
+        return longBreakMillis;
+    }
+
+    public int getLongBreakInterval() {
+        return longBreakInterval;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Checks if the work duration is fixed by the technique (false = user enters it)
+     */
+    public boolean hasFixedWorkDuration() {
+        return workMillis > 0;
+    }
+
+    /**
+     * Checks if the technique has a break after each work phase
+     */
+    public boolean hasBreak() {
+        return breakMillis > 0;
+    }
+
+    /**
+     * Checks if the technique has a longer break at the end of each round
+     */
+    public boolean hasLongBreak() {
+        return longBreakInterval > 0 && longBreakMillis > breakMillis;
+    }
+
+    /**
+     * Checks if the given cycle is the last one of a round
+     * @param cycle Cycle number (1-based)
+     */
+    public boolean isLastCycleOfRound(int cycle) {
+        return longBreakInterval > 0 && cycle % longBreakInterval == 0;
+    }
+
+    /**
+     * Gets the break length that follows the given cycle
+     * @param cycle Cycle number (1-based)
+     */
+    public long getBreakMillisAfterCycle(int cycle) {
+        return hasLongBreak() && isLastCycleOfRound(cycle) ? longBreakMillis : breakMillis;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.project;
+
+/**
+ * Clock that only moves when told to
+ * Lets tests, benchmarks and simulations run full-length sessions (real durations in
+ * milliseconds) without waiting; wall-clock time moves together with elapsed time
+ */
+public class VirtualClock implements Clock {
+
+    // Wall-clock time at elapsedRealtime() == 0
+    private final long wallTimeOffsetMillis;
+
+    private long elapsedMillis = 0;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    /**
+     * @param wallTimeStartMillis Value of currentTimeMillis() before the clock is advanced
+     */
+    public VirtualClock(long wallTimeStartMillis) {
+        this.wallTimeOffsetMillis = wallTimeStartMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return wallTimeOffsetMillis + elapsedMillis;
+    }
+
+    @Override
+    public long elapsedRealtime() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Moves time forward
+     */
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time cannot move backwards");
+        }
+        elapsedMillis += millis;
+    }
+
+    /**
+     * Moves time forward to the given elapsedRealtime() value (no-op if already past it)
+     */
+    public void advanceTo(long elapsedRealtimeMillis) {
+        if (elapsedRealtimeMillis > elapsedMillis) {
+            elapsedMillis = elapsedRealtimeMillis;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.project;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the columnar history store and its string dictionary
+ */
+public class ColumnarHistoryStoreTest {
+
+    private StringDictionary dictionary;
+    private ColumnarHistoryStore store;
+
+    @Before
+    public void setUp() {
+        dictionary = new StringDictionary();
+        store = new ColumnarHistoryStore(dictionary);
+    }
+
+    @Test
+    public void dictionary_assignsDenseIds() {
+        assertEquals(0, dictionary.add("Pomodoro Technique"));
+        assertEquals(1, dictionary.add("Math"));
+        assertEquals(1, dictionary.find("Math"));
+        assertEquals(-1, dictionary.find("Physics"));
+        assertEquals("Math", dictionary.get(1));
+        assertEquals("", dictionary.get(7));
+    }
+
+    @Test
+    public void add_acrossChunkBoundaries_keepsEveryRow() {
+        int technique = dictionary.add("Pomodoro Technique");
+        int subject = dictionary.add("Math");
+        int rows = ColumnarHistoryStore.CHUNK_SIZE * 5 + 3;
+        for (int i = 0; i < rows; i++) {
+            assertEquals(i, store.add(i + 1, i * 1_000L, i, 25 * 60_000L, i % 4 + 1, technique, subject, subject));
+        }
+
+        assertEquals(rows, store.size());
+        int last = rows - 1;
+        assertEquals(last * 1_000L, store.getCompletionTimestamp(last));
+        assertEquals(ColumnarHistoryStore.CHUNK_SIZE, store.getTimeSpentMillis(ColumnarHistoryStore.CHUNK_SIZE));
+        assertEquals(last % 4 + 1, store.getCycle(last));
+        assertEquals(rows, store.getSessionId(last));
+
+        CompletedSession session = store.materialize(ColumnarHistoryStore.CHUNK_SIZE - 1);
+        assertEquals("Math", session.getSubject());
+        assertEquals("Pomodoro Technique", session.getTechnique());
+        assertEquals((ColumnarHistoryStore.CHUNK_SIZE - 1) * 1_000L, session.getCompletionTimestamp());
+    }
+
+    @Test
+    public void largeHistory_fitsInAFewMegabytes() {
+        int technique = dictionary.add("Pomodoro Technique");
+        for (int i = 0; i < 100_000; i++) {
+            store.add(i, i, i, i, 1, technique, technique, technique);
+        }
+        // 48 bytes per row, rounded up to whole chunks
+        assertTrue(store.estimateColumnBytes() <= 100_352L * 48);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.project;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the hashed timing wheel
+ */
+public class HashedTimerWheelTest {
+
+    @Test
+    public void expiresAtDeadline_acrossRotations() {
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(0, 100, 8); // 800 ms per rotation
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("soon", 250);
+        wheel.schedule("later", 2_050); // Same bucket as "soon" after two rotations
+
+        assertEquals(0, wheel.advance(200, t -> expired.add(t.getPayload())));
+        assertEquals(1, wheel.advance(300, t -> expired.add(t.getPayload())));
+        assertEquals(0, wheel.advance(2_000, t -> expired.add(t.getPayload())));
+        assertEquals(1, wheel.advance(2_100, t -> expired.add(t.getPayload())));
+        assertEquals(2, expired.size());
+        assertEquals("later", expired.get(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelAndReschedule_areConstantTime() {
+        HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>(0, 10, 16);
+        HashedTimerWheel.Timeout<Integer> a = wheel.schedule(1, 50);
+        HashedTimerWheel.Timeout<Integer> b = wheel.schedule(2, 50);
+        wheel.cancel(a);
+        assertFalse(a.isScheduled());
+        wheel.reschedule(b, 500);
+        assertEquals(1, wheel.size());
+
+        List<Integer> expired = new ArrayList<>();
+        wheel.advance(100, t -> expired.add(t.getPayload()));
+        assertTrue(expired.isEmpty());
+        wheel.advance(500, t -> expired.add(t.getPayload()));
+        assertEquals(1, expired.size());
+        assertEquals(Integer.valueOf(2), expired.get(0));
+    }
+
+    @Test
+    public void timeoutScheduledFromHandler_waitsFullRotation() {
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(0, 100, 4); // 400 ms per rotation
+        List<Long> firedAt = new ArrayList<>();
+        wheel.schedule("first", 100);
+        wheel.advance(100, t -> {
+            firedAt.add(100L);
+            wheel.schedule("second", 500); // Lands in the bucket being processed
+        });
+        wheel.advance(400, t -> firedAt.add(400L));
+        assertEquals(1, firedAt.size());
+        wheel.advance(500, t -> firedAt.add(500L));
+        assertEquals(Long.valueOf(500), firedAt.get(1));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the push-based history change feed
+ */
+public class HistoryChangeFeedTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private File directory;
+    private SessionHistory history;
+    // Deliveries wait here until the test runs them (like posts to a busy main thread)
+    private final ArrayDeque<Runnable> posted = new ArrayDeque<>();
+    private final List<HistoryChange> received = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+        history = SessionHistory.open(directory, TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        history.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private HistoryChangeFeed.Subscription subscribe() {
+        return history.getChanges().subscribe(posted::add, received::add);
+    }
+
+    private void runPosted() {
+        while (!posted.isEmpty()) {
+            posted.poll().run();
+        }
+    }
+
+    private static CompletedSession session(long id, int cycle, long completion) {
+        return new CompletedSession(id, "Pomodoro Technique", "Math", "Chapter " + id, 25 * MINUTE, completion,
+            25 * MINUTE, cycle);
+    }
+
+    @Test
+    public void add_publishesInsertedRow() throws IOException {
+        subscribe();
+        history.add(session(1L, 1, 1_000L));
+        assertEquals(1, posted.size());
+        runPosted();
+
+        assertEquals(1, received.size());
+        assertEquals(HistoryChange.Type.INSERTED, received.get(0).getType());
+        assertEquals(0, received.get(0).getFromRow());
+        assertEquals(1, received.get(0).getRowCount());
+
+        // Duplicates change nothing
+        history.add(session(1L, 1, 1_000L));
+        assertTrue(posted.isEmpty());
+    }
+
+    @Test
+    public void slowSubscriber_getsOneConflatedChange() throws IOException {
+        subscribe();
+        history.add(session(1L, 1, 1_000L));
+        history.add(session(1L, 2, 2_000L));
+        history.addAll(Arrays.asList(session(2L, 1, 3_000L), session(3L, 1, 4_000L)));
+        assertEquals(1, posted.size()); // Later changes were merged into the pending delivery
+        runPosted();
+
+        assertEquals(1, received.size());
+        assertEquals("INSERTED [0, 4)", received.get(0).toString());
+    }
+
+    @Test
+    public void compaction_publishesReset() throws IOException {
+        for (int day = 0; day < 10; day++) {
+            history.add(session(day + 1, 1, day * DAY));
+        }
+        subscribe();
+        history.add(session(20L, 1, 10 * DAY));
+        HistoryCompaction compaction = history.prepareCompaction(5 * DAY);
+        compaction.run();
+        history.finishCompaction(compaction);
+        runPosted();
+
+        assertEquals(1, received.size());
+        assertEquals(HistoryChange.Type.RESET, received.get(0).getType());
+        assertEquals(6, received.get(0).getToRow());
+    }
+
+    @Test
+    public void cancel_stopsDeliveries() throws IOException {
+        HistoryChangeFeed.Subscription subscription = subscribe();
+        history.add(session(1L, 1, 1_000L));
+        subscription.cancel();
+        runPosted(); // Pending change is dropped
+        history.add(session(2L, 1, 2_000L));
+
+        assertTrue(received.isEmpty());
+        assertTrue(posted.isEmpty());
+        assertEquals(0, history.getChanges().getSubscriberCount());
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for folding old history entries into daily summaries
+ */
+public class HistoryCompactionTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 24 * 60 * MINUTE;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private File directory;
+    private SessionHistory history;
+    private File otherDirectory;
+    private SessionHistory other;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+        history = SessionHistory.open(directory, UTC);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        history.close();
+        delete(directory);
+        if (other != null) {
+            other.close();
+            delete(otherDirectory);
+        }
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Opens a second, empty history (another install)
+     */
+    private SessionHistory openOther() throws IOException {
+        otherDirectory = Files.createTempDirectory("history").toFile();
+        other = SessionHistory.open(otherDirectory, UTC);
+        return other;
+    }
+
+    private static String export(SessionHistory source, HistoryExporter.Format format) throws IOException {
+        StringWriter out = new StringWriter();
+        HistoryExporter.write(source.getStore().snapshot(), null, source.copyDailyTotals(), format, out, null);
+        return out.toString();
+    }
+
+    /**
+     * Imports like the app does: entries with addAll(), then the daily totals
+     * @return Number of daily totals added
+     */
+    private static int importInto(SessionHistory target, String text) throws IOException {
+        int[] added = new int[1];
+        HistoryImporter.read(new StringReader(text), new HistoryImporter.BatchSink() {
+            @Override
+            public void accept(List<CompletedSession> batch) throws IOException {
+                target.addAll(batch);
+            }
+
+            @Override
+            public void acceptTotals(List<HistoryDailyTotal> totals) throws IOException {
+                added[0] += target.addDailyTotals(totals);
+            }
+        }, null);
+        return added[0];
+    }
+
+    /**
+     * Two Pomodoro cycles of Math and one Sprint of Physics on each of 30 days
+     */
+    private void addThirtyDays() throws IOException {
+        long sessionId = 1;
+        for (int day = 0; day < 30; day++) {
+            long morning = day * DAY + 8 * 60 * MINUTE;
+            history.add(new CompletedSession(sessionId, "Pomodoro Technique", "Math", "Chapter " + day,
+                25 * MINUTE, morning, 25 * MINUTE, 1));
+            history.add(new CompletedSession(sessionId++, "Pomodoro Technique", "Math", "Chapter " + day,
+                20 * MINUTE, morning + 30 * MINUTE, 25 * MINUTE, 2));
+            history.add(new CompletedSession(sessionId++, "Sprint", "Physics", "Problem set " + day,
+                40 * MINUTE, morning + 4 * 60 * MINUTE, 45 * MINUTE, 1));
+        }
+    }
+
+    private int compact(long cutoffMillis) throws IOException {
+        HistoryCompaction compaction = history.prepareCompaction(cutoffMillis);
+        assertNotNull(compaction);
+        compaction.run();
+        return history.finishCompaction(compaction);
+    }
+
+    private static List<Object> totals(RollupSeries.Totals totals) {
+        return Arrays.asList(totals.getFocusMillis(), totals.getPlannedMillis(), totals.getCycles(),
+            totals.getSessions());
+    }
+
+    @Test
+    public void compaction_keepsStatisticsExact() throws IOException {
+        addThirtyDays();
+        HistoryQuery all = new HistoryQuery();
+        HistoryQuery mathInWeek = new HistoryQuery().between(7 * DAY, 14 * DAY).subject("Math");
+        HistoryQuery sprints = new HistoryQuery().between(5 * DAY, 25 * DAY).technique("Sprint");
+        List<Object> allBefore = totals(history.totals(all));
+        List<Object> mathBefore = totals(history.totals(mathInWeek));
+        List<Object> sprintsBefore = totals(history.totals(sprints));
+        List<Object> daysBefore = totals(history.getRollups().getDays().sum(0, 29));
+        long logLength = new File(directory, "history.log").length();
+
+        assertEquals(60, compact(20 * DAY));
+
+        assertEquals(30, history.size());
+        assertTrue(new File(directory, "history.log").length() < logLength / 2);
+        assertEquals(20 * DAY + 8 * 60 * MINUTE, history.getNewest(history.size() - 1).getCompletionTimestamp());
+        assertEquals(allBefore, totals(history.totals(all)));
+        assertEquals(mathBefore, totals(history.totals(mathInWeek)));
+        assertEquals(sprintsBefore, totals(history.totals(sprints)));
+        assertEquals(daysBefore, totals(history.getRollups().getDays().sum(0, 29)));
+        assertEquals(Arrays.asList(85 * MINUTE, 95 * MINUTE, 3, 2), totals(history.getRollups().getDays().get(3)));
+
+        // Lists and text search only see raw rows
+        assertTrue(history.query(new HistoryQuery().between(0, 20 * DAY)).isEmpty());
+        assertEquals(0, history.totals(new HistoryQuery().text("chapter 3")).getCycles());
+    }
+
+    @Test
+    public void reopen_readsBothTiers() throws IOException {
+        addThirtyDays();
+        List<Object> allBefore = totals(history.totals(new HistoryQuery()));
+        compact(20 * DAY);
+        history.close();
+
+        history = SessionHistory.open(directory, UTC);
+        assertEquals(30, history.size());
+        assertEquals(allBefore, totals(history.totals(new HistoryQuery())));
+        assertEquals(20 * DAY, history.getCompactedBeforeMillis());
+        // Ids of folded sessions are not handed out again
+        assertEquals(61L, history.nextSessionId());
+        assertNull(history.prepareCompaction(20 * DAY)); // Nothing left to fold
+    }
+
+    @Test
+    public void entriesAddedWhileRunning_areKeptOrFolded() throws IOException {
+        addThirtyDays();
+        HistoryCompaction compaction = history.prepareCompaction(20 * DAY);
+        compaction.run();
+
+        // Added between run() and finishCompaction(): one recent, one older than the cutoff
+        history.add(new CompletedSession(100L, "Sprint", "Chemistry", "Lab", 30 * MINUTE, 31 * DAY, 30 * MINUTE, 1));
+        history.add(new CompletedSession(101L, "Sprint", "Chemistry", "Old lab", 10 * MINUTE, 2 * DAY,
+            10 * MINUTE, 1));
+        List<CompletedSession> view = history.newestFirst();
+        List<Object> allBefore = totals(history.totals(new HistoryQuery()));
+
+        assertEquals(61, history.finishCompaction(compaction));
+        assertEquals(31, history.size());
+        assertEquals("Lab", history.getNewest(0).getTask());
+        assertEquals(allBefore, totals(history.totals(new HistoryQuery())));
+        assertEquals(10 * MINUTE, history.totals(new HistoryQuery().between(2 * DAY, 3 * DAY).subject("Chemistry"))
+            .getFocusMillis());
+        // A view created before the compaction still reads its own rows
+        assertEquals(92, view.size());
+        assertEquals("Old lab", view.get(0).getTask());
+    }
+
+    @Test
+    public void closedBeforeFinish_compactionIsFinishedOnOpen() throws IOException {
+        addThirtyDays();
+        List<Object> allBefore = totals(history.totals(new HistoryQuery()));
+        HistoryCompaction compaction = history.prepareCompaction(20 * DAY);
+        compaction.run(); // Writes the compacted files - the log itself is still the old one
+        assertEquals(90, history.size());
+        history.close();
+
+        history = SessionHistory.open(directory, UTC);
+        assertEquals(30, history.size());
+        assertEquals(allBefore, totals(history.totals(new HistoryQuery())));
+        assertEquals(20 * DAY, history.getCompactedBeforeMillis());
+    }
+
+    @Test
+    public void interruptedCompaction_isFinishedOnOpen() throws IOException {
+        addThirtyDays();
+        List<Object> allBefore = totals(history.totals(new HistoryQuery()));
+        File logFile = new File(directory, "history.log");
+        byte[] uncompactedLog = Files.readAllBytes(logFile.toPath());
+        compact(20 * DAY);
+        history.close();
+
+        // As if the process died after writing the summaries but before replacing the log
+        Files.write(logFile.toPath(), uncompactedLog);
+
+        history = SessionHistory.open(directory, UTC);
+        assertEquals(30, history.size());
+        assertEquals(allBefore, totals(history.totals(new HistoryQuery())));
+        assertEquals(logFile.length(), HistoryLog.HEADER_SIZE + 30L * HistoryLog.RECORD_SIZE);
+    }
+
+    @Test
+    public void import_skipsCompactedPeriod() throws IOException {
+        addThirtyDays();
+        compact(20 * DAY);
+
+        int added = history.addAll(Arrays.asList(
+            new CompletedSession(5L, "Pomodoro Technique", "Math", "Chapter 2", 25 * MINUTE, 2 * DAY, 25 * MINUTE, 1),
+            new CompletedSession(200L, "Sprint", "Math", "Review", 25 * MINUTE, 25 * DAY, 25 * MINUTE, 1)));
+        assertEquals(1, added);
+        assertEquals(31, history.size());
+    }
+
+    @Test
+    public void import_keepsOldEntriesWithoutSummary() throws IOException {
+        addThirtyDays();
+        compact(20 * DAY);
+
+        // Older than the cutoff, but nothing of Chemistry was compacted that day
+        CompletedSession oldLab = new CompletedSession(300L, "Sprint", "Chemistry", "Titration", 30 * MINUTE,
+            2 * DAY + 60 * MINUTE, 30 * MINUTE, 1);
+        assertEquals(1, history.addAll(Arrays.asList(oldLab)));
+        assertEquals(31, history.size());
+        assertEquals(30 * MINUTE, history.totals(new HistoryQuery().subject("Chemistry")).getFocusMillis());
+
+        // The next compaction folds it like any other old entry
+        assertEquals(1, compact(20 * DAY));
+        assertEquals(30, history.size());
+        assertEquals(30 * MINUTE, history.totals(new HistoryQuery().subject("Chemistry")).getFocusMillis());
+        assertEquals(0, history.addAll(Arrays.asList(oldLab)));
+    }
+
+    @Test
+    public void export_carriesCompactedDaysAsDailyTotals() throws IOException {
+        addThirtyDays();
+        compact(20 * DAY);
+        HistoryQuery mathInWeek = new HistoryQuery().between(7 * DAY, 14 * DAY).subject("Math");
+        List<Object> allBefore = totals(history.totals(new HistoryQuery()));
+        List<Object> mathBefore = totals(history.totals(mathInWeek));
+
+        List<HistoryDailyTotal> dailyTotals = history.copyDailyTotals();
+        assertEquals(40, dailyTotals.size()); // 20 days x 2 subjects
+        assertEquals(12 * 60 * MINUTE, dailyTotals.get(0).getDayMillis());
+        String csv = export(history, HistoryExporter.Format.CSV);
+        assertTrue(csv.startsWith("session_id,completed_at,technique,subject,task,time_spent_ms,set_duration_ms,"
+            + "cycle,total_cycles,total_sessions\n"));
+
+        SessionHistory target = openOther();
+        assertEquals(40, importInto(target, csv));
+        assertEquals(30, target.size()); // Raw rows stay raw, daily totals go to the summaries
+        assertEquals(allBefore, totals(target.totals(new HistoryQuery())));
+        assertEquals(mathBefore, totals(target.totals(mathInWeek)));
+        assertEquals(Arrays.asList(85 * MINUTE, 95 * MINUTE, 3, 2), totals(target.getRollups().getDays().get(3)));
+
+        // The same data again (as JSON) is counted once
+        assertEquals(0, importInto(target, export(history, HistoryExporter.Format.JSON)));
+        assertEquals(30, target.size());
+        assertEquals(allBefore, totals(target.totals(new HistoryQuery())));
+
+        // The daily totals are stored with the summaries
+        target.close();
+        other = SessionHistory.open(otherDirectory, UTC);
+        assertEquals(allBefore, totals(other.totals(new HistoryQuery())));
+    }
+
+    @Test
+    public void dailyTotalsImportedWhileCompacting_areKept() throws IOException {
+        addThirtyDays();
+        List<HistoryDailyTotal> chemistry = new ArrayList<>();
+        chemistry.add(new HistoryDailyTotal(2 * DAY + 12 * 60 * MINUTE, "Sprint", "Chemistry", 45 * MINUTE,
+            50 * MINUTE, 2, 1));
+        HistoryCompaction compaction = history.prepareCompaction(20 * DAY);
+        compaction.run();
+
+        assertEquals(1, history.addDailyTotals(chemistry));
+        assertEquals(60, history.finishCompaction(compaction));
+        assertEquals(45 * MINUTE, history.totals(new HistoryQuery().subject("Chemistry")).getFocusMillis());
+        history.close();
+
+        history = SessionHistory.open(directory, UTC);
+        assertEquals(Arrays.asList(45 * MINUTE, 50 * MINUTE, 2, 1),
+            totals(history.totals(new HistoryQuery().subject("Chemistry"))));
+        assertEquals(20 * DAY, history.getCompactedBeforeMillis());
+    }
+
+    @Test
+    public void compactionCutoff_startsAtLocalMidnight() throws IOException {
+        history.close();
+        history = SessionHistory.open(directory, TimeZone.getTimeZone("Asia/Manila")); // UTC+8
+        long now = 40 * DAY + 20 * 60 * MINUTE; // Day 41, 04:00 local
+        assertEquals(31 * DAY - 8 * 60 * MINUTE, history.getCompactionCutoff(now, 10));
+    }
+}
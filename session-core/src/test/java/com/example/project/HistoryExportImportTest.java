@@ -0,0 +1,289 @@
+package com.example.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for streaming CSV/JSON export and import of the session history
+ */
+public class HistoryExportImportTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final List<File> directories = new ArrayList<>();
+    private final List<SessionHistory> histories = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        directories.clear();
+        histories.clear();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (SessionHistory history : histories) {
+            history.close();
+        }
+        for (File directory : directories) {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    private SessionHistory newHistory() throws IOException {
+        File directory = Files.createTempDirectory("history").toFile();
+        directories.add(directory);
+        SessionHistory history = SessionHistory.open(directory);
+        histories.add(history);
+        return history;
+    }
+
+    private static void addSample(SessionHistory history) throws IOException {
+        history.add(new CompletedSession(1L, "Pomodoro Technique", "Math", "Chapter 1", 24 * MINUTE, 1_000L,
+            25 * MINUTE, 1));
+        history.add(new CompletedSession(1L, "Pomodoro Technique", "Math", "Chapter 1", 25 * MINUTE, 2_000L,
+            25 * MINUTE, 2));
+        // Separators, quotes, line breaks and non-ASCII text must survive both formats
+        history.add(new CompletedSession(2L, "Sprint", "IT 306, \"Networks\"", "Lab 4\nsubnetting\\ tabs\t",
+            45 * MINUTE, 3_000L, 50 * MINUTE, 1));
+        history.add(new CompletedSession(3L, "Deadline", "Filipino", "Sanaysay \u2014 \u00f1 \u2713", 10 * MINUTE, 4_000L,
+            15 * MINUTE, 1));
+    }
+
+    private static String export(SessionHistory history, int[] rows, HistoryExporter.Format format)
+        throws IOException {
+        StringWriter out = new StringWriter();
+        HistoryExporter.write(history.getStore().snapshot(), rows, format, out, null);
+        return out.toString();
+    }
+
+    private static long importInto(SessionHistory history, String text) throws IOException {
+        return HistoryImporter.read(new StringReader(text), history::addAll, null);
+    }
+
+    private static void assertSameEntries(SessionHistory expected, SessionHistory actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            CompletedSession a = expected.getNewest(i);
+            CompletedSession b = actual.getNewest(i);
+            assertEquals(a.getSessionId(), b.getSessionId());
+            assertEquals(a.getTechnique(), b.getTechnique());
+            assertEquals(a.getSubject(), b.getSubject());
+            assertEquals(a.getTask(), b.getTask());
+            assertEquals(a.getTimeSpentMillis(), b.getTimeSpentMillis());
+            assertEquals(a.getCompletionTimestamp(), b.getCompletionTimestamp());
+            assertEquals(a.getSetDurationMillis(), b.getSetDurationMillis());
+            assertEquals(a.getCycle(), b.getCycle());
+        }
+    }
+
+    @Test
+    public void csv_roundTripKeepsEveryField() throws IOException {
+        SessionHistory source = newHistory();
+        addSample(source);
+        String csv = export(source, null, HistoryExporter.Format.CSV);
+        assertTrue(csv.startsWith("session_id,completed_at,technique,subject,task,"));
+        assertTrue(csv.contains("\"IT 306, \"\"Networks\"\"\""));
+
+        SessionHistory target = newHistory();
+        assertEquals(4, importInto(target, csv));
+        assertSameEntries(source, target);
+        assertEquals(4L, target.nextSessionId());
+    }
+
+    @Test
+    public void json_roundTripKeepsEveryField() throws IOException {
+        SessionHistory source = newHistory();
+        addSample(source);
+        String json = export(source, null, HistoryExporter.Format.JSON);
+        assertTrue(json.startsWith("["));
+
+        SessionHistory target = newHistory();
+        assertEquals(4, importInto(target, json));
+        assertSameEntries(source, target);
+        assertEquals(1, target.search("networks").size());
+    }
+
+    @Test
+    public void import_skipsEntriesAlreadyRecorded() throws IOException {
+        SessionHistory history = newHistory();
+        addSample(history);
+        String csv = export(history, null, HistoryExporter.Format.CSV);
+
+        assertEquals(0, history.addAll(parse(csv)));
+        assertEquals(4, history.size());
+        assertEquals(3, history.getRollups().getDays().total().getSessions());
+    }
+
+    @Test
+    public void import_otherInstallWithOverlappingIds_keepsEverySession() throws IOException {
+        SessionHistory history = newHistory();
+        addSample(history);
+        // Another install hands out ids from 1 too
+        SessionHistory other = newHistory();
+        other.add(new CompletedSession(1L, "Pomodoro", "Physics", "Optics", 25 * MINUTE, 5_000L, 25 * MINUTE, 1));
+        other.add(new CompletedSession(1L, "Pomodoro", "Physics", "Optics", 25 * MINUTE, 6_000L, 25 * MINUTE, 2));
+        other.add(new CompletedSession(2L, "Sprint", "History", "Essay", 40 * MINUTE, 7_000L, 50 * MINUTE, 1));
+        String csv = export(other, null, HistoryExporter.Format.CSV);
+
+        assertEquals(3, history.addAll(parse(csv)));
+        assertEquals(7, history.size());
+        Set<Long> stableIds = new HashSet<>();
+        for (CompletedSession session : history.newestFirst()) {
+            assertTrue(stableIds.add(session.getStableId()));
+        }
+        // Both cycles of the imported session 1 moved to the same new id
+        CompletedSession secondCycle = history.getNewest(1);
+        CompletedSession firstCycle = history.getNewest(2);
+        assertEquals("Optics", firstCycle.getTask());
+        assertEquals(firstCycle.getSessionId(), secondCycle.getSessionId());
+        assertTrue(firstCycle.getSessionId() > 3L);
+
+        // Importing the same file again adds nothing
+        assertEquals(0, history.addAll(parse(csv)));
+        assertEquals(7, history.size());
+    }
+
+    @Test
+    public void import_acceptsColumnsInAnyOrderWithDefaults() throws IOException {
+        SessionHistory history = newHistory();
+        String csv = "task,completed_at,subject,time_spent_ms,technique\r\n"
+            + "Chapter 5,9000,Math,600000,Sprint\r\n"
+            + "\r\n"
+            + "\"Essay, draft\",8000,English,300000,Pomodoro Technique\r\n";
+        assertEquals(2, importInto(history, csv));
+
+        // Older entry imported after a newer one: time ranges still work
+        List<CompletedSession> range = history.query(new HistoryQuery().between(7_000L, 8_500L));
+        assertEquals(1, range.size());
+        assertEquals("Essay, draft", range.get(0).getTask());
+        assertEquals(300_000L, range.get(0).getSetDurationMillis());
+        assertEquals(1, range.get(0).getCycle());
+        assertEquals(0L, range.get(0).getSessionId());
+    }
+
+    @Test
+    public void export_selectedRowsOnly() throws IOException {
+        SessionHistory history = newHistory();
+        addSample(history);
+        int[] rows = history.select(new HistoryQuery().subject("Math"));
+        String csv = export(history, rows, HistoryExporter.Format.CSV);
+
+        List<CompletedSession> sessions = parse(csv);
+        assertEquals(2, sessions.size());
+        assertEquals(2, sessions.get(0).getCycle()); // Query order: newest first
+    }
+
+    @Test
+    public void snapshot_keepsItsRowsWhileHistoryGrows() throws IOException {
+        SessionHistory history = newHistory();
+        addSample(history);
+        ColumnarHistoryStore.Snapshot snapshot = history.getStore().snapshot();
+        for (int i = 0; i < 5_000; i++) {
+            history.add(new CompletedSession(100L + i, "Sprint", "Subject " + i, "Task " + i, MINUTE,
+                10_000L + i, MINUTE, 1));
+        }
+
+        assertEquals(4, snapshot.size());
+        assertEquals("Deadline", snapshot.getTechnique(3));
+        StringWriter out = new StringWriter();
+        assertEquals(4, HistoryExporter.write(snapshot, null, HistoryExporter.Format.JSON, out, null));
+    }
+
+    @Test
+    public void malformedInput_reportsTheLine() throws IOException {
+        SessionHistory history = newHistory();
+        try {
+            importInto(history, "completed_at,time_spent_ms,task\n1000,60000,ok\nlater,60000,bad\n");
+            fail("Expected a parse error");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 3:"));
+        }
+        assertEquals(0, history.size()); // The batch with the error is not delivered
+
+        try {
+            importInto(history, "[{\"completed_at\": 5000, \"time_spent_ms\": 1}\n{\"completed_at\": 6000}]");
+            fail("Expected a parse error");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("expected ',' or ']'"));
+        }
+    }
+
+    @Test
+    public void largeHistory_streamsInFixedBatches() throws IOException {
+        SessionHistory source = newHistory();
+        List<CompletedSession> batch = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            batch.add(new CompletedSession(i + 1, i % 2 == 0 ? "Pomodoro Technique" : "Sprint",
+                "Subject " + (i % 20), "Task " + (i % 500), 20 * MINUTE, i * 1_000L, 25 * MINUTE, 1));
+        }
+        assertEquals(20_000, source.addAll(batch));
+
+        // Writes reach the Writer one batch at a time
+        List<Integer> writeSizes = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        Writer out = new Writer() {
+            @Override
+            public void write(char[] chars, int offset, int length) {
+                writeSizes.add(length);
+                text.append(chars, offset, length);
+            }
+
+            @Override
+            public Writer append(CharSequence chars) {
+                writeSizes.add(chars.length());
+                text.append(chars);
+                return this;
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        List<Long> exportProgress = new ArrayList<>();
+        HistoryExporter.write(source.getStore().snapshot(), null, HistoryExporter.Format.JSON, out,
+            (done, total) -> exportProgress.add(done));
+        assertEquals(20_000 / HistoryExporter.BATCH_SIZE + 1, writeSizes.size());
+        assertEquals(Long.valueOf(20_000), exportProgress.get(exportProgress.size() - 1));
+
+        SessionHistory target = newHistory();
+        List<Integer> batchSizes = new ArrayList<>();
+        HistoryImporter.read(new StringReader(text.toString()), sessions -> {
+            batchSizes.add(sessions.size());
+            target.addAll(sessions);
+        }, null);
+        assertEquals(20_000 / HistoryExporter.BATCH_SIZE + 1, batchSizes.size());
+        assertEquals(Integer.valueOf(HistoryExporter.BATCH_SIZE), batchSizes.get(0));
+        assertSameEntries(source, target);
+        assertEquals(20_000 * 20 * MINUTE, target.getRollups().getDays().total().getFocusMillis());
+    }
+
+    private static List<CompletedSession> parse(String text) throws IOException {
+        List<CompletedSession> sessions = new ArrayList<>();
+        HistoryImporter.read(new StringReader(text), sessions::addAll, null);
+        return sessions;
+    }
+}
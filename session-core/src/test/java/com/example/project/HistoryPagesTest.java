@@ -0,0 +1,128 @@
+package com.example.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for paged loading of history views
+ */
+public class HistoryPagesTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private File directory;
+    private SessionHistory history;
+    // Loads and deliveries wait here until the test runs them
+    private final ArrayDeque<Runnable> loads = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> deliveries = new ArrayDeque<>();
+    private final List<int[]> loadedRanges = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+        history = SessionHistory.open(directory, TimeZone.getTimeZone("UTC"));
+        List<CompletedSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            sessions.add(new CompletedSession(i + 1, i % 2 == 0 ? "Pomodoro Technique" : "Sprint", "Math",
+                "Task " + i, 20 * MINUTE, i * MINUTE, 25 * MINUTE, 1));
+        }
+        history.addAll(sessions);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        history.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private HistoryPages pages(List<CompletedSession> view) {
+        return new HistoryPages(view, loads::add, deliveries::add,
+            (from, count) -> loadedRanges.add(new int[] {from, count}));
+    }
+
+    private void runAll() {
+        while (!loads.isEmpty() || !deliveries.isEmpty()) {
+            if (!loads.isEmpty()) {
+                loads.poll().run();
+            } else {
+                deliveries.poll().run();
+            }
+        }
+    }
+
+    @Test
+    public void get_returnsPlaceholderThenLoadsPageAndPrefetch() {
+        HistoryPages pages = pages(history.newestFirst());
+        assertNull(pages.get(40)); // Placeholder
+        assertEquals(2, loads.size()); // Its page and the next one (prefetch distance)
+        runAll();
+
+        assertEquals(2, loadedRanges.size());
+        assertEquals(0, loadedRanges.get(0)[0]);
+        assertEquals(HistoryPages.PAGE_SIZE, loadedRanges.get(0)[1]);
+        assertEquals("Task 959", pages.get(40).getTask());
+        assertTrue(pages.isLoaded(99));
+        assertFalse(pages.isLoaded(100));
+    }
+
+    @Test
+    public void pagesKeepTheirRowsWhileHistoryGrows() throws IOException {
+        HistoryPages pages = pages(history.query(new HistoryQuery().technique("Sprint")));
+        assertNull(pages.get(0));
+        history.add(new CompletedSession(5_000L, "Sprint", "Math", "Newer", MINUTE, 2_000 * MINUTE, MINUTE, 1));
+        runAll();
+
+        assertEquals(500, pages.size());
+        assertEquals("Task 999", pages.get(0).getTask());
+    }
+
+    @Test
+    public void carryOver_keepsLoadedEntriesOfTheNextList() throws IOException {
+        HistoryPages first = pages(history.newestFirst());
+        first.get(0);
+        runAll();
+        loadedRanges.clear();
+
+        history.add(new CompletedSession(5_000L, "Sprint", "Math", "Newer", MINUTE, 2_000 * MINUTE, MINUTE, 1));
+        HistoryPages second = pages(history.newestFirst());
+        second.carryOver(first, position -> position + 1);
+        assertEquals("Task 999", second.get(1).getTask()); // Shown at once, no placeholder
+        assertNull(second.get(0));
+        runAll();
+        assertEquals("Newer", second.get(0).getTask());
+        assertEquals("Task 999", second.get(1).getTask());
+
+        // The replaced pages deliver nothing
+        first.get(500);
+        runAll();
+        assertEquals(1, loadedRanges.size()); // Only the first page of the new list
+    }
+
+    @Test
+    public void timeRangeQuery_isNewestFirstWithoutScanning() {
+        List<CompletedSession> range = history.query(new HistoryQuery().between(100 * MINUTE, 200 * MINUTE));
+        assertTrue(range instanceof HistoryRows);
+        assertEquals(100, range.size());
+        assertEquals("Task 199", range.get(0).getTask());
+        assertEquals(100, ((HistoryRows) range).getRow(99));
+        assertEquals(history.totals(new HistoryQuery()).getCycles(), 1_000);
+        assertEquals(0, history.query(new HistoryQuery().between(5_000 * MINUTE, 6_000 * MINUTE)).size());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for time-range and facet queries over the session history
+ */
+public class HistoryQueryTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private File directory;
+    private SessionHistory history;
+    private long nextSessionId = 1;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+        history = SessionHistory.open(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        history.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private void add(String technique, String subject, String task, long completion, long timeSpent) throws IOException {
+        history.add(new CompletedSession(nextSessionId++, technique, subject, task, timeSpent, completion,
+            25 * MINUTE, 1));
+    }
+
+    private void addSample() throws IOException {
+        add("Pomodoro Technique", "Math", "Chapter 1", 1_000L, 20 * MINUTE);
+        add("Sprint", "Math", "Chapter 2", 2_000L, 45 * MINUTE);
+        add("Pomodoro Technique", "IT 306", "Lab 4", 3_000L, 25 * MINUTE);
+        add("Pomodoro Technique", "Math", "Chapter 3", 4_000L, 10 * MINUTE);
+        add("Pomodoro Technique", "Math", "Lab 1", 5_000L, 30 * MINUTE);
+    }
+
+    private static List<String> tasks(List<CompletedSession> sessions) {
+        String[] tasks = new String[sessions.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = sessions.get(i).getTask();
+        }
+        return Arrays.asList(tasks);
+    }
+
+    @Test
+    public void emptyQuery_returnsEverythingNewestFirst() throws IOException {
+        addSample();
+        assertEquals(Arrays.asList("Lab 1", "Chapter 3", "Lab 4", "Chapter 2", "Chapter 1"),
+            tasks(history.query(new HistoryQuery())));
+    }
+
+    @Test
+    public void rangeAndFacets_combine() throws IOException {
+        addSample();
+        HistoryQuery query = new HistoryQuery()
+            .between(1_500L, 5_000L)
+            .technique("Pomodoro Technique")
+            .subject("Math");
+        assertEquals(Arrays.asList("Chapter 3"), tasks(history.query(query)));
+
+        query.between(Long.MIN_VALUE, Long.MAX_VALUE).sortBy(HistoryQuery.Sort.LONGEST_FIRST);
+        assertEquals(Arrays.asList("Lab 1", "Chapter 1", "Chapter 3"), tasks(history.query(query)));
+
+        query.sortBy(HistoryQuery.Sort.SHORTEST_FIRST).text("lab");
+        assertEquals(Arrays.asList("Lab 1"), tasks(history.query(query)));
+    }
+
+    @Test
+    public void unknownFacetValue_matchesNothing() throws IOException {
+        addSample();
+        assertTrue(history.query(new HistoryQuery().technique("Deadline")).isEmpty());
+        assertTrue(history.query(new HistoryQuery().subject("Physics")).isEmpty());
+        assertTrue(history.query(new HistoryQuery().between(6_000L, 9_000L)).isEmpty());
+    }
+
+    @Test
+    public void outOfOrderRows_areStillFilteredByTime() throws IOException {
+        addSample();
+        // Device clock set back: an entry older than the previous ones
+        add("Sprint", "Physics", "Problem set", 1_500L, 15 * MINUTE);
+
+        assertEquals(Arrays.asList("Chapter 2", "Problem set"),
+            tasks(history.query(new HistoryQuery().between(1_200L, 2_500L))));
+        assertEquals(Arrays.asList("Chapter 1", "Problem set", "Chapter 2"),
+            tasks(history.query(new HistoryQuery().between(0L, 2_500L).sortBy(HistoryQuery.Sort.OLDEST_FIRST))));
+    }
+
+    @Test
+    public void importOfOlderEntries_isSortedAndKeepsTheRangeViews() throws IOException {
+        addSample();
+        history.addAll(Arrays.asList(
+            new CompletedSession(nextSessionId++, "Sprint", "Physics", "Problem 1", 15 * MINUTE, 1_500L, 25 * MINUTE, 1),
+            new CompletedSession(nextSessionId++, "Sprint", "Physics", "Problem 3", 15 * MINUTE, 3_500L, 25 * MINUTE, 1)));
+        HistorySort sort = history.prepareSort();
+        assertNotNull(sort);
+        // Added while the sort runs - merged in by finishSort()
+        add("Sprint", "Physics", "Problem 2", 2_500L, 15 * MINUTE);
+        sort.run();
+        assertTrue(history.finishSort(sort));
+        assertNull(history.prepareSort());
+
+        assertEquals(Arrays.asList("Lab 1", "Chapter 3", "Problem 3", "Lab 4", "Problem 2", "Chapter 2",
+            "Problem 1", "Chapter 1"), tasks(history.newestFirst()));
+        assertEquals(Arrays.asList("Problem 3", "Lab 4", "Problem 2", "Chapter 2", "Problem 1"),
+            tasks(history.query(new HistoryQuery().between(1_200L, 3_600L))));
+        assertEquals(Arrays.asList("Problem 1", "Chapter 2", "Problem 2", "Problem 3"),
+            tasks(history.query(new HistoryQuery().technique("Sprint").sortBy(HistoryQuery.Sort.OLDEST_FIRST))));
+
+        // Newer entries extend the order: an earlier view still counts them in O(1)
+        HistoryRows before = (HistoryRows) history.newestFirst();
+        add("Sprint", "Physics", "Problem 4", 6_000L, 15 * MINUTE);
+        assertEquals(1, ((HistoryRows) history.newestFirst()).countAddedSince(before));
+
+        // Reopening sorts while loading
+        history.close();
+        history = SessionHistory.open(directory);
+        assertNull(history.prepareSort());
+        assertEquals("Problem 4", history.newestFirst().get(0).getTask());
+        assertEquals("Problem 3", history.newestFirst().get(3).getTask());
+    }
+
+    @Test
+    public void facetNames_listUsedValues() throws IOException {
+        addSample();
+        assertEquals(Arrays.asList("Pomodoro Technique", "Sprint"), history.getTechniqueNames());
+        assertEquals(Arrays.asList("Math", "IT 306"), history.getSubjectNames());
+    }
+
+    @Test
+    public void narrowRange_overLargeHistory_visitsOnlyTheRange() throws IOException {
+        for (int i = 0; i < 100_000; i++) {
+            add(i % 3 == 0 ? "Sprint" : "Pomodoro Technique", "Subject " + (i % 20), "Task " + (i % 500),
+                i * 1_000L, i % 60 * MINUTE);
+        }
+
+        long visitedBefore = history.getRowsVisited();
+        int[] rows = history.select(new HistoryQuery()
+            .between(50_000_000L, 50_200_000L)
+            .technique("Sprint")
+            .subject("Subject 3")
+            .sortBy(HistoryQuery.Sort.LONGEST_FIRST));
+        long visited = history.getRowsVisited() - visitedBefore;
+
+        // Rows 50000..50199 that are Sprint (i % 3 == 0) and Subject 3 (i % 20 == 3): 50043, 50103, 50163
+        assertEquals(3, rows.length);
+        long[] timeSpent = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            timeSpent[i] = history.getStore().getTimeSpentMillis(rows[i]);
+        }
+        // 50043 % 60 = 3, 50103 % 60 = 3, 50163 % 60 = 3 minutes - ties are newest first
+        assertArrayEquals(new long[] {3 * MINUTE, 3 * MINUTE, 3 * MINUTE}, timeSpent);
+        assertArrayEquals(new int[] {50_163, 50_103, 50_043}, rows);
+        // Two binary searches (17 probes at most over 100k rows) plus the matching rows
+        assertTrue("Visited " + visited + " rows", visited <= 2 * 17 + rows.length);
+
+        // Without a range every row of the technique is visited
+        visitedBefore = history.getRowsVisited();
+        assertEquals(33_334, history.select(new HistoryQuery().technique("Sprint")).length);
+        assertTrue(history.getRowsVisited() - visitedBefore >= 33_334);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.project;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the incrementally maintained history rollups
+ */
+public class HistoryRollupsTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private HistoryRollups rollups;
+
+    @Before
+    public void setUp() {
+        rollups = new HistoryRollups(TimeZone.getTimeZone("UTC"));
+    }
+
+    private static long millisOf(int year, int month, int day) {
+        return LocalDate.of(year, month, day).toEpochDay() * DAY;
+    }
+
+    @Test
+    public void calendarKeys_matchJavaTime() {
+        for (LocalDate date = LocalDate.of(1999, 12, 1); date.getYear() < 2031; date = date.plusDays(1)) {
+            int epochDay = (int) date.toEpochDay();
+            int[] civil = HistoryRollups.civilDate(epochDay);
+            assertEquals(date.getYear(), civil[0]);
+            assertEquals(date.getMonthValue(), civil[1]);
+            assertEquals(date.getDayOfMonth(), civil[2]);
+            assertEquals(epochDay, HistoryRollups.epochDayOf(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(date.getDayOfWeek().getValue(), HistoryRollups.dayOfWeek(epochDay));
+
+            int month = HistoryRollups.monthOfEpochDay(epochDay);
+            assertEquals(date.withDayOfMonth(1).toEpochDay(), HistoryRollups.firstDayOfMonth(month));
+
+            int week = HistoryRollups.weekOfEpochDay(epochDay);
+            LocalDate monday = date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+            assertEquals(monday.toEpochDay(), HistoryRollups.firstDayOfWeek(week));
+        }
+    }
+
+    @Test
+    public void add_updatesEveryDimension() {
+        long monday = millisOf(2024, 1, 29);
+        rollups.add(monday + 9 * 60 * MINUTE, 25 * MINUTE, 25 * MINUTE, 1, 0, 1);
+        rollups.add(monday + 10 * 60 * MINUTE, 20 * MINUTE, 25 * MINUTE, 2, 0, 1);
+        // Thursday of the same week, but the next month
+        rollups.add(millisOf(2024, 2, 1) + MINUTE, 50 * MINUTE, 50 * MINUTE, 1, 3, 2);
+
+        int day = rollups.epochDay(monday);
+        RollupSeries.Totals mondayTotals = rollups.getDays().get(day);
+        assertEquals(45 * MINUTE, mondayTotals.getFocusMillis());
+        assertEquals(50 * MINUTE, mondayTotals.getPlannedMillis());
+        assertEquals(2, mondayTotals.getCycles());
+        assertEquals(1, mondayTotals.getSessions());
+        assertEquals(0.9, mondayTotals.getCompletionRatio(), 1e-9);
+
+        // Tuesday and Wednesday are empty buckets between the two days
+        assertEquals(0, rollups.getDays().getCycles(day + 1));
+        assertEquals(3, rollups.getDays().getLastKey() - rollups.getDays().getFirstKey());
+
+        RollupSeries.Totals week = rollups.getWeeks().get(HistoryRollups.weekOfEpochDay(day));
+        assertEquals(95 * MINUTE, week.getFocusMillis());
+        assertEquals(3, week.getCycles());
+
+        assertEquals(45 * MINUTE, rollups.getMonths().get(2024 * 12).getFocusMillis());
+        assertEquals(50 * MINUTE, rollups.getMonths().get(2024 * 12 + 1).getFocusMillis());
+
+        assertEquals(2, rollups.getSubjects().get(1).getCycles());
+        assertEquals(50 * MINUTE, rollups.getSubjects().get(2).getFocusMillis());
+        assertEquals(2, rollups.getTechniques().get(0).getCycles());
+        assertEquals(1, rollups.getTechniques().get(3).getSessions());
+        assertEquals(RollupSeries.Totals.EMPTY.getCycles(), rollups.getTechniques().get(1).getCycles());
+    }
+
+    @Test
+    public void olderEntries_growSeriesBackwards() {
+        long recent = millisOf(2024, 3, 10);
+        long older = millisOf(2023, 11, 5);
+        rollups.add(recent, 25 * MINUTE, 25 * MINUTE, 1, 0, 0);
+        rollups.add(older, 10 * MINUTE, 25 * MINUTE, 1, 0, 0);
+
+        RollupSeries days = rollups.getDays();
+        assertEquals(rollups.epochDay(older), days.getFirstKey());
+        assertEquals(rollups.epochDay(recent), days.getLastKey());
+        assertEquals(25 * MINUTE, days.getFocusMillis(rollups.epochDay(recent)));
+        assertEquals(10 * MINUTE, days.getFocusMillis(rollups.epochDay(older)));
+        assertEquals(35 * MINUTE, days.total().getFocusMillis());
+        assertEquals(ChronoUnit.DAYS.between(LocalDate.of(2023, 11, 5), LocalDate.of(2024, 3, 10)),
+            days.getLastKey() - days.getFirstKey());
+    }
+
+    @Test
+    public void epochDay_usesLocalDate() {
+        HistoryRollups tokyo = new HistoryRollups(TimeZone.getTimeZone("Asia/Tokyo"));
+        // 20:00 UTC on Jan 1 is already Jan 2 in Tokyo (UTC+9)
+        long evening = millisOf(2024, 1, 1) + 20 * 60 * MINUTE;
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), rollups.epochDay(evening));
+        assertEquals(LocalDate.of(2024, 1, 2).toEpochDay(), tokyo.epochDay(evening));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.project;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the inverted index over subject and task words
+ */
+public class HistorySearchIndexTest {
+
+    private StringDictionary dictionary;
+    private HistorySearchIndex index;
+    private int rows = 0;
+
+    @Before
+    public void setUp() {
+        dictionary = new StringDictionary();
+        index = new HistorySearchIndex(dictionary);
+    }
+
+    private void addRow(String subject, String task) {
+        int subjectId = dictionary.find(subject);
+        if (subjectId < 0) {
+            subjectId = dictionary.add(subject);
+        }
+        int taskId = dictionary.find(task);
+        if (taskId < 0) {
+            taskId = dictionary.add(task);
+        }
+        index.add(rows++, subjectId, taskId);
+    }
+
+    @Test
+    public void tokenize_splitsOnNonWordCharacters() {
+        assertEquals(Arrays.asList("it", "306", "lab", "4"), HistorySearchIndex.tokenize("IT-306: Lab #4"));
+        assertEquals(Arrays.asList("math"), HistorySearchIndex.tokenize("Math, math"));
+        assertTrue(HistorySearchIndex.tokenize("  ?! ").isEmpty());
+    }
+
+    @Test
+    public void search_matchesAllWordsAcrossSubjectAndTask() {
+        addRow("IT 306", "Lab 4");        // 0
+        addRow("IT 301", "Lab 2");        // 1
+        addRow("Math", "Chapter 306");    // 2
+        addRow("IT 306", "Reading");      // 3
+
+        assertArrayEquals(new int[] {0}, index.search("IT 306 lab"));
+        assertArrayEquals(new int[] {0, 3}, index.search("it 306"));
+        assertArrayEquals(new int[] {0, 2, 3}, index.search("306"));
+        assertArrayEquals(new int[0], index.search("physics"));
+        assertArrayEquals(new int[0], index.search(""));
+    }
+
+    @Test
+    public void search_lastWordMatchesAsPrefix() {
+        addRow("IT 306", "Lab 4");        // 0
+        addRow("IT 306", "Lecture");      // 1
+        addRow("Math", "Labyrinth");      // 2
+
+        assertArrayEquals(new int[] {0, 1}, index.search("IT 306 l"));
+        assertArrayEquals(new int[] {0, 2}, index.search("lab"));
+        // Only the last word is a prefix - "la" alone as a complete word matches nothing
+        assertArrayEquals(new int[0], index.search("la 306"));
+    }
+
+    @Test
+    public void wordInSubjectAndTask_isPostedOnce() {
+        addRow("Lab", "Lab report");
+        assertArrayEquals(new int[] {0}, index.search("lab"));
+        assertEquals(2, index.wordCount());
+    }
+
+    @Test
+    public void search_over100kRows_walksTheShortestList() {
+        for (int i = 0; i < 100_000; i++) {
+            addRow("IT " + (300 + i % 10), "Lab " + (i % 50));
+        }
+        int[] expected = index.search("IT 306 lab");
+        assertEquals(10_000, expected.length);
+
+        // Lab 4 and Lab 40-49 (prefix "4") intersected with IT 306: only Lab 46 is left
+        long visitedBefore = index.getPostingsVisited();
+        int[] rows = index.search("IT 306 lab 4");
+        long visited = index.getPostingsVisited() - visitedBefore;
+        assertEquals(2_000, rows.length);
+        for (int row : rows) {
+            assertEquals(46, row % 50);
+        }
+        // Smallest first ("306", 10k rows), galloping through "4*" (22k), "it" and "lab" (100k
+        // each): well under the 232k entries a merge of the lists would read
+        assertTrue("Visited " + visited + " postings", visited < (10_000 + 22_000 + 100_000 + 100_000) / 2);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.project;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Insights tab figures (streaks, heatmap, breakdowns)
+ */
+public class InsightsSnapshotTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private StringDictionary dictionary;
+    private HistoryRollups rollups;
+    private int pomodoro;
+    private int sprint;
+    private int math;
+    private int physics;
+
+    @Before
+    public void setUp() {
+        dictionary = new StringDictionary();
+        rollups = new HistoryRollups(TimeZone.getTimeZone("UTC"));
+        pomodoro = dictionary.add("Pomodoro Technique");
+        sprint = dictionary.add("Sprint");
+        math = dictionary.add("Math");
+        physics = dictionary.add("Physics");
+    }
+
+    private static long noonOf(LocalDate date) {
+        return date.toEpochDay() * DAY + 12 * 60 * MINUTE;
+    }
+
+    @Test
+    public void streaks_countConsecutiveDays() {
+        LocalDate today = LocalDate.of(2024, 5, 15); // Wednesday
+        // Longest run: 4 days in April
+        for (int i = 0; i < 4; i++) {
+            rollups.add(noonOf(LocalDate.of(2024, 4, 1).plusDays(i)), 25 * MINUTE, 25 * MINUTE, 1, pomodoro, math);
+        }
+        // Current run: the last 2 days, nothing yet today
+        rollups.add(noonOf(today.minusDays(2)), 25 * MINUTE, 25 * MINUTE, 1, pomodoro, math);
+        rollups.add(noonOf(today.minusDays(1)), 25 * MINUTE, 25 * MINUTE, 1, pomodoro, math);
+
+        InsightsSnapshot snapshot = InsightsSnapshot.compute(
+            InsightsSnapshot.capture(rollups, dictionary, noonOf(today)));
+        assertEquals(2, snapshot.getCurrentStreakDays());
+        assertEquals(4, snapshot.getLongestStreakDays());
+        assertEquals(0, snapshot.getTodayFocusMillis());
+        // Monday and Tuesday of this week
+        assertEquals(50 * MINUTE, snapshot.getWeekFocusMillis());
+        assertEquals(6, snapshot.getAllTime().getCycles());
+    }
+
+    @Test
+    public void heatmap_endsWithCurrentWeek() {
+        LocalDate today = LocalDate.of(2024, 5, 15);
+        rollups.add(noonOf(today), 100 * MINUTE, 100 * MINUTE, 1, pomodoro, math);
+        rollups.add(noonOf(today.minusDays(7)), 25 * MINUTE, 25 * MINUTE, 1, pomodoro, math);
+        // Outside the grid - counted in totals but not drawn
+        rollups.add(noonOf(today.minusYears(1)), 25 * MINUTE, 25 * MINUTE, 1, pomodoro, math);
+
+        InsightsSnapshot snapshot = InsightsSnapshot.compute(
+            InsightsSnapshot.capture(rollups, dictionary, noonOf(today)));
+        int firstDay = snapshot.getHeatmapFirstDay();
+        assertEquals(1, HistoryRollups.dayOfWeek(firstDay));
+        int todayCell = (int) today.toEpochDay() - firstDay;
+        assertEquals((InsightsSnapshot.HEATMAP_WEEKS - 1) * 7 + 2, todayCell);
+        assertEquals(InsightsSnapshot.HEATMAP_LEVELS, snapshot.getHeatmapLevel(todayCell));
+        assertEquals(1, snapshot.getHeatmapLevel(todayCell - 7));
+        assertEquals(0, snapshot.getHeatmapLevel(todayCell - 1));
+        assertEquals(0, snapshot.getHeatmapLevel(todayCell + 1));
+    }
+
+    @Test
+    public void breakdowns_areSorted() {
+        long now = noonOf(LocalDate.of(2024, 5, 15));
+        rollups.add(now, 20 * MINUTE, 25 * MINUTE, 1, pomodoro, math);
+        rollups.add(now, 50 * MINUTE, 50 * MINUTE, 1, sprint, physics);
+        rollups.add(now, 25 * MINUTE, 25 * MINUTE, 2, sprint, math);
+
+        InsightsSnapshot snapshot = InsightsSnapshot.compute(InsightsSnapshot.capture(rollups, dictionary, now));
+        assertEquals(2, snapshot.getSubjects().size());
+        assertEquals("Physics", snapshot.getSubjects().get(0).getName());
+        assertEquals(45 * MINUTE, snapshot.getSubjects().get(1).getTotals().getFocusMillis());
+        assertEquals("Sprint", snapshot.getTechniques().get(0).getName());
+        assertEquals(0.8, snapshot.getTechniques().get(1).getTotals().getCompletionRatio(), 1e-9);
+        assertEquals("2h 15m", InsightsSnapshot.formatFocus(135 * MINUTE));
+    }
+
+    @Test
+    public void capture_ofMultiYearHistory_copiesOneBucketPerDay() {
+        LocalDate start = LocalDate.of(2019, 1, 1);
+        for (int i = 0; i < 5 * 365; i++) {
+            for (int cycle = 1; cycle <= 4; cycle++) {
+                rollups.add(noonOf(start.plusDays(i)), 25 * MINUTE, 25 * MINUTE, cycle, pomodoro, math);
+            }
+        }
+        long now = noonOf(start.plusDays(5 * 365 - 1));
+
+        InsightsSnapshot.Input input = InsightsSnapshot.capture(rollups, dictionary, now);
+        assertEquals(5 * 365, input.getDayCount());
+
+        // More entries per day don't make the copy any larger
+        for (int i = 0; i < 5 * 365; i++) {
+            rollups.add(noonOf(start.plusDays(i)) + MINUTE, 25 * MINUTE, 25 * MINUTE, 1, pomodoro, math);
+        }
+        assertEquals(5 * 365, InsightsSnapshot.capture(rollups, dictionary, now).getDayCount());
+
+        InsightsSnapshot snapshot = InsightsSnapshot.compute(input);
+        assertEquals(5 * 365, snapshot.getCurrentStreakDays());
+        assertEquals(5 * 365 * 4, snapshot.getAllTime().getCycles());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the primitive long hash set used for duplicate detection
+ */
+public class LongHashSetTest {
+
+    @Test
+    public void add_reportsWhetherKeyWasNew() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(42L));
+        assertFalse(set.add(42L));
+        assertTrue(set.contains(42L));
+        assertFalse(set.contains(43L));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void zeroAndNegativeKeys_areStored() {
+        LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(0L));
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.add(-1L));
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(-1L));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void growing_keepsEveryKey() {
+        LongHashSet set = new LongHashSet(4);
+        for (long key = 1; key <= 50_000; key++) {
+            assertTrue(set.add(key << 16 | (key % 4)));
+        }
+        assertEquals(50_000, set.size());
+        for (long key = 1; key <= 50_000; key++) {
+            assertTrue(set.contains(key << 16 | (key % 4)));
+            assertFalse(set.contains(key << 16 | 5));
+        }
+    }
+}
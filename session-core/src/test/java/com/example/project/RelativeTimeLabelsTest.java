@@ -0,0 +1,61 @@
+package com.example.project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for minute-aligned relative time labels
+ */
+public class RelativeTimeLabelsTest {
+
+    private static final long MINUTE = RelativeTimeLabels.MINUTE_MILLIS;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    public void labels_changeAtMinuteBoundaries() {
+        RelativeTimeLabels labels = new RelativeTimeLabels();
+        long completion = 100 * DAY + 10 * MINUTE + 50_000L; // 50 s into a minute
+        assertEquals("Just now", labels.get(completion, completion + 9_000L));
+        assertEquals("1 minute ago", labels.get(completion, completion + 10_000L)); // Next clock minute
+        assertEquals("59 minutes ago", labels.get(completion, completion + 59 * MINUTE));
+        assertEquals("1 hour ago", labels.get(completion, completion + HOUR));
+        assertEquals("23 hours ago", labels.get(completion, completion + DAY - MINUTE));
+        assertEquals("2 days ago", labels.get(completion, completion + 2 * DAY));
+        assertEquals("400 days ago", labels.get(completion, completion + 400 * DAY));
+    }
+
+    @Test
+    public void labels_countClockMinutes_notElapsedTime() {
+        long noon = 100 * DAY + 12 * HOUR;
+        // Completed at 12:00:59: "Just now" only until the clock minute ends
+        assertEquals("Just now", RelativeTimeLabels.format(noon + 59_000L, noon + MINUTE - 1));
+        assertEquals("1 minute ago", RelativeTimeLabels.format(noon + 59_000L, noon + MINUTE));
+        // Completed at 12:00:00: "Just now" for the whole minute
+        assertEquals("Just now", RelativeTimeLabels.format(noon, noon + 59_999L));
+        // Completed at 10:00:59: an hour of clock minutes at 11:00:00, after 59 min 1 s
+        assertEquals("59 minutes ago", RelativeTimeLabels.format(noon - 2 * HOUR + 59_000L, noon - HOUR - 1));
+        assertEquals("1 hour ago", RelativeTimeLabels.format(noon - 2 * HOUR + 59_000L, noon - HOUR));
+        // Every label agrees with the one computed at the start of its clock minute
+        RelativeTimeLabels labels = new RelativeTimeLabels();
+        for (long now = noon; now < noon + 3 * MINUTE; now += 1_000L) {
+            assertEquals(labels.get(noon + 30_000L, RelativeTimeLabels.nextMinuteMillis(now) - MINUTE),
+                labels.get(noon + 30_000L, now));
+        }
+    }
+
+    @Test
+    public void get_reusesTheStringOfABucket() {
+        RelativeTimeLabels labels = new RelativeTimeLabels();
+        String first = labels.get(0L, 5 * HOUR);
+        assertSame(first, labels.get(10 * MINUTE, 5 * HOUR + 30 * MINUTE));
+        assertEquals(RelativeTimeLabels.format(0L, 5 * HOUR), first);
+    }
+
+    @Test
+    public void nextMinute_isTheNextBoundary() {
+        assertEquals(2 * MINUTE, RelativeTimeLabels.nextMinuteMillis(MINUTE));
+        assertEquals(2 * MINUTE, RelativeTimeLabels.nextMinuteMillis(2 * MINUTE - 1));
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the persistent session history (append-only log with mapped reads)
+ */
+public class SessionHistoryTest {
+
+    private File directory;
+    private SessionHistory history;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+        history = SessionHistory.open(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        history.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static CompletedSession session(String subject, String task, long completion, int cycle) {
+        // Each entry gets its own session id (the completion time is unique per test)
+        return session(completion, subject, task, completion, cycle);
+    }
+
+    private static CompletedSession session(long sessionId, String subject, String task, long completion, int cycle) {
+        return new CompletedSession(sessionId, "Pomodoro Technique", subject, task, 25 * 60_000L - 1_000L,
+            completion, 25 * 60_000L, cycle);
+    }
+
+    @Test
+    public void newestFirst_returnsMostRecentEntryFirst() throws IOException {
+        history.add(session("Math", "Chapter 1", 1_000L, 1));
+        history.add(session("Math", "Chapter 2", 2_000L, 2));
+        history.add(session("IT 306", "Lab 4", 3_000L, 1));
+
+        List<CompletedSession> view = history.newestFirst();
+        assertEquals(3, view.size());
+        assertEquals("Lab 4", view.get(0).getTask());
+        assertEquals("Chapter 1", view.get(2).getTask());
+        assertEquals(2, view.get(1).getCycle());
+        assertEquals(25 * 60_000L, view.get(0).getSetDurationMillis());
+        assertEquals(2_000L, history.getNewestCompletionTimestamp(1));
+    }
+
+    @Test
+    public void view_keepsItsSizeWhenEntriesAreAdded() throws IOException {
+        history.add(session("Math", "Chapter 1", 1_000L, 1));
+        List<CompletedSession> view = history.newestFirst();
+
+        history.add(session("Math", "Chapter 2", 2_000L, 2));
+        assertEquals(1, view.size());
+        assertEquals("Chapter 1", view.get(0).getTask());
+        assertEquals("Chapter 2", history.getNewest(0).getTask());
+    }
+
+    @Test
+    public void view_isReadOnly() throws IOException {
+        history.add(session("Math", "Chapter 1", 1_000L, 1));
+        List<CompletedSession> view = history.newestFirst();
+
+        try {
+            view.add(session("Math", "Chapter 2", 2_000L, 2));
+            fail("View must not accept entries");
+        } catch (UnsupportedOperationException expected) {
+            // Entries only come in through SessionHistory.add()
+        }
+        try {
+            view.remove(0);
+            fail("View must not drop entries");
+        } catch (UnsupportedOperationException expected) {
+            // History is append-only
+        }
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    public void views_reportStableIdsWithoutMaterializing() throws IOException {
+        history.add(session(7L, "Math", "Chapter 1", 1_000L, 1));
+        history.add(session(7L, "Math", "Chapter 1", 2_000L, 2));
+        history.add(session(0L, "Physics", "Problem set", 3_000L, 1)); // Entry without a session id
+
+        List<CompletedSession> view = history.newestFirst();
+        long[] ids = ((HistoryRows) view).copyStableIds(history.getStore().snapshot());
+        assertEquals(3, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(view.get(i).getStableId(), ids[i]);
+        }
+        assertNotEquals(ids[1], ids[2]); // Same session, different cycles
+        assertTrue(ids[0] < 0);
+
+        // The same entry keeps its id in a query result and after reopening
+        List<CompletedSession> physics = history.query(new HistoryQuery().subject("Physics"));
+        assertEquals(ids[0], ((HistoryRows) physics).getStableId(0));
+        history.close();
+        history = SessionHistory.open(directory);
+        assertArrayEquals(ids, ((HistoryRows) history.newestFirst()).copyStableIds(history.getStore().snapshot()));
+    }
+
+    @Test
+    public void views_countEntriesAddedSinceAnEarlierView() throws IOException {
+        history.add(session("Math", "Chapter 1", 1_000L, 1));
+        HistoryRows before = (HistoryRows) history.newestFirst();
+        HistoryRows physicsBefore = (HistoryRows) history.query(new HistoryQuery().subject("Physics"));
+        history.add(session("Physics", "Problem set", 2_000L, 1));
+        history.add(session("Math", "Chapter 2", 3_000L, 1));
+
+        HistoryRows after = (HistoryRows) history.newestFirst();
+        assertEquals(2, after.countAddedSince(before));
+        assertEquals(0, ((HistoryRows) history.newestFirst()).countAddedSince(after));
+        assertEquals(-1, before.countAddedSince(after));
+        // A filtered result is only recognized when unchanged
+        HistoryRows physics = (HistoryRows) history.query(new HistoryQuery().subject("Physics"));
+        assertEquals(-1, physics.countAddedSince(physicsBefore));
+        assertEquals(0, ((HistoryRows) history.query(new HistoryQuery().subject("Physics"))).countAddedSince(physics));
+        assertEquals(-1, physics.countAddedSince(after));
+    }
+
+    @Test
+    public void largeHistory_newestFirstAccessDoesNotScan() throws IOException {
+        for (int i = 0; i < 50_000; i++) {
+            history.add(session("Subject " + (i % 20), "Task " + i, i + 1, 1));
+        }
+
+        // Creating a view and reading both ends are index lookups - no copy of the history
+        long decodedBefore = history.getStore().getMaterializedCount();
+        for (int i = 0; i < 1_000; i++) {
+            List<CompletedSession> view = history.newestFirst();
+            assertSame(history.getStore(), ((HistoryRows) view).getStore());
+            assertEquals("Task 49999", view.get(0).getTask());
+            assertEquals("Task 0", view.get(view.size() - 1).getTask());
+        }
+        // Only the two rows read per view were decoded
+        assertEquals(2_000, history.getStore().getMaterializedCount() - decodedBefore);
+    }
+
+    @Test
+    public void reopen_readsPersistedEntries() throws IOException {
+        history.add(session("Math", "Chapter 1", 1_000L, 1));
+        history.add(session("Physics", "Problem set", 2_000L, 1));
+        history.close();
+
+        history = SessionHistory.open(directory);
+        assertEquals(2, history.size());
+        assertEquals("Physics", history.getNewest(0).getSubject());
+        assertEquals("Math", history.getNewest(1).getSubject());
+
+        // Strings already in the pool are reused after reopening
+        long poolLength = new File(directory, "history.strings").length();
+        history.add(session("Math", "Chapter 1", 3_000L, 2));
+        assertEquals(poolLength, new File(directory, "history.strings").length());
+        assertEquals(3, history.size());
+    }
+
+    @Test
+    public void rollups_followAddsAndReopen() throws IOException {
+        history.add(session("Math", "Chapter 1", 1_000L, 1));
+        history.add(session("Math", "Chapter 2", 2_000L, 2));
+        history.add(session(2_000L, "Math", "Chapter 2", 2_500L, 2)); // Duplicate - not counted
+        history.add(session("Physics", "Problem set", 3_000L, 1));
+
+        int math = history.getStore().getDictionary().find("Math");
+        assertEquals(2, history.getRollups().getSubjects().get(math).getCycles());
+        assertEquals(3, history.getRollups().getDays().total().getCycles());
+        assertEquals(2, history.getRollups().getDays().total().getSessions());
+        history.close();
+
+        history = SessionHistory.open(directory);
+        math = history.getStore().getDictionary().find("Math");
+        RollupSeries.Totals mathTotals = history.getRollups().getSubjects().get(math);
+        assertEquals(2, mathTotals.getCycles());
+        assertEquals(2 * (25 * 60_000L - 1_000L), mathTotals.getFocusMillis());
+        assertEquals(2 * 25 * 60_000L, mathTotals.getPlannedMillis());
+        assertEquals(3, history.getRollups().getTechniques().total().getCycles());
+    }
+
+    @Test
+    public void search_returnsNewestMatchesFirst() throws IOException {
+        history.add(session("IT 306", "Lab 4", 1_000L, 1));
+        history.add(session("Math", "Chapter 1", 2_000L, 1));
+        history.add(session("IT 306", "Lab 5", 3_000L, 2));
+        history.close();
+
+        // The index is rebuilt on open and kept up to date by add()
+        history = SessionHistory.open(directory);
+        history.add(session("IT 306", "Lecture", 4_000L, 3));
+
+        List<CompletedSession> labs = history.search("it 306 lab");
+        assertEquals(2, labs.size());
+        assertEquals("Lab 5", labs.get(0).getTask());
+        assertEquals("Lab 4", labs.get(1).getTask());
+        assertEquals(3, history.search("306").size());
+        assertEquals(4, history.search("  ").size());
+        assertTrue(history.search("physics").isEmpty());
+    }
+
+    @Test
+    public void reopen_dropsTornRecord() throws IOException {
+        history.add(session("Math", "Chapter 1", 1_000L, 1));
+        history.add(session("Math", "Chapter 2", 2_000L, 2));
+        history.close();
+
+        // Cut the last record short, as if the process died mid-write
+        File logFile = new File(directory, "history.log");
+        try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+
+        history = SessionHistory.open(directory);
+        assertEquals(1, history.size());
+        history.add(session("Math", "Chapter 3", 3_000L, 2));
+        assertEquals("Chapter 3", history.getNewest(0).getTask());
+        assertEquals("Chapter 1", history.getNewest(1).getTask());
+    }
+
+    @Test
+    public void add_sameSessionAndCycle_isRejected() throws IOException {
+        assertTrue(history.add(session(5L, "Math", "Chapter 1", 1_000L, 1)));
+        assertTrue(history.add(session(5L, "Math", "Chapter 1", 2_000L, 2)));
+        long logLength = new File(directory, "history.log").length();
+
+        assertFalse(history.add(session(5L, "Math", "Chapter 1", 2_500L, 2)));
+        assertEquals(2, history.size());
+        assertEquals(logLength, new File(directory, "history.log").length());
+
+        // A new round of the same goal gets a new session id, so its first cycle is kept
+        long nextRound = history.nextSessionId();
+        assertEquals(6L, nextRound);
+        assertTrue(history.add(session(nextRound, "Math", "Chapter 1", 3_000L, 1)));
+    }
+
+    @Test
+    public void reopen_rebuildsDuplicateIndex() throws IOException {
+        history.add(session(5L, "Math", "Chapter 1", 1_000L, 1));
+        history.close();
+
+        history = SessionHistory.open(directory);
+        assertTrue(history.contains(5L, 1));
+        assertFalse(history.contains(5L, 2));
+        assertFalse(history.add(session(5L, "Math", "Chapter 1", 1_000L, 1)));
+        assertEquals(6L, history.nextSessionId());
+    }
+
+    @Test
+    public void open_version1Log_isUpgraded() throws IOException {
+        history.add(session(5L, "Math", "Chapter 1", 1_000L, 1));
+        history.add(session(6L, "Physics", "Problem set", 2_000L, 3));
+        history.close();
+
+        // Rewrite the log in the version 1 layout (no session id in front of each record)
+        File logFile = new File(directory, "history.log");
+        byte[] current = Files.readAllBytes(logFile.toPath());
+        ByteBuffer old = ByteBuffer.allocate(HistoryLog.HEADER_SIZE + 2 * (HistoryLog.RECORD_SIZE - 8));
+        old.putInt(ByteBuffer.wrap(current).getInt()).putInt(1);
+        old.position(HistoryLog.HEADER_SIZE);
+        for (int i = 0; i < 2; i++) {
+            old.put(current, HistoryLog.HEADER_SIZE + i * HistoryLog.RECORD_SIZE + 8, HistoryLog.RECORD_SIZE - 8);
+        }
+        Files.write(logFile.toPath(), old.array());
+
+        history = SessionHistory.open(directory);
+        assertEquals(2, history.size());
+        assertEquals("Problem set", history.getNewest(0).getTask());
+        assertEquals(3, history.getNewest(0).getCycle());
+        assertEquals(0L, history.getNewest(0).getSessionId());
+        // Old rows have no id, so they never block new ones
+        assertFalse(history.contains(0L, 3));
+        assertEquals(1L, history.nextSessionId());
+    }
+
+    @Test
+    public void addAll_afterClose_isRefused() throws IOException {
+        history.add(session("IT 306", "Lab 4", 1_000L, 1));
+        history.close();
+
+        try {
+            history.addAll(Collections.singletonList(session("Math", "Chapter 1", 2_000L, 1)));
+            fail("Closed history accepted a batch");
+        } catch (IOException expected) {
+            // e.g. an import batch that ran after onDestroy()
+        }
+        assertEquals(1, history.size());
+        history = SessionHistory.open(directory);
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    public void open_largeHistory_doesNotDecodeRecords() throws IOException {
+        for (int i = 0; i < 100_000; i++) {
+            history.add(session("Subject " + (i % 20), "Task " + (i % 500), i, i % 4 + 1));
+        }
+        history.close();
+
+        history = SessionHistory.openUnloaded(directory, TimeZone.getDefault());
+
+        // Nothing is read until the load runs
+        assertFalse(history.isLoaded());
+        assertEquals(0, history.size());
+
+        HistoryLoad load = history.getPendingLoad();
+        load.run();
+        history.finishLoad(load);
+        assertTrue(history.isLoaded());
+        assertEquals(100_000, history.size());
+        assertEquals("Task 499", history.getNewest(0).getTask());
+    }
+
+    @Test
+    public void add_beforeLoadFinished_loadsFirst() throws IOException {
+        history.add(session(7L, "IT 306", "Lab", 1000L, 1));
+        history.close();
+        history = SessionHistory.openUnloaded(directory, TimeZone.getDefault());
+        HistoryLoad load = history.getPendingLoad();
+
+        // Duplicate of a logged row: only known once the rows are loaded
+        assertFalse(history.add(session(7L, "IT 306", "Lab", 1000L, 1)));
+        assertTrue(history.isLoaded());
+        assertEquals(1, history.size());
+        history.finishLoad(load); // Already finished by add() - no-op
+        assertEquals(1, history.size());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.project;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for journal replay (recovery after process death), driven by a VirtualClock
+ */
+public class SessionJournalTest {
+
+    private VirtualClock clock;
+    private File file;
+    private SessionJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        clock = new VirtualClock(1_000_000L);
+        file = File.createTempFile("session", ".journal");
+        journal = new SessionJournal(file, clock);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+        file.delete();
+    }
+
+    private StudySession startSession() {
+        StudySession session = new StudySession("Pomodoro Technique", "Math", "Chapter 3",
+            25 * 60_000L, 5 * 60_000L, clock.currentTimeMillis());
+        session.setSessionId(7L);
+        journal.sessionStarted(session);
+        session.setCycleStartTime(clock.currentTimeMillis());
+        journal.workStarted(session, session.getWorkDurationMillis());
+        return session;
+    }
+
+    @Test
+    public void replay_runningWorkPhase_restoresRemainingTime() throws IOException {
+        startSession();
+        journal.flush();
+
+        clock.advance(10 * 60_000L);
+        SessionJournal.Recovery recovery = SessionJournal.replay(file, clock.currentTimeMillis());
+
+        assertNotNull(recovery);
+        assertEquals(SessionState.ACTIVE_WORK, recovery.getState());
+        assertEquals(15 * 60_000L, recovery.getRemainingMillis());
+        assertEquals("Math", recovery.getSession().getSubject());
+        assertEquals("Chapter 3", recovery.getSession().getTask());
+        assertEquals(1, recovery.getSession().getCurrentCycle());
+    }
+
+    @Test
+    public void replay_pausedBreak_remembersBreakPhase() throws IOException {
+        startSession();
+        clock.advance(25 * 60_000L);
+        journal.phaseFinished();
+        journal.breakStarted(5 * 60_000L, false);
+        clock.advance(60_000L);
+        journal.paused(4 * 60_000L);
+        journal.extended(30_000L);
+        journal.flush();
+
+        clock.advance(60 * 60_000L); // Time spent paused does not count
+        SessionJournal.Recovery recovery = SessionJournal.replay(file, clock.currentTimeMillis());
+
+        assertEquals(SessionState.PAUSED, recovery.getState());
+        assertEquals(SessionState.ACTIVE_BREAK, recovery.getPhaseState());
+        assertEquals(4 * 60_000L + 30_000L, recovery.getRemainingMillis());
+        assertEquals(5 * 60_000L + 30_000L, recovery.getTotalDurationMillis());
+    }
+
+    @Test
+    public void replay_deadlinePassedWhileDead_leavesNoTime() throws IOException {
+        startSession();
+        journal.flush();
+
+        clock.advance(40 * 60_000L);
+        SessionJournal.Recovery recovery = SessionJournal.replay(file, clock.currentTimeMillis());
+
+        assertEquals(SessionState.ACTIVE_WORK, recovery.getState());
+        assertEquals(0, recovery.getRemainingMillis());
+    }
+
+    @Test
+    public void replay_endedSession_recoversNothing() throws IOException {
+        startSession();
+        journal.flush();
+        journal.sessionEnded();
+        journal.flush();
+
+        assertNull(SessionJournal.replay(file, clock.currentTimeMillis()));
+        assertNull(SessionJournal.replay(new File(file.getPath() + ".missing"), clock.currentTimeMillis()));
+    }
+
+    @Test
+    public void replay_stopsAtTornRecord() throws IOException {
+        StudySession session = startSession();
+        clock.advance(60_000L);
+        journal.paused(24 * 60_000L);
+        journal.flush();
+        long intactLength = file.length();
+
+        journal.resumed();
+        journal.flush();
+
+        // Cut the last record short, as if the process died mid-write
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(intactLength + 3);
+        }
+
+        SessionJournal.Recovery recovery = SessionJournal.replay(file, clock.currentTimeMillis());
+        assertEquals(SessionState.PAUSED, recovery.getState());
+        assertEquals(24 * 60_000L, recovery.getRemainingMillis());
+        assertEquals(session.getStartTime(), recovery.getSession().getStartTime());
+    }
+
+    @Test
+    public void listener_calledOncePerBatch() throws IOException {
+        int[] flushRequests = new int[1];
+        journal.setListener(() -> flushRequests[0]++);
+
+        startSession();
+        journal.paused(60_000L);
+        assertEquals(1, flushRequests[0]);
+
+        journal.flush();
+        assertFalse(journal.hasPendingRecords());
+        journal.resumed();
+        assertEquals(2, flushRequests[0]);
+    }
+
+    @Test
+    public void cycleAdvanced_recoversBetweenCycles() throws IOException {
+        startSession();
+        journal.phaseFinished();
+        journal.cycleAdvanced(2, false, 7L);
+        journal.flush();
+
+        SessionJournal.Recovery recovery = SessionJournal.replay(file, clock.currentTimeMillis());
+        assertTrue(recovery.isAwaitingNextCycle());
+        assertFalse(recovery.isRoundComplete());
+        assertEquals(2, recovery.getSession().getCurrentCycle());
+        assertEquals(7L, recovery.getSession().getSessionId());
+    }
+
+    @Test
+    public void cycleAdvanced_newRound_recoversNewSessionId() throws IOException {
+        startSession();
+        journal.phaseFinished();
+        journal.cycleAdvanced(1, true, 8L);
+        journal.flush();
+
+        SessionJournal.Recovery recovery = SessionJournal.replay(file, clock.currentTimeMillis());
+        assertTrue(recovery.isRoundComplete());
+        assertEquals(8L, recovery.getSession().getSessionId());
+    }
+}
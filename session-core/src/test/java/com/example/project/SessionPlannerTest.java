@@ -0,0 +1,82 @@
+package com.example.project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the session timeline planner
+ */
+public class SessionPlannerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final TechniqueRegistry registry = TechniqueRegistry.createDefault(false);
+
+    @Test
+    public void pomodoro_plansFullRoundWithLongBreak() {
+        TechniqueSpec pomodoro = registry.get(TechniqueRegistry.ID_POMODORO);
+        SessionTimeline timeline = SessionPlanner.plan(pomodoro, pomodoro.getWorkMillis(), 1);
+        timeline.start(0);
+
+        assertEquals(8, timeline.size());
+        assertEquals(SessionTimeline.PHASE_LONG_BREAK, timeline.getPhaseType(7));
+        assertEquals(4, timeline.getCycle(7));
+        assertEquals(4 * 25 * MINUTE + 3 * 5 * MINUTE + 25 * MINUTE, timeline.getEndMillis());
+
+        // Planning from cycle 3 only covers the rest of the round
+        assertEquals(4, SessionPlanner.plan(pomodoro, pomodoro.getWorkMillis(), 3).size());
+    }
+
+    @Test
+    public void deadline_plansSingleWorkPhase() {
+        TechniqueSpec deadline = registry.get(TechniqueRegistry.ID_DEADLINE);
+        SessionTimeline timeline = SessionPlanner.plan(deadline, 40 * MINUTE, 1);
+        timeline.start(1_000);
+
+        assertEquals(1, timeline.size());
+        assertFalse(timeline.isNextBreak());
+        assertEquals(1_000 + 40 * MINUTE, timeline.getCurrentDeadlineMillis());
+        assertFalse(timeline.advance());
+    }
+
+    @Test
+    public void advance_usesPrecomputedDeadlines() {
+        TechniqueSpec spec = registry.get(TechniqueRegistry.ID_5217);
+        SessionTimeline timeline = SessionPlanner.plan(spec, spec.getWorkMillis(), 1);
+        timeline.start(0);
+
+        assertTrue(timeline.isNextBreak());
+        assertTrue(timeline.advance());
+        assertTrue(timeline.isCurrentBreak());
+        assertEquals(52 * MINUTE, timeline.getStartMillis(1));
+        assertEquals(69 * MINUTE, timeline.getCurrentDeadlineMillis());
+    }
+
+    @Test
+    public void pauseExtendAndSkip_rebaseRemainingPhases() {
+        TechniqueSpec pomodoro = registry.get(TechniqueRegistry.ID_POMODORO);
+        SessionTimeline timeline = SessionPlanner.plan(pomodoro, pomodoro.getWorkMillis(), 1);
+        timeline.start(0);
+        long plannedEnd = timeline.getEndMillis();
+
+        // Paused for 2 minutes during the first work phase
+        timeline.pause(10 * MINUTE);
+        timeline.resume(12 * MINUTE);
+        assertEquals(27 * MINUTE, timeline.getCurrentDeadlineMillis());
+        assertEquals(plannedEnd + 2 * MINUTE, timeline.getEndMillis());
+
+        // Break starts late (completion dialog), then is extended by 5 minutes
+        timeline.advance();
+        timeline.rebaseCurrentStart(28 * MINUTE);
+        timeline.extendCurrent(5 * MINUTE);
+        assertEquals(38 * MINUTE, timeline.getCurrentDeadlineMillis());
+        assertEquals(plannedEnd + 8 * MINUTE, timeline.getEndMillis());
+
+        // Break skipped 1 minute in - the next work phase starts right away
+        assertTrue(timeline.skipCurrent(29 * MINUTE));
+        assertEquals(SessionTimeline.PHASE_WORK, timeline.getCurrentPhaseType());
+        assertEquals(29 * MINUTE, timeline.getStartMillis(timeline.getIndex()));
+        assertEquals(54 * MINUTE, timeline.getCurrentDeadlineMillis());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM benchmark for the multi-session scheduler: 10k concurrent sessions on a virtual clock
+ * Asserts that every phase of every session ran on time, and the number of polls it took
+ */
+public class SessionSchedulerBenchmarkTest {
+
+    private static final int SESSION_COUNT = 10_000;
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+
+    @Test
+    public void tenThousandPomodoroRounds() {
+        VirtualClock clock = new VirtualClock();
+        TechniqueRegistry registry = TechniqueRegistry.createDefault(false);
+        TechniqueSpec pomodoro = registry.get(TechniqueRegistry.ID_POMODORO);
+        SessionScheduler scheduler = new SessionScheduler(clock);
+
+        final int[] phaseStarts = {0};
+        final int[] finished = {0};
+        final long[] maxLatenessMillis = {0};
+        scheduler.setListener(new SessionScheduler.Listener() {
+            @Override
+            public void onPhaseStarted(SessionScheduler.ScheduledSession session) {
+                phaseStarts[0]++;
+                SessionTimeline timeline = session.getTimeline();
+                long lateness = clock.elapsedRealtime() - timeline.getStartMillis(timeline.getIndex());
+                maxLatenessMillis[0] = Math.max(maxLatenessMillis[0], lateness);
+            }
+
+            @Override
+            public void onSessionFinished(SessionScheduler.ScheduledSession session) {
+                finished[0]++;
+            }
+        });
+
+        // Sessions join over the first 10 minutes (one every 60 ms)
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            clock.advanceTo(i * 60L);
+            scheduler.poll();
+            StudySession session = new StudySession("Pomodoro", "Subject " + (i % 50), "Task " + i,
+                pomodoro.getWorkMillis(), pomodoro.getBreakMillis(), clock.currentTimeMillis());
+            scheduler.add(session, pomodoro, pomodoro.getWorkMillis());
+        }
+        assertEquals(SESSION_COUNT, scheduler.getPendingCount());
+
+        // Every 10th session pauses for 3 minutes during its first work phase
+        clock.advanceTo(11 * MINUTE);
+        scheduler.poll();
+        for (int id = 1; id <= SESSION_COUNT; id += 10) {
+            assertTrue(scheduler.pause(id));
+        }
+        clock.advanceTo(14 * MINUTE);
+        scheduler.poll();
+        for (int id = 1; id <= SESSION_COUNT; id += 10) {
+            assertTrue(scheduler.resume(id));
+        }
+
+        // Run the rest of the round (4 x 25 min work, 3 x 5 min break, 25 min long break) in 1 s steps
+        long end = 4 * 60 * MINUTE;
+        int polls = 0;
+        while (clock.elapsedRealtime() < end) {
+            clock.advance(SECOND);
+            scheduler.poll();
+            polls++;
+        }
+
+        // One poll per second from minute 14 to the end of the round
+        assertEquals((end - 14 * MINUTE) / SECOND, polls);
+        assertEquals(SESSION_COUNT, finished[0]);
+        assertEquals(SESSION_COUNT * 8, phaseStarts[0]);
+        assertEquals(0, scheduler.getPendingCount());
+        // Phases start within one poll interval of their planned start
+        assertTrue("max lateness " + maxLatenessMillis[0], maxLatenessMillis[0] <= SECOND);
+        for (int id = 1; id <= SESSION_COUNT; id++) {
+            assertEquals(SessionState.COMPLETED, scheduler.get(id).getState());
+        }
+    }
+}
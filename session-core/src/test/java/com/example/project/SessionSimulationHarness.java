@@ -0,0 +1,133 @@
+package com.example.project;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Virtual-time driver for full technique lifecycles (test support)
+ * Follows the same steps as MainActivity - plan the round, run the work phase, record the
+ * CompletedSession, show the completion dialog, run the planned break, start the next cycle -
+ * but on a VirtualClock with production durations, so a 4-cycle Pomodoro runs in microseconds
+ */
+class SessionSimulationHarness {
+
+    // Delay between work completion and break start (completion dialog in MainActivity)
+    static final long TRANSITION_DELAY_MILLIS = 2500;
+
+    // Wall-clock start of every simulation (2025-01-06 09:00 UTC, a Monday)
+    static final long WALL_START_MILLIS = 1_736_154_000_000L;
+
+    final VirtualClock clock = new VirtualClock(WALL_START_MILLIS);
+    final TechniqueRegistry registry = TechniqueRegistry.createDefault(false);
+    final SessionStateMachine machine = new SessionStateMachine(clock);
+
+    // Newest first, like MainActivity's completed session list
+    final List<CompletedSession> completedSessions = new ArrayList<>();
+
+    private StudySession session;
+    private TechniqueSpec spec;
+    private SessionTimeline timeline;
+
+    /**
+     * Creates a session with the technique's own work length and starts its first work phase
+     */
+    StudySession start(String technique, String subject, String task) {
+        return start(technique, subject, task, registry.getOrCustom(technique).getWorkMillis());
+    }
+
+    /**
+     * Creates a session with the given work length (Deadline, Custom Goal) and starts it
+     */
+    StudySession start(String technique, String subject, String task, long workMillis) {
+        spec = registry.getOrCustom(technique);
+        session = new StudySession(technique, subject, task, workMillis, spec.getBreakMillis(),
+            clock.currentTimeMillis());
+        machine.setSession(session);
+        startWork();
+        return session;
+    }
+
+    /**
+     * Runs until the current phase ends and handles the transition
+     * Work end: record the cycle, then start the planned break after the completion dialog
+     * Break end: the session waits for nextCycle() (the "Start Next Session" button)
+     */
+    void finishPhase() {
+        clock.advanceTo(machine.getCountdown().getDeadlineMillis());
+        if (!machine.poll()) {
+            throw new AssertionError("Phase did not end at its deadline");
+        }
+        if (!timeline.isCurrentBreak()) {
+            completedSessions.add(0, CompletedSession.fromStudySession(session, clock.currentTimeMillis()));
+            if (timeline.isNextBreak()) {
+                clock.advance(TRANSITION_DELAY_MILLIS);
+                timeline.advance();
+                timeline.rebaseCurrentStart(clock.elapsedRealtime());
+                machine.startBreak(timeline.getCurrentDurationMillis());
+            }
+        }
+    }
+
+    /**
+     * Runs the current phase for a while without reaching its deadline
+     */
+    void runFor(long millis) {
+        if (clock.elapsedRealtime() + millis >= machine.getCountdown().getDeadlineMillis()) {
+            throw new AssertionError("runFor would end the phase - use finishPhase()");
+        }
+        clock.advance(millis);
+    }
+
+    /**
+     * Pauses the running phase for the given time, then resumes it
+     */
+    void pauseFor(long millis) {
+        machine.pause();
+        timeline.pause(clock.elapsedRealtime());
+        clock.advance(millis);
+        timeline.resume(clock.elapsedRealtime());
+        machine.resume();
+    }
+
+    /**
+     * Extend Break (5 minutes)
+     */
+    void extendBreak() {
+        long extension = registry.getBreakExtensionMillis();
+        machine.getCountdown().extend(extension);
+        timeline.extendCurrent(extension);
+    }
+
+    /**
+     * Skip Break - ends the break now and starts the next cycle
+     */
+    void skipBreak() {
+        machine.getCountdown().cancel();
+        timeline.skipCurrent(clock.elapsedRealtime());
+        nextCycle();
+    }
+
+    /**
+     * Start Next Session - moves to the next cycle (or back to cycle 1 after a full round)
+     */
+    void nextCycle() {
+        if (spec.isLastCycleOfRound(session.getCurrentCycle())) {
+            session.resetCycle();
+        } else {
+            session.incrementCycle();
+        }
+        startWork();
+    }
+
+    SessionTimeline getTimeline() {
+        return timeline;
+    }
+
+    private void startWork() {
+        timeline = SessionPlanner.plan(spec, session.getWorkDurationMillis(), session.getCurrentCycle());
+        timeline.start(clock.elapsedRealtime());
+        if (!machine.startWork(timeline.getCurrentDurationMillis())) {
+            throw new AssertionError("Cannot start work from " + machine.getState());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.project;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the headless session engine, driven by a VirtualClock
+ */
+public class SessionStateMachineTest {
+
+    private VirtualClock clock;
+    private SessionStateMachine machine;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(1_000_000L);
+        machine = new SessionStateMachine(clock);
+    }
+
+    @Test
+    public void transitionTable_rejectsInvalidTransitions() {
+        assertFalse(SessionState.IDLE.canTransitionTo(SessionState.PAUSED));
+        assertFalse(SessionState.READY.canTransitionTo(SessionState.COMPLETED));
+        assertTrue(SessionState.PAUSED.canTransitionTo(SessionState.ACTIVE_BREAK));
+        assertTrue(SessionState.COMPLETED.canTransitionTo(SessionState.COMPLETED));
+
+        assertFalse(machine.transitionTo(SessionState.PAUSED));
+        assertEquals(SessionState.IDLE, machine.getState());
+    }
+
+    @Test
+    public void workPhase_completesAtDeadline() {
+        assertTrue(machine.startWork(25_000));
+        assertEquals(SessionState.ACTIVE_WORK, machine.getState());
+
+        clock.advance(24_999);
+        assertFalse(machine.poll());
+        assertEquals(1, machine.getCountdown().getRemainingMillis());
+
+        clock.advance(1);
+        assertTrue(machine.poll());
+        assertEquals(SessionState.COMPLETED, machine.getState());
+    }
+
+    @Test
+    public void pauseAndResume_freezeRemainingTime() {
+        machine.startWork(25_000);
+        assertFalse(machine.transitionTo(SessionState.READY));
+        assertTrue(machine.startBreak(10_000));
+        clock.advance(4_000);
+        assertTrue(machine.pause());
+        assertEquals(SessionState.PAUSED, machine.getState());
+        assertEquals(SessionState.ACTIVE_BREAK, machine.getStateBeforePause());
+
+        clock.advance(60_000); // Time spent paused does not count
+        assertEquals(6_000, machine.getCountdown().getRemainingMillis());
+        assertFalse(machine.poll());
+
+        assertTrue(machine.resume());
+        assertEquals(SessionState.ACTIVE_BREAK, machine.getState());
+        assertNull(machine.getStateBeforePause());
+
+        clock.advance(6_000);
+        assertTrue(machine.poll());
+    }
+
+    @Test
+    public void extendBreak_movesDeadline() {
+        assertFalse(machine.startBreak(10_000)); // No break straight from IDLE
+        machine.startWork(25_000);
+        machine.startBreak(10_000);
+        clock.advance(9_000);
+        machine.getCountdown().extend(30_000);
+        assertEquals(40_000, machine.getCountdown().getTotalDurationMillis());
+
+        clock.advance(1_000);
+        assertFalse(machine.poll());
+        assertEquals(30_000, machine.getCountdown().getRemainingMillis());
+    }
+
+    @Test
+    public void attachedSession_isKeptInSync() {
+        StudySession session = new StudySession("Pomodoro", "Math", "Algebra", 25 * 60_000L, 5 * 60_000L,
+            clock.currentTimeMillis());
+        machine.setSession(session);
+        clock.advance(500);
+        machine.startWork(25_000);
+        assertEquals(SessionState.ACTIVE_WORK, session.getState());
+        assertEquals(clock.currentTimeMillis(), session.getCycleStartTime());
+
+        clock.advance(5_000);
+        machine.pause();
+        assertTrue(session.isPaused());
+        assertEquals(20_000, session.getRemainingTimeMillis());
+
+        machine.reset();
+        assertEquals(SessionState.IDLE, machine.getState());
+        assertNull(machine.getSession());
+    }
+
+    @Test
+    public void simulatesManySessionsWithoutWaiting() {
+        int completed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            machine.startWork(25 * 60_000L);
+            clock.advance(25 * 60_000L);
+            if (machine.poll()) {
+                completed++;
+            }
+            machine.startBreak(5 * 60_000L);
+            clock.advance(5 * 60_000L);
+            machine.poll();
+            machine.reset();
+        }
+        assertEquals(10_000, completed);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.project;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Full technique lifecycles at production durations, run on a VirtualClock
+ */
+public class TechniqueLifecycleSimulationTest {
+
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+
+    private SessionSimulationHarness harness;
+
+    @Before
+    public void setUp() {
+        harness = new SessionSimulationHarness();
+    }
+
+    @Test
+    public void pomodoro_fullRoundEndsWithLongBreak() {
+        harness.start("Pomodoro", "Mathematics", "Cycle 1");
+        for (int cycle = 1; cycle <= 4; cycle++) {
+            assertEquals(cycle, harness.machine.getSession().getCurrentCycle());
+            harness.finishPhase(); // Work
+            assertEquals(SessionState.ACTIVE_BREAK, harness.machine.getState());
+            assertEquals(cycle == 4, harness.getTimeline().isCurrentLongBreak());
+            assertEquals(cycle == 4 ? 25 * MINUTE : 5 * MINUTE, harness.getTimeline().getCurrentDurationMillis());
+            harness.finishPhase(); // Break
+            assertEquals(SessionState.COMPLETED, harness.machine.getState());
+            harness.nextCycle();
+        }
+
+        // A new round starts at cycle 1
+        assertEquals(1, harness.machine.getSession().getCurrentCycle());
+        assertEquals(4, harness.completedSessions.size());
+        for (int i = 0; i < 4; i++) {
+            CompletedSession record = harness.completedSessions.get(i);
+            assertEquals(4 - i, record.getCycle()); // Newest first
+            assertEquals(25 * MINUTE, record.getTimeSpentMillis());
+            assertEquals(25 * MINUTE, record.getSetDurationMillis());
+            assertTrue(record.isPomodoro());
+        }
+        assertEquals("25 minutes", harness.completedSessions.get(0).getFormattedTimeSpent());
+    }
+
+    @Test
+    public void fiftyTwoSeventeen_pauseCountsTowardsTimeSpent() {
+        harness.start("52/17", "Physics", "Problem set");
+        harness.runFor(20 * MINUTE);
+        harness.pauseFor(8 * MINUTE);
+        assertEquals(32 * MINUTE, harness.machine.getCountdown().getRemainingMillis());
+        harness.finishPhase();
+
+        CompletedSession record = harness.completedSessions.get(0);
+        assertEquals(60 * MINUTE, record.getTimeSpentMillis()); // Measured from cycle start, pause included
+        assertEquals(52 * MINUTE, record.getSetDurationMillis());
+        assertEquals(1, record.getCycle());
+
+        assertEquals(17 * MINUTE, harness.getTimeline().getCurrentDurationMillis());
+        harness.finishPhase();
+        assertEquals(SessionState.COMPLETED, harness.machine.getState());
+    }
+
+    @Test
+    public void ninetyMinute_extendedBreakMovesDeadline() {
+        harness.start("90-Minute", "History", "Essay");
+        harness.finishPhase();
+        long breakStart = harness.clock.elapsedRealtime();
+        harness.runFor(20 * MINUTE);
+        harness.extendBreak();
+        harness.finishPhase();
+
+        assertEquals(breakStart + 30 * MINUTE, harness.clock.elapsedRealtime());
+        assertEquals(SessionState.COMPLETED, harness.machine.getState());
+        assertEquals(90 * MINUTE, harness.completedSessions.get(0).getTimeSpentMillis());
+        assertEquals("1 hour and 30 minutes", harness.completedSessions.get(0).getFormattedTimeSpent());
+    }
+
+    @Test
+    public void sprint_skippedBreaksAndRoundReset() {
+        harness.start("Sprint", "Chemistry", "Flashcards");
+        for (int cycle = 1; cycle <= 4; cycle++) {
+            harness.finishPhase();
+            assertEquals(2 * MINUTE, harness.getTimeline().getCurrentDurationMillis());
+            assertFalse(harness.getTimeline().isCurrentLongBreak());
+            harness.runFor(30 * SECOND);
+            harness.skipBreak();
+        }
+        assertEquals(1, harness.machine.getSession().getCurrentCycle());
+        assertEquals(SessionState.ACTIVE_WORK, harness.machine.getState());
+
+        assertEquals(4, harness.completedSessions.size());
+        assertEquals(12 * MINUTE, harness.completedSessions.get(3).getTimeSpentMillis());
+        // Cycle 2 started right when cycle 1's break was skipped
+        long cycle1End = harness.completedSessions.get(3).getCompletionTimestamp();
+        long cycle2End = harness.completedSessions.get(2).getCompletionTimestamp();
+        assertEquals(SessionSimulationHarness.TRANSITION_DELAY_MILLIS + 30 * SECOND + 12 * MINUTE,
+            cycle2End - cycle1End);
+    }
+
+    @Test
+    public void deadline_singleWorkPhaseWithoutBreak() {
+        harness.start("Deadline", "Thesis", "Chapter 3", 40 * MINUTE);
+        assertEquals(1, harness.getTimeline().size());
+        harness.finishPhase();
+
+        assertEquals(SessionState.COMPLETED, harness.machine.getState());
+        assertEquals(1, harness.completedSessions.size());
+        CompletedSession record = harness.completedSessions.get(0);
+        assertEquals(40 * MINUTE, record.getSetDurationMillis());
+        assertEquals(SessionSimulationHarness.WALL_START_MILLIS + 40 * MINUTE, record.getCompletionTimestamp());
+        assertEquals("40 minutes", record.getFormattedSetDuration());
+    }
+}
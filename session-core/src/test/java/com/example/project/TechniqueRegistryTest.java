@@ -0,0 +1,55 @@
+package com.example.project;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the technique schedule registry
+ */
+public class TechniqueRegistryTest {
+
+    @Test
+    public void defaultRegistry_resolvesByIdAndName() {
+        TechniqueRegistry registry = TechniqueRegistry.createDefault(false);
+        TechniqueSpec pomodoro = registry.get("Pomodoro");
+        assertSame(pomodoro, registry.get(TechniqueRegistry.ID_POMODORO));
+        assertEquals(25, registry.toUnits(pomodoro.getWorkMillis()));
+        assertEquals(5, registry.toUnits(pomodoro.getBreakMillis()));
+        assertEquals(TechniqueRegistry.ID_CUSTOM, registry.getOrCustom("Unknown").getId());
+        assertNull(registry.get(99));
+    }
+
+    @Test
+    public void longBreak_onlyAfterLastCycleOfRound() {
+        TechniqueRegistry registry = TechniqueRegistry.createDefault(true);
+        TechniqueSpec pomodoro = registry.get(TechniqueRegistry.ID_POMODORO);
+        assertEquals(30_000, pomodoro.getBreakMillisAfterCycle(3));
+        assertEquals(120_000, pomodoro.getBreakMillisAfterCycle(4));
+
+        // Sprint has rounds of 4 cycles but no longer break
+        TechniqueSpec sprint = registry.get(TechniqueRegistry.ID_SPRINT);
+        assertTrue(sprint.isLastCycleOfRound(4));
+        assertFalse(sprint.hasLongBreak());
+    }
+
+    @Test
+    public void sprintBreak_roundsUpToWholeMinutes() {
+        TechniqueRegistry registry = TechniqueRegistry.createDefault(false);
+        assertEquals(2, registry.toUnits(registry.get("Sprint").getBreakMillis()));
+    }
+
+    @Test
+    public void register_assignsNextIdAndRejectsDuplicates() {
+        TechniqueRegistry registry = TechniqueRegistry.createDefault(false);
+        TechniqueSpec custom = registry.register("Flowtime", 45 * 60_000L, 10 * 60_000L, 10 * 60_000L, 0, "");
+        assertEquals(TechniqueRegistry.ID_CUSTOM + 1, custom.getId());
+        assertSame(custom, registry.get("Flowtime"));
+        try {
+            registry.register("Flowtime", 0, 0, 0, 0, "");
+            fail("Duplicate technique accepted");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+}
@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "Project"
 include(":app")
+include(":session-core")
  
\ No newline at end of file